@@ -2,13 +2,21 @@ package com.flightapp.controller;
 
 import com.flightapp.dto.BookingRequestDTO;
 import com.flightapp.dto.BookingResponseDTO;
+import com.flightapp.dto.BookingStatusDTO;
+import com.flightapp.dto.SeatHoldRequestDTO;
+import com.flightapp.dto.SeatHoldResponseDTO;
 import com.flightapp.exception.ValidationException;
 import com.flightapp.service.BookingService;
+import com.flightapp.service.SeatService;
+import com.flightapp.service.idempotency.IdempotencyService;
+import com.flightapp.service.pipeline.BookingPipeline;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import java.net.URI;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -20,40 +28,126 @@ import java.util.Map;
 @Slf4j
 public class BookingController {
     
+    private static final String STATUS_PATH = "/v1.0/flight/booking/status/{requestId}";
+    private static final long MAX_STATUS_WAIT_MS = 30000;
+    
     private final BookingService bookingService;
+    private final SeatService seatService;
+    private final IdempotencyService idempotencyService;
+    private final BookingPipeline bookingPipeline;
     
     @PostMapping("/{flightId}")
     public ResponseEntity<BookingResponseDTO> bookFlight(
         @PathVariable Integer flightId,
+        @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
         @RequestBody BookingRequestDTO request) {
         
         log.info("Processing booking for flight {}", flightId);
+        validateBookingRequest(flightId, request);
+        
+        //A retried request with the same key gets the original booking back instead of a second one
+        BookingResponseDTO booking = idempotencyService.execute(idempotencyKey, "book:" + flightId, request,
+            BookingResponseDTO.class, complete -> bookingService.bookFlight(flightId, request, complete));
+        log.info("Booking created with PNR: {}", booking.getPnrNumber());
+        return ResponseEntity.status(HttpStatus.CREATED).body(booking);
+    }
+    
+    @PostMapping("/async/{flightId}")
+    public ResponseEntity<BookingStatusDTO> bookFlightAsync(
+        @PathVariable Integer flightId,
+        @RequestBody BookingRequestDTO request) {
+        
+        log.info("Queueing booking for flight {}", flightId);
+        validateBookingRequest(flightId, request);
+        
+        String requestId = bookingPipeline.submit(flightId, request);
+        URI statusUri = statusUri(requestId);
+        BookingStatusDTO status = BookingStatusDTO.builder()
+            .requestId(requestId)
+            .flightId(flightId)
+            .status(BookingPipeline.PENDING)
+            .statusUrl(statusUri.toString())
+            .build();
+        return ResponseEntity.accepted().location(statusUri).body(status);
+    }
+    
+    //waitMs > 0 long-polls until the booking finishes or the wait runs out
+    @GetMapping("/status/{requestId}")
+    public ResponseEntity<BookingStatusDTO> getBookingStatus(
+        @PathVariable String requestId,
+        @RequestParam(defaultValue = "0") long waitMs) {
+        
+        if (requestId == null || requestId.trim().isEmpty()) {
+            throw new ValidationException("Request ID cannot be empty");
+        }
+        if (waitMs < 0 || waitMs > MAX_STATUS_WAIT_MS) {
+            throw new ValidationException("waitMs must be between 0 and " + MAX_STATUS_WAIT_MS);
+        }
+        
+        BookingStatusDTO status = bookingPipeline.getStatus(requestId, waitMs);
+        status.setStatusUrl(statusUri(requestId).toString());
+        return ResponseEntity.ok(status);
+    }
+    
+    @PostMapping("/hold/{flightId}")
+    public ResponseEntity<SeatHoldResponseDTO> holdSeats(
+        @PathVariable Integer flightId,
+        @RequestBody SeatHoldRequestDTO request) {
+        
+        log.info("Holding seats on flight {}", flightId);
         
         if (flightId == null || flightId <= 0) {
             throw new ValidationException("Invalid flight ID");
         }
+        if (request == null || request.getNumberOfSeats() == null || request.getNumberOfSeats() <= 0) {
+            throw new ValidationException("Number of seats must be greater than 0");
+        }
+        
+        SeatHoldResponseDTO hold = seatService.holdSeats(flightId, request.getNumberOfSeats(), request.getSeatClass());
+        return ResponseEntity.status(HttpStatus.CREATED).body(hold);
+    }
+    
+    @PostMapping("/hold/{holdId}/confirm")
+    public ResponseEntity<BookingResponseDTO> confirmHold(
+        @PathVariable String holdId,
+        @RequestBody BookingRequestDTO request) {
+        
+        log.info("Confirming seat hold {}", holdId);
         
+        if (holdId == null || holdId.trim().isEmpty()) {
+            throw new ValidationException("Hold ID cannot be empty");
+        }
         if (request == null) {
             throw new ValidationException("Booking request cannot be null");
         }
         if (request.getUserEmail() == null || request.getUserEmail().trim().isEmpty()) {
             throw new ValidationException("User email is required");
         }
-        if (request.getNumberOfPassengers() == null || request.getNumberOfPassengers() <= 0) {
-            throw new ValidationException("Number of passengers must be greater than 0");
-        }
         if (request.getPassengers() == null || request.getPassengers().isEmpty()) {
             throw new ValidationException("Passenger details are required");
         }
-        if (request.getPassengers().size() != request.getNumberOfPassengers()) {
-            throw new ValidationException("Passenger count mismatch");
-        }
         
-        BookingResponseDTO booking = bookingService.bookFlight(flightId, request);
+        BookingResponseDTO booking = bookingService.confirmHold(holdId, request);
         log.info("Booking created with PNR: {}", booking.getPnrNumber());
         return ResponseEntity.status(HttpStatus.CREATED).body(booking);
     }
     
+    @DeleteMapping("/hold/{holdId}")
+    public ResponseEntity<Map<String, Object>> releaseHold(@PathVariable String holdId) {
+        log.info("Releasing seat hold {}", holdId);
+        
+        if (holdId == null || holdId.trim().isEmpty()) {
+            throw new ValidationException("Hold ID cannot be empty");
+        }
+        
+        seatService.releaseHold(holdId);
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", "Seat hold released successfully");
+        response.put("holdId", holdId);
+        return ResponseEntity.ok(response);
+    }
+    
     @GetMapping("/ticket/{pnr}")
     public ResponseEntity<BookingResponseDTO> getTicket(@PathVariable String pnr) {
         log.info("Fetching booking for PNR: {}", pnr);
@@ -97,4 +191,34 @@ public class BookingController {
         log.info("Booking cancelled: {}", pnr);
         return ResponseEntity.ok(response);
     }
+    
+    //Built from the current request so the servlet context path (/api) is part of the link
+    private static URI statusUri(String requestId) {
+        return ServletUriComponentsBuilder.fromCurrentContextPath()
+            .path(STATUS_PATH)
+            .buildAndExpand(requestId)
+            .toUri();
+    }
+    
+    private void validateBookingRequest(Integer flightId, BookingRequestDTO request) {
+        if (flightId == null || flightId <= 0) {
+            throw new ValidationException("Invalid flight ID");
+        }
+        
+        if (request == null) {
+            throw new ValidationException("Booking request cannot be null");
+        }
+        if (request.getUserEmail() == null || request.getUserEmail().trim().isEmpty()) {
+            throw new ValidationException("User email is required");
+        }
+        if (request.getNumberOfPassengers() == null || request.getNumberOfPassengers() <= 0) {
+            throw new ValidationException("Number of passengers must be greater than 0");
+        }
+        if (request.getPassengers() == null || request.getPassengers().isEmpty()) {
+            throw new ValidationException("Passenger details are required");
+        }
+        if (request.getPassengers().size() != request.getNumberOfPassengers()) {
+            throw new ValidationException("Passenger count mismatch");
+        }
+    }
 }
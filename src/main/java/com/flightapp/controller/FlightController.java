@@ -1,17 +1,40 @@
 package com.flightapp.controller;
 
+import com.flightapp.dto.BatchSearchResultDTO;
+import com.flightapp.dto.ConnectingItineraryDTO;
+import com.flightapp.dto.DestinationFareDTO;
+import com.flightapp.dto.FareCalendarDayDTO;
 import com.flightapp.dto.FlightResponseDTO;
 import com.flightapp.dto.FlightSearchDTO;
+import com.flightapp.dto.FlightSearchPageDTO;
+import com.flightapp.dto.RoundTripItineraryDTO;
 import com.flightapp.exception.ValidationException;
+import com.flightapp.service.AirportService;
 import com.flightapp.service.FlightService;
+import com.flightapp.service.search.BatchSearchService;
+import com.flightapp.service.search.RoundTripSearchService;
+import com.flightapp.service.search.RouteGraph;
+import com.flightapp.validation.ValidationUtils;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.HashMap;
+import com.flightapp.entity.Airport;
 import com.flightapp.entity.Flight;
 
 
@@ -23,6 +46,10 @@ import com.flightapp.entity.Flight;
 public class FlightController {
     
     private final FlightService flightService;
+    private final AirportService airportService;
+    private final RoundTripSearchService roundTripSearchService;
+    private final BatchSearchService batchSearchService;
+    private final ObjectMapper objectMapper;
  
     @PostMapping("/airline/inventory/add")
     public ResponseEntity<Map<String, Object>> addFlightInventory(@RequestBody Flight flight) {
@@ -48,26 +75,165 @@ public class FlightController {
     }
 
     
+    //Airports place cities on the map for the nearby city search
+    @PostMapping("/airport/add")
+    public ResponseEntity<Map<String, Object>> addAirport(@RequestBody Airport airport) {
+        log.info("Adding new airport: {}", airport.getAirportCode());
+        
+        try {
+            Airport addedAirport = airportService.addAirport(airport);
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", "Airport added successfully");
+            response.put("airportId", addedAirport.getAirportId());
+            response.put("airportCode", addedAirport.getAirportCode());
+            response.put("airportName", addedAirport.getAirportName());
+            response.put("city", addedAirport.getCity());
+            
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException(e.getMessage());
+        }
+    }
+    
     @PostMapping("/search")
     public ResponseEntity<List<FlightResponseDTO>> searchFlights(@RequestBody FlightSearchDTO searchDTO) {
         log.info("Searching flights from {} to {}", searchDTO.getDepartureCity(), searchDTO.getArrivalCity());
         
-        if (searchDTO.getDepartureCity() == null || searchDTO.getDepartureCity().trim().isEmpty()) {
+        ValidationUtils.validateSearchRequest(searchDTO);
+        
+        List<FlightResponseDTO> flights = flightService.searchFlights(searchDTO);
+        log.info("Found {} flights", flights.size());
+        return ResponseEntity.ok(flights);
+    }
+    
+    @PostMapping("/search/page")
+    public ResponseEntity<FlightSearchPageDTO> searchFlightPage(@RequestBody FlightSearchDTO searchDTO) {
+        log.info("Searching flight page from {} to {}", searchDTO.getDepartureCity(), searchDTO.getArrivalCity());
+        
+        ValidationUtils.validateSearchRequest(searchDTO);
+        
+        return ResponseEntity.ok(flightService.searchFlightPage(searchDTO));
+    }
+    
+    //Writes the JSON array element by element as rows arrive, instead of building the list first
+    @PostMapping("/search/stream")
+    public ResponseEntity<StreamingResponseBody> streamFlights(@RequestBody FlightSearchDTO searchDTO) {
+        log.info("Streaming flights from {} to {}", searchDTO.getDepartureCity(), searchDTO.getArrivalCity());
+        
+        ValidationUtils.validateSearchRequest(searchDTO);
+        
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator json = objectMapper.createGenerator(out)) {
+                json.writeStartArray();
+                int written = flightService.streamFlights(searchDTO, flight -> {
+                    try {
+                        writer.writeValue(json, flight);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                json.writeEndArray();
+                log.info("Streamed {} flights", written);
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+    
+    @PostMapping("/search/batch")
+    public ResponseEntity<List<BatchSearchResultDTO>> searchBatch(@RequestBody List<FlightSearchDTO> searches) {
+        log.info("Searching batch of {} searches", searches == null ? 0 : searches.size());
+        
+        if (searches == null || searches.isEmpty() || searches.size() > BatchSearchService.MAX_BATCH_SIZE) {
+            throw new ValidationException("A batch must contain between 1 and " + BatchSearchService.MAX_BATCH_SIZE + " searches");
+        }
+        if (searches.stream().anyMatch(Objects::isNull)) {
+            throw new ValidationException("Batch searches must not be null");
+        }
+        
+        return ResponseEntity.ok(batchSearchService.searchAll(searches));
+    }
+    
+    @PostMapping("/search/round-trip")
+    public ResponseEntity<List<RoundTripItineraryDTO>> searchRoundTrip(@RequestBody FlightSearchDTO searchDTO) {
+        log.info("Searching round trips between {} and {}", searchDTO.getDepartureCity(), searchDTO.getArrivalCity());
+        
+        ValidationUtils.validateSearchRequest(searchDTO);
+        if (searchDTO.getReturnDate() == null) {
+            throw new ValidationException("Return date is required");
+        }
+        if (searchDTO.getReturnDate().isBefore(searchDTO.getDepartureDate())) {
+            throw new ValidationException("Return date must not be before departure date");
+        }
+        if (searchDTO.getMaxCombinations() != null && (searchDTO.getMaxCombinations() <= 0
+                || searchDTO.getMaxCombinations() > RoundTripSearchService.MAX_COMBINATIONS)) {
+            throw new ValidationException("Max combinations must be between 1 and "
+                + RoundTripSearchService.MAX_COMBINATIONS);
+        }
+        
+        List<RoundTripItineraryDTO> itineraries = roundTripSearchService.searchRoundTrip(searchDTO);
+        log.info("Found {} round-trip itineraries", itineraries.size());
+        return ResponseEntity.ok(itineraries);
+    }
+    
+    @PostMapping("/search/connections")
+    public ResponseEntity<List<ConnectingItineraryDTO>> searchConnections(@RequestBody FlightSearchDTO searchDTO) {
+        log.info("Searching itineraries from {} to {}", searchDTO.getDepartureCity(), searchDTO.getArrivalCity());
+        
+        ValidationUtils.validateSearchRequest(searchDTO);
+        if (searchDTO.getMaxStops() != null
+                && (searchDTO.getMaxStops() < 0 || searchDTO.getMaxStops() > RouteGraph.MAX_STOPS)) {
+            throw new ValidationException("Max stops must be between 0 and " + RouteGraph.MAX_STOPS);
+        }
+        
+        List<ConnectingItineraryDTO> itineraries = flightService.searchConnections(searchDTO);
+        log.info("Found {} itineraries", itineraries.size());
+        return ResponseEntity.ok(itineraries);
+    }
+    
+    @PostMapping("/search/fare-calendar")
+    public ResponseEntity<List<FareCalendarDayDTO>> getFareCalendar(@RequestBody FlightSearchDTO searchDTO) {
+        log.info("Fetching fare calendar from {} to {}", searchDTO.getDepartureCity(), searchDTO.getArrivalCity());
+        
+        ValidationUtils.validateSearchRequest(searchDTO);
+        if (searchDTO.getFlexDays() != null
+                && (searchDTO.getFlexDays() < 0 || searchDTO.getFlexDays() > FlightService.MAX_FLEX_DAYS)) {
+            throw new ValidationException("Flex days must be between 0 and " + FlightService.MAX_FLEX_DAYS);
+        }
+        
+        return ResponseEntity.ok(flightService.getFareCalendar(searchDTO));
+    }
+    
+    @GetMapping("/explore")
+    public ResponseEntity<List<DestinationFareDTO>> exploreDestinations(@RequestParam String departureCity,
+                                                                        @RequestParam String month) {
+        log.info("Exploring destinations from {} in {}", departureCity, month);
+        
+        if (departureCity.trim().isEmpty()) {
             throw new ValidationException("Departure city is required");
         }
-        if (searchDTO.getArrivalCity() == null || searchDTO.getArrivalCity().trim().isEmpty()) {
-            throw new ValidationException("Arrival city is required");
+        YearMonth travelMonth;
+        try {
+            travelMonth = YearMonth.parse(month);
+        } catch (DateTimeParseException e) {
+            throw new ValidationException("Month must be in yyyy-MM format");
         }
-        if (searchDTO.getDepartureDate() == null) {
-            throw new ValidationException("Departure date is required");
+        if (travelMonth.isBefore(YearMonth.now())) {
+            throw new ValidationException("Month cannot be in the past");
         }
-        if (searchDTO.getNumberOfPassengers() == null || searchDTO.getNumberOfPassengers() <= 0) {
-            throw new ValidationException("Number of passengers must be greater than 0");
+        
+        return ResponseEntity.ok(flightService.exploreDestinations(departureCity, travelMonth));
+    }
+    
+    @GetMapping("/cities/suggest")
+    public ResponseEntity<List<String>> suggestCities(@RequestParam(defaultValue = "") String prefix,
+                                                      @RequestParam(required = false) Integer limit) {
+        if (limit != null && (limit < 1 || limit > FlightService.MAX_CITY_SUGGESTIONS)) {
+            throw new ValidationException("Limit must be between 1 and " + FlightService.MAX_CITY_SUGGESTIONS);
         }
         
-        List<FlightResponseDTO> flights = flightService.searchFlights(searchDTO);
-        log.info("Found {} flights", flights.size());
-        return ResponseEntity.ok(flights);
+        return ResponseEntity.ok(flightService.suggestCities(prefix, limit));
     }
     
     @GetMapping("/{flightId}")
@@ -81,4 +247,16 @@ public class FlightController {
         FlightResponseDTO flight = flightService.getFlightById(flightId);
         return ResponseEntity.ok(flight);
     }
+    
+    @GetMapping("/{flightId}/seats")
+    public ResponseEntity<List<String>> getAvailableSeats(@PathVariable Integer flightId,
+                                                          @RequestParam(required = false) String seatClass) {
+        log.info("Fetching available seats for flight ID: {}", flightId);
+        
+        if (flightId == null || flightId <= 0) {
+            throw new ValidationException("Invalid flight ID");
+        }
+        
+        return ResponseEntity.ok(flightService.getAvailableSeats(flightId, seatClass));
+    }
 }
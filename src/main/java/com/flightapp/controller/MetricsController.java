@@ -0,0 +1,35 @@
+package com.flightapp.controller;
+
+import com.flightapp.service.retry.ConflictRetryMetrics;
+import com.flightapp.service.search.FlightSearchCache;
+import com.flightapp.service.search.RouteFilter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/v1.0/metrics")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class MetricsController {
+    
+    private final ConflictRetryMetrics conflictRetryMetrics;
+    private final FlightSearchCache flightSearchCache;
+    private final RouteFilter routeFilter;
+    
+    @GetMapping("/booking-retries")
+    public ResponseEntity<Map<String, Object>> getBookingRetryMetrics() {
+        return ResponseEntity.ok(conflictRetryMetrics.snapshot());
+    }
+    
+    @GetMapping("/search-cache")
+    public ResponseEntity<Map<String, Object>> getSearchCacheMetrics() {
+        return ResponseEntity.ok(flightSearchCache.snapshot());
+    }
+    
+    @GetMapping("/route-filter")
+    public ResponseEntity<Map<String, Object>> getRouteFilterMetrics() {
+        return ResponseEntity.ok(routeFilter.snapshot());
+    }
+}
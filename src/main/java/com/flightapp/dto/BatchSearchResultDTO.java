@@ -0,0 +1,16 @@
+package com.flightapp.dto;
+
+import lombok.*;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchSearchResultDTO {
+    //Position of the search in the request
+    private Integer index;
+    //Null when the search failed or did not finish in time, see error
+    private List<FlightResponseDTO> flights;
+    private String error;
+}
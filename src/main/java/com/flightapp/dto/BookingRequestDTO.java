@@ -13,4 +13,5 @@ public class BookingRequestDTO {
     private List<PassengerDTO> passengers;
     private String tripType;
     private Integer returnFlightId;
+    private String seatClass;
 }
@@ -0,0 +1,16 @@
+package com.flightapp.dto;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BookingStatusDTO {
+    private String requestId;
+    private Integer flightId;
+    private String status;
+    private String statusUrl;
+    private BookingResponseDTO booking;
+    private String errorMessage;
+}
@@ -0,0 +1,19 @@
+package com.flightapp.dto;
+
+import lombok.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ConnectingItineraryDTO {
+    private List<FlightResponseDTO> legs;
+    private Integer stops;
+    private BigDecimal totalPricePerSeat;
+    private LocalDateTime departureTime;
+    private LocalDateTime arrivalTime;
+    private Long totalDurationMinutes;
+}
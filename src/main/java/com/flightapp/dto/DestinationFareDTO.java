@@ -0,0 +1,16 @@
+package com.flightapp.dto;
+
+import lombok.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DestinationFareDTO {
+    private String arrivalCity;
+    //Earliest day the cheapest fare is offered on
+    private LocalDate date;
+    private BigDecimal cheapestPricePerSeat;
+}
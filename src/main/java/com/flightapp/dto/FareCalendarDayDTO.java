@@ -0,0 +1,15 @@
+package com.flightapp.dto;
+
+import lombok.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FareCalendarDayDTO {
+    private LocalDate date;
+    private BigDecimal cheapestPricePerSeat;
+    private Long flightCount;
+}
@@ -1,7 +1,9 @@
 package com.flightapp.dto;
 
 import lombok.*;
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalTime;
 
 @Data
 @NoArgsConstructor
@@ -14,4 +16,25 @@ public class FlightSearchDTO {
     private LocalDate returnDate;
     private String tripType;
     private Integer numberOfPassengers;
+    
+    //Optional filters, all applied before results leave the database or search index
+    private BigDecimal maxPrice;
+    private String airlineCode;
+    private LocalTime departureTimeFrom;
+    private LocalTime departureTimeTo;
+    private FlightSortOrder sortBy;
+    private Integer limit;
+    //Keyset paging in departure order: the nextCursor of the previous page
+    private String cursor;
+    //Also search from and to cities with an airport within this many km of the requested ones
+    private Integer nearbyRadiusKm;
+    
+    //Round trips only: how many outbound/return pairs to return
+    private Integer maxCombinations;
+    
+    //Connecting searches only: how many stops an itinerary may make
+    private Integer maxStops;
+    
+    //Fare calendar only: how many days either side of departureDate to cover
+    private Integer flexDays;
 }
@@ -0,0 +1,14 @@
+package com.flightapp.dto;
+
+import lombok.*;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FlightSearchPageDTO {
+    private List<FlightResponseDTO> flights;
+    //Null on the last page
+    private String nextCursor;
+}
@@ -0,0 +1,6 @@
+package com.flightapp.dto;
+
+public enum FlightSortOrder {
+    DEPARTURE,
+    PRICE
+}
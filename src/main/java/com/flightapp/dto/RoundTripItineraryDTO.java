@@ -0,0 +1,14 @@
+package com.flightapp.dto;
+
+import lombok.*;
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RoundTripItineraryDTO {
+    private FlightResponseDTO outbound;
+    private FlightResponseDTO inbound;
+    private BigDecimal combinedPricePerSeat;
+}
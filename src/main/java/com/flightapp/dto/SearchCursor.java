@@ -0,0 +1,34 @@
+package com.flightapp.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+//Keyset position in departure order: the (departureTime, flightId) of the last row a page read.
+//Travels as an opaque URL-safe token so clients do not come to depend on its shape.
+public record SearchCursor(LocalDateTime departureTime, Integer flightId) {
+    
+    public static SearchCursor after(FlightResponseDTO flight) {
+        return new SearchCursor(flight.getDepartureTime(), flight.getFlightId());
+    }
+    
+    public static SearchCursor decode(String token) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\|");
+            return new SearchCursor(LocalDateTime.parse(parts[0]), Integer.valueOf(parts[1]));
+        } catch (RuntimeException ex) {
+            throw new IllegalArgumentException("Invalid search cursor");
+        }
+    }
+    
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+            .encodeToString((departureTime + "|" + flightId).getBytes(StandardCharsets.UTF_8));
+    }
+    
+    //Whether a row sorts after this position in (departureTime, flightId) order
+    public boolean isBefore(LocalDateTime otherDepartureTime, Integer otherFlightId) {
+        int byTime = otherDepartureTime.compareTo(departureTime);
+        return byTime > 0 || (byTime == 0 && otherFlightId > flightId);
+    }
+}
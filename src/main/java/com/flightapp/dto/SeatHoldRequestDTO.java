@@ -0,0 +1,11 @@
+package com.flightapp.dto;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeatHoldRequestDTO {
+    private Integer numberOfSeats;
+    private String seatClass;
+}
@@ -0,0 +1,17 @@
+package com.flightapp.dto;
+
+import lombok.*;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SeatHoldResponseDTO {
+    private String holdId;
+    private Integer flightId;
+    private String flightNumber;
+    private List<String> seatNumbers;
+    private LocalDateTime expiresAt;
+}
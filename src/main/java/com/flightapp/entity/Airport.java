@@ -0,0 +1,57 @@
+package com.flightapp.entity;
+
+import lombok.*;
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "airport")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class Airport {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer airportId;
+    
+    @Column(unique = true, nullable = false, length = 3)
+    private String airportCode;
+    
+    @Column(nullable = false)
+    private String airportName;
+    
+    //Same spelling as Flight.departureCity/arrivalCity, which is how flights find their airport
+    @Column(nullable = false)
+    private String city;
+    
+    @Column(nullable = false)
+    private Double latitude;
+    
+    @Column(nullable = false)
+    private Double longitude;
+    
+    @Column(nullable = false)
+    private Boolean isActive = true;
+    
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+    
+    @PrePersist
+    public void prePersist() {
+        this.createdAt = LocalDateTime.now();
+        this.updatedAt = LocalDateTime.now();
+        if (this.isActive == null) {
+            this.isActive = true;
+        }
+    }
+    
+    @PreUpdate
+    public void preUpdate() {
+        this.updatedAt = LocalDateTime.now();
+    }
+}
@@ -19,7 +19,8 @@ import java.util.List;
 public class Booking {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "booking_seq")
+    @SequenceGenerator(name = "booking_seq", sequenceName = "booking_seq", allocationSize = 50)
     private Integer bookingId;
     
     @Column(unique = true, nullable = false)
@@ -66,6 +67,10 @@ public class Booking {
     @Column(nullable = false)
     private Boolean isActive = true;
     
+    @Version
+    @Column(nullable = false)
+    private Long version;
+    
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
     
@@ -8,9 +8,12 @@ import java.util.List;
 
 @Entity
 @Table(name = "flight", indexes = {
-    @Index(name = "idx_departure_city", columnList = "departureCity"),
+    //New name so ddl-auto=update creates it; the old idx_flight_route_departure is a prefix of it and can be dropped
+    @Index(name = "idx_flight_route_departure_fare",
+           columnList = "departureCity, arrivalCity, departureTime, isActive, availableSeats, pricePerSeat"),
     @Index(name = "idx_arrival_city", columnList = "arrivalCity"),
-    @Index(name = "idx_flight_number", columnList = "flightNumber")
+    @Index(name = "idx_flight_number", columnList = "flightNumber"),
+    @Index(name = "idx_flight_updated_at", columnList = "updatedAt")
 })
 @Data
 @NoArgsConstructor
@@ -59,6 +62,10 @@ public class Flight {
     @Column(nullable = false)
     private Boolean isActive = true;
     
+    @Version
+    @Column(nullable = false)
+    private Long version;
+    
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
     
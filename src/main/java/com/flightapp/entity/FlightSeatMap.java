@@ -0,0 +1,50 @@
+package com.flightapp.entity;
+
+import lombok.*;
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "flight_seat_map")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FlightSeatMap {
+    
+    @Id
+    private Integer flightId;
+    
+    @Column(nullable = false)
+    private Integer totalSeats;
+    
+    @Column(nullable = false)
+    private Integer businessRows;
+    
+    @Column(nullable = false, length = 1024)
+    private byte[] bookedSeats;
+    
+    @Column(nullable = false, length = 1024)
+    private byte[] heldSeats;
+    
+    @Version
+    @Column(nullable = false)
+    private Long version;
+    
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+    
+    @PrePersist
+    public void prePersist() {
+        this.createdAt = LocalDateTime.now();
+        this.updatedAt = LocalDateTime.now();
+    }
+    
+    @PreUpdate
+    public void preUpdate() {
+        this.updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,54 @@
+package com.flightapp.entity;
+
+import lombok.*;
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "idempotency_record", indexes = {
+    @Index(name = "idx_idempotency_expires_at", columnList = "expiresAt")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IdempotencyRecord {
+    
+    public static final String PENDING = "PENDING";
+    public static final String COMPLETED = "COMPLETED";
+    
+    @Id
+    @Column(length = 100)
+    private String idempotencyKey;
+    
+    @Column(nullable = false, length = 64)
+    private String requestHash;
+    
+    @Column(length = 20, nullable = false)
+    private String status;
+    
+    //Identifies the attempt holding the key; a taken-over attempt can no longer complete it
+    @Column(length = 36)
+    private String claimToken;
+    
+    @Column(columnDefinition = "TEXT")
+    private String responseBody;
+    
+    //A PENDING record whose lock has passed belongs to an instance that died mid-request
+    @Column(nullable = false)
+    private LocalDateTime lockedUntil;
+    
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+    
+    @Version
+    private Long version;
+    
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    @PrePersist
+    public void prePersist() {
+        this.createdAt = LocalDateTime.now();
+    }
+}
@@ -16,7 +16,8 @@ import java.time.LocalDateTime;
 public class Passenger {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "passenger_seq")
+    @SequenceGenerator(name = "passenger_seq", sequenceName = "passenger_seq", allocationSize = 50)
     private Integer passengerId;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -0,0 +1,27 @@
+package com.flightapp.entity;
+
+import lombok.*;
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "pnr_node_lease")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PnrNodeLease {
+    
+    @Id
+    private Integer nodeId;
+    
+    @Column(nullable = false, length = 36)
+    private String ownerId;
+    
+    @Column(nullable = false)
+    private LocalDateTime leaseExpiresAt;
+    
+    //Also makes save() persist a new lease instead of merging over a row another instance just inserted
+    @Version
+    private Long version;
+}
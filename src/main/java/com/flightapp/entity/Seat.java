@@ -6,9 +6,10 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "seat", uniqueConstraints = {
-    @UniqueConstraint(columnNames = {"flight_id", "seatNumber"})
+    @UniqueConstraint(name = Seat.UK_FLIGHT_SEAT_NUMBER, columnNames = {"flight_id", "seatNumber"})
 }, indexes = {
-    @Index(name = "idx_flight_id", columnList = "flight_id")
+    @Index(name = "idx_flight_id", columnList = "flight_id"),
+    @Index(name = "idx_seat_hold_id", columnList = "holdId")
 })
 @Data
 @NoArgsConstructor
@@ -16,8 +17,12 @@ import java.time.LocalDateTime;
 @Builder
 public class Seat {
     
+    //Named so a seat picked twice can be told apart from other integrity violations
+    public static final String UK_FLIGHT_SEAT_NUMBER = "uk_seat_flight_seat_number";
+    
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "seat_seq")
+    @SequenceGenerator(name = "seat_seq", sequenceName = "seat_seq", allocationSize = 50)
     private Integer seatId;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -43,6 +48,9 @@ public class Seat {
     @Column
     private LocalDateTime reservedAt;
     
+    @Column(length = 36)
+    private String holdId;
+    
     @Column(nullable = false)
     private Boolean isActive = true;
     
@@ -0,0 +1,11 @@
+package com.flightapp.event;
+
+import com.flightapp.entity.Airport;
+
+//Published inside the transaction that saves a new airport
+public record AirportAddedEvent(Integer airportId, String airportCode, String city) {
+    
+    public static AirportAddedEvent of(Airport airport) {
+        return new AirportAddedEvent(airport.getAirportId(), airport.getAirportCode(), airport.getCity());
+    }
+}
@@ -0,0 +1,14 @@
+package com.flightapp.event;
+
+import com.flightapp.entity.Flight;
+import java.time.LocalDate;
+
+//Published inside the transaction that saves a new flight
+public record FlightAddedEvent(Integer flightId, String departureCity, String arrivalCity, LocalDate departureDate) {
+    
+    public static FlightAddedEvent of(Flight flight) {
+        LocalDate departureDate = flight.getDepartureTime() == null ? null : flight.getDepartureTime().toLocalDate();
+        return new FlightAddedEvent(flight.getFlightId(), flight.getDepartureCity(), flight.getArrivalCity(),
+            departureDate);
+    }
+}
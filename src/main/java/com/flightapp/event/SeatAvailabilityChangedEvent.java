@@ -0,0 +1,15 @@
+package com.flightapp.event;
+
+import com.flightapp.entity.Flight;
+import java.time.LocalDate;
+
+//Published whenever seats are reserved (negative delta) or given back (positive delta)
+public record SeatAvailabilityChangedEvent(Integer flightId, int delta, String departureCity,
+                                           String arrivalCity, LocalDate departureDate) {
+    
+    public static SeatAvailabilityChangedEvent of(Flight flight, int delta) {
+        LocalDate departureDate = flight.getDepartureTime() == null ? null : flight.getDepartureTime().toLocalDate();
+        return new SeatAvailabilityChangedEvent(flight.getFlightId(), delta, flight.getDepartureCity(),
+            flight.getArrivalCity(), departureDate);
+    }
+}
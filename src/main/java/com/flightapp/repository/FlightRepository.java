@@ -1,24 +1,112 @@
 package com.flightapp.repository;
 
+import com.flightapp.dto.DestinationFareDTO;
+import com.flightapp.dto.FareCalendarDayDTO;
+import com.flightapp.dto.FlightResponseDTO;
 import com.flightapp.entity.Flight;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
-public interface FlightRepository extends JpaRepository<Flight, Integer> {
+public interface FlightRepository extends JpaRepository<Flight, Integer>, FlightRepositoryCustom {
     
     Optional<Flight> findByFlightNumber(String flightNumber);
     
-    @Query("SELECT f FROM Flight f WHERE f.departureCity = :departure " +
-           "AND f.arrivalCity = :arrival " +
-           "AND DATE(f.departureTime) = CAST(:date AS DATE) " +
-           "AND f.availableSeats > 0 AND f.isActive = true")
-    List<Flight> searchFlights(@Param("departure") String departure,
-                               @Param("arrival") String arrival,
-                               @Param("date") LocalDateTime date);
-    
     List<Flight> findByStatus(String status);
+    
+    //Read path: one statement straight into the DTO, no managed Flight or lazy airline load
+    @Query("SELECT new com.flightapp.dto.FlightResponseDTO(f.flightId, f.flightNumber, a.airlineName, " +
+           "f.aircraftType, f.departureCity, f.arrivalCity, f.departureTime, f.arrivalTime, " +
+           "f.availableSeats, f.pricePerSeat) " +
+           "FROM Flight f JOIN f.airline a WHERE f.flightId = :flightId")
+    Optional<FlightResponseDTO> findResponseById(@Param("flightId") Integer flightId);
+    
+    @Query("SELECT f FROM Flight f JOIN FETCH f.airline WHERE f.flightId = :flightId")
+    Optional<Flight> findWithAirline(@Param("flightId") Integer flightId);
+    
+    //Everything the in-memory search index needs, loaded in one query
+    @Query("SELECT f FROM Flight f JOIN FETCH f.airline " +
+           "WHERE f.isActive = true AND f.departureTime >= :from")
+    List<Flight> findActiveDepartingFrom(@Param("from") LocalDateTime from);
+    
+    //Upcoming flights written since the given time, active or not, for the search index's delta reload
+    @Query("SELECT f FROM Flight f JOIN FETCH f.airline " +
+           "WHERE f.updatedAt >= :since AND f.departureTime >= :from")
+    List<Flight> findChangedSince(@Param("since") LocalDateTime since, @Param("from") LocalDateTime from);
+    
+    //City pairs of upcoming active flights written since the given time, for the route filter's delta reload
+    @Query("SELECT DISTINCT f.departureCity, f.arrivalCity FROM Flight f " +
+           "WHERE f.isActive = true AND f.updatedAt >= :since AND f.departureTime >= :from")
+    List<Object[]> findActiveRoutesChangedSince(@Param("since") LocalDateTime since, @Param("from") LocalDateTime from);
+    
+    //City pairs with an upcoming active flight and how many fly each, for the route filter and city suggestions
+    @Query("SELECT f.departureCity, f.arrivalCity, COUNT(f) FROM Flight f " +
+           "WHERE f.isActive = true AND f.departureTime >= :from GROUP BY f.departureCity, f.arrivalCity")
+    List<Object[]> findActiveRoutesFrom(@Param("from") LocalDateTime from);
+    
+    //Cheapest fare and flight count per day of a window in one grouped range scan of the route index
+    @Query("SELECT new com.flightapp.dto.FareCalendarDayDTO(CAST(f.departureTime AS LocalDate), " +
+           "MIN(f.pricePerSeat), COUNT(f)) FROM Flight f " +
+           "WHERE f.departureCity = :departureCity AND f.arrivalCity = :arrivalCity " +
+           "AND f.departureTime >= :from AND f.departureTime < :to " +
+           "AND f.isActive = true AND f.availableSeats >= :seats " +
+           "GROUP BY CAST(f.departureTime AS LocalDate) ORDER BY CAST(f.departureTime AS LocalDate)")
+    List<FareCalendarDayDTO> findFareCalendar(@Param("departureCity") String departureCity,
+                                              @Param("arrivalCity") String arrivalCity,
+                                              @Param("from") LocalDateTime from,
+                                              @Param("to") LocalDateTime to,
+                                              @Param("seats") Integer seats);
+    
+    //Cheapest bookable fare per destination and day from one origin, for when the search index is cold
+    @Query("SELECT new com.flightapp.dto.DestinationFareDTO(f.arrivalCity, CAST(f.departureTime AS LocalDate), " +
+           "MIN(f.pricePerSeat)) FROM Flight f " +
+           "WHERE f.departureCity = :departureCity AND f.departureTime >= :from AND f.departureTime < :to " +
+           "AND f.isActive = true AND f.availableSeats > 0 " +
+           "GROUP BY f.arrivalCity, CAST(f.departureTime AS LocalDate) " +
+           "ORDER BY f.arrivalCity, CAST(f.departureTime AS LocalDate)")
+    List<DestinationFareDTO> findCheapestDestinationDays(@Param("departureCity") String departureCity,
+                                                         @Param("from") LocalDateTime from,
+                                                         @Param("to") LocalDateTime to);
+    
+    //The seat UPDATEs below take the JVM clock as :now, like the entity callbacks, since the search
+    //index and route filter compare updatedAt against LocalDateTime.now() when they reload
+    
+    //Returns 0 when the flight does not have enough seats left
+    @Modifying
+    @Query("UPDATE Flight f SET f.availableSeats = f.availableSeats - :seats, " +
+           "f.version = f.version + 1, f.updatedAt = :now " +
+           "WHERE f.flightId = :flightId AND f.availableSeats >= :seats")
+    int decrementAvailableSeats(@Param("flightId") Integer flightId,
+                                @Param("seats") Integer seats,
+                                @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Query("UPDATE Flight f SET f.availableSeats = f.availableSeats + :seats, " +
+           "f.version = f.version + 1, f.updatedAt = :now " +
+           "WHERE f.flightId = :flightId AND f.availableSeats + :seats <= f.totalSeats")
+    int incrementAvailableSeats(@Param("flightId") Integer flightId,
+                                @Param("seats") Integer seats,
+                                @Param("now") LocalDateTime now);
+    
+    //Applies a coalesced write-behind delta from the in-memory inventory
+    @Modifying
+    @Query("UPDATE Flight f SET f.availableSeats = f.availableSeats + :delta, " +
+           "f.version = f.version + 1, f.updatedAt = :now " +
+           "WHERE f.flightId = :flightId")
+    int applySeatDelta(@Param("flightId") Integer flightId, @Param("delta") Integer delta,
+                       @Param("now") LocalDateTime now);
+    
+    //Rebuilds available seats from confirmed bookings and unexpired seat holds
+    @Modifying
+    @Query("UPDATE Flight f SET f.availableSeats = CAST(f.totalSeats - " +
+           "(SELECT COALESCE(SUM(b.numberOfPassengers), 0) FROM Booking b " +
+           "WHERE b.flight = f AND b.bookingStatus = 'CONFIRMED') - " +
+           "(SELECT COUNT(s) FROM Seat s " +
+           "WHERE s.flight = f AND s.isReserved = true AND s.booking IS NULL) AS Integer), " +
+           "f.version = f.version + 1, f.updatedAt = :now")
+    int reconcileAvailableSeats(@Param("now") LocalDateTime now);
 }
@@ -0,0 +1,21 @@
+package com.flightapp.repository;
+
+import com.flightapp.dto.FlightResponseDTO;
+import com.flightapp.dto.FlightSearchDTO;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface FlightRepositoryCustom {
+    
+    //Every criterion set on the search is part of the SQL, including sort order and limit.
+    //Rows are projected straight into DTOs with the airline joined, so no entities are loaded.
+    List<FlightResponseDTO> searchByCriteria(FlightSearchDTO criteria, int limit);
+    
+    //One query over every origin/destination pair, e.g. for nearby airports, instead of one per route
+    List<FlightResponseDTO> searchByCities(FlightSearchDTO criteria, Collection<String> origins,
+                                           Collection<String> destinations, int limit);
+    
+    //Same query read through a database cursor; the caller must close the stream inside its transaction
+    Stream<FlightResponseDTO> streamByCriteria(FlightSearchDTO criteria);
+}
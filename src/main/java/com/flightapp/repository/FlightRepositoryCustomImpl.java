@@ -0,0 +1,127 @@
+package com.flightapp.repository;
+
+import com.flightapp.dto.FlightResponseDTO;
+import com.flightapp.dto.FlightSearchDTO;
+import com.flightapp.dto.FlightSortOrder;
+import com.flightapp.dto.SearchCursor;
+import com.flightapp.entity.Airline;
+import com.flightapp.entity.Flight;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+public class FlightRepositoryCustomImpl implements FlightRepositoryCustom {
+    
+    //Rows per round trip while streaming; MySQL only honours it with useCursorFetch=true
+    private static final int STREAM_FETCH_SIZE = 500;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    public List<FlightResponseDTO> searchByCriteria(FlightSearchDTO criteria, int limit) {
+        return entityManager.createQuery(criteriaQuery(criteria, List.of(criteria.getDepartureCity()),
+            List.of(criteria.getArrivalCity()))).setMaxResults(limit).getResultList();
+    }
+    
+    @Override
+    public List<FlightResponseDTO> searchByCities(FlightSearchDTO criteria, Collection<String> origins,
+                                                  Collection<String> destinations, int limit) {
+        return entityManager.createQuery(criteriaQuery(criteria, origins, destinations))
+            .setMaxResults(limit).getResultList();
+    }
+    
+    @Override
+    public Stream<FlightResponseDTO> streamByCriteria(FlightSearchDTO criteria) {
+        TypedQuery<FlightResponseDTO> query = entityManager.createQuery(criteriaQuery(criteria,
+                List.of(criteria.getDepartureCity()), List.of(criteria.getArrivalCity())))
+            .setHint(HibernateHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE);
+        if (criteria.getLimit() != null) {
+            query.setMaxResults(criteria.getLimit());
+        }
+        return query.getResultStream();
+    }
+    
+    private CriteriaQuery<FlightResponseDTO> criteriaQuery(FlightSearchDTO criteria, Collection<String> origins,
+                                                           Collection<String> destinations) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<FlightResponseDTO> query = cb.createQuery(FlightResponseDTO.class);
+        Root<Flight> flight = query.from(Flight.class);
+        Join<Flight, Airline> airline = flight.join("airline", JoinType.INNER);
+        
+        LocalDateTime dayStart = criteria.getDepartureDate().atStartOfDay();
+        LocalTime windowStart = criteria.getDepartureTimeFrom();
+        LocalTime windowEnd = criteria.getDepartureTimeTo();
+        int seats = criteria.getNumberOfPassengers() == null ? 1 : criteria.getNumberOfPassengers();
+        
+        List<Predicate> predicates = new ArrayList<>();
+        //Several cities become IN lists on the two leading index columns, still one range scan per route
+        predicates.add(origins.size() == 1 ? cb.equal(flight.get("departureCity"), origins.iterator().next())
+            : flight.get("departureCity").in(origins));
+        predicates.add(destinations.size() == 1 ? cb.equal(flight.get("arrivalCity"), destinations.iterator().next())
+            : flight.get("arrivalCity").in(destinations));
+        //Half-open range on the raw column so idx_flight_route_departure_fare can seek straight to the day
+        predicates.add(cb.greaterThanOrEqualTo(flight.get("departureTime"),
+            windowStart == null ? dayStart : criteria.getDepartureDate().atTime(windowStart)));
+        if (windowEnd == null) {
+            predicates.add(cb.lessThan(flight.get("departureTime"), dayStart.plusDays(1)));
+        } else {
+            predicates.add(cb.lessThanOrEqualTo(flight.get("departureTime"), criteria.getDepartureDate().atTime(windowEnd)));
+        }
+        predicates.add(cb.isTrue(flight.get("isActive")));
+        predicates.add(cb.greaterThanOrEqualTo(flight.get("availableSeats"), seats));
+        if (criteria.getMaxPrice() != null) {
+            predicates.add(cb.lessThanOrEqualTo(flight.get("pricePerSeat"), criteria.getMaxPrice()));
+        }
+        if (criteria.getAirlineCode() != null) {
+            predicates.add(cb.equal(cb.upper(airline.get("airlineCode")),
+                criteria.getAirlineCode().trim().toUpperCase(Locale.ROOT)));
+        }
+        
+        if (criteria.getCursor() != null) {
+            //Keyset: strictly after the last row of the previous page, in the ORDER BY below
+            SearchCursor cursor = SearchCursor.decode(criteria.getCursor());
+            predicates.add(cb.or(
+                cb.greaterThan(flight.get("departureTime"), cursor.departureTime()),
+                cb.and(cb.equal(flight.get("departureTime"), cursor.departureTime()),
+                    cb.greaterThan(flight.get("flightId"), cursor.flightId()))));
+        }
+        
+        List<Order> order = new ArrayList<>();
+        if (criteria.getSortBy() == FlightSortOrder.PRICE) {
+            order.add(cb.asc(flight.get("pricePerSeat")));
+        }
+        order.add(cb.asc(flight.get("departureTime")));
+        order.add(cb.asc(flight.get("flightId")));
+        
+        //Same argument order as the FlightResponseDTO all-args constructor
+        return query.select(cb.construct(FlightResponseDTO.class,
+                flight.get("flightId"),
+                flight.get("flightNumber"),
+                airline.get("airlineName"),
+                flight.get("aircraftType"),
+                flight.get("departureCity"),
+                flight.get("arrivalCity"),
+                flight.get("departureTime"),
+                flight.get("arrivalTime"),
+                flight.get("availableSeats"),
+                flight.get("pricePerSeat")))
+            .where(predicates.toArray(new Predicate[0]))
+            .orderBy(order);
+    }
+}
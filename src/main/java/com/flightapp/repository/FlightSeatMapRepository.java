@@ -0,0 +1,19 @@
+package com.flightapp.repository;
+
+import com.flightapp.entity.FlightSeatMap;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.util.Optional;
+
+public interface FlightSeatMapRepository extends JpaRepository<FlightSeatMap, Integer> {
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT m FROM FlightSeatMap m WHERE m.flightId = :flightId")
+    Optional<FlightSeatMap> findForUpdate(@Param("flightId") Integer flightId);
+    
+    @Query("SELECT m.version FROM FlightSeatMap m WHERE m.flightId = :flightId")
+    Optional<Long> findVersion(@Param("flightId") Integer flightId);
+}
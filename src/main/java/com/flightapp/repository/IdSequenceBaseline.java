@@ -0,0 +1,65 @@
+package com.flightapp.repository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.util.List;
+
+//Booking, Passenger and Seat moved from IDENTITY keys to pooled sequences, which start at 1 on a
+//database whose tables already hold rows. Before anything is inserted, each sequence is raised
+//past the highest ID its table has. MySQL has no sequences, so Hibernate keeps each one as a
+//one-row table holding next_val; H2 in the tests is created empty and needs nothing.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class IdSequenceBaseline {
+    
+    //The allocationSize the three entities declare
+    static final int ALLOCATION_SIZE = 50;
+    
+    //Sequence, table and ID column
+    private static final List<String[]> SEQUENCES = List.of(
+        new String[] {"booking_seq", "booking", "booking_id"},
+        new String[] {"passenger_seq", "passenger", "passenger_id"},
+        new String[] {"seat_seq", "seat", "seat_id"});
+    
+    private final TransactionTemplate transactionTemplate;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Value("${flightapp.id-sequences.baseline.enabled:true}")
+    private boolean enabled = true;
+    
+    @PostConstruct
+    public void raiseSequences() {
+        if (!enabled) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            String database = entityManager.unwrap(Session.class)
+                .doReturningWork(connection -> connection.getMetaData().getDatabaseProductName());
+            if (!"MySQL".equalsIgnoreCase(database)) {
+                return;
+            }
+            for (String[] sequence : SEQUENCES) {
+                //A pooled generator issues the block that ends at the value it reads, so the value
+                //has to clear the highest ID by a whole block; raising only, so a rerun is a no-op
+                String floor = "(SELECT COALESCE(MAX(" + sequence[2] + "), 0) + " + (ALLOCATION_SIZE + 1)
+                    + " FROM " + sequence[1] + ")";
+                int raised = entityManager.createNativeQuery("UPDATE " + sequence[0] + " SET next_val = " + floor
+                        + " WHERE next_val < " + floor)
+                    .executeUpdate();
+                if (raised > 0) {
+                    log.info("Raised {} past the highest {} ID", sequence[0], sequence[1]);
+                }
+            }
+        });
+    }
+}
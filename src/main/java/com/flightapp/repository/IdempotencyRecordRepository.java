@@ -0,0 +1,37 @@
+package com.flightapp.repository;
+
+import com.flightapp.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.time.LocalDateTime;
+
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+    
+    //Takes over a key whose previous owner expired or died while holding it
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.requestHash = :requestHash, r.status = 'PENDING', " +
+           "r.claimToken = :claimToken, r.responseBody = NULL, r.lockedUntil = :lockedUntil, r.expiresAt = :expiresAt " +
+           "WHERE r.idempotencyKey = :key AND (r.expiresAt < :now OR (r.status = 'PENDING' AND r.lockedUntil < :now))")
+    int claimStale(@Param("key") String key, @Param("requestHash") String requestHash,
+                   @Param("claimToken") String claimToken,
+                   @Param("lockedUntil") LocalDateTime lockedUntil, @Param("expiresAt") LocalDateTime expiresAt,
+                   @Param("now") LocalDateTime now);
+    
+    //Returns 0 when the claim was taken over, so the caller's transaction can roll back
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.status = 'COMPLETED', r.responseBody = :responseBody " +
+           "WHERE r.idempotencyKey = :key AND r.status = 'PENDING' AND r.claimToken = :claimToken")
+    int complete(@Param("key") String key, @Param("claimToken") String claimToken,
+                 @Param("responseBody") String responseBody);
+    
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.idempotencyKey = :key AND r.status = 'PENDING' " +
+           "AND r.claimToken = :claimToken")
+    int releaseClaim(@Param("key") String key, @Param("claimToken") String claimToken);
+    
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
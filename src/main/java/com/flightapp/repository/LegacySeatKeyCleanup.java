@@ -0,0 +1,64 @@
+package com.flightapp.repository;
+
+import com.flightapp.entity.Seat;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.util.List;
+
+//The seat table's (flight_id, seat_number) unique key used to carry a name Hibernate generated.
+//Schema update adds the named key next to it but never drops the old one, and a duplicate seat
+//reported under the old name would not be recognised as a seat collision and retried. Once the
+//named key exists, any other unique key over exactly those columns is dropped. Only MySQL
+//databases predate the rename; H2 in the tests is created with the named key alone.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LegacySeatKeyCleanup {
+    
+    private static final String SEAT_KEY_COLUMNS = "flight_id,seat_number";
+    
+    private final TransactionTemplate transactionTemplate;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Value("${flightapp.schema.legacy-seat-key-cleanup.enabled:true}")
+    private boolean enabled = true;
+    
+    @PostConstruct
+    public void dropLegacySeatKeys() {
+        if (!enabled) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            String database = entityManager.unwrap(Session.class)
+                .doReturningWork(connection -> connection.getMetaData().getDatabaseProductName());
+            if (!"MySQL".equalsIgnoreCase(database)) {
+                return;
+            }
+            @SuppressWarnings("unchecked")
+            List<String> seatKeys = entityManager.createNativeQuery("SELECT index_name FROM information_schema.statistics " +
+                    "WHERE table_schema = DATABASE() AND table_name = 'seat' AND non_unique = 0 " +
+                    "GROUP BY index_name " +
+                    "HAVING GROUP_CONCAT(column_name ORDER BY seq_in_index) = '" + SEAT_KEY_COLUMNS + "'")
+                .getResultList();
+            //Never leave the table without the key that stops a seat being booked twice
+            if (seatKeys.stream().noneMatch(Seat.UK_FLIGHT_SEAT_NUMBER::equalsIgnoreCase)) {
+                return;
+            }
+            for (String seatKey : seatKeys) {
+                if (!seatKey.equalsIgnoreCase(Seat.UK_FLIGHT_SEAT_NUMBER)) {
+                    entityManager.createNativeQuery("ALTER TABLE seat DROP INDEX `" + seatKey + "`").executeUpdate();
+                    log.info("Dropped legacy seat unique key {}", seatKey);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,28 @@
+package com.flightapp.repository;
+
+import com.flightapp.entity.PnrNodeLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface PnrNodeLeaseRepository extends JpaRepository<PnrNodeLease, Integer> {
+    
+    //Takes over a node ID only once its previous owner stopped renewing it. Expiry is stamped and
+    //compared on the database clock so skew between application hosts cannot shorten a lease.
+    @Modifying
+    @Query("UPDATE PnrNodeLease l SET l.ownerId = :ownerId, l.leaseExpiresAt = LOCAL DATETIME + :ttlSeconds SECOND " +
+           "WHERE l.nodeId = :nodeId AND (l.leaseExpiresAt < LOCAL DATETIME OR l.ownerId = :ownerId)")
+    int claimExpiredLease(@Param("nodeId") Integer nodeId, @Param("ownerId") String ownerId,
+                          @Param("ttlSeconds") long ttlSeconds);
+    
+    @Modifying
+    @Query("UPDATE PnrNodeLease l SET l.leaseExpiresAt = LOCAL DATETIME + :ttlSeconds SECOND " +
+           "WHERE l.nodeId = :nodeId AND l.ownerId = :ownerId")
+    int renewLease(@Param("nodeId") Integer nodeId, @Param("ownerId") String ownerId,
+                   @Param("ttlSeconds") long ttlSeconds);
+    
+    @Modifying
+    @Query("DELETE FROM PnrNodeLease l WHERE l.nodeId = :nodeId AND l.ownerId = :ownerId")
+    int releaseLease(@Param("nodeId") Integer nodeId, @Param("ownerId") String ownerId);
+}
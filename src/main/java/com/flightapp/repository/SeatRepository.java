@@ -1,17 +1,56 @@
 package com.flightapp.repository;
 
+import com.flightapp.entity.Booking;
 import com.flightapp.entity.Seat;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 public interface SeatRepository extends JpaRepository<Seat, Integer> {
     
-    @Query("SELECT s FROM Seat s WHERE s.flight.flightId = :flightId AND s.isAvailable = true")
-    List<Seat> findAvailableSeatsByFlight(@Param("flightId") Integer flightId);
-    
     @Query("SELECT s FROM Seat s WHERE s.flight.flightId = :flightId AND s.seatNumber = :seatNumber")
     Optional<Seat> findByFlightIdAndSeatNumber(@Param("flightId") Integer flightId, @Param("seatNumber") String seatNumber);
+    
+    @Query("SELECT s.seatNumber FROM Seat s WHERE s.holdId = :holdId AND s.booking IS NULL")
+    List<String> findUnconfirmedHoldSeatNumbers(@Param("holdId") String holdId);
+    
+    @Query("SELECT s.seatNumber FROM Seat s WHERE s.flight.flightId = :flightId AND s.booking IS NOT NULL")
+    List<String> findBookedSeatNumbers(@Param("flightId") Integer flightId);
+    
+    @Query("SELECT s.seatNumber FROM Seat s WHERE s.booking = :booking")
+    List<String> findSeatNumbersByBooking(@Param("booking") Booking booking);
+    
+    @Query("SELECT s FROM Seat s JOIN FETCH s.flight " +
+           "WHERE s.holdId = :holdId AND s.isReserved = true AND s.booking IS NULL " +
+           "ORDER BY s.seatNumber")
+    List<Seat> findActiveHold(@Param("holdId") String holdId);
+    
+    //Returns holdId, flightId and reservedAt for every hold that is neither confirmed nor released
+    @Query("SELECT s.holdId, s.flight.flightId, MIN(s.reservedAt) FROM Seat s " +
+           "WHERE s.isReserved = true AND s.booking IS NULL " +
+           "GROUP BY s.holdId, s.flight.flightId")
+    List<Object[]> findPendingHolds();
+    
+    //Returns holdId and flightId for every pending hold placed before the cutoff
+    @Query("SELECT s.holdId, s.flight.flightId FROM Seat s " +
+           "WHERE s.isReserved = true AND s.booking IS NULL " +
+           "GROUP BY s.holdId, s.flight.flightId HAVING MIN(s.reservedAt) < :cutoff")
+    List<Object[]> findPendingHoldsReservedBefore(@Param("cutoff") LocalDateTime cutoff);
+    
+    @Modifying
+    @Query("UPDATE Seat s SET s.booking = :booking, s.isReserved = false, s.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE s.holdId = :holdId AND s.isReserved = true AND s.booking IS NULL")
+    int confirmHold(@Param("holdId") String holdId, @Param("booking") Booking booking);
+    
+    @Modifying
+    @Query("DELETE FROM Seat s WHERE s.holdId = :holdId AND s.booking IS NULL")
+    int deleteUnconfirmedHold(@Param("holdId") String holdId);
+    
+    @Modifying
+    @Query("DELETE FROM Seat s WHERE s.booking = :booking")
+    int deleteByBooking(@Param("booking") Booking booking);
 }
@@ -0,0 +1,122 @@
+package com.flightapp.service;
+
+import com.flightapp.entity.Airport;
+import com.flightapp.event.AirportAddedEvent;
+import com.flightapp.exception.ValidationException;
+import com.flightapp.repository.AirportRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+//Airports are what the nearby city search measures distance between; a city with none only matches itself
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AirportService {
+    
+    static final String SEED_FILE = "airports.csv";
+    
+    private final AirportRepository airportRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    
+    @Value("${flightapp.airports.seed.enabled:true}")
+    private boolean seedEnabled = true;
+    
+    @Transactional
+    public Airport addAirport(Airport airport) {
+        log.info("Adding airport: {}", airport.getAirportCode());
+        
+        validateAirport(airport);
+        airport.setAirportCode(airport.getAirportCode().trim().toUpperCase(Locale.ROOT));
+        airport.setCity(airport.getCity().trim());
+        
+        if (airportRepository.findByAirportCode(airport.getAirportCode()).isPresent()) {
+            throw new IllegalArgumentException("Airport with this code already exists");
+        }
+        
+        airport.setIsActive(true);
+        Airport savedAirport = airportRepository.save(airport);
+        eventPublisher.publishEvent(AirportAddedEvent.of(savedAirport));
+        return savedAirport;
+    }
+    
+    //Fills an empty airport table from the bundled list so nearby search works out of the box.
+    //Ordered ahead of the nearby city index's startup build, which then picks the rows up.
+    @Order(0)
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedAirports() {
+        if (!seedEnabled || airportRepository.count() > 0) {
+            return;
+        }
+        List<Airport> airports = readSeedFile();
+        try {
+            airportRepository.saveAll(airports);
+        } catch (DataIntegrityViolationException ex) {
+            //Another instance seeded the table first
+            log.info("Airports already seeded by another instance");
+            return;
+        }
+        log.info("Seeded {} airports", airports.size());
+    }
+    
+    private void validateAirport(Airport airport) {
+        if (airport.getAirportCode() == null || !airport.getAirportCode().trim().matches("[A-Za-z]{3}")) {
+            throw new ValidationException("Airport code must be 3 letters");
+        }
+        if (airport.getAirportName() == null || airport.getAirportName().isBlank()) {
+            throw new ValidationException("Airport name is required");
+        }
+        if (airport.getCity() == null || airport.getCity().isBlank()) {
+            throw new ValidationException("City is required");
+        }
+        if (airport.getLatitude() == null || airport.getLatitude() < -90 || airport.getLatitude() > 90) {
+            throw new ValidationException("Latitude must be between -90 and 90");
+        }
+        if (airport.getLongitude() == null || airport.getLongitude() < -180 || airport.getLongitude() > 180) {
+            throw new ValidationException("Longitude must be between -180 and 180");
+        }
+    }
+    
+    //One airport per line after the header: code,name,city,latitude,longitude
+    static List<Airport> readSeedFile() {
+        List<Airport> airports = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new ClassPathResource(SEED_FILE).getInputStream(), StandardCharsets.UTF_8))) {
+            reader.readLine();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                String[] fields = line.split(",");
+                airports.add(Airport.builder()
+                    .airportCode(fields[0].trim())
+                    .airportName(fields[1].trim())
+                    .city(fields[2].trim())
+                    .latitude(Double.parseDouble(fields[3].trim()))
+                    .longitude(Double.parseDouble(fields[4].trim()))
+                    .isActive(true)
+                    .build());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return airports;
+    }
+}
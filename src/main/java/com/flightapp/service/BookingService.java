@@ -7,6 +7,9 @@ import com.flightapp.entity.*;
 import com.flightapp.repository.*;
 import com.flightapp.exception.ResourceNotFoundException;
 import com.flightapp.exception.BookingException;
+import com.flightapp.service.inventory.SeatInventoryService;
+import com.flightapp.service.pnr.PnrGenerator;
+import com.flightapp.service.retry.RetryOnConflict;
 import com.flightapp.validation.ValidationUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -14,7 +17,9 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
@@ -26,9 +31,21 @@ public class BookingService {
     private final FlightRepository flightRepository;
     private final UserRepository userRepository;
     private final PassengerRepository passengerRepository;
+    private final SeatInventoryService seatInventoryService;
+    private final SeatService seatService;
+    private final PnrGenerator pnrGenerator;
     
+    @RetryOnConflict(retryOnConstraints = Seat.UK_FLIGHT_SEAT_NUMBER)
     @Transactional
     public BookingResponseDTO bookFlight(Integer flightId, BookingRequestDTO request) {
+        return bookFlight(flightId, request, booking -> { });
+    }
+    
+    //beforeCommit runs inside the booking transaction, so whatever it writes commits or rolls back with the booking
+    @RetryOnConflict(retryOnConstraints = Seat.UK_FLIGHT_SEAT_NUMBER)
+    @Transactional
+    public BookingResponseDTO bookFlight(Integer flightId, BookingRequestDTO request,
+                                         Consumer<BookingResponseDTO> beforeCommit) {
         log.info("Processing booking for flight {} with email {}", flightId, request.getUserEmail());
         
         if (flightId == null || flightId <= 0) {
@@ -47,36 +64,89 @@ public class BookingService {
         validateBookingRequest(flight, request);
         
         //Create booking
-        String pnrNumber = generatePNR();
-        BigDecimal totalPrice = flight.getPricePerSeat().multiply(
-            BigDecimal.valueOf(request.getNumberOfPassengers())
-        );
-        
-        Booking booking = Booking.builder()
-            .pnrNumber(pnrNumber)
-            .user(user)
-            .flight(flight)
-            .numberOfPassengers(request.getNumberOfPassengers())
-            .totalPrice(totalPrice)
-            .bookingStatus("CONFIRMED")
-            .tripType(request.getTripType())
-            .build();
-        
-        //Add passengers
-        List<Passenger> passengers = createPassengers(booking, request.getPassengers());
-        booking.setPassengers(passengers);
+        Booking booking = createBooking(user, flight, request, null);
         
         //Save booking
         Booking savedBooking = bookingRepository.save(booking);
+        seatService.saveAssignedSeats(savedBooking);
         
-        //Update flight available seats
-        flight.setAvailableSeats(flight.getAvailableSeats() - request.getNumberOfPassengers());
-        flightRepository.save(flight);
+        //Reserve seats last so the flight row lock is held only until commit
+        seatInventoryService.reserveSeats(flight, request.getNumberOfPassengers());
         
-        log.info("Booking created successfully with PNR: {}", pnrNumber);
+        BookingResponseDTO response = convertToDTO(savedBooking);
+        beforeCommit.accept(response);
+        
+        log.info("Booking created successfully with PNR: {}", savedBooking.getPnrNumber());
+        return response;
+    }
+    
+    //Books a run of requests for one flight with a single inventory update and transaction
+    @RetryOnConflict(retryOnConstraints = Seat.UK_FLIGHT_SEAT_NUMBER)
+    @Transactional
+    public List<BookingResponseDTO> bookFlightBatch(Integer flightId, List<BookingRequestDTO> requests) {
+        log.info("Processing batch of {} bookings for flight {}", requests.size(), flightId);
+        
+        Flight flight = flightRepository.findById(flightId)
+            .orElseThrow(() -> new ResourceNotFoundException("Flight not found with ID: " + flightId));
+        
+        int totalSeats = 0;
+        for (BookingRequestDTO request : requests) {
+            validateBookingRequest(flight, request);
+            totalSeats += request.getNumberOfPassengers();
+        }
+        
+        List<Booking> bookings = new ArrayList<>(requests.size());
+        for (BookingRequestDTO request : requests) {
+            User user = userRepository.findByEmail(request.getUserEmail())
+                .orElseGet(() -> createGuestUser(request.getUserEmail()));
+            bookings.add(createBooking(user, flight, request, null));
+        }
+        List<Booking> savedBookings = bookingRepository.saveAll(bookings);
+        savedBookings.forEach(seatService::saveAssignedSeats);
+        seatInventoryService.reserveSeats(flight, totalSeats);
+        
+        log.info("Batch of {} bookings created for flight {}", savedBookings.size(), flightId);
+        return savedBookings.stream()
+            .map(this::convertToDTO)
+            .collect(Collectors.toList());
+    }
+    
+    @RetryOnConflict
+    @Transactional
+    public BookingResponseDTO confirmHold(String holdId, BookingRequestDTO request) {
+        log.info("Confirming seat hold {} for email {}", holdId, request.getUserEmail());
+        
+        List<Seat> heldSeats = seatService.getActiveHold(holdId);
+        Flight flight = heldSeats.get(0).getFlight();
+        
+        //A hold placed shortly before departure can outlive the flight
+        if (LocalDateTime.now().isAfter(flight.getDepartureTime())) {
+            throw new BookingException("Cannot book flight that has already departed");
+        }
+        
+        ValidationUtils.validateNumberOfPassengers(request.getNumberOfPassengers());
+        if (request.getNumberOfPassengers() != heldSeats.size()
+                || request.getPassengers().size() != heldSeats.size()) {
+            throw new BookingException("Number of passengers must match the " + heldSeats.size() + " held seats");
+        }
+        
+        User user = userRepository.findByEmail(request.getUserEmail())
+            .orElseGet(() -> createGuestUser(request.getUserEmail()));
+        
+        //Seats were taken out of inventory when the hold was placed
+        List<String> seatNumbers = heldSeats.stream()
+            .map(Seat::getSeatNumber)
+            .collect(Collectors.toList());
+        //Pooled IDs defer the INSERT, and a bulk UPDATE of seat does not flush booking; the row has to
+        //exist before the held seats point at it
+        Booking savedBooking = bookingRepository.saveAndFlush(createBooking(user, flight, request, seatNumbers));
+        seatService.confirmHold(holdId, savedBooking, seatNumbers);
+        
+        log.info("Seat hold {} confirmed with PNR: {}", holdId, savedBooking.getPnrNumber());
         return convertToDTO(savedBooking);
     }
     
+    @RetryOnConflict
     @Transactional
     public BookingResponseDTO cancelBooking(String pnrNumber) {
         log.info("Cancelling booking with PNR: {}", pnrNumber);
@@ -100,9 +170,8 @@ public class BookingService {
         bookingRepository.save(booking);
         
         //Restore available seats
-        Flight flight = booking.getFlight();
-        flight.setAvailableSeats(flight.getAvailableSeats() + booking.getNumberOfPassengers());
-        flightRepository.save(flight);
+        seatService.releaseBookedSeats(booking);
+        seatInventoryService.releaseSeats(booking.getFlight(), booking.getNumberOfPassengers());
         
         log.info("Booking cancelled successfully");
         return convertToDTO(booking);
@@ -137,6 +206,7 @@ public class BookingService {
             .password("guest_" + System.currentTimeMillis())
             .firstName("Guest")
             .lastName("User")
+            .role("USER")
             .isActive(true)
             .build();
         
@@ -144,8 +214,8 @@ public class BookingService {
     }
     
     private void validateBookingRequest(Flight flight, BookingRequestDTO request) {
+        //Seat counts are checked only by the inventory reserve; the loaded row can lag the in-memory engine
         ValidationUtils.validateNumberOfPassengers(request.getNumberOfPassengers());
-        ValidationUtils.validateAvailableSeats(flight.getAvailableSeats(), request.getNumberOfPassengers());
         
         if (request.getPassengers().size() != request.getNumberOfPassengers()) {
             throw new BookingException("Number of passengers doesn't match passenger details count");
@@ -156,27 +226,53 @@ public class BookingService {
         }
     }
     
-    private List<Passenger> createPassengers(Booking booking, List<PassengerDTO> passengerDTOs) {
-        return passengerDTOs.stream()
-            .map(dto -> {
-                ValidationUtils.validateName(dto.getPassengerName());
-                ValidationUtils.validateAge(dto.getAge());
-                
-                return Passenger.builder()
-                    .booking(booking)
-                    .passengerName(dto.getPassengerName())
-                    .gender(dto.getGender())
-                    .age(dto.getAge())
-                    .mealPreference(dto.getMealPreference())
-                    .isActive(true)
-                    .baggageAllowanceKg(20)
-                    .build();
-            })
-            .collect(Collectors.toList());
+    private Booking createBooking(User user, Flight flight, BookingRequestDTO request, List<String> seatNumbers) {
+        BigDecimal totalPrice = flight.getPricePerSeat().multiply(
+            BigDecimal.valueOf(request.getNumberOfPassengers())
+        );
+        
+        Booking booking = Booking.builder()
+            .pnrNumber(pnrGenerator.nextPnr())
+            .user(user)
+            .flight(flight)
+            .numberOfPassengers(request.getNumberOfPassengers())
+            .totalPrice(totalPrice)
+            .bookingStatus("CONFIRMED")
+            .tripType(request.getTripType())
+            .build();
+        
+        //Add passengers
+        booking.setPassengers(createPassengers(booking, request, seatNumbers));
+        return booking;
     }
     
-    private String generatePNR() {
-        return "PNR" + String.format("%07d", System.currentTimeMillis() % 10000000);
+    private List<Passenger> createPassengers(Booking booking, BookingRequestDTO request, List<String> heldSeats) {
+        List<PassengerDTO> passengerDTOs = request.getPassengers();
+        for (PassengerDTO dto : passengerDTOs) {
+            ValidationUtils.validateName(dto.getPassengerName());
+            ValidationUtils.validateAge(dto.getAge());
+        }
+        
+        //Held seats were picked when the hold was placed; otherwise seat the party together now
+        List<String> seatNumbers = heldSeats != null
+            ? heldSeats
+            : seatService.assignSeats(booking.getFlight(), passengerDTOs.size(), request.getSeatClass());
+        
+        List<Passenger> passengers = new ArrayList<>(passengerDTOs.size());
+        for (int i = 0; i < passengerDTOs.size(); i++) {
+            PassengerDTO dto = passengerDTOs.get(i);
+            passengers.add(Passenger.builder()
+                .booking(booking)
+                .passengerName(dto.getPassengerName())
+                .gender(dto.getGender())
+                .age(dto.getAge())
+                .mealPreference(dto.getMealPreference())
+                .seatNumber(seatNumbers.get(i))
+                .isActive(true)
+                .baggageAllowanceKg(20)
+                .build());
+        }
+        return passengers;
     }
     
     private BookingResponseDTO convertToDTO(Booking booking) {
@@ -1,20 +1,52 @@
 package com.flightapp.service;
 
+import com.flightapp.dto.ConnectingItineraryDTO;
+import com.flightapp.dto.DestinationFareDTO;
+import com.flightapp.dto.FareCalendarDayDTO;
 import com.flightapp.dto.FlightResponseDTO;
 import com.flightapp.dto.FlightSearchDTO;
+import com.flightapp.dto.FlightSearchPageDTO;
+import com.flightapp.dto.SearchCursor;
 import com.flightapp.entity.Flight;
+import com.flightapp.event.FlightAddedEvent;
 import com.flightapp.repository.FlightRepository;
 import com.flightapp.exception.ResourceNotFoundException;
 import com.flightapp.exception.ValidationException;  
+import com.flightapp.service.inventory.SeatInventoryEngine;
+import com.flightapp.service.search.CityDirectory;
+import com.flightapp.service.search.FlightSearchCache;
+import com.flightapp.service.search.FlightSearchIndex;
+import com.flightapp.service.search.NearbyCityIndex;
+import com.flightapp.service.search.RouteFilter;
+import com.flightapp.service.search.RouteGraph;
+import com.flightapp.service.seating.SeatMapService;
+import com.flightapp.validation.SearchLimits;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;  
-import java.time.LocalDateTime;
-import java.time.ZoneId;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -22,24 +54,190 @@ import java.util.stream.Collectors;
 @Slf4j
 public class FlightService {
     
+    public static final int DEFAULT_SEARCH_LIMIT = 50;
+    public static final int DEFAULT_FLEX_DAYS = 3;
+    public static final int MAX_FLEX_DAYS = 7;
+    public static final int DEFAULT_CITY_SUGGESTIONS = 10;
+    public static final int MAX_CITY_SUGGESTIONS = 50;
+    
     private final FlightRepository flightRepository;
+    private final SeatInventoryEngine seatInventoryEngine;
+    private final SeatMapService seatMapService;
+    private final FlightSearchIndex flightSearchIndex;
+    private final FlightSearchCache flightSearchCache;
+    private final RouteGraph routeGraph;
+    private final RouteFilter routeFilter;
+    private final CityDirectory cityDirectory;
+    private final NearbyCityIndex nearbyCityIndex;
+    private final ApplicationEventPublisher eventPublisher;
     
     public List<FlightResponseDTO> searchFlights(FlightSearchDTO searchDTO) {
         log.info("Searching flights from {} to {}", searchDTO.getDepartureCity(), searchDTO.getArrivalCity());
+        int limit = searchDTO.getLimit() == null ? DEFAULT_SEARCH_LIMIT : Math.min(searchDTO.getLimit(), SearchLimits.MAX_SEARCH_LIMIT);
+        if (searchDTO.getNearbyRadiusKm() != null && searchDTO.getNearbyRadiusKm() > 0) {
+            List<String> origins = nearbyCityIndex.citiesNear(searchDTO.getDepartureCity(), searchDTO.getNearbyRadiusKm());
+            List<String> destinations = nearbyCityIndex.citiesNear(searchDTO.getArrivalCity(), searchDTO.getNearbyRadiusKm());
+            //Nothing else within the radius: the single route search below, with its cache and index
+            if (origins.size() > 1 || destinations.size() > 1) {
+                return searchNearby(searchDTO, limit, origins, destinations);
+            }
+        }
+        if (routeFilter.rulesOut(searchDTO.getDepartureCity(), searchDTO.getArrivalCity())) {
+            return new ArrayList<>();
+        }
+        return flightSearchCache.search(searchDTO, limit, () -> loadFlights(searchDTO, limit));
+    }
+    
+    //Every nearby origin and destination in one query. The cache and index are keyed by a single
+    //route, so this goes to the database; pairs the route filter rules out never reach the IN lists.
+    //The IN lists also match the pairs between served cities that were ruled out, and flights back
+    //the other way when the two ends are near each other, so rows are kept only for served pairs.
+    private List<FlightResponseDTO> searchNearby(FlightSearchDTO searchDTO, int limit,
+                                                 List<String> origins, List<String> destinations) {
+        String departureKey = cityKey(searchDTO.getDepartureCity());
+        String arrivalKey = cityKey(searchDTO.getArrivalCity());
+        Set<String> servedOrigins = new LinkedHashSet<>();
+        Set<String> servedDestinations = new LinkedHashSet<>();
+        Set<String> servedPairs = new HashSet<>();
+        for (String origin : origins) {
+            for (String destination : destinations) {
+                String originKey = cityKey(origin);
+                String destinationKey = cityKey(destination);
+                if (originKey.equals(arrivalKey) || destinationKey.equals(departureKey)
+                        || originKey.equals(destinationKey) || routeFilter.rulesOut(origin, destination)) {
+                    continue;
+                }
+                servedOrigins.add(origin);
+                servedDestinations.add(destination);
+                servedPairs.add(originKey + '\n' + destinationKey);
+            }
+        }
+        if (servedPairs.isEmpty()) {
+            return new ArrayList<>();
+        }
+        log.info("Searching {} routes between {} origins and {} destinations",
+            servedPairs.size(), servedOrigins.size(), servedDestinations.size());
+        int seats = searchDTO.getNumberOfPassengers() == null ? 1 : searchDTO.getNumberOfPassengers();
+        List<FlightResponseDTO> bookable = fillPage(limit,
+            fetch -> flightRepository.searchByCities(searchDTO, servedOrigins, servedDestinations, fetch),
+            flight -> servedPairs.contains(cityKey(flight.getDepartureCity()) + '\n' + cityKey(flight.getArrivalCity()))
+                && isBookable(flight, seats));
+        log.info("Found {} flights", bookable.size());
+        return bookable;
+    }
+    
+    //Keyset pages skip the result cache: the cursor is the last row read, bookable or not,
+    //so flights hidden by the live seat check never end paging early
+    public FlightSearchPageDTO searchFlightPage(FlightSearchDTO searchDTO) {
+        log.info("Searching flight page from {} to {}", searchDTO.getDepartureCity(), searchDTO.getArrivalCity());
+        int limit = searchDTO.getLimit() == null ? DEFAULT_SEARCH_LIMIT : Math.min(searchDTO.getLimit(), SearchLimits.MAX_SEARCH_LIMIT);
+        List<FlightResponseDTO> rows = flightSearchIndex.search(searchDTO, limit)
+            .orElseGet(() -> flightRepository.searchByCriteria(searchDTO, limit));
+        String nextCursor = rows.size() < limit ? null : SearchCursor.after(rows.get(rows.size() - 1)).encode();
+        
+        rows.forEach(this::applyLiveSeats);
+        int seats = searchDTO.getNumberOfPassengers() == null ? 1 : searchDTO.getNumberOfPassengers();
+        List<FlightResponseDTO> bookable = rows.stream()
+            .filter(flight -> flight.getAvailableSeats() >= seats)
+            .collect(Collectors.toList());
+        return new FlightSearchPageDTO(bookable, nextCursor);
+    }
+    
+    //Hands rows to the sink one at a time while the database cursor is open, so nothing
+    //proportional to the result size is held; returns how many flights were written
+    public int streamFlights(FlightSearchDTO searchDTO, Consumer<FlightResponseDTO> sink) {
+        log.info("Streaming flights from {} to {}", searchDTO.getDepartureCity(), searchDTO.getArrivalCity());
+        int seats = searchDTO.getNumberOfPassengers() == null ? 1 : searchDTO.getNumberOfPassengers();
+        int written = 0;
+        try (Stream<FlightResponseDTO> rows = flightRepository.streamByCriteria(searchDTO)) {
+            Iterator<FlightResponseDTO> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                FlightResponseDTO flight = iterator.next();
+                applyLiveSeats(flight);
+                if (flight.getAvailableSeats() >= seats) {
+                    sink.accept(flight);
+                    written++;
+                }
+            }
+        }
+        return written;
+    }
+    
+    public List<ConnectingItineraryDTO> searchConnections(FlightSearchDTO searchDTO) {
+        log.info("Searching itineraries from {} to {}", searchDTO.getDepartureCity(), searchDTO.getArrivalCity());
+        int limit = searchDTO.getLimit() == null ? DEFAULT_SEARCH_LIMIT : Math.min(searchDTO.getLimit(), SearchLimits.MAX_SEARCH_LIMIT);
+        int maxStops = searchDTO.getMaxStops() == null ? RouteGraph.MAX_STOPS : searchDTO.getMaxStops();
         
-        LocalDateTime departureDateTime = searchDTO.getDepartureDate()
-            .atStartOfDay(ZoneId.systemDefault()).toLocalDateTime();
+        int seats = searchDTO.getNumberOfPassengers() == null ? 1 : searchDTO.getNumberOfPassengers();
+        //Graph still cold: direct flights are all that can be offered
+        List<ConnectingItineraryDTO> bookable = fillPage(limit,
+            fetch -> routeGraph.search(searchDTO, maxStops, fetch)
+                .orElseGet(() -> loadFlights(searchDTO, fetch).stream()
+                    .map(flight -> RouteGraph.itinerary(List.of(flight)))
+                    .collect(Collectors.toList())),
+            itinerary -> itinerary.getLegs().stream().allMatch(leg -> isBookable(leg, seats)));
+        log.info("Found {} itineraries", bookable.size());
+        return bookable;
+    }
+    
+    //One grouped read for the whole window instead of a search per day
+    public List<FareCalendarDayDTO> getFareCalendar(FlightSearchDTO searchDTO) {
+        String departureCity = searchDTO.getDepartureCity();
+        String arrivalCity = searchDTO.getArrivalCity();
+        int flexDays = searchDTO.getFlexDays() == null ? DEFAULT_FLEX_DAYS : Math.min(searchDTO.getFlexDays(), MAX_FLEX_DAYS);
+        int seats = searchDTO.getNumberOfPassengers() == null ? 1 : searchDTO.getNumberOfPassengers();
+        LocalDate windowStart = searchDTO.getDepartureDate().minusDays(flexDays);
+        LocalDate firstDay = windowStart.isBefore(LocalDate.now()) ? LocalDate.now() : windowStart;
+        LocalDate lastDay = searchDTO.getDepartureDate().plusDays(flexDays);
+        log.info("Fetching fare calendar from {} to {} for {} to {}", departureCity, arrivalCity, firstDay, lastDay);
         
-        List<Flight> flights = flightRepository.searchFlights(
-            searchDTO.getDepartureCity(),
-            searchDTO.getArrivalCity(),
-            departureDateTime
-        );
+        List<FareCalendarDayDTO> fares = flightSearchCache.fareCalendar(departureCity, arrivalCity, firstDay, lastDay, seats,
+            () -> flightSearchIndex.fareCalendar(departureCity, arrivalCity, firstDay, lastDay, seats)
+                .orElseGet(() -> flightRepository.findFareCalendar(departureCity, arrivalCity,
+                    firstDay.atStartOfDay(), lastDay.plusDays(1).atStartOfDay(), seats)));
         
-        log.info("Found {} flights", flights.size());
-        return flights.stream()
-            .map(this::convertToDTO)
-            .collect(Collectors.toList());
+        //Every day of the window gets an entry, days without a bookable flight have no fare
+        Map<LocalDate, FareCalendarDayDTO> faresByDay = fares.stream()
+            .collect(Collectors.toMap(FareCalendarDayDTO::getDate, Function.identity()));
+        List<FareCalendarDayDTO> calendar = new ArrayList<>();
+        for (LocalDate day = firstDay; !day.isAfter(lastDay); day = day.plusDays(1)) {
+            calendar.add(faresByDay.getOrDefault(day, new FareCalendarDayDTO(day, null, 0L)));
+        }
+        return calendar;
+    }
+    
+    //Cheapest fare to every destination served from the city in the month, from the search index's
+    //per-day aggregate; a cold index falls back to one grouped read of the origin's flights
+    public List<DestinationFareDTO> exploreDestinations(String departureCity, YearMonth month) {
+        LocalDate firstDay = month.atDay(1).isBefore(LocalDate.now()) ? LocalDate.now() : month.atDay(1);
+        LocalDate lastDay = month.atEndOfMonth();
+        log.info("Exploring destinations from {} for {} to {}", departureCity, firstDay, lastDay);
+        if (firstDay.isAfter(lastDay)) {
+            return new ArrayList<>();
+        }
+        return flightSearchIndex.cheapestDestinations(departureCity, firstDay, lastDay)
+            .orElseGet(() -> cheapestPerDestination(flightRepository.findCheapestDestinationDays(departureCity,
+                firstDay.atStartOfDay(), lastDay.plusDays(1).atStartOfDay())));
+    }
+    
+    //Rows come per destination and day in day order, so the first cheapest day wins a tie
+    private static List<DestinationFareDTO> cheapestPerDestination(List<DestinationFareDTO> days) {
+        Map<String, DestinationFareDTO> cheapest = new LinkedHashMap<>();
+        for (DestinationFareDTO day : days) {
+            cheapest.merge(day.getArrivalCity(), day, (current, candidate) ->
+                candidate.getCheapestPricePerSeat().compareTo(current.getCheapestPricePerSeat()) < 0 ? candidate : current);
+        }
+        List<DestinationFareDTO> destinations = new ArrayList<>(cheapest.values());
+        destinations.sort(Comparator.comparing(DestinationFareDTO::getCheapestPricePerSeat)
+            .thenComparing(DestinationFareDTO::getArrivalCity));
+        return destinations;
+    }
+    
+    //Answered from memory; opting out of the read-only transaction keeps it off the connection pool
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<String> suggestCities(String prefix, Integer limit) {
+        int suggestions = limit == null ? DEFAULT_CITY_SUGGESTIONS : Math.min(limit, MAX_CITY_SUGGESTIONS);
+        return cityDirectory.suggest(prefix, suggestions);
     }
     
     @Transactional  // ← ADD THIS - Need transactional for write operation
@@ -73,6 +271,8 @@ public class FlightService {
         
         //Save and return
         Flight savedFlight = flightRepository.save(flight);
+        seatMapService.createSeatMap(savedFlight);
+        eventPublisher.publishEvent(FlightAddedEvent.of(savedFlight));
         return convertToDTO(savedFlight);
     }
 
@@ -80,10 +280,10 @@ public class FlightService {
     public FlightResponseDTO getFlightById(Integer flightId) {
         log.info("Fetching flight with ID: {}", flightId);
         
-        Flight flight = flightRepository.findById(flightId)
+        FlightResponseDTO flight = flightRepository.findResponseById(flightId)
             .orElseThrow(() -> new ResourceNotFoundException("Flight not found with ID: " + flightId));
-        
-        return convertToDTO(flight);
+        applyLiveSeats(flight);
+        return flight;
     }
     
     @Transactional
@@ -99,6 +299,74 @@ public class FlightService {
         log.info("Flight inventory added successfully");
     }
     
+    public List<String> getAvailableSeats(Integer flightId, String seatClass) {
+        log.info("Fetching available seats for flight {}", flightId);
+        
+        Flight flight = flightRepository.findById(flightId)
+            .orElseThrow(() -> new ResourceNotFoundException("Flight not found with ID: " + flightId));
+        return seatMapService.findAvailableSeats(flightId, seatClass, flight.getTotalSeats());
+    }
+    
+    private List<FlightResponseDTO> loadFlights(FlightSearchDTO searchDTO, int limit) {
+        //Index still cold: the criteria query does the filtering, sorting and limiting
+        return bookable(searchDTO, limit, fetch -> flightSearchIndex.search(searchDTO, fetch)
+            .orElseGet(() -> flightRepository.searchByCriteria(searchDTO, fetch)));
+    }
+    
+    private List<FlightResponseDTO> bookable(FlightSearchDTO searchDTO, int limit,
+                                             IntFunction<List<FlightResponseDTO>> source) {
+        int seats = searchDTO.getNumberOfPassengers() == null ? 1 : searchDTO.getNumberOfPassengers();
+        List<FlightResponseDTO> bookable = fillPage(limit, source, flight -> isBookable(flight, seats));
+        log.info("Found {} flights", bookable.size());
+        return bookable;
+    }
+    
+    //The source limits before the live seat check can hide rows, so a page that comes up short is
+    //asked for again with twice the rows until it fills or the source runs out. Each larger fetch
+    //returns the smaller one's rows first, in the same order. Growth stops at MAX_SEARCH_FETCH rows;
+    //past that the page is returned short, and the keyset page search, whose cursor is the last row
+    //read, is the way through a route that is mostly sold out.
+    private static <T> List<T> fillPage(int limit, IntFunction<List<T>> source, Predicate<T> bookable) {
+        for (int fetch = Math.min(limit, SearchLimits.MAX_SEARCH_FETCH); ;
+                fetch = Math.min(fetch * 2, SearchLimits.MAX_SEARCH_FETCH)) {
+            List<T> rows = source.apply(fetch);
+            List<T> page = rows.stream()
+                .filter(bookable)
+                .limit(limit)
+                .collect(Collectors.toList());
+            if (page.size() == limit || rows.size() < fetch) {
+                return page;
+            }
+            if (fetch == SearchLimits.MAX_SEARCH_FETCH) {
+                log.debug("Returning {} of {} results after reading {} rows", page.size(), limit, fetch);
+                return page;
+            }
+        }
+    }
+    
+    private static String cityKey(String city) {
+        return city == null ? "" : city.trim().toLowerCase(Locale.ROOT);
+    }
+    
+    //The in-memory inventory can be ahead of both the index and the flight row
+    private boolean isBookable(FlightResponseDTO flight, int seats) {
+        applyLiveSeats(flight);
+        return flight.getAvailableSeats() >= seats;
+    }
+    
+    //The in-memory inventory is ahead of the flight row until the next write-behind flush
+    private Integer currentAvailableSeats(Flight flight) {
+        OptionalInt liveSeats = seatInventoryEngine.availableSeats(flight.getFlightId());
+        return liveSeats.isPresent() ? Integer.valueOf(liveSeats.getAsInt()) : flight.getAvailableSeats();
+    }
+    
+    private void applyLiveSeats(FlightResponseDTO flight) {
+        OptionalInt liveSeats = seatInventoryEngine.availableSeats(flight.getFlightId());
+        if (liveSeats.isPresent()) {
+            flight.setAvailableSeats(liveSeats.getAsInt());
+        }
+    }
+    
     private FlightResponseDTO convertToDTO(Flight flight) {
         return FlightResponseDTO.builder()
             .flightId(flight.getFlightId())
@@ -109,7 +377,7 @@ public class FlightService {
             .arrivalCity(flight.getArrivalCity())
             .departureTime(flight.getDepartureTime())
             .arrivalTime(flight.getArrivalTime())
-            .availableSeats(flight.getAvailableSeats())
+            .availableSeats(currentAvailableSeats(flight))
             .pricePerSeat(flight.getPricePerSeat())
             .build();
     }
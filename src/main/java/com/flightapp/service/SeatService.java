@@ -0,0 +1,278 @@
+package com.flightapp.service;
+
+import com.flightapp.dto.SeatHoldResponseDTO;
+import com.flightapp.entity.Booking;
+import com.flightapp.entity.Flight;
+import com.flightapp.entity.Seat;
+import com.flightapp.exception.BookingException;
+import com.flightapp.exception.ResourceNotFoundException;
+import com.flightapp.repository.FlightRepository;
+import com.flightapp.repository.SeatRepository;
+import com.flightapp.service.inventory.SeatInventoryService;
+import com.flightapp.service.retry.RetryOnConflict;
+import com.flightapp.service.seating.SeatMapService;
+import com.flightapp.util.HashedWheelTimer;
+import com.flightapp.validation.ValidationUtils;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SeatService {
+    
+    private static final int WHEEL_SIZE = 512;
+    private static final long EXPIRY_RETRY_SECONDS = 1;
+    
+    private final SeatRepository seatRepository;
+    private final FlightRepository flightRepository;
+    private final SeatInventoryService seatInventoryService;
+    private final SeatMapService seatMapService;
+    private final TransactionTemplate transactionTemplate;
+    
+    private final Map<String, HashedWheelTimer.Timeout> holdExpiries = new ConcurrentHashMap<>();
+    private ExecutorService expiryExecutor;
+    private HashedWheelTimer expiryWheel;
+    
+    @Value("${flightapp.booking.hold.ttl-seconds:600}")
+    private long holdTtlSeconds = 600;
+    
+    @Value("${flightapp.booking.hold.tick-ms:100}")
+    private long tickMillis = 100;
+    
+    @PostConstruct
+    public void startExpiryWheel() {
+        expiryExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "seat-hold-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        expiryWheel = new HashedWheelTimer("seat-hold-wheel", tickMillis, TimeUnit.MILLISECONDS,
+            WHEEL_SIZE, expiryExecutor);
+    }
+    
+    @PreDestroy
+    public void stopExpiryWheel() {
+        expiryWheel.stop();
+        expiryExecutor.shutdown();
+    }
+    
+    //Holds outlive a restart in the seat table; put their deadlines back on the wheel once
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverPendingHolds() {
+        List<Object[]> pendingHolds = seatRepository.findPendingHolds();
+        for (Object[] hold : pendingHolds) {
+            LocalDateTime reservedAt = (LocalDateTime) hold[2];
+            scheduleExpiry((String) hold[0], (Integer) hold[1], reservedAt.plusSeconds(holdTtlSeconds));
+        }
+        log.info("Recovered {} pending seat holds", pendingHolds.size());
+    }
+    
+    //The wheel only knows holds placed or recovered here; one placed on an instance that went away
+    //would keep its seats until some instance restarts, so expired holds are swept up periodically
+    @Scheduled(initialDelayString = "${flightapp.booking.hold.sweep-interval-ms:60000}",
+        fixedDelayString = "${flightapp.booking.hold.sweep-interval-ms:60000}")
+    public void sweepExpiredHolds() {
+        List<Object[]> expiredHolds = seatRepository.findPendingHoldsReservedBefore(
+            LocalDateTime.now().minusSeconds(holdTtlSeconds));
+        for (Object[] hold : expiredHolds) {
+            String holdId = (String) hold[0];
+            cancelExpiry(holdId);
+            expireHold(holdId, (Integer) hold[1]);
+        }
+        if (!expiredHolds.isEmpty()) {
+            log.info("Swept {} expired seat holds", expiredHolds.size());
+        }
+    }
+    
+    @RetryOnConflict(retryOnConstraints = Seat.UK_FLIGHT_SEAT_NUMBER)
+    @Transactional
+    public SeatHoldResponseDTO holdSeats(Integer flightId, Integer numberOfSeats, String seatClass) {
+        log.info("Holding {} seats on flight {}", numberOfSeats, flightId);
+        
+        ValidationUtils.validateNumberOfPassengers(numberOfSeats);
+        Flight flight = flightRepository.findById(flightId)
+            .orElseThrow(() -> new ResourceNotFoundException("Flight not found with ID: " + flightId));
+        if (LocalDateTime.now().isAfter(flight.getDepartureTime())) {
+            throw new BookingException("Cannot hold seats on a flight that has already departed");
+        }
+        
+        String holdId = UUID.randomUUID().toString();
+        LocalDateTime reservedAt = LocalDateTime.now();
+        //Only the seats actually handed out get a row; everything else lives in the seat map
+        List<Seat> seats = seatMapService.holdSeats(flight, numberOfSeats, seatClass).stream()
+            .map(seatNumber -> Seat.builder()
+                .flight(flight)
+                .seatNumber(seatNumber)
+                .seatClass(seatMapService.seatClassOf(flight, seatNumber))
+                .isAvailable(false)
+                .isReserved(true)
+                .reservedAt(reservedAt)
+                .holdId(holdId)
+                .isActive(true)
+                .build())
+            .collect(Collectors.toList());
+        seatRepository.saveAll(seats);
+        seatInventoryService.reserveSeats(flight, numberOfSeats);
+        
+        LocalDateTime expiresAt = reservedAt.plusSeconds(holdTtlSeconds);
+        afterCommit(() -> scheduleExpiry(holdId, flightId, expiresAt));
+        
+        log.info("Seat hold {} created, expires at {}", holdId, expiresAt);
+        return SeatHoldResponseDTO.builder()
+            .holdId(holdId)
+            .flightId(flightId)
+            .flightNumber(flight.getFlightNumber())
+            .seatNumbers(seats.stream().map(Seat::getSeatNumber).collect(Collectors.toList()))
+            .expiresAt(expiresAt)
+            .build();
+    }
+    
+    @Transactional(readOnly = true)
+    public List<Seat> getActiveHold(String holdId) {
+        List<Seat> seats = seatRepository.findActiveHold(holdId);
+        if (seats.isEmpty()) {
+            throw new ResourceNotFoundException("Seat hold not found or already released: " + holdId);
+        }
+        if (seats.get(0).getReservedAt().plusSeconds(holdTtlSeconds).isBefore(LocalDateTime.now())) {
+            throw new BookingException("Seat hold has expired");
+        }
+        return seats;
+    }
+    
+    //Must run in the transaction that saves the booking, so the seats and the booking commit together
+    @Transactional
+    public void confirmHold(String holdId, Booking booking, List<String> heldSeats) {
+        int confirmed = seatRepository.confirmHold(holdId, booking);
+        if (confirmed != heldSeats.size()) {
+            throw new BookingException("Seat hold has expired");
+        }
+        seatMapService.bookSeats(booking.getFlight(), heldSeats);
+        afterCommit(() -> cancelExpiry(holdId));
+    }
+    
+    @Transactional
+    public void releaseHold(String holdId) {
+        log.info("Releasing seat hold {}", holdId);
+        
+        List<Seat> seats = seatRepository.findActiveHold(holdId);
+        if (seats.isEmpty()) {
+            throw new ResourceNotFoundException("Seat hold not found or already released: " + holdId);
+        }
+        releaseUnconfirmedSeats(holdId, seats.get(0).getFlight());
+        afterCommit(() -> cancelExpiry(holdId));
+    }
+    
+    @Transactional
+    public List<String> assignSeats(Flight flight, int numberOfSeats, String seatClass) {
+        List<String> seatNumbers = seatMapService.assignSeats(flight, numberOfSeats, seatClass);
+        log.info("Assigned seats {} on flight {}", seatNumbers, flight.getFlightNumber());
+        return seatNumbers;
+    }
+    
+    //Writes a Seat row for each passenger seat once the booking has an id; the rows go out in the
+    //booking's insert batch and their unique key is what stops two instances booking one seat
+    @Transactional
+    public void saveAssignedSeats(Booking booking) {
+        List<Seat> seats = booking.getPassengers().stream()
+            .filter(passenger -> passenger.getSeatNumber() != null)
+            .map(passenger -> Seat.builder()
+                .flight(booking.getFlight())
+                .seatNumber(passenger.getSeatNumber())
+                .seatClass(seatMapService.seatClassOf(booking.getFlight(), passenger.getSeatNumber()))
+                .isAvailable(false)
+                .isReserved(false)
+                .booking(booking)
+                .isActive(true)
+                .build())
+            .collect(Collectors.toList());
+        seatRepository.saveAll(seats);
+    }
+    
+    @Transactional
+    public void releaseBookedSeats(Booking booking) {
+        List<String> seatNumbers = seatRepository.findSeatNumbersByBooking(booking);
+        if (seatNumbers.isEmpty()) {
+            return;
+        }
+        seatRepository.deleteByBooking(booking);
+        seatMapService.releaseSeats(booking.getFlight(), seatNumbers);
+    }
+    
+    public int pendingHoldCount() {
+        return expiryWheel.pendingTimeouts();
+    }
+    
+    private void expireHold(String holdId, Integer flightId) {
+        holdExpiries.remove(holdId);
+        try {
+            transactionTemplate.executeWithoutResult(status -> flightRepository.findById(flightId)
+                .ifPresent(flight -> releaseUnconfirmedSeats(holdId, flight)));
+        } catch (RuntimeException ex) {
+            log.warn("Could not expire seat hold {}, retrying: {}", holdId, ex.getMessage());
+            scheduleExpiry(holdId, flightId, LocalDateTime.now().plusSeconds(EXPIRY_RETRY_SECONDS));
+        }
+    }
+    
+    private void releaseUnconfirmedSeats(String holdId, Flight flight) {
+        //The guarded delete loses to a concurrent confirm, so a seat is never both booked and released
+        List<String> seatNumbers = seatRepository.findUnconfirmedHoldSeatNumbers(holdId);
+        int released = seatRepository.deleteUnconfirmedHold(holdId);
+        if (released > 0) {
+            seatMapService.releaseSeats(flight, seatNumbers);
+            seatInventoryService.releaseSeats(flight, released);
+            log.info("Released {} held seats for hold {}", released, holdId);
+        }
+    }
+    
+    private void scheduleExpiry(String holdId, Integer flightId, LocalDateTime expiresAt) {
+        long delayMillis = Math.max(0, Duration.between(LocalDateTime.now(), expiresAt).toMillis());
+        HashedWheelTimer.Timeout timeout = expiryWheel.schedule(() -> expireHold(holdId, flightId),
+            delayMillis, TimeUnit.MILLISECONDS);
+        HashedWheelTimer.Timeout previous = holdExpiries.put(holdId, timeout);
+        if (previous != null) {
+            previous.cancel();
+        }
+    }
+    
+    private void cancelExpiry(String holdId) {
+        HashedWheelTimer.Timeout timeout = holdExpiries.remove(holdId);
+        if (timeout != null) {
+            timeout.cancel();
+        }
+    }
+    
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,282 @@
+package com.flightapp.service.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flightapp.entity.IdempotencyRecord;
+import com.flightapp.exception.BookingException;
+import com.flightapp.exception.ValidationException;
+import com.flightapp.repository.IdempotencyRecordRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+//Runs a request at most once per Idempotency-Key. Finished responses are replayed from a
+//bounded in-memory cache, then from the idempotency_record table; duplicates arriving while
+//the first call is still running wait for its result, in this instance or on another one.
+//The response is recorded inside the action's own transaction, so a key left PENDING always
+//means the action rolled back and the client's retry may safely run it again.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class IdempotencyService {
+    
+    public static final int MAX_KEY_LENGTH = 100;
+    private static final long POLL_INTERVAL_MS = 50;
+    
+    private final IdempotencyRecordRepository recordRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    
+    private final Map<String, InFlight> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, CachedResponse> responses = Collections.synchronizedMap(
+        new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+                return size() > maxCachedResponses;
+            }
+        });
+    
+    @Value("${flightapp.idempotency.ttl-hours:24}")
+    private long ttlHours = 24;
+    
+    @Value("${flightapp.idempotency.cache-size:10000}")
+    private int maxCachedResponses = 10000;
+    
+    @Value("${flightapp.idempotency.wait-timeout-ms:30000}")
+    private long waitTimeoutMs = 30000;
+    
+    @Value("${flightapp.idempotency.lock-seconds:60}")
+    private long lockSeconds = 60;
+    
+    public <T> T execute(String key, String scope, Object request, Class<T> responseType, Action<T> action) {
+        if (key == null || key.isBlank()) {
+            return action.run(response -> { });
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new ValidationException("Idempotency-Key must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+        String requestHash = fingerprint(scope, request);
+        
+        CachedResponse cached = cachedResponse(key);
+        if (cached != null) {
+            checkSameRequest(cached.requestHash(), requestHash);
+            log.info("Replaying cached response for Idempotency-Key {}", key);
+            return read(cached.body(), responseType);
+        }
+        
+        InFlight execution = new InFlight(requestHash, new CompletableFuture<>());
+        InFlight running = inFlight.putIfAbsent(key, execution);
+        if (running != null) {
+            checkSameRequest(running.requestHash(), requestHash);
+            log.info("Waiting for in-flight request with Idempotency-Key {}", key);
+            return read(await(running.result()), responseType);
+        }
+        
+        try {
+            String body = executeOnce(key, requestHash, action);
+            execution.result().complete(body);
+            return read(body, responseType);
+        } catch (RuntimeException ex) {
+            execution.result().completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, execution);
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${flightapp.idempotency.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        synchronized (responses) {
+            responses.values().removeIf(response -> response.expiresAt().isBefore(now));
+        }
+        Integer purged = transactionTemplate.execute(status -> recordRepository.deleteExpired(now));
+        log.info("Purged {} expired idempotency records", purged);
+    }
+    
+    private <T> String executeOnce(String key, String requestHash, Action<T> action) {
+        long deadline = System.currentTimeMillis() + waitTimeoutMs;
+        while (true) {
+            LocalDateTime now = LocalDateTime.now();
+            Optional<IdempotencyRecord> existing = recordRepository.findById(key);
+            if (existing.isPresent() && existing.get().getExpiresAt().isAfter(now)) {
+                IdempotencyRecord record = existing.get();
+                checkSameRequest(record.getRequestHash(), requestHash);
+                if (IdempotencyRecord.COMPLETED.equals(record.getStatus())) {
+                    cache(key, requestHash, record.getResponseBody(), record.getExpiresAt());
+                    return record.getResponseBody();
+                }
+                if (record.getLockedUntil().isAfter(now)) {
+                    //Another instance is running this request
+                    if (System.currentTimeMillis() > deadline) {
+                        throw new BookingException("A request with this Idempotency-Key is still being processed");
+                    }
+                    sleep(POLL_INTERVAL_MS);
+                    continue;
+                }
+            }
+            String claimToken = claim(key, requestHash, existing.isPresent());
+            if (claimToken != null) {
+                return runClaimed(key, requestHash, claimToken, action);
+            }
+        }
+    }
+    
+    private <T> String runClaimed(String key, String requestHash, String claimToken, Action<T> action) {
+        //Written in the action's transaction; a claim taken over meanwhile rolls this attempt back
+        AtomicReference<String> recorded = new AtomicReference<>();
+        T response;
+        try {
+            response = action.run(result -> {
+                String body = write(result);
+                if (recordRepository.complete(key, claimToken, body) != 1) {
+                    throw new BookingException("A retried request with this Idempotency-Key took over");
+                }
+                recorded.set(body);
+            });
+        } catch (RuntimeException ex) {
+            //A failed attempt must not block the client's retry
+            transactionTemplate.executeWithoutResult(status -> recordRepository.releaseClaim(key, claimToken));
+            throw ex;
+        }
+        if (recorded.get() == null) {
+            //The action has no transaction of its own to record the response in
+            String body = write(response);
+            transactionTemplate.executeWithoutResult(status -> recordRepository.complete(key, claimToken, body));
+            recorded.set(body);
+        }
+        cache(key, requestHash, recorded.get(), LocalDateTime.now().plusHours(ttlHours));
+        return recorded.get();
+    }
+    
+    //Returns the token identifying this attempt's claim, or null when another attempt holds the key
+    private String claim(String key, String requestHash, boolean recordExists) {
+        String claimToken = UUID.randomUUID().toString();
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime lockedUntil = now.plusSeconds(lockSeconds);
+        LocalDateTime expiresAt = now.plusHours(ttlHours);
+        if (recordExists) {
+            Integer claimed = transactionTemplate.execute(status ->
+                recordRepository.claimStale(key, requestHash, claimToken, lockedUntil, expiresAt, now));
+            return claimed != null && claimed == 1 ? claimToken : null;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> recordRepository.saveAndFlush(IdempotencyRecord.builder()
+                .idempotencyKey(key)
+                .requestHash(requestHash)
+                .status(IdempotencyRecord.PENDING)
+                .claimToken(claimToken)
+                .lockedUntil(lockedUntil)
+                .expiresAt(expiresAt)
+                .build()));
+            return claimToken;
+        } catch (DataIntegrityViolationException ex) {
+            //Another instance claimed the key first; go back and wait for it
+            return null;
+        }
+    }
+    
+    private CachedResponse cachedResponse(String key) {
+        CachedResponse cached = responses.get(key);
+        if (cached != null && cached.expiresAt().isBefore(LocalDateTime.now())) {
+            responses.remove(key);
+            return null;
+        }
+        return cached;
+    }
+    
+    private void cache(String key, String requestHash, String body, LocalDateTime expiresAt) {
+        responses.put(key, new CachedResponse(requestHash, body, expiresAt));
+    }
+    
+    private String await(CompletableFuture<String> result) {
+        try {
+            return result.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new BookingException("Booking request failed: " + ex.getCause().getMessage());
+        } catch (TimeoutException ex) {
+            throw new BookingException("A request with this Idempotency-Key is still being processed");
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new BookingException("Interrupted while waiting for a duplicate request");
+        }
+    }
+    
+    private void checkSameRequest(String storedHash, String requestHash) {
+        if (!storedHash.equals(requestHash)) {
+            throw new ValidationException("Idempotency-Key was already used for a different request");
+        }
+    }
+    
+    String fingerprint(String scope, Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(scope.getBytes(StandardCharsets.UTF_8));
+            digest.update(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException | JsonProcessingException ex) {
+            throw new IllegalStateException("Could not fingerprint request", ex);
+        }
+    }
+    
+    private String write(Object response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not store response for replay", ex);
+        }
+    }
+    
+    private <T> T read(String body, Class<T> responseType) {
+        try {
+            return objectMapper.readValue(body, responseType);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not replay stored response", ex);
+        }
+    }
+    
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new BookingException("Interrupted while waiting for a duplicate request");
+        }
+    }
+    
+    //Runs the request and passes its response to complete before its transaction commits
+    @FunctionalInterface
+    public interface Action<T> {
+        T run(Consumer<T> complete);
+    }
+    
+    private record InFlight(String requestHash, CompletableFuture<String> result) {
+    }
+    
+    private record CachedResponse(String requestHash, String body, LocalDateTime expiresAt) {
+    }
+}
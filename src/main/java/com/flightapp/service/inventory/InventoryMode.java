@@ -0,0 +1,10 @@
+package com.flightapp.service.inventory;
+
+public enum InventoryMode {
+    //Guarded UPDATE on the flight row, no read-modify-write
+    ATOMIC,
+    //Read, modify and flush the versioned Flight entity; conflicts are retried
+    OPTIMISTIC,
+    //Lock-free in-JVM counters with write-behind to the flight table
+    IN_MEMORY
+}
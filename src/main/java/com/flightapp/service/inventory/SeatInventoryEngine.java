@@ -0,0 +1,181 @@
+package com.flightapp.service.inventory;
+
+import com.flightapp.entity.Flight;
+import com.flightapp.repository.FlightRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+//In-JVM seat counters for flash-sale traffic (flightapp.inventory.mode=IN_MEMORY).
+//Counters are authoritative while the app runs; the flight table catches up through
+//the write-behind flush and is rebuilt from confirmed bookings on startup.
+//Only valid when a single instance owns the inventory.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SeatInventoryEngine {
+    
+    private static final int STRIPE_COUNT = 64;
+    
+    private final FlightRepository flightRepository;
+    private final TransactionTemplate transactionTemplate;
+    
+    @SuppressWarnings("unchecked")
+    private final Map<Integer, FlightCounter>[] stripes = new Map[STRIPE_COUNT];
+    
+    {
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            stripes[i] = new ConcurrentHashMap<>();
+        }
+    }
+    
+    @Value("${flightapp.inventory.mode:ATOMIC}")
+    private InventoryMode mode = InventoryMode.ATOMIC;
+    
+    public boolean isEnabled() {
+        return mode == InventoryMode.IN_MEMORY;
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileOnStartup() {
+        if (!isEnabled()) {
+            return;
+        }
+        //Deltas that were not flushed before a crash are lost, so rebuild seat counts from bookings
+        Integer updated = transactionTemplate.execute(status -> flightRepository.reconcileAvailableSeats(LocalDateTime.now()));
+        log.info("Reconciled available seats for {} flights", updated);
+    }
+    
+    public boolean tryReserve(Flight flight, int seats) {
+        FlightCounter counter = counter(flight);
+        while (true) {
+            int current = counter.available.get();
+            if (current < seats) {
+                return false;
+            }
+            if (counter.available.compareAndSet(current, current - seats)) {
+                counter.pendingDelta.addAndGet(-seats);
+                onRollback(() -> release(counter, seats));
+                return true;
+            }
+        }
+    }
+    
+    public void release(Flight flight, int seats) {
+        FlightCounter counter = counter(flight);
+        int released = release(counter, seats);
+        onRollback(() -> {
+            counter.available.addAndGet(-released);
+            counter.pendingDelta.addAndGet(-released);
+        });
+    }
+    
+    public OptionalInt availableSeats(Integer flightId) {
+        if (!isEnabled() || flightId == null) {
+            return OptionalInt.empty();
+        }
+        FlightCounter counter = stripe(flightId).get(flightId);
+        return counter == null ? OptionalInt.empty() : OptionalInt.of(counter.available.get());
+    }
+    
+    public boolean isSoldOut(Integer flightId) {
+        OptionalInt available = availableSeats(flightId);
+        return available.isPresent() && available.getAsInt() <= 0;
+    }
+    
+    @Scheduled(fixedDelayString = "${flightapp.inventory.flush-interval-ms:100}")
+    public void flush() {
+        if (!isEnabled()) {
+            return;
+        }
+        Map<Integer, Integer> deltas = new HashMap<>();
+        for (Map<Integer, FlightCounter> stripe : stripes) {
+            stripe.forEach((flightId, counter) -> {
+                int delta = counter.pendingDelta.getAndSet(0);
+                if (delta != 0) {
+                    deltas.put(flightId, delta);
+                }
+            });
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+        
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            transactionTemplate.executeWithoutResult(status ->
+                deltas.forEach((flightId, delta) -> flightRepository.applySeatDelta(flightId, delta, now)));
+            log.debug("Flushed seat deltas for {} flights", deltas.size());
+        } catch (RuntimeException ex) {
+            //Put the deltas back so the next flush retries them
+            deltas.forEach((flightId, delta) -> stripe(flightId).get(flightId).pendingDelta.addAndGet(delta));
+            log.error("Failed to flush seat deltas, will retry: {}", ex.getMessage());
+        }
+    }
+    
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+    
+    private int release(FlightCounter counter, int seats) {
+        while (true) {
+            int current = counter.available.get();
+            int next = Math.min(counter.totalSeats, current + seats);
+            if (counter.available.compareAndSet(current, next)) {
+                counter.pendingDelta.addAndGet(next - current);
+                return next - current;
+            }
+        }
+    }
+    
+    private FlightCounter counter(Flight flight) {
+        //The first touch seeds the counter from the row; nothing is pending for it yet
+        return stripe(flight.getFlightId()).computeIfAbsent(flight.getFlightId(),
+            id -> new FlightCounter(flight.getTotalSeats(), flight.getAvailableSeats()));
+    }
+    
+    private Map<Integer, FlightCounter> stripe(Integer flightId) {
+        int hash = flightId * 0x9E3779B9;
+        return stripes[(hash >>> 16) & (STRIPE_COUNT - 1)];
+    }
+    
+    private void onRollback(Runnable compensation) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    compensation.run();
+                }
+            }
+        });
+    }
+    
+    private static final class FlightCounter {
+        private final int totalSeats;
+        private final AtomicInteger available;
+        private final AtomicInteger pendingDelta = new AtomicInteger();
+        
+        private FlightCounter(int totalSeats, int available) {
+            this.totalSeats = totalSeats;
+            this.available = new AtomicInteger(available);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.flightapp.service.inventory;
+
+import com.flightapp.entity.Flight;
+import com.flightapp.event.SeatAvailabilityChangedEvent;
+import com.flightapp.exception.ValidationException;
+import com.flightapp.repository.FlightRepository;
+import com.flightapp.validation.ValidationUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import java.time.LocalDateTime;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SeatInventoryService {
+    
+    private final FlightRepository flightRepository;
+    private final SeatInventoryEngine seatInventoryEngine;
+    private final ApplicationEventPublisher eventPublisher;
+    
+    @Value("${flightapp.inventory.mode:ATOMIC}")
+    private InventoryMode mode = InventoryMode.ATOMIC;
+    
+    public InventoryMode getMode() {
+        return mode;
+    }
+    
+    public void reserveSeats(Flight flight, Integer seats) {
+        if (mode == InventoryMode.IN_MEMORY) {
+            if (!seatInventoryEngine.tryReserve(flight, seats)) {
+                throw new ValidationException("Not enough available seats for flight " + flight.getFlightNumber());
+            }
+        } else if (mode == InventoryMode.OPTIMISTIC) {
+            ValidationUtils.validateAvailableSeats(flight.getAvailableSeats(), seats);
+            flight.setAvailableSeats(flight.getAvailableSeats() - seats);
+            //Flush now so a version conflict surfaces here rather than at commit
+            flightRepository.saveAndFlush(flight);
+        } else {
+            //Pending inserts go out first so the row lock taken below is the transaction's last statement
+            flightRepository.flush();
+            //Check and decrement happen in one UPDATE so concurrent bookings cannot oversell
+            int updated = flightRepository.decrementAvailableSeats(flight.getFlightId(), seats, LocalDateTime.now());
+            if (updated == 0) {
+                throw new ValidationException("Not enough available seats for flight " + flight.getFlightNumber());
+            }
+        }
+        eventPublisher.publishEvent(SeatAvailabilityChangedEvent.of(flight, -seats));
+    }
+    
+    public void releaseSeats(Flight flight, Integer seats) {
+        if (mode == InventoryMode.IN_MEMORY) {
+            seatInventoryEngine.release(flight, seats);
+        } else if (mode == InventoryMode.OPTIMISTIC) {
+            flight.setAvailableSeats(Math.min(flight.getTotalSeats(), flight.getAvailableSeats() + seats));
+            flightRepository.saveAndFlush(flight);
+        } else if (flightRepository.incrementAvailableSeats(flight.getFlightId(), seats, LocalDateTime.now()) == 0) {
+            log.warn("Could not restore {} seats to flight {}", seats, flight.getFlightId());
+            return;
+        }
+        eventPublisher.publishEvent(SeatAvailabilityChangedEvent.of(flight, seats));
+    }
+}
@@ -0,0 +1,250 @@
+package com.flightapp.service.pipeline;
+
+import com.flightapp.dto.BookingRequestDTO;
+import com.flightapp.dto.BookingResponseDTO;
+import com.flightapp.dto.BookingStatusDTO;
+import com.flightapp.exception.BookingException;
+import com.flightapp.exception.ResourceNotFoundException;
+import com.flightapp.service.BookingService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+//Asynchronous booking: requests go into a mailbox per flight and at most one worker drains a
+//mailbox at a time, so a hot flight is booked sequentially instead of by threads fighting
+//over its row. Consecutive requests are booked together in one transaction.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BookingPipeline {
+    
+    public static final String PENDING = "PENDING";
+    public static final String CONFIRMED = "CONFIRMED";
+    public static final String FAILED = "FAILED";
+    
+    private final BookingService bookingService;
+    
+    private final Map<Integer, Mailbox> mailboxes = new ConcurrentHashMap<>();
+    private final Map<String, PendingBooking> requests = new ConcurrentHashMap<>();
+    private ExecutorService workers;
+    
+    @Value("${flightapp.booking.async.enabled:false}")
+    private boolean enabled = false;
+    
+    @Value("${flightapp.booking.async.worker-threads:8}")
+    private int workerThreads = 8;
+    
+    @Value("${flightapp.booking.async.max-batch:32}")
+    private int maxBatch = 32;
+    
+    @Value("${flightapp.booking.async.mailbox-capacity:1000}")
+    private int mailboxCapacity = 1000;
+    
+    @Value("${flightapp.booking.async.result-ttl-minutes:30}")
+    private long resultTtlMinutes = 30;
+    
+    @PostConstruct
+    public void startWorkers() {
+        AtomicInteger threadCount = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(workerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "booking-worker-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    @PreDestroy
+    public void stopWorkers() {
+        workers.shutdown();
+        try {
+            workers.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public String submit(Integer flightId, BookingRequestDTO request) {
+        if (!enabled) {
+            throw new BookingException("Asynchronous booking is disabled");
+        }
+        //Counted inside compute() so purgeFinished can never drop a mailbox that is about to get work
+        Mailbox mailbox = mailboxes.compute(flightId, (id, existing) -> {
+            Mailbox target = existing != null ? existing : new Mailbox(id);
+            target.size.incrementAndGet();
+            return target;
+        });
+        if (mailbox.size.get() > mailboxCapacity) {
+            mailbox.size.decrementAndGet();
+            throw new BookingException("Too many pending bookings for this flight, please retry");
+        }
+        
+        PendingBooking pending = new PendingBooking(UUID.randomUUID().toString(), flightId, request);
+        requests.put(pending.requestId, pending);
+        mailbox.queue.add(pending);
+        schedule(mailbox);
+        
+        log.info("Queued booking request {} for flight {}", pending.requestId, flightId);
+        return pending.requestId;
+    }
+    
+    //Waits up to waitMillis for the booking to finish, then reports whatever state it is in
+    public BookingStatusDTO getStatus(String requestId, long waitMillis) {
+        PendingBooking pending = requests.get(requestId);
+        if (pending == null) {
+            throw new ResourceNotFoundException("Booking request not found: " + requestId);
+        }
+        if (waitMillis > 0 && !pending.result.isDone()) {
+            try {
+                pending.result.get(waitMillis, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException | ExecutionException ex) {
+                //Reported through the status below
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return toStatus(pending);
+    }
+    
+    public int pendingCount(Integer flightId) {
+        Mailbox mailbox = mailboxes.get(flightId);
+        return mailbox == null ? 0 : mailbox.size.get();
+    }
+    
+    @Scheduled(fixedDelayString = "${flightapp.booking.async.purge-interval-ms:60000}")
+    public void purgeFinished() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(resultTtlMinutes);
+        requests.values().removeIf(pending -> pending.result.isDone() && pending.finishedAt.isBefore(cutoff));
+        for (Integer flightId : mailboxes.keySet()) {
+            mailboxes.computeIfPresent(flightId, (id, mailbox) ->
+                mailbox.size.get() == 0 && !mailbox.scheduled.get() ? null : mailbox);
+        }
+    }
+    
+    private void schedule(Mailbox mailbox) {
+        if (mailbox.scheduled.compareAndSet(false, true)) {
+            workers.execute(() -> drain(mailbox));
+        }
+    }
+    
+    private void drain(Mailbox mailbox) {
+        try {
+            List<PendingBooking> batch = new ArrayList<>(maxBatch);
+            PendingBooking next;
+            while (batch.size() < maxBatch && (next = mailbox.queue.poll()) != null) {
+                batch.add(next);
+            }
+            if (!batch.isEmpty()) {
+                try {
+                    process(mailbox.flightId, batch);
+                } finally {
+                    mailbox.size.addAndGet(-batch.size());
+                }
+            }
+        } finally {
+            mailbox.scheduled.set(false);
+            //Requests that arrived while we were busy go to the back of the worker queue, so other flights get a turn
+            if (!mailbox.queue.isEmpty()) {
+                schedule(mailbox);
+            }
+        }
+    }
+    
+    private void process(Integer flightId, List<PendingBooking> batch) {
+        if (batch.size() > 1) {
+            try {
+                List<BookingResponseDTO> bookings = bookingService.bookFlightBatch(flightId,
+                    batch.stream().map(pending -> pending.request).toList());
+                for (int i = 0; i < batch.size(); i++) {
+                    batch.get(i).complete(bookings.get(i));
+                }
+                return;
+            } catch (RuntimeException ex) {
+                //One bad request (or too few seats for all of them) must not fail the rest
+                log.info("Batch of {} bookings for flight {} failed ({}), booking one by one",
+                    batch.size(), flightId, ex.getMessage());
+            }
+        }
+        for (PendingBooking pending : batch) {
+            try {
+                pending.complete(bookingService.bookFlight(flightId, pending.request));
+            } catch (RuntimeException ex) {
+                pending.fail(ex);
+            }
+        }
+    }
+    
+    private BookingStatusDTO toStatus(PendingBooking pending) {
+        BookingStatusDTO.BookingStatusDTOBuilder status = BookingStatusDTO.builder()
+            .requestId(pending.requestId)
+            .flightId(pending.flightId)
+            .status(PENDING);
+        if (pending.result.isDone()) {
+            try {
+                status.status(CONFIRMED).booking(pending.result.join());
+            } catch (RuntimeException ex) {
+                Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                status.status(FAILED).errorMessage(cause.getMessage());
+            }
+        }
+        return status.build();
+    }
+    
+    private static final class Mailbox {
+        private final Integer flightId;
+        private final Queue<PendingBooking> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        
+        private Mailbox(Integer flightId) {
+            this.flightId = flightId;
+        }
+    }
+    
+    private static final class PendingBooking {
+        private final String requestId;
+        private final Integer flightId;
+        private final BookingRequestDTO request;
+        private final CompletableFuture<BookingResponseDTO> result = new CompletableFuture<>();
+        private volatile LocalDateTime finishedAt;
+        
+        private PendingBooking(String requestId, Integer flightId, BookingRequestDTO request) {
+            this.requestId = requestId;
+            this.flightId = flightId;
+            this.request = request;
+        }
+        
+        private void complete(BookingResponseDTO booking) {
+            finishedAt = LocalDateTime.now();
+            result.complete(booking);
+        }
+        
+        private void fail(RuntimeException ex) {
+            finishedAt = LocalDateTime.now();
+            result.completeExceptionally(ex);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.flightapp.service.pnr;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import java.util.concurrent.atomic.AtomicLong;
+
+//Snowflake-style PNRs: 40 bits of milliseconds since 2024-01-01, 5 bits of node ID and
+//6 bits of sequence, printed as 10 base-36 characters (36^10 > 2^51).
+//The timestamp and sequence share one AtomicLong, so the hot path is a single CAS.
+@Component
+@RequiredArgsConstructor
+public class PnrGenerator {
+    
+    public static final int PNR_LENGTH = 10;
+    
+    static final long EPOCH_MILLIS = 1704067200000L;
+    static final int SEQUENCE_BITS = 6;
+    static final int NODE_BITS = 5;
+    static final int TIMESTAMP_BITS = 40;
+    static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+    static final long MAX_TIMESTAMP = (1L << TIMESTAMP_BITS) - 1;
+    static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    
+    //How far the generator may run ahead of the clock by borrowing future milliseconds
+    private static final long MAX_LEAD_MILLIS = 1000;
+    private static final char[] DIGITS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ".toCharArray();
+    
+    private final PnrNodeLeaseService nodeLeaseService;
+    
+    //timestamp << SEQUENCE_BITS | sequence of the last issued ID
+    private final AtomicLong lastState = new AtomicLong();
+    
+    public String nextPnr() {
+        return encode(nextId());
+    }
+    
+    public long nextId() {
+        long nodeId = nodeLeaseService.currentNodeId();
+        while (true) {
+            long now = currentTimeMillis() - EPOCH_MILLIS;
+            long previous = lastState.get();
+            //A full sequence carries into the next millisecond; a clock step backwards keeps counting from previous
+            long next = Math.max(now << SEQUENCE_BITS, previous + 1);
+            long timestamp = next >>> SEQUENCE_BITS;
+            if (timestamp > MAX_TIMESTAMP) {
+                throw new IllegalStateException("PNR timestamp space exhausted");
+            }
+            if (timestamp - now > MAX_LEAD_MILLIS) {
+                Thread.onSpinWait();
+                continue;
+            }
+            if (lastState.compareAndSet(previous, next)) {
+                return (timestamp << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | (next & SEQUENCE_MASK);
+            }
+        }
+    }
+    
+    protected long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+    
+    static String encode(long id) {
+        char[] chars = new char[PNR_LENGTH];
+        long remaining = id;
+        for (int i = PNR_LENGTH - 1; i >= 0; i--) {
+            chars[i] = DIGITS[(int) (remaining % DIGITS.length)];
+            remaining /= DIGITS.length;
+        }
+        return new String(chars);
+    }
+    
+    static long decode(String pnr) {
+        long id = 0;
+        for (int i = 0; i < pnr.length(); i++) {
+            id = id * DIGITS.length + Character.digit(pnr.charAt(i), DIGITS.length);
+        }
+        return id;
+    }
+}
@@ -0,0 +1,153 @@
+package com.flightapp.service.pnr;
+
+import com.flightapp.entity.PnrNodeLease;
+import com.flightapp.repository.PnrNodeLeaseRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+//Hands this instance a PNR node ID that no other live instance holds. IDs are leased
+//from the pnr_node_lease table and kept alive by a heartbeat; a crashed instance's ID
+//becomes claimable once its lease runs out. The ID is only handed out while a local
+//monotonic deadline, a safety margin short of the database expiry, has not passed.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PnrNodeLeaseService {
+    
+    private final PnrNodeLeaseRepository leaseRepository;
+    private final TransactionTemplate transactionTemplate;
+    
+    private final String ownerId = UUID.randomUUID().toString();
+    private volatile int nodeId = -1;
+    private volatile long leaseValidUntilNanos;
+    
+    //A fixed node ID skips leasing, for single-instance setups
+    @Value("${flightapp.pnr.node-id:-1}")
+    private int configuredNodeId = -1;
+    
+    @Value("${flightapp.pnr.lease-ttl-seconds:60}")
+    private long leaseTtlSeconds = 60;
+    
+    @Value("${flightapp.pnr.lease-safety-margin-seconds:10}")
+    private long leaseSafetyMarginSeconds = 10;
+    
+    @PostConstruct
+    public void acquireLease() {
+        if (configuredNodeId >= 0) {
+            if (configuredNodeId > PnrGenerator.MAX_NODE_ID) {
+                throw new IllegalStateException("flightapp.pnr.node-id must be between 0 and " + PnrGenerator.MAX_NODE_ID);
+            }
+            nodeId = configuredNodeId;
+            log.info("Using configured PNR node ID {}", nodeId);
+            return;
+        }
+        if (leaseSafetyMarginSeconds >= leaseTtlSeconds) {
+            throw new IllegalStateException("flightapp.pnr.lease-safety-margin-seconds must be below the lease TTL");
+        }
+        for (int candidate = 0; candidate <= PnrGenerator.MAX_NODE_ID; candidate++) {
+            long startedAt = System.nanoTime();
+            if (tryClaim(candidate)) {
+                leaseValidUntilNanos = leaseDeadline(startedAt);
+                nodeId = candidate;
+                log.info("Leased PNR node ID {}", nodeId);
+                return;
+            }
+        }
+        throw new IllegalStateException("No free PNR node ID, all " + (PnrGenerator.MAX_NODE_ID + 1) + " are leased");
+    }
+    
+    @Scheduled(fixedDelayString = "${flightapp.pnr.lease-renew-ms:10000}")
+    public void renewLease() {
+        if (configuredNodeId >= 0) {
+            return;
+        }
+        if (nodeId < 0) {
+            //An earlier re-acquire failed; keep trying on every heartbeat until one succeeds
+            reacquireLease();
+            return;
+        }
+        long startedAt = System.nanoTime();
+        Integer renewed;
+        try {
+            renewed = transactionTemplate.execute(status -> leaseRepository.renewLease(nodeId, ownerId, leaseTtlSeconds));
+        } catch (RuntimeException ex) {
+            //Keep the old deadline; currentNodeId() stops handing out the ID once it passes
+            log.warn("Could not renew lease on PNR node ID {}: {}", nodeId, ex.getMessage());
+            return;
+        }
+        if (renewed != null && renewed > 0) {
+            leaseValidUntilNanos = leaseDeadline(startedAt);
+        } else {
+            //Another instance took the ID after our lease lapsed; move to a fresh one
+            log.error("Lost lease on PNR node ID {}, re-acquiring", nodeId);
+            nodeId = -1;
+            reacquireLease();
+        }
+    }
+    
+    private void reacquireLease() {
+        try {
+            acquireLease();
+        } catch (RuntimeException ex) {
+            log.warn("Could not lease a PNR node ID, retrying on the next renewal: {}", ex.getMessage());
+        }
+    }
+    
+    @PreDestroy
+    public void releaseLease() {
+        if (configuredNodeId >= 0 || nodeId < 0) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> leaseRepository.releaseLease(nodeId, ownerId));
+    }
+    
+    public int currentNodeId() {
+        int current = nodeId;
+        if (current < 0) {
+            throw new IllegalStateException("PNR node ID is not leased");
+        }
+        if (configuredNodeId < 0 && System.nanoTime() - leaseValidUntilNanos > 0) {
+            throw new IllegalStateException("Lease on PNR node ID " + current + " could not be renewed in time");
+        }
+        return current;
+    }
+    
+    //Counted from before the statement was sent, so it always falls ahead of the expiry the database stamped
+    private long leaseDeadline(long startedAt) {
+        return startedAt + TimeUnit.SECONDS.toNanos(leaseTtlSeconds - leaseSafetyMarginSeconds);
+    }
+    
+    private boolean tryClaim(int candidate) {
+        try {
+            return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                if (leaseRepository.claimExpiredLease(candidate, ownerId, leaseTtlSeconds) == 1) {
+                    return true;
+                }
+                if (leaseRepository.existsById(candidate)) {
+                    return false;
+                }
+                leaseRepository.saveAndFlush(PnrNodeLease.builder()
+                    .nodeId(candidate)
+                    .ownerId(ownerId)
+                    .leaseExpiresAt(LocalDateTime.now())
+                    .build());
+                //Restamp the new row's expiry on the database clock
+                leaseRepository.renewLease(candidate, ownerId, leaseTtlSeconds);
+                return true;
+            }));
+        } catch (DataIntegrityViolationException ex) {
+            //Another instance inserted the same ID first
+            return false;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.flightapp.service.retry;
+
+import org.springframework.stereotype.Component;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+@Component
+public class ConflictRetryMetrics {
+    
+    private static final int MAX_TRACKED_RESOURCES = 10_000;
+    private static final int HOT_RESOURCE_LIMIT = 20;
+    
+    private final Map<String, OperationStats> operations = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> conflictsByResource = new ConcurrentHashMap<>();
+    
+    public void recordAttempt(String operation) {
+        stats(operation).attempts.increment();
+    }
+    
+    //Called once per call on every exit path, whatever the outcome, so attempts - calls counts retries only
+    public void recordCall(String operation, int attempts, boolean exhausted) {
+        OperationStats stats = stats(operation);
+        stats.calls.increment();
+        if (attempts > 1) {
+            stats.retriedCalls.increment();
+        }
+        if (exhausted) {
+            stats.exhausted.increment();
+        }
+    }
+    
+    public void recordConflict(String operation, String resource) {
+        stats(operation).conflicts.increment();
+        if (resource == null) {
+            return;
+        }
+        LongAdder counter = conflictsByResource.get(resource);
+        if (counter == null && conflictsByResource.size() < MAX_TRACKED_RESOURCES) {
+            counter = conflictsByResource.computeIfAbsent(resource, key -> new LongAdder());
+        }
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+    
+    public Map<String, Object> snapshot() {
+        Map<String, Object> byOperation = new LinkedHashMap<>();
+        operations.forEach((operation, stats) -> {
+            long attempts = stats.attempts.sum();
+            long conflicts = stats.conflicts.sum();
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("calls", stats.calls.sum());
+            values.put("attempts", attempts);
+            values.put("retries", attempts - stats.calls.sum());
+            values.put("retriedCalls", stats.retriedCalls.sum());
+            values.put("conflicts", conflicts);
+            values.put("exhausted", stats.exhausted.sum());
+            values.put("conflictRate", attempts == 0 ? 0.0 : (double) conflicts / attempts);
+            byOperation.put(operation, values);
+        });
+        
+        List<Map.Entry<String, Long>> hot = conflictsByResource.entrySet().stream()
+            .map(entry -> Map.entry(entry.getKey(), entry.getValue().sum()))
+            .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()))
+            .limit(HOT_RESOURCE_LIMIT)
+            .collect(Collectors.toList());
+        Map<String, Long> hotResources = new LinkedHashMap<>();
+        hot.forEach(entry -> hotResources.put(entry.getKey(), entry.getValue()));
+        
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("operations", byOperation);
+        snapshot.put("hotResources", hotResources);
+        return snapshot;
+    }
+    
+    private OperationStats stats(String operation) {
+        return operations.computeIfAbsent(operation, key -> new OperationStats());
+    }
+    
+    private static class OperationStats {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder attempts = new LongAdder();
+        private final LongAdder retriedCalls = new LongAdder();
+        private final LongAdder conflicts = new LongAdder();
+        private final LongAdder exhausted = new LongAdder();
+    }
+}
@@ -0,0 +1,129 @@
+package com.flightapp.service.retry;
+
+import com.flightapp.exception.BookingException;
+import jakarta.persistence.OptimisticLockException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+
+//Runs outside the transaction interceptor so every attempt gets a fresh transaction
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+@Slf4j
+public class OptimisticRetryAspect {
+    
+    private final ConflictRetryMetrics metrics;
+    
+    @Value("${flightapp.booking.retry.max-attempts:5}")
+    private int maxAttempts = 5;
+    
+    @Value("${flightapp.booking.retry.initial-backoff-ms:20}")
+    private long initialBackoffMs = 20;
+    
+    @Value("${flightapp.booking.retry.max-backoff-ms:500}")
+    private long maxBackoffMs = 500;
+    
+    @Around("@annotation(com.flightapp.service.retry.RetryOnConflict)")
+    public Object retryOnConflict(ProceedingJoinPoint joinPoint) throws Throwable {
+        //A caller that already owns a transaction has to handle the conflict itself
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+        
+        String operation = joinPoint.getSignature().getName();
+        String[] retriedConstraints = retriedConstraints(joinPoint);
+        int attempt = 1;
+        boolean exhausted = false;
+        try {
+            while (true) {
+                metrics.recordAttempt(operation);
+                try {
+                    return joinPoint.proceed();
+                } catch (OptimisticLockingFailureException | OptimisticLockException | DataIntegrityViolationException ex) {
+                    if (ex instanceof DataIntegrityViolationException && !violatesAny(ex, retriedConstraints)) {
+                        throw ex;
+                    }
+                    String resource = conflictingResource(ex);
+                    metrics.recordConflict(operation, resource);
+                    if (attempt >= maxAttempts) {
+                        exhausted = true;
+                        log.warn("Giving up {} after {} conflicting attempts on {}", operation, attempt, resource);
+                        throw new BookingException("Inventory is busy, please retry", ex);
+                    }
+                    log.debug("Conflict on {} during {}, attempt {}", resource, operation, attempt);
+                    backoff(attempt, ex);
+                    attempt++;
+                }
+            }
+        } finally {
+            metrics.recordCall(operation, attempt, exhausted);
+        }
+    }
+    
+    //Full jitter: sleep a random time up to the exponential ceiling so retries spread out
+    private void backoff(int attempt, RuntimeException conflict) {
+        long ceiling = Math.min(maxBackoffMs, initialBackoffMs << Math.min(attempt - 1, 20));
+        if (ceiling > 0) {
+            try {
+                Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+            } catch (InterruptedException ex) {
+                //Stop retrying, keep the interrupt for the caller and report the conflict we gave up on
+                Thread.currentThread().interrupt();
+                throw conflict;
+            }
+        }
+    }
+    
+    private String[] retriedConstraints(ProceedingJoinPoint joinPoint) {
+        if (joinPoint.getSignature() instanceof MethodSignature methodSignature) {
+            RetryOnConflict annotation = methodSignature.getMethod().getAnnotation(RetryOnConflict.class);
+            return annotation == null ? new String[0] : annotation.retryOnConstraints();
+        }
+        return new String[0];
+    }
+    
+    //Drivers report the name qualified or decorated (MySQL prefixes the table, H2 adds the schema
+    //and an index suffix), so the constraint only has to appear in it
+    private static boolean violatesAny(RuntimeException ex, String[] constraints) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null) {
+                String violated = violation.getConstraintName().toLowerCase(Locale.ROOT);
+                for (String constraint : constraints) {
+                    if (violated.contains(constraint.toLowerCase(Locale.ROOT))) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+        }
+        return false;
+    }
+    
+    private String conflictingResource(RuntimeException ex) {
+        if (ex instanceof ObjectOptimisticLockingFailureException objectEx) {
+            String className = objectEx.getPersistentClassName();
+            String simpleName = className == null ? "unknown" : className.substring(className.lastIndexOf('.') + 1);
+            return simpleName + "#" + objectEx.getIdentifier();
+        }
+        if (ex instanceof OptimisticLockException lockEx && lockEx.getEntity() != null) {
+            return lockEx.getEntity().getClass().getSimpleName();
+        }
+        return null;
+    }
+}
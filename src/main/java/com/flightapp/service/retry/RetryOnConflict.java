@@ -0,0 +1,16 @@
+package com.flightapp.service.retry;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+//Re-executes the annotated transactional method when an optimistic lock conflict is detected
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RetryOnConflict {
+    
+    //Also retry unique-key collisions on these constraints, for writes that pick a free slot (such as a
+    //seat number) optimistically; any other integrity violation is a bug and propagates
+    String[] retryOnConstraints() default {};
+}
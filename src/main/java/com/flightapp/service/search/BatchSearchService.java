@@ -0,0 +1,201 @@
+package com.flightapp.service.search;
+
+import com.flightapp.dto.BatchSearchResultDTO;
+import com.flightapp.dto.FlightResponseDTO;
+import com.flightapp.dto.FlightSearchDTO;
+import com.flightapp.dto.FlightSortOrder;
+import com.flightapp.exception.ResourceNotFoundException;
+import com.flightapp.exception.ValidationException;
+import com.flightapp.service.FlightService;
+import com.flightapp.validation.ValidationUtils;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+//Runs a partner's batch of searches in one request. Identical searches run once, distinct ones are
+//worked off by a few workers per batch from a shared bounded pool, and anything not finished by the
+//deadline is reported as timed out rather than holding the whole response. A full pool rejects
+//workers rather than running them on the request thread.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BatchSearchService {
+    
+    public static final int MAX_BATCH_SIZE = 50;
+    
+    private final FlightService flightService;
+    
+    private ThreadPoolExecutor searchExecutor;
+    
+    @Value("${flightapp.search.batch.threads:16}")
+    private int threads = 16;
+    
+    @Value("${flightapp.search.batch.queue-capacity:200}")
+    private int queueCapacity = 200;
+    
+    //Workers one batch may use at once, so a large batch cannot take the whole pool
+    @Value("${flightapp.search.batch.parallelism:4}")
+    private int parallelism = 4;
+    
+    @Value("${flightapp.search.batch.timeout-ms:3000}")
+    private long timeoutMs = 3000;
+    
+    @PostConstruct
+    public void startExecutor() {
+        AtomicInteger threadCount = new AtomicInteger();
+        searchExecutor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                Thread thread = new Thread(runnable, "batch-search-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.AbortPolicy());
+    }
+    
+    @PreDestroy
+    public void stopExecutor() {
+        searchExecutor.shutdown();
+    }
+    
+    //One result per search in request order; each search is validated on its own so one bad
+    //search only fails itself
+    public List<BatchSearchResultDTO> searchAll(List<FlightSearchDTO> searches) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        
+        Map<SearchKey, PendingSearch> distinct = new LinkedHashMap<>();
+        List<PendingSearch> perSearch = new ArrayList<>(searches.size());
+        for (FlightSearchDTO search : searches) {
+            perSearch.add(distinct.computeIfAbsent(SearchKey.of(search), key -> new PendingSearch(search)));
+        }
+        log.info("Running batch of {} searches, {} distinct", searches.size(), distinct.size());
+        
+        Queue<PendingSearch> queue = new ConcurrentLinkedQueue<>(distinct.values());
+        int workers = Math.min(parallelism, distinct.size());
+        int started = 0;
+        for (int i = 0; i < workers; i++) {
+            try {
+                searchExecutor.execute(() -> drain(queue, deadline));
+                started++;
+            } catch (RejectedExecutionException ex) {
+                //Pool saturated: the workers already started share the batch
+                break;
+            }
+        }
+        //Not even one worker: fail the batch now instead of running it on the request thread
+        if (started == 0) {
+            log.warn("Batch search pool saturated, rejecting {} searches", distinct.size());
+            PendingSearch pending;
+            while ((pending = queue.poll()) != null) {
+                pending.result.completeExceptionally(new RejectedExecutionException("Search service is busy, try again"));
+            }
+        }
+        
+        for (PendingSearch pending : distinct.values()) {
+            pending.await(deadline);
+        }
+        //Searches nobody picked up yet are not started; running ones finish and are discarded
+        queue.clear();
+        
+        List<BatchSearchResultDTO> results = new ArrayList<>(searches.size());
+        for (int i = 0; i < perSearch.size(); i++) {
+            PendingSearch pending = perSearch.get(i);
+            results.add(new BatchSearchResultDTO(i, pending.flights, pending.error));
+        }
+        return results;
+    }
+    
+    //Workers stop taking searches at the deadline; the request has stopped waiting by then
+    private void drain(Queue<PendingSearch> queue, long deadline) {
+        PendingSearch pending;
+        while (System.nanoTime() - deadline < 0 && (pending = queue.poll()) != null) {
+            try {
+                ValidationUtils.validateSearchRequest(pending.search);
+                pending.result.complete(flightService.searchFlights(pending.search));
+            } catch (RuntimeException ex) {
+                pending.result.completeExceptionally(ex);
+            }
+        }
+    }
+    
+    private static final class PendingSearch {
+        private final FlightSearchDTO search;
+        private final CompletableFuture<List<FlightResponseDTO>> result = new CompletableFuture<>();
+        private List<FlightResponseDTO> flights;
+        private String error;
+        
+        private PendingSearch(FlightSearchDTO search) {
+            this.search = search;
+        }
+        
+        private void await(long deadline) {
+            try {
+                flights = result.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException ex) {
+                error = "Search timed out";
+            } catch (ExecutionException ex) {
+                error = message(ex.getCause());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                error = "Search interrupted";
+            }
+        }
+        
+        //Expected failures keep their message; anything else is logged and not leaked to the partner
+        private static String message(Throwable cause) {
+            if (cause instanceof ValidationException || cause instanceof ResourceNotFoundException
+                    || cause instanceof RejectedExecutionException) {
+                return cause.getMessage();
+            }
+            log.warn("Batch search failed", cause);
+            return "Search failed";
+        }
+    }
+    
+    //Everything searchFlights reads, normalized the way the result cache is, so searches that
+    //only differ in case or spacing run once
+    private record SearchKey(String departureCity, String arrivalCity, LocalDate departureDate, int seats,
+                             BigDecimal maxPrice, String airlineCode, LocalTime departureTimeFrom,
+                             LocalTime departureTimeTo, FlightSortOrder sortBy, Integer limit, String cursor,
+                             Integer nearbyRadiusKm) {
+        
+        static SearchKey of(FlightSearchDTO search) {
+            return new SearchKey(
+                normalize(search.getDepartureCity()),
+                normalize(search.getArrivalCity()),
+                search.getDepartureDate(),
+                search.getNumberOfPassengers() == null ? 1 : search.getNumberOfPassengers(),
+                search.getMaxPrice() == null ? null : search.getMaxPrice().stripTrailingZeros(),
+                search.getAirlineCode() == null ? null : search.getAirlineCode().trim().toUpperCase(Locale.ROOT),
+                search.getDepartureTimeFrom(),
+                search.getDepartureTimeTo(),
+                search.getSortBy() == null ? FlightSortOrder.DEPARTURE : search.getSortBy(),
+                search.getLimit(),
+                search.getCursor(),
+                search.getNearbyRadiusKm());
+        }
+        
+        private static String normalize(String city) {
+            return city == null ? null : city.trim().toLowerCase(Locale.ROOT);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.flightapp.service.search;
+
+import com.flightapp.event.FlightAddedEvent;
+import com.flightapp.repository.FlightRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+//City names for autocomplete, kept sorted by normalized name with how many upcoming flights touch
+//each. A prefix is one binary search to the start of its run of names, ranked by flight count;
+//nothing goes to the database. A new city is inserted into a fresh copy of the array, known cities
+//just count up, and the periodic rebuild lets departed flights stop counting.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CityDirectory {
+    
+    private static final Comparator<Suggestion> MOST_FLOWN = Comparator.comparingLong(Suggestion::flights).reversed()
+        .thenComparing(Suggestion::name);
+    
+    private final FlightRepository flightRepository;
+    
+    private volatile City[] cities = new City[0];
+    
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${flightapp.search.cities.rebuild-interval-ms:3600000}",
+        fixedDelayString = "${flightapp.search.cities.rebuild-interval-ms:3600000}")
+    public synchronized void build() {
+        Map<String, City> byKey = new HashMap<>();
+        for (Object[] route : flightRepository.findActiveRoutesFrom(LocalDate.now().atStartOfDay())) {
+            long flights = ((Number) route[2]).longValue();
+            city(byKey, (String) route[0]).count.addAndGet(flights);
+            city(byKey, (String) route[1]).count.addAndGet(flights);
+        }
+        City[] built = byKey.values().toArray(new City[0]);
+        Arrays.sort(built, Comparator.comparing(city -> city.key));
+        cities = built;
+        log.info("City directory built with {} cities", built.length);
+    }
+    
+    //Most flown cities whose name starts with the prefix, ignoring case and surrounding spaces
+    public List<String> suggest(String prefix, int limit) {
+        City[] current = cities;
+        String key = normalize(prefix == null ? "" : prefix);
+        int from = firstAtOrAfter(current, key);
+        
+        //Keeps the best `limit` seen so far with the weakest on top; counts are read once so
+        //flights added meanwhile cannot reorder the heap under it
+        PriorityQueue<Suggestion> best = new PriorityQueue<>(MOST_FLOWN.reversed());
+        for (int i = from; i < current.length && current[i].key.startsWith(key); i++) {
+            best.add(new Suggestion(current[i].name, current[i].count.get()));
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+        List<Suggestion> ranked = new ArrayList<>(best);
+        ranked.sort(MOST_FLOWN);
+        List<String> names = new ArrayList<>(ranked.size());
+        ranked.forEach(suggestion -> names.add(suggestion.name()));
+        return names;
+    }
+    
+    @Order(0)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public synchronized void onFlightAdded(FlightAddedEvent event) {
+        if (event.departureCity() != null) {
+            countFlight(event.departureCity());
+        }
+        if (event.arrivalCity() != null) {
+            countFlight(event.arrivalCity());
+        }
+    }
+    
+    private void countFlight(String name) {
+        City[] current = cities;
+        String key = normalize(name);
+        int at = firstAtOrAfter(current, key);
+        if (at < current.length && current[at].key.equals(key)) {
+            current[at].count.incrementAndGet();
+            return;
+        }
+        City added = new City(key, name.trim());
+        added.count.incrementAndGet();
+        City[] grown = new City[current.length + 1];
+        System.arraycopy(current, 0, grown, 0, at);
+        grown[at] = added;
+        System.arraycopy(current, at, grown, at + 1, current.length - at);
+        cities = grown;
+    }
+    
+    private static int firstAtOrAfter(City[] sorted, String key) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid].key.compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+    
+    //Rows differing only in case or spacing are one city, shown as first seen
+    private static City city(Map<String, City> byKey, String name) {
+        return byKey.computeIfAbsent(normalize(name), key -> new City(key, name.trim()));
+    }
+    
+    private static String normalize(String city) {
+        return city.trim().toLowerCase(Locale.ROOT);
+    }
+    
+    private static final class City {
+        private final String key;
+        private final String name;
+        private final AtomicLong count = new AtomicLong();
+        
+        private City(String key, String name) {
+            this.key = key;
+            this.name = name;
+        }
+    }
+    
+    private record Suggestion(String name, long flights) {
+    }
+}
@@ -0,0 +1,254 @@
+package com.flightapp.service.search;
+
+import com.flightapp.dto.FareCalendarDayDTO;
+import com.flightapp.dto.FlightResponseDTO;
+import com.flightapp.dto.FlightSearchDTO;
+import com.flightapp.dto.FlightSortOrder;
+import com.flightapp.event.FlightAddedEvent;
+import com.flightapp.event.SeatAvailabilityChangedEvent;
+import com.flightapp.util.SingleFlight;
+import com.flightapp.util.TaggedCache;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+//Caches search result lists per normalized search criteria. Each list is tagged with the flights
+//it contains and with its route day: fewer seats on a flight drops only the lists showing it,
+//seats coming back or a new flight drop every list for the route day it may now appear in.
+//Fare calendars are cached per route and window, tagged with every day they cover; any seat
+//change can move a day's cheapest fare, so it drops the calendars covering that day.
+//Identical searches that miss at the same time share one load instead of each querying.
+@Component
+@Slf4j
+public class FlightSearchCache {
+    
+    //Rough retained sizes of a cached list and of one FlightResponseDTO, excluding its strings
+    private static final long LIST_OVERHEAD_BYTES = 160;
+    private static final long FLIGHT_OVERHEAD_BYTES = 200;
+    private static final long STRING_OVERHEAD_BYTES = 40;
+    private static final long CALENDAR_DAY_BYTES = 120;
+    
+    @Value("${flightapp.search.cache.enabled:true}")
+    private boolean enabled = true;
+    
+    @Value("${flightapp.search.cache.max-bytes:67108864}")
+    private long maxBytes = 64L * 1024 * 1024;
+    
+    @Value("${flightapp.search.cache.ttl-seconds:30}")
+    private long ttlSeconds = 30;
+    
+    private TaggedCache<SearchKey, List<FlightResponseDTO>> cache;
+    private TaggedCache<CalendarKey, List<FareCalendarDayDTO>> calendarCache;
+    private final SingleFlight<SearchKey, List<FlightResponseDTO>> inFlight = new SingleFlight<>();
+    
+    @PostConstruct
+    public void init() {
+        cache = new TaggedCache<>(maxBytes, ttlSeconds, TimeUnit.SECONDS, FlightSearchCache::estimateBytes);
+        calendarCache = new TaggedCache<>(maxBytes, ttlSeconds, TimeUnit.SECONDS,
+            (key, days) -> LIST_OVERHEAD_BYTES + stringBytes(key.departureCity()) + stringBytes(key.arrivalCity())
+                + days.size() * CALENDAR_DAY_BYTES);
+    }
+    
+    public List<FlightResponseDTO> search(FlightSearchDTO searchDTO, int limit,
+                                          Supplier<List<FlightResponseDTO>> loader) {
+        RouteDay routeDay = RouteDay.of(searchDTO.getDepartureCity(), searchDTO.getArrivalCity(),
+            searchDTO.getDepartureDate());
+        if (routeDay == null) {
+            return loader.get();
+        }
+        SearchKey key = SearchKey.of(routeDay, searchDTO, limit);
+        if (enabled) {
+            List<FlightResponseDTO> cached = cache.get(key);
+            if (cached != null) {
+                return copy(cached);
+            }
+        }
+        //Coalesced even with caching off; the shared list is never handed out, only copies of it
+        return copy(inFlight.execute(key, () -> load(key, loader)));
+    }
+    
+    private List<FlightResponseDTO> load(SearchKey key, Supplier<List<FlightResponseDTO>> loader) {
+        long ticket = cache.loadTicket();
+        List<FlightResponseDTO> flights = copy(loader.get());
+        if (enabled) {
+            List<Object> tags = new ArrayList<>(flights.size() + 1);
+            tags.add(key.routeDay());
+            flights.forEach(flight -> tags.add(flight.getFlightId()));
+            cache.put(key, flights, tags, ticket);
+        }
+        return flights;
+    }
+    
+    public List<FareCalendarDayDTO> fareCalendar(String departureCity, String arrivalCity, LocalDate from,
+                                                 LocalDate to, int seats, Supplier<List<FareCalendarDayDTO>> loader) {
+        if (!enabled || departureCity == null || arrivalCity == null) {
+            return loader.get();
+        }
+        CalendarKey key = new CalendarKey(RouteDay.normalize(departureCity), RouteDay.normalize(arrivalCity),
+            from, to, seats);
+        List<FareCalendarDayDTO> cached = calendarCache.get(key);
+        if (cached != null) {
+            return copyDays(cached);
+        }
+        
+        long ticket = calendarCache.loadTicket();
+        List<FareCalendarDayDTO> days = loader.get();
+        List<Object> tags = new ArrayList<>();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            tags.add(new RouteDay(key.departureCity(), key.arrivalCity(), day));
+        }
+        calendarCache.put(key, copyDays(days), tags, ticket);
+        return days;
+    }
+    
+    @Order(1)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onSeatAvailabilityChanged(SeatAvailabilityChangedEvent event) {
+        int dropped = cache.invalidateTag(event.flightId());
+        if (event.delta() > 0) {
+            //A sold-out flight is in no cached list, so its route day has to go as well
+            dropped += invalidateRouteDay(event.departureCity(), event.arrivalCity(), event.departureDate());
+        }
+        invalidateCalendarDay(event.departureCity(), event.arrivalCity(), event.departureDate());
+        detachInFlight(event.departureCity(), event.arrivalCity(), event.departureDate());
+        log.debug("Seat change on flight {} invalidated {} cached searches", event.flightId(), dropped);
+    }
+    
+    @Order(1)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onFlightAdded(FlightAddedEvent event) {
+        invalidateRouteDay(event.departureCity(), event.arrivalCity(), event.departureDate());
+        invalidateCalendarDay(event.departureCity(), event.arrivalCity(), event.departureDate());
+        detachInFlight(event.departureCity(), event.arrivalCity(), event.departureDate());
+    }
+    
+    @Scheduled(fixedDelayString = "${flightapp.search.cache.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        int purged = cache.purgeExpired() + calendarCache.purgeExpired();
+        if (purged > 0) {
+            log.debug("Purged {} expired cached searches", purged);
+        }
+    }
+    
+    public Map<String, Object> snapshot() {
+        Map<String, Object> stats = cache.snapshot();
+        stats.put("fareCalendar", calendarCache.snapshot());
+        stats.put("coalescing", inFlight.snapshot());
+        return stats;
+    }
+    
+    private int invalidateRouteDay(String departureCity, String arrivalCity, LocalDate date) {
+        RouteDay routeDay = RouteDay.of(departureCity, arrivalCity, date);
+        return routeDay == null ? 0 : cache.invalidateTag(routeDay);
+    }
+    
+    private void invalidateCalendarDay(String departureCity, String arrivalCity, LocalDate date) {
+        RouteDay routeDay = RouteDay.of(departureCity, arrivalCity, date);
+        if (routeDay != null) {
+            calendarCache.invalidateTag(routeDay);
+        }
+    }
+    
+    //A load already running may have read from before the change, so later searches must not join it
+    private void detachInFlight(String departureCity, String arrivalCity, LocalDate date) {
+        RouteDay routeDay = RouteDay.of(departureCity, arrivalCity, date);
+        if (routeDay != null) {
+            inFlight.detach(key -> key.routeDay().equals(routeDay));
+        }
+    }
+    
+    //DTOs are mutable, so neither the caller nor the cache may hold the other's instances
+    private static List<FlightResponseDTO> copy(List<FlightResponseDTO> flights) {
+        List<FlightResponseDTO> copies = new ArrayList<>(flights.size());
+        for (FlightResponseDTO flight : flights) {
+            copies.add(FlightResponseDTO.builder()
+                .flightId(flight.getFlightId())
+                .flightNumber(flight.getFlightNumber())
+                .airlineName(flight.getAirlineName())
+                .aircraftType(flight.getAircraftType())
+                .departureCity(flight.getDepartureCity())
+                .arrivalCity(flight.getArrivalCity())
+                .departureTime(flight.getDepartureTime())
+                .arrivalTime(flight.getArrivalTime())
+                .availableSeats(flight.getAvailableSeats())
+                .pricePerSeat(flight.getPricePerSeat())
+                .build());
+        }
+        return copies;
+    }
+    
+    private static List<FareCalendarDayDTO> copyDays(List<FareCalendarDayDTO> days) {
+        List<FareCalendarDayDTO> copies = new ArrayList<>(days.size());
+        for (FareCalendarDayDTO day : days) {
+            copies.add(new FareCalendarDayDTO(day.getDate(), day.getCheapestPricePerSeat(), day.getFlightCount()));
+        }
+        return copies;
+    }
+    
+    static long estimateBytes(SearchKey key, List<FlightResponseDTO> flights) {
+        long bytes = LIST_OVERHEAD_BYTES + stringBytes(key.routeDay().departureCity())
+            + stringBytes(key.routeDay().arrivalCity()) + stringBytes(key.airlineCode());
+        for (FlightResponseDTO flight : flights) {
+            bytes += FLIGHT_OVERHEAD_BYTES
+                + stringBytes(flight.getFlightNumber())
+                + stringBytes(flight.getAirlineName())
+                + stringBytes(flight.getAircraftType())
+                + stringBytes(flight.getDepartureCity())
+                + stringBytes(flight.getArrivalCity());
+        }
+        return bytes;
+    }
+    
+    private static long stringBytes(String value) {
+        return value == null ? 0 : STRING_OVERHEAD_BYTES + value.length();
+    }
+    
+    record RouteDay(String departureCity, String arrivalCity, LocalDate date) {
+        
+        static RouteDay of(String departureCity, String arrivalCity, LocalDate date) {
+            if (departureCity == null || arrivalCity == null || date == null) {
+                return null;
+            }
+            return new RouteDay(normalize(departureCity), normalize(arrivalCity), date);
+        }
+        
+        private static String normalize(String city) {
+            return city.trim().toLowerCase(Locale.ROOT);
+        }
+    }
+    
+    record CalendarKey(String departureCity, String arrivalCity, LocalDate from, LocalDate to, int seats) {
+    }
+    
+    record SearchKey(RouteDay routeDay, int seats, BigDecimal maxPrice, String airlineCode,
+                     LocalTime departureTimeFrom, LocalTime departureTimeTo, FlightSortOrder sortBy, int limit,
+                     String cursor) {
+        
+        static SearchKey of(RouteDay routeDay, FlightSearchDTO searchDTO, int limit) {
+            return new SearchKey(
+                routeDay,
+                searchDTO.getNumberOfPassengers() == null ? 1 : searchDTO.getNumberOfPassengers(),
+                searchDTO.getMaxPrice() == null ? null : searchDTO.getMaxPrice().stripTrailingZeros(),
+                searchDTO.getAirlineCode() == null ? null : searchDTO.getAirlineCode().trim().toUpperCase(Locale.ROOT),
+                searchDTO.getDepartureTimeFrom(),
+                searchDTO.getDepartureTimeTo(),
+                searchDTO.getSortBy() == null ? FlightSortOrder.DEPARTURE : searchDTO.getSortBy(),
+                limit,
+                searchDTO.getCursor());
+        }
+    }
+}
@@ -0,0 +1,521 @@
+package com.flightapp.service.search;
+
+import com.flightapp.dto.DestinationFareDTO;
+import com.flightapp.dto.FareCalendarDayDTO;
+import com.flightapp.dto.FlightResponseDTO;
+import com.flightapp.dto.FlightSearchDTO;
+import com.flightapp.dto.FlightSortOrder;
+import com.flightapp.dto.SearchCursor;
+import com.flightapp.entity.Flight;
+import com.flightapp.event.FlightAddedEvent;
+import com.flightapp.event.SeatAvailabilityChangedEvent;
+import com.flightapp.repository.FlightRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+//In-JVM search index over upcoming flights keyed by (departure city, arrival city, departure day).
+//Built once the app is ready and kept current from flight and seat events; until then it is cold
+//and callers query the database. Seat counts are advisory, bookings always re-check inventory.
+//Events only cover this instance, so a periodic delta reload picks up flights written anywhere
+//else by their updatedAt, and days that have gone by are evicted on the same tick.
+//Alongside it keeps the cheapest fare with a seat left per origin, destination and day, refreshed
+//whenever a flight is (re)indexed or sells out or frees up, so "anywhere" searches never scan.
+//Its flights and city ids are the store other in-memory search structures build on through Listener.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class FlightSearchIndex {
+    
+    private static final int DAY_BITS = 24;
+    private static final int CITY_BITS = 20;
+    
+    private final FlightRepository flightRepository;
+    
+    private final Map<String, Integer> cityIds = new ConcurrentHashMap<>();
+    private final AtomicInteger nextCityId = new AtomicInteger();
+    private final Map<Long, RouteDay> routeDays = new ConcurrentHashMap<>();
+    private final Map<Integer, IndexedFlight> flights = new ConcurrentHashMap<>();
+    private final Map<Integer, String> cityNames = new ConcurrentHashMap<>();
+    //Origin city -> destination city -> epoch day -> cheapest bookable fare in paise
+    private final Map<Integer, Map<Integer, ConcurrentSkipListMap<Long, Long>>> cheapestByOrigin =
+        new ConcurrentHashMap<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    
+    private volatile boolean warm;
+    private volatile long firstIndexedDay;
+    private LocalDateTime loadedUpTo;
+    
+    @Value("${flightapp.search.index.enabled:true}")
+    private boolean enabled = true;
+    
+    //Rows stamped by another instance's clock or by a transaction that committed late can carry an
+    //updatedAt slightly behind the last reload, so each reload reaches back this far
+    @Value("${flightapp.search.index.reload-overlap-ms:60000}")
+    private long reloadOverlapMs = 60000;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void build() {
+        if (!enabled) {
+            return;
+        }
+        LocalDate today = LocalDate.now();
+        long started = System.currentTimeMillis();
+        loadedUpTo = LocalDateTime.now();
+        List<Flight> upcoming = flightRepository.findActiveDepartingFrom(today.atStartOfDay());
+        firstIndexedDay = today.toEpochDay();
+        upcoming.forEach(this::index);
+        warm = true;
+        listeners.forEach(listener -> listener.indexBuilt(flights.values()));
+        log.info("Search index built with {} flights on {} route days in {} ms",
+            flights.size(), routeDays.size(), System.currentTimeMillis() - started);
+    }
+    
+    //Re-indexes every upcoming flight written since the last reload, dropping ones deactivated
+    //meanwhile, then evicts the days before today
+    @Scheduled(initialDelayString = "${flightapp.search.index.reload-interval-ms:30000}",
+        fixedDelayString = "${flightapp.search.index.reload-interval-ms:30000}")
+    public synchronized void reload() {
+        if (!warm) {
+            return;
+        }
+        LocalDate today = LocalDate.now();
+        LocalDateTime started = LocalDateTime.now();
+        List<Flight> changed = flightRepository.findChangedSince(
+            loadedUpTo.minusNanos(reloadOverlapMs * 1_000_000), today.atStartOfDay());
+        loadedUpTo = started;
+        evictBefore(today);
+        changed.forEach(this::index);
+        log.debug("Search index reloaded {} changed flights", changed.size());
+    }
+    
+    //Searches before the new first day go to the database from here on
+    synchronized void evictBefore(LocalDate day) {
+        long first = day.toEpochDay();
+        if (first <= firstIndexedDay) {
+            return;
+        }
+        firstIndexedDay = first;
+        flights.values().stream()
+            .filter(flight -> day(flight.key) < first)
+            .toList()
+            .forEach(flight -> unindex(flight.flightId));
+    }
+    
+    public boolean isWarm() {
+        return warm;
+    }
+    
+    void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+    
+    //Null when no indexed flight has touched the city
+    Integer cityIdOf(String city) {
+        return cityIds.get(normalize(city));
+    }
+    
+    //Empty means the index cannot answer and the caller should go to the database
+    public Optional<List<FlightResponseDTO>> search(FlightSearchDTO criteria, int limit) {
+        LocalDate date = criteria.getDepartureDate();
+        if (!warm || criteria.getDepartureCity() == null || criteria.getArrivalCity() == null || date == null
+                || date.toEpochDay() < firstIndexedDay) {
+            return Optional.empty();
+        }
+        Integer from = cityIds.get(normalize(criteria.getDepartureCity()));
+        Integer to = cityIds.get(normalize(criteria.getArrivalCity()));
+        RouteDay routeDay = from == null || to == null ? null : routeDays.get(key(from, to, date.toEpochDay()));
+        if (routeDay == null) {
+            return Optional.of(List.of());
+        }
+        
+        int seats = criteria.getNumberOfPassengers() == null ? 1 : criteria.getNumberOfPassengers();
+        long maxPrice = criteria.getMaxPrice() == null ? Long.MAX_VALUE
+            : criteria.getMaxPrice().setScale(2, RoundingMode.FLOOR).unscaledValue().longValue();
+        LocalTime windowStart = criteria.getDepartureTimeFrom();
+        LocalTime windowEnd = criteria.getDepartureTimeTo();
+        long firstTime = windowStart == null ? 0 : windowStart.toNanoOfDay();
+        long lastTime = windowEnd == null ? Long.MAX_VALUE : windowEnd.toNanoOfDay();
+        SearchCursor cursor = criteria.getCursor() == null ? null : SearchCursor.decode(criteria.getCursor());
+        
+        //Entries are in departure order, so the window is one contiguous run of the arrays
+        List<Integer> matches = new ArrayList<>();
+        for (int i = 0; i < routeDay.flightIds.length && routeDay.departureTimes[i] <= lastTime; i++) {
+            if (routeDay.departureTimes[i] < firstTime || routeDay.prices[i] > maxPrice) {
+                continue;
+            }
+            IndexedFlight flight = flights.get(routeDay.flightIds[i]);
+            if (flight != null && flight.matches(seats, criteria.getAirlineCode(), windowStart, windowEnd)
+                    && (cursor == null || cursor.isBefore(flight.departureTime, flight.flightId))) {
+                matches.add(i);
+            }
+        }
+        if (criteria.getSortBy() == FlightSortOrder.PRICE) {
+            //Stable, so equal prices keep departure order like the database query
+            matches.sort(Comparator.comparingLong(i -> routeDay.prices[i]));
+        }
+        
+        List<FlightResponseDTO> results = new ArrayList<>(Math.min(matches.size(), limit));
+        for (int i = 0; i < matches.size() && results.size() < limit; i++) {
+            int at = matches.get(i);
+            results.add(flights.get(routeDay.flightIds[at]).toResponse(BigDecimal.valueOf(routeDay.prices[at], 2)));
+        }
+        return Optional.of(results);
+    }
+    
+    //Cheapest bookable fare and flight count for each day of the window that has any;
+    //empty when the index is cold or the window starts before the indexed days
+    public Optional<List<FareCalendarDayDTO>> fareCalendar(String departureCity, String arrivalCity,
+                                                          LocalDate from, LocalDate to, int seats) {
+        if (!warm || from.toEpochDay() < firstIndexedDay) {
+            return Optional.empty();
+        }
+        Integer fromCity = cityIds.get(normalize(departureCity));
+        Integer toCity = cityIds.get(normalize(arrivalCity));
+        List<FareCalendarDayDTO> days = new ArrayList<>();
+        if (fromCity == null || toCity == null) {
+            return Optional.of(days);
+        }
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            RouteDay routeDay = routeDays.get(key(fromCity, toCity, day.toEpochDay()));
+            if (routeDay == null) {
+                continue;
+            }
+            long cheapest = Long.MAX_VALUE;
+            long count = 0;
+            for (int i = 0; i < routeDay.flightIds.length; i++) {
+                IndexedFlight flight = flights.get(routeDay.flightIds[i]);
+                if (flight != null && flight.availableSeats.get() >= seats) {
+                    cheapest = Math.min(cheapest, routeDay.prices[i]);
+                    count++;
+                }
+            }
+            if (count > 0) {
+                days.add(new FareCalendarDayDTO(day, BigDecimal.valueOf(cheapest, 2), count));
+            }
+        }
+        return Optional.of(days);
+    }
+    
+    //Cheapest fare with a seat left to every destination served from the city within the window,
+    //read from the per-day aggregate; empty when the index is cold or the window starts before it
+    public Optional<List<DestinationFareDTO>> cheapestDestinations(String departureCity, LocalDate from, LocalDate to) {
+        if (!warm || from.toEpochDay() < firstIndexedDay) {
+            return Optional.empty();
+        }
+        Integer origin = cityIds.get(normalize(departureCity));
+        List<DestinationFareDTO> destinations = new ArrayList<>();
+        if (origin == null) {
+            return Optional.of(destinations);
+        }
+        cheapestByOrigin.getOrDefault(origin, Map.of()).forEach((destination, days) -> {
+            long cheapest = Long.MAX_VALUE;
+            long cheapestDay = 0;
+            //Ascending days, so a tie keeps the earliest
+            for (Map.Entry<Long, Long> fare : days.subMap(from.toEpochDay(), true, to.toEpochDay(), true).entrySet()) {
+                if (fare.getValue() < cheapest) {
+                    cheapest = fare.getValue();
+                    cheapestDay = fare.getKey();
+                }
+            }
+            if (cheapest != Long.MAX_VALUE) {
+                destinations.add(new DestinationFareDTO(cityNames.get(destination), LocalDate.ofEpochDay(cheapestDay),
+                    BigDecimal.valueOf(cheapest, 2)));
+            }
+        });
+        destinations.sort(Comparator.comparing(DestinationFareDTO::getCheapestPricePerSeat)
+            .thenComparing(DestinationFareDTO::getArrivalCity));
+        return Optional.of(destinations);
+    }
+    
+    //Ahead of the result cache, so a search that refills the cache already sees the change. Holds
+    //the same lock as build and reload, so a flight they read at the same time is indexed once.
+    @Order(0)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public synchronized void onFlightAdded(FlightAddedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        //Reload with the airline; the saved entity may only carry the airline id
+        flightRepository.findWithAirline(event.flightId()).ifPresent(this::index);
+    }
+    
+    //Same lock again: a delta applied while build or reload swaps in a re-read flight would land
+    //on the replaced entry and be lost
+    @Order(0)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public synchronized void onSeatAvailabilityChanged(SeatAvailabilityChangedEvent event) {
+        IndexedFlight flight = flights.get(event.flightId());
+        if (flight != null && flight.adjustSeats(event.delta())) {
+            refreshCheapest(flight.key);
+        }
+    }
+    
+    private void index(Flight flight) {
+        LocalDateTime departure = flight.getDepartureTime();
+        if (!Boolean.TRUE.equals(flight.getIsActive()) || departure.toLocalDate().toEpochDay() < firstIndexedDay) {
+            unindex(flight.getFlightId());
+            return;
+        }
+        int fromCity = cityId(flight.getDepartureCity());
+        int toCity = cityId(flight.getArrivalCity());
+        long key = key(fromCity, toCity, departure.toLocalDate().toEpochDay());
+        long time = departure.toLocalTime().toNanoOfDay();
+        long price = flight.getPricePerSeat().setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        
+        IndexedFlight indexed = new IndexedFlight(flight, key, fromCity, toCity, price);
+        IndexedFlight previous = flights.put(flight.getFlightId(), indexed);
+        if (previous != null) {
+            routeDays.computeIfPresent(previous.key, (k, routeDay) -> routeDay.without(flight.getFlightId()));
+        }
+        routeDays.compute(key, (k, routeDay) -> (routeDay == null ? RouteDay.EMPTY : routeDay)
+            .with(flight.getFlightId(), time, price));
+        if (previous != null && previous.key != key) {
+            refreshCheapest(previous.key);
+        }
+        refreshCheapest(key);
+        //While building, listeners get every flight at once from indexBuilt instead
+        if (warm) {
+            listeners.forEach(listener -> listener.flightIndexed(indexed, previous));
+        }
+    }
+    
+    private void unindex(Integer flightId) {
+        IndexedFlight previous = flights.remove(flightId);
+        if (previous != null) {
+            routeDays.computeIfPresent(previous.key, (k, routeDay) -> routeDay.without(flightId));
+            refreshCheapest(previous.key);
+            if (warm) {
+                listeners.forEach(listener -> listener.flightRemoved(previous));
+            }
+        }
+    }
+    
+    //Called after every change that can move a route day's cheapest bookable fare. Refreshes of
+    //one origin are serialized and each reads the current state, so the last one always wins.
+    private void refreshCheapest(long key) {
+        int origin = (int) (key >>> (CITY_BITS + DAY_BITS));
+        int destination = (int) (key >>> DAY_BITS) & ((1 << CITY_BITS) - 1);
+        long day = day(key);
+        Map<Integer, ConcurrentSkipListMap<Long, Long>> destinations =
+            cheapestByOrigin.computeIfAbsent(origin, id -> new ConcurrentHashMap<>());
+        synchronized (destinations) {
+            RouteDay routeDay = routeDays.get(key);
+            long cheapest = Long.MAX_VALUE;
+            for (int i = 0; routeDay != null && i < routeDay.flightIds.length; i++) {
+                IndexedFlight flight = flights.get(routeDay.flightIds[i]);
+                if (flight != null && flight.availableSeats.get() > 0) {
+                    cheapest = Math.min(cheapest, routeDay.prices[i]);
+                }
+            }
+            ConcurrentSkipListMap<Long, Long> days = destinations.computeIfAbsent(destination,
+                id -> new ConcurrentSkipListMap<>());
+            if (cheapest == Long.MAX_VALUE) {
+                days.remove(day);
+            } else {
+                days.put(day, cheapest);
+            }
+        }
+    }
+    
+    private int cityId(String city) {
+        return cityIds.computeIfAbsent(normalize(city), name -> {
+            int id = nextCityId.getAndIncrement();
+            if (id >= 1 << CITY_BITS) {
+                throw new IllegalStateException("Too many cities for the search index");
+            }
+            cityNames.put(id, city.trim());
+            return id;
+        });
+    }
+    
+    private static String normalize(String city) {
+        return city.trim().toLowerCase(Locale.ROOT);
+    }
+    
+    private static long key(int fromCity, int toCity, long epochDay) {
+        return ((long) fromCity << (CITY_BITS + DAY_BITS)) | ((long) toCity << DAY_BITS) | epochDay;
+    }
+    
+    private static long day(long key) {
+        return key & ((1L << DAY_BITS) - 1);
+    }
+    
+    //One route on one day: parallel arrays sorted by departure time of day to the nanosecond, then flight ID,
+    //the same order as SearchCursor and the database query; replaced on every change
+    private static final class RouteDay {
+        private static final RouteDay EMPTY = new RouteDay(new int[0], new long[0], new long[0]);
+        
+        private final int[] flightIds;
+        private final long[] departureTimes;
+        private final long[] prices;
+        
+        private RouteDay(int[] flightIds, long[] departureTimes, long[] prices) {
+            this.flightIds = flightIds;
+            this.departureTimes = departureTimes;
+            this.prices = prices;
+        }
+        
+        private RouteDay with(int flightId, long time, long price) {
+            int size = flightIds.length;
+            int at = 0;
+            while (at < size && (departureTimes[at] < time
+                    || (departureTimes[at] == time && flightIds[at] < flightId))) {
+                at++;
+            }
+            int[] ids = new int[size + 1];
+            long[] times = new long[size + 1];
+            long[] amounts = new long[size + 1];
+            System.arraycopy(flightIds, 0, ids, 0, at);
+            System.arraycopy(departureTimes, 0, times, 0, at);
+            System.arraycopy(prices, 0, amounts, 0, at);
+            ids[at] = flightId;
+            times[at] = time;
+            amounts[at] = price;
+            System.arraycopy(flightIds, at, ids, at + 1, size - at);
+            System.arraycopy(departureTimes, at, times, at + 1, size - at);
+            System.arraycopy(prices, at, amounts, at + 1, size - at);
+            return new RouteDay(ids, times, amounts);
+        }
+        
+        //Returns null once the last flight is gone so compute drops the key
+        private RouteDay without(int flightId) {
+            int at = 0;
+            while (at < flightIds.length && flightIds[at] != flightId) {
+                at++;
+            }
+            if (at == flightIds.length) {
+                return this;
+            }
+            if (flightIds.length == 1) {
+                return null;
+            }
+            return new RouteDay(remove(flightIds, at), remove(departureTimes, at), remove(prices, at));
+        }
+        
+        private static int[] remove(int[] values, int at) {
+            int[] result = Arrays.copyOf(values, values.length - 1);
+            System.arraycopy(values, at + 1, result, at, values.length - at - 1);
+            return result;
+        }
+        
+        private static long[] remove(long[] values, int at) {
+            long[] result = Arrays.copyOf(values, values.length - 1);
+            System.arraycopy(values, at + 1, result, at, values.length - at - 1);
+            return result;
+        }
+    }
+    
+    //Kept in step with every change the warm index applies. A replaced flight is a new object, so
+    //holders swap previous for flight; seat counts are shared and move in place.
+    interface Listener {
+        void indexBuilt(Collection<IndexedFlight> flights);
+        
+        void flightIndexed(IndexedFlight flight, IndexedFlight previous);
+        
+        void flightRemoved(IndexedFlight flight);
+    }
+    
+    static final class IndexedFlight {
+        private final long key;
+        final Integer flightId;
+        final int fromCity;
+        final int toCity;
+        //Epoch minutes in the flight's local time, for connection arithmetic
+        final long departureMinute;
+        final long arrivalMinute;
+        final long price;
+        private final String flightNumber;
+        private final String airlineName;
+        final String airlineCode;
+        private final String aircraftType;
+        private final String departureCity;
+        private final String arrivalCity;
+        private final LocalDateTime departureTime;
+        private final LocalDateTime arrivalTime;
+        private final int totalSeats;
+        final AtomicInteger availableSeats;
+        
+        private IndexedFlight(Flight flight, long key, int fromCity, int toCity, long price) {
+            this.key = key;
+            this.flightId = flight.getFlightId();
+            this.fromCity = fromCity;
+            this.toCity = toCity;
+            this.departureMinute = flight.getDepartureTime().toEpochSecond(ZoneOffset.UTC) / 60;
+            this.arrivalMinute = flight.getArrivalTime().toEpochSecond(ZoneOffset.UTC) / 60;
+            this.price = price;
+            this.flightNumber = flight.getFlightNumber();
+            this.airlineName = flight.getAirline().getAirlineName();
+            this.airlineCode = flight.getAirline().getAirlineCode();
+            this.aircraftType = flight.getAircraftType();
+            this.departureCity = flight.getDepartureCity();
+            this.arrivalCity = flight.getArrivalCity();
+            this.departureTime = flight.getDepartureTime();
+            this.arrivalTime = flight.getArrivalTime();
+            this.totalSeats = flight.getTotalSeats();
+            this.availableSeats = new AtomicInteger(flight.getAvailableSeats());
+        }
+        
+        private boolean matches(int seats, String airline, LocalTime windowStart, LocalTime windowEnd) {
+            LocalTime departure = departureTime.toLocalTime();
+            return availableSeats.get() >= seats
+                && (airline == null || airline.trim().equalsIgnoreCase(airlineCode))
+                && (windowStart == null || !departure.isBefore(windowStart))
+                && (windowEnd == null || !departure.isAfter(windowEnd));
+        }
+        
+        //True when the flight sold out or became bookable again
+        private boolean adjustSeats(int delta) {
+            int before = availableSeats.getAndUpdate(seats -> clamp(seats + delta));
+            return (before > 0) != (clamp(before + delta) > 0);
+        }
+        
+        private int clamp(int seats) {
+            return Math.max(0, Math.min(totalSeats, seats));
+        }
+        
+        FlightResponseDTO toResponse() {
+            return toResponse(BigDecimal.valueOf(price, 2));
+        }
+        
+        private FlightResponseDTO toResponse(BigDecimal price) {
+            return FlightResponseDTO.builder()
+                .flightId(flightId)
+                .flightNumber(flightNumber)
+                .airlineName(airlineName)
+                .aircraftType(aircraftType)
+                .departureCity(departureCity)
+                .arrivalCity(arrivalCity)
+                .departureTime(departureTime)
+                .arrivalTime(arrivalTime)
+                .availableSeats(availableSeats.get())
+                .pricePerSeat(price)
+                .build();
+        }
+    }
+}
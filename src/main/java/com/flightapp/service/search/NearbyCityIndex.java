@@ -0,0 +1,161 @@
+package com.flightapp.service.search;
+
+import com.flightapp.entity.Airport;
+import com.flightapp.event.AirportAddedEvent;
+import com.flightapp.repository.AirportRepository;
+import com.flightapp.validation.SearchLimits;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+//Airports as points on the unit sphere in an implicit k-d tree, so "cities within R km" is a
+//range search over a handful of nodes with no query. Straight-line distance between unit vectors
+//grows with great-circle distance, so a radius in km is a fixed chord and nothing special happens
+//at the poles or the date line. Rebuilt from the airport table on startup, periodically and
+//whenever an airport is added.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class NearbyCityIndex {
+    
+    private static final double EARTH_RADIUS_KM = 6371.0;
+    
+    private final AirportRepository airportRepository;
+    
+    private volatile Tree tree = new Tree(new Point[0], Map.of());
+    
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${flightapp.search.nearby.rebuild-interval-ms:3600000}",
+        fixedDelayString = "${flightapp.search.nearby.rebuild-interval-ms:3600000}")
+    public synchronized void build() {
+        List<Point> points = new ArrayList<>();
+        for (Airport airport : airportRepository.findByIsActiveTrue()) {
+            if (airport.getCity() != null && airport.getLatitude() != null && airport.getLongitude() != null) {
+                points.add(Point.of(airport.getCity().trim(), airport.getLatitude(), airport.getLongitude()));
+            }
+        }
+        Point[] built = points.toArray(new Point[0]);
+        split(built, 0, built.length, 0);
+        Map<String, List<Point>> byCity = new HashMap<>();
+        points.forEach(point -> byCity.computeIfAbsent(point.key, key -> new ArrayList<>()).add(point));
+        tree = new Tree(built, byCity);
+        log.info("Nearby city index built with {} airports", built.length);
+    }
+    
+    //A few thousand airports at most, so a full rebuild is cheaper than keeping the tree balanced
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAirportAdded(AirportAddedEvent event) {
+        build();
+    }
+    
+    //The city itself first, then other cities with an airport within radiusKm of one of its
+    //airports, nearest first; a city with no known airport only matches itself
+    public List<String> citiesNear(String city, double radiusKm) {
+        Tree current = tree;
+        String key = normalize(city);
+        double angle = Math.min(radiusKm / EARTH_RADIUS_KM, Math.PI);
+        double chord = 2 * Math.sin(angle / 2);
+        
+        Map<String, Double> nearest = new HashMap<>();
+        Map<String, String> names = new HashMap<>();
+        for (Point origin : current.byCity.getOrDefault(key, List.of())) {
+            current.within(origin, chord * chord, 0, current.points.length, 0, (point, distance) -> {
+                if (!point.key.equals(key)) {
+                    nearest.merge(point.key, distance, Math::min);
+                    names.putIfAbsent(point.key, point.city);
+                }
+            });
+        }
+        
+        List<String> cities = new ArrayList<>();
+        cities.add(city);
+        nearest.entrySet().stream()
+            .sorted(Map.Entry.<String, Double>comparingByValue().thenComparing(Map.Entry.comparingByKey()))
+            .limit(SearchLimits.MAX_CITIES - 1)
+            .forEach(entry -> cities.add(names.get(entry.getKey())));
+        return cities;
+    }
+    
+    //Orders the array so the median of each range on its axis sits in the middle, with smaller
+    //values left of it and larger right; the tree is then implicit in the array positions
+    private static void split(Point[] points, int from, int to, int axis) {
+        if (to - from <= 1) {
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        //Sorting the range is O(n log^2 n) overall, plenty for a few thousand airports
+        Arrays.sort(points, from, to, Comparator.comparingDouble(point -> point.coordinate(axis)));
+        split(points, from, mid, (axis + 1) % 3);
+        split(points, mid + 1, to, (axis + 1) % 3);
+    }
+    
+    private static String normalize(String city) {
+        return city == null ? "" : city.trim().toLowerCase(Locale.ROOT);
+    }
+    
+    private interface Visitor {
+        void visit(Point point, double squaredDistance);
+    }
+    
+    private record Tree(Point[] points, Map<String, List<Point>> byCity) {
+        
+        private void within(Point origin, double squaredChord, int from, int to, int axis, Visitor visitor) {
+            if (from >= to) {
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            Point point = points[mid];
+            double squaredDistance = origin.squaredDistance(point);
+            if (squaredDistance <= squaredChord) {
+                visitor.visit(point, squaredDistance);
+            }
+            double offset = origin.coordinate(axis) - point.coordinate(axis);
+            int next = (axis + 1) % 3;
+            //Always walk the side the origin is on; the other only if the sphere crosses the split
+            if (offset <= 0) {
+                within(origin, squaredChord, from, mid, next, visitor);
+                if (offset * offset <= squaredChord) {
+                    within(origin, squaredChord, mid + 1, to, next, visitor);
+                }
+            } else {
+                within(origin, squaredChord, mid + 1, to, next, visitor);
+                if (offset * offset <= squaredChord) {
+                    within(origin, squaredChord, from, mid, next, visitor);
+                }
+            }
+        }
+    }
+    
+    private record Point(String city, String key, double x, double y, double z) {
+        
+        static Point of(String city, double latitude, double longitude) {
+            double lat = Math.toRadians(latitude);
+            double lon = Math.toRadians(longitude);
+            return new Point(city, normalize(city), Math.cos(lat) * Math.cos(lon), Math.cos(lat) * Math.sin(lon),
+                Math.sin(lat));
+        }
+        
+        double coordinate(int axis) {
+            return axis == 0 ? x : axis == 1 ? y : z;
+        }
+        
+        double squaredDistance(Point other) {
+            double dx = x - other.x;
+            double dy = y - other.y;
+            double dz = z - other.z;
+            return dx * dx + dy * dy + dz * dz;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.flightapp.service.search;
+
+import com.flightapp.dto.FlightResponseDTO;
+import com.flightapp.dto.FlightSearchDTO;
+import com.flightapp.dto.FlightSortOrder;
+import com.flightapp.dto.RoundTripItineraryDTO;
+import com.flightapp.service.FlightService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+//Round trips search both legs at the same time on a bounded pool and pair the results.
+//When the pool is saturated the calling thread runs the leg itself instead of failing.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RoundTripSearchService {
+    
+    public static final int DEFAULT_COMBINATIONS = 50;
+    public static final int MAX_COMBINATIONS = 200;
+    
+    private final FlightService flightService;
+    
+    private ThreadPoolExecutor legExecutor;
+    
+    @Value("${flightapp.search.round-trip.threads:8}")
+    private int threads = 8;
+    
+    @Value("${flightapp.search.round-trip.queue-capacity:100}")
+    private int queueCapacity = 100;
+    
+    @PostConstruct
+    public void startExecutor() {
+        AtomicInteger threadCount = new AtomicInteger();
+        legExecutor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                Thread thread = new Thread(runnable, "round-trip-search-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+    
+    @PreDestroy
+    public void stopExecutor() {
+        legExecutor.shutdown();
+    }
+    
+    public List<RoundTripItineraryDTO> searchRoundTrip(FlightSearchDTO searchDTO) {
+        log.info("Searching round trip {} <-> {}", searchDTO.getDepartureCity(), searchDTO.getArrivalCity());
+        
+        FlightSearchDTO outboundLeg = leg(searchDTO, searchDTO.getDepartureCity(), searchDTO.getArrivalCity(),
+            searchDTO.getDepartureDate());
+        FlightSearchDTO inboundLeg = leg(searchDTO, searchDTO.getArrivalCity(), searchDTO.getDepartureCity(),
+            searchDTO.getReturnDate());
+        
+        CompletableFuture<List<FlightResponseDTO>> outbound =
+            CompletableFuture.supplyAsync(() -> flightService.searchFlights(outboundLeg), legExecutor);
+        CompletableFuture<List<FlightResponseDTO>> inbound =
+            CompletableFuture.supplyAsync(() -> flightService.searchFlights(inboundLeg), legExecutor);
+        
+        int maxCombinations = searchDTO.getMaxCombinations() == null ? DEFAULT_COMBINATIONS
+            : Math.min(searchDTO.getMaxCombinations(), MAX_COMBINATIONS);
+        List<RoundTripItineraryDTO> itineraries = cheapestPairs(join(outbound), join(inbound), maxCombinations);
+        log.info("Found {} round-trip itineraries", itineraries.size());
+        return itineraries;
+    }
+    
+    //Best-first walk over the two price-sorted legs: each pair is looked at once and only pairs
+    //that could still be among the cheapest get onto the heap
+    static List<RoundTripItineraryDTO> cheapestPairs(List<FlightResponseDTO> outbound,
+                                                     List<FlightResponseDTO> inbound, int maxCombinations) {
+        List<FlightResponseDTO> out = new ArrayList<>(outbound);
+        List<FlightResponseDTO> back = new ArrayList<>(inbound);
+        out.sort(Comparator.comparing(FlightResponseDTO::getPricePerSeat));
+        back.sort(Comparator.comparing(FlightResponseDTO::getPricePerSeat));
+        
+        List<RoundTripItineraryDTO> pairs = new ArrayList<>();
+        if (out.isEmpty() || back.isEmpty()) {
+            return pairs;
+        }
+        PriorityQueue<int[]> candidates = new PriorityQueue<>(
+            Comparator.<int[], BigDecimal>comparing(pair -> combinedPrice(out.get(pair[0]), back.get(pair[1])))
+                .thenComparingInt(pair -> pair[0])
+                .thenComparingInt(pair -> pair[1]));
+        candidates.add(new int[] {0, 0});
+        
+        while (!candidates.isEmpty() && pairs.size() < maxCombinations) {
+            int[] pair = candidates.poll();
+            FlightResponseDTO outboundFlight = out.get(pair[0]);
+            FlightResponseDTO inboundFlight = back.get(pair[1]);
+            if (connects(outboundFlight, inboundFlight)) {
+                pairs.add(RoundTripItineraryDTO.builder()
+                    .outbound(outboundFlight)
+                    .inbound(inboundFlight)
+                    .combinedPricePerSeat(combinedPrice(outboundFlight, inboundFlight))
+                    .build());
+            }
+            if (pair[1] + 1 < back.size()) {
+                candidates.add(new int[] {pair[0], pair[1] + 1});
+            }
+            if (pair[1] == 0 && pair[0] + 1 < out.size()) {
+                candidates.add(new int[] {pair[0] + 1, 0});
+            }
+        }
+        return pairs;
+    }
+    
+    //A same-day return has to leave after the outbound flight has landed
+    private static boolean connects(FlightResponseDTO outbound, FlightResponseDTO inbound) {
+        return outbound.getArrivalTime() == null || inbound.getDepartureTime() == null
+            || inbound.getDepartureTime().isAfter(outbound.getArrivalTime());
+    }
+    
+    private static BigDecimal combinedPrice(FlightResponseDTO outbound, FlightResponseDTO inbound) {
+        return outbound.getPricePerSeat().add(inbound.getPricePerSeat());
+    }
+    
+    //Each leg keeps the traveller's filters but is sorted by price, so its limit keeps the cheapest flights
+    private static FlightSearchDTO leg(FlightSearchDTO filters, String from, String to, LocalDate date) {
+        return FlightSearchDTO.builder()
+            .departureCity(from)
+            .arrivalCity(to)
+            .departureDate(date)
+            .tripType("ONE_WAY")
+            .numberOfPassengers(filters.getNumberOfPassengers())
+            .maxPrice(filters.getMaxPrice())
+            .airlineCode(filters.getAirlineCode())
+            .departureTimeFrom(filters.getDepartureTimeFrom())
+            .departureTimeTo(filters.getDepartureTimeTo())
+            .nearbyRadiusKm(filters.getNearbyRadiusKm())
+            .sortBy(FlightSortOrder.PRICE)
+            .limit(filters.getLimit())
+            .build();
+    }
+    
+    private static List<FlightResponseDTO> join(CompletableFuture<List<FlightResponseDTO>> leg) {
+        try {
+            return leg.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.flightapp.service.search;
+
+import com.flightapp.event.FlightAddedEvent;
+import com.flightapp.repository.FlightRepository;
+import com.flightapp.util.BloomFilter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+//Bloom filter over every (departure city, arrival city) pair that has an active upcoming flight,
+//so searches for routes nobody flies are answered without a query. Flights added on this instance
+//go straight in; ones added on other instances or directly in the database arrive with the delta
+//reload, so such a route can be ruled out for up to one reload interval. Routes that stop being
+//flown only drop out on the periodic rebuild, until then they cost a query.
+//Until the first build the filter is cold and rules nothing out.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RouteFilter {
+    
+    private final FlightRepository flightRepository;
+    
+    private final LongAdder checks = new LongAdder();
+    private final LongAdder ruledOut = new LongAdder();
+    private final AtomicInteger routes = new AtomicInteger();
+    
+    private volatile BloomFilter filter;
+    private volatile int capacity;
+    private LocalDateTime loadedUpTo;
+    
+    @Value("${flightapp.search.route-filter.enabled:true}")
+    private boolean enabled = true;
+    
+    @Value("${flightapp.search.route-filter.false-positive-rate:0.01}")
+    private double falsePositiveRate = 0.01;
+    
+    //Same allowance as the search index for rows stamped by another clock or committed late
+    @Value("${flightapp.search.route-filter.reload-overlap-ms:60000}")
+    private long reloadOverlapMs = 60000;
+    
+    //Synchronized with onFlightAdded: a flight committed before the reload started is read by it,
+    //one committed after waits and goes into the new filter
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${flightapp.search.route-filter.rebuild-interval-ms:3600000}",
+        fixedDelayString = "${flightapp.search.route-filter.rebuild-interval-ms:3600000}")
+    public synchronized void build() {
+        if (!enabled) {
+            return;
+        }
+        loadedUpTo = LocalDateTime.now();
+        List<Object[]> activeRoutes = flightRepository.findActiveRoutesFrom(LocalDate.now().atStartOfDay());
+        //Headroom for routes added before the next rebuild
+        int sized = Math.max(activeRoutes.size() * 2, 1024);
+        BloomFilter rebuilt = BloomFilter.create(sized, falsePositiveRate);
+        activeRoutes.forEach(route -> rebuilt.put(key((String) route[0], (String) route[1])));
+        routes.set(activeRoutes.size());
+        capacity = sized;
+        filter = rebuilt;
+        log.info("Route filter built with {} routes in {} bits", activeRoutes.size(), rebuilt.bitCount());
+    }
+    
+    //Adds the routes of flights written anywhere since the last reload
+    @Scheduled(initialDelayString = "${flightapp.search.route-filter.reload-interval-ms:30000}",
+        fixedDelayString = "${flightapp.search.route-filter.reload-interval-ms:30000}")
+    public synchronized void reload() {
+        if (filter == null) {
+            return;
+        }
+        LocalDateTime started = LocalDateTime.now();
+        List<Object[]> changed = flightRepository.findActiveRoutesChangedSince(
+            loadedUpTo.minusNanos(reloadOverlapMs * 1_000_000), LocalDate.now().atStartOfDay());
+        loadedUpTo = started;
+        changed.forEach(route -> add((String) route[0], (String) route[1]));
+    }
+    
+    //True only when no active flight known to the filter serves the pair; false when one might, or when unsure
+    public boolean rulesOut(String departureCity, String arrivalCity) {
+        BloomFilter current = filter;
+        if (current == null || departureCity == null || arrivalCity == null) {
+            return false;
+        }
+        checks.increment();
+        if (current.mightContain(key(departureCity, arrivalCity))) {
+            return false;
+        }
+        ruledOut.increment();
+        return true;
+    }
+    
+    @Order(0)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public synchronized void onFlightAdded(FlightAddedEvent event) {
+        if (filter == null || event.departureCity() == null || event.arrivalCity() == null) {
+            return;
+        }
+        add(event.departureCity(), event.arrivalCity());
+    }
+    
+    //Only routes the filter does not already report count towards capacity; a false positive
+    //leaves one uncounted, which the headroom absorbs
+    private void add(String departureCity, String arrivalCity) {
+        BloomFilter current = filter;
+        String key = key(departureCity, arrivalCity);
+        if (current.mightContain(key)) {
+            return;
+        }
+        current.put(key);
+        if (routes.incrementAndGet() > capacity) {
+            build();
+        }
+    }
+    
+    public Map<String, Object> snapshot() {
+        BloomFilter current = filter;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("warm", current != null);
+        stats.put("routes", routes.get());
+        stats.put("bits", current == null ? 0 : current.bitCount());
+        stats.put("hashFunctions", current == null ? 0 : current.hashFunctions());
+        stats.put("targetFalsePositiveRate", falsePositiveRate);
+        stats.put("falsePositiveRate", current == null ? 0.0 : current.falsePositiveRate());
+        stats.put("checks", checks.sum());
+        stats.put("ruledOut", ruledOut.sum());
+        return stats;
+    }
+    
+    private static String key(String departureCity, String arrivalCity) {
+        return departureCity.trim().toLowerCase(Locale.ROOT) + '\n' + arrivalCity.trim().toLowerCase(Locale.ROOT);
+    }
+}
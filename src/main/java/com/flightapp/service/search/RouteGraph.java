@@ -0,0 +1,347 @@
+package com.flightapp.service.search;
+
+import com.flightapp.dto.ConnectingItineraryDTO;
+import com.flightapp.dto.FlightResponseDTO;
+import com.flightapp.dto.FlightSearchDTO;
+import com.flightapp.dto.FlightSortOrder;
+import com.flightapp.service.search.FlightSearchIndex.IndexedFlight;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+//Time-expanded graph of upcoming flights for connecting itineraries. Every city keeps its departures
+//sorted by time, so the flights that can follow an arrival are one binary search away. The flights,
+//their seat counts and the city ids are the search index's; the graph only orders them, and follows
+//the index's build, reloads, evictions and events through its listener. Until the index is built
+//the graph is cold and only direct flights can be offered.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RouteGraph implements FlightSearchIndex.Listener {
+    
+    public static final int MAX_STOPS = 2;
+    private static final int CITY_BITS = 20;
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    
+    private final FlightSearchIndex flightSearchIndex;
+    
+    private final Map<Integer, Departures> departuresByCity = new ConcurrentHashMap<>();
+    //Same legs again per city pair, for the last leg that has to land at the destination
+    private final Map<Long, Departures> departuresByRoute = new ConcurrentHashMap<>();
+    
+    private volatile boolean warm;
+    
+    @Value("${flightapp.search.connections.enabled:true}")
+    private boolean enabled = true;
+    
+    @Value("${flightapp.search.connections.min-connection-minutes:45}")
+    private int minConnectionMinutes = 45;
+    
+    @Value("${flightapp.search.connections.max-layover-minutes:720}")
+    private int maxLayoverMinutes = 720;
+    
+    @PostConstruct
+    public void register() {
+        if (enabled) {
+            flightSearchIndex.addListener(this);
+        }
+    }
+    
+    //Sorting each city once instead of inserting flight by flight keeps the build linearithmic
+    @Override
+    public synchronized void indexBuilt(Collection<IndexedFlight> flights) {
+        long started = System.currentTimeMillis();
+        Map<Integer, List<IndexedFlight>> byCity = new HashMap<>();
+        Map<Long, List<IndexedFlight>> byRoute = new HashMap<>();
+        for (IndexedFlight leg : flights) {
+            byCity.computeIfAbsent(leg.fromCity, city -> new ArrayList<>()).add(leg);
+            byRoute.computeIfAbsent(route(leg.fromCity, leg.toCity), route -> new ArrayList<>()).add(leg);
+        }
+        departuresByCity.clear();
+        departuresByRoute.clear();
+        byCity.forEach((city, cityLegs) -> departuresByCity.put(city, Departures.of(cityLegs)));
+        byRoute.forEach((route, routeLegs) -> departuresByRoute.put(route, Departures.of(routeLegs)));
+        warm = true;
+        log.info("Route graph built from {} cities in {} ms",
+            departuresByCity.size(), System.currentTimeMillis() - started);
+    }
+    
+    //Changes before the build are already in the flights indexBuilt reads
+    @Override
+    public synchronized void flightIndexed(IndexedFlight flight, IndexedFlight previous) {
+        if (!warm) {
+            return;
+        }
+        if (previous != null) {
+            remove(previous);
+        }
+        departuresByCity.compute(flight.fromCity, (k, departures) -> Departures.with(departures, flight));
+        departuresByRoute.compute(route(flight.fromCity, flight.toCity),
+            (k, departures) -> Departures.with(departures, flight));
+    }
+    
+    @Override
+    public synchronized void flightRemoved(IndexedFlight flight) {
+        if (warm) {
+            remove(flight);
+        }
+    }
+    
+    public boolean isWarm() {
+        return warm;
+    }
+    
+    //Empty means the graph is cold and the caller can only offer direct flights
+    public Optional<List<ConnectingItineraryDTO>> search(FlightSearchDTO criteria, int maxStops, int limit) {
+        LocalDate date = criteria.getDepartureDate();
+        if (!warm || criteria.getDepartureCity() == null || criteria.getArrivalCity() == null || date == null) {
+            return Optional.empty();
+        }
+        Integer from = flightSearchIndex.cityIdOf(criteria.getDepartureCity());
+        Integer to = flightSearchIndex.cityIdOf(criteria.getArrivalCity());
+        Departures firstLegs = from == null ? null : departuresByCity.get(from);
+        if (to == null || firstLegs == null || from.equals(to)) {
+            return Optional.of(List.of());
+        }
+        
+        long dayStart = minutes(date.atStartOfDay());
+        LocalTime windowStart = criteria.getDepartureTimeFrom();
+        LocalTime windowEnd = criteria.getDepartureTimeTo();
+        long firstDeparture = windowStart == null ? dayStart : dayStart + windowStart.toSecondOfDay() / 60;
+        long lastDeparture = windowEnd == null ? dayStart + MINUTES_PER_DAY - 1 : dayStart + windowEnd.toSecondOfDay() / 60;
+        
+        Search search = new Search(criteria, to, Math.min(maxStops, MAX_STOPS), limit);
+        IndexedFlight[] path = new IndexedFlight[MAX_STOPS + 1];
+        for (int i = firstLegs.firstAtOrAfter(firstDeparture);
+             i < firstLegs.legs.length && firstLegs.legs[i].departureMinute <= lastDeparture; i++) {
+            IndexedFlight first = firstLegs.legs[i];
+            if (search.accepts(first, 0)) {
+                path[0] = first;
+                extend(search, path, 1, first.price);
+            }
+        }
+        return Optional.of(search.results());
+    }
+    
+    //Depth-first over connections in time order. Arrival and price only grow along a path, so a
+    //path that already ranks behind the worst kept itinerary is dropped with everything after it.
+    private void extend(Search search, IndexedFlight[] path, int depth, long price) {
+        IndexedFlight last = path[depth - 1];
+        if (last.toCity == search.destination) {
+            search.offer(Arrays.copyOf(path, depth), price);
+            return;
+        }
+        if (depth > search.maxStops || search.cannotImprove(last.arrivalMinute, price)) {
+            return;
+        }
+        //The final leg has to land at the destination, so only that route is worth scanning
+        Departures next = depth == search.maxStops
+            ? departuresByRoute.get(route(last.toCity, search.destination))
+            : departuresByCity.get(last.toCity);
+        if (next == null) {
+            return;
+        }
+        long earliest = last.arrivalMinute + minConnectionMinutes;
+        long latest = last.arrivalMinute + maxLayoverMinutes;
+        for (int i = next.firstAtOrAfter(earliest); i < next.legs.length && next.legs[i].departureMinute <= latest; i++) {
+            IndexedFlight leg = next.legs[i];
+            if (visits(path, depth, leg.toCity) || !search.accepts(leg, price)) {
+                continue;
+            }
+            path[depth] = leg;
+            extend(search, path, depth + 1, price + leg.price);
+        }
+    }
+    
+    private static boolean visits(IndexedFlight[] path, int depth, int city) {
+        if (path[0].fromCity == city) {
+            return true;
+        }
+        for (int i = 0; i < depth; i++) {
+            if (path[i].toCity == city) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private void remove(IndexedFlight flight) {
+        departuresByCity.computeIfPresent(flight.fromCity, (k, departures) -> departures.without(flight));
+        departuresByRoute.computeIfPresent(route(flight.fromCity, flight.toCity),
+            (k, departures) -> departures.without(flight));
+    }
+    
+    private static long route(int fromCity, int toCity) {
+        return ((long) fromCity << CITY_BITS) | toCity;
+    }
+    
+    private static long minutes(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) / 60;
+    }
+    
+    public static ConnectingItineraryDTO itinerary(List<FlightResponseDTO> legs) {
+        FlightResponseDTO first = legs.get(0);
+        FlightResponseDTO last = legs.get(legs.size() - 1);
+        return ConnectingItineraryDTO.builder()
+            .legs(legs)
+            .stops(legs.size() - 1)
+            .totalPricePerSeat(legs.stream().map(FlightResponseDTO::getPricePerSeat).reduce(BigDecimal.ZERO, BigDecimal::add))
+            .departureTime(first.getDepartureTime())
+            .arrivalTime(last.getArrivalTime())
+            .totalDurationMinutes(Duration.between(first.getDepartureTime(), last.getArrivalTime()).toMinutes())
+            .build();
+    }
+    
+    //Per-search state: the filters every leg must pass and the best itineraries found so far,
+    //kept worst-first so the bound for pruning is always at the head
+    private static final class Search {
+        private final int destination;
+        private final int maxStops;
+        private final int limit;
+        private final int seats;
+        private final String airlineCode;
+        private final long maxPrice;
+        private final boolean byPrice;
+        private final PriorityQueue<Candidate> best;
+        
+        private Search(FlightSearchDTO criteria, int destination, int maxStops, int limit) {
+            this.destination = destination;
+            this.maxStops = maxStops;
+            this.limit = limit;
+            this.seats = criteria.getNumberOfPassengers() == null ? 1 : criteria.getNumberOfPassengers();
+            this.airlineCode = criteria.getAirlineCode();
+            this.maxPrice = criteria.getMaxPrice() == null ? Long.MAX_VALUE
+                : criteria.getMaxPrice().setScale(2, RoundingMode.FLOOR).unscaledValue().longValue();
+            this.byPrice = criteria.getSortBy() == FlightSortOrder.PRICE;
+            this.best = new PriorityQueue<>(ranking().reversed());
+        }
+        
+        //Cheapest first when sorting by price, otherwise earliest arrival first
+        private Comparator<Candidate> ranking() {
+            Comparator<Candidate> byArrival = Comparator.comparingLong(Candidate::arrivalMinute);
+            Comparator<Candidate> byCost = Comparator.comparingLong(Candidate::price);
+            return (byPrice ? byCost.thenComparing(byArrival) : byArrival.thenComparing(byCost))
+                .thenComparingInt(candidate -> candidate.legs().length)
+                .thenComparingLong(Candidate::departureMinute);
+        }
+        
+        private boolean accepts(IndexedFlight leg, long priceSoFar) {
+            return leg.availableSeats.get() >= seats
+                && priceSoFar + leg.price <= maxPrice
+                && (airlineCode == null || airlineCode.trim().equalsIgnoreCase(leg.airlineCode));
+        }
+        
+        //Every extension arrives later and costs more than the path it extends
+        private boolean cannotImprove(long arrivalMinute, long price) {
+            if (best.size() < limit) {
+                return false;
+            }
+            Candidate worst = best.peek();
+            return byPrice ? price >= worst.price() : arrivalMinute >= worst.arrivalMinute();
+        }
+        
+        private void offer(IndexedFlight[] path, long price) {
+            Candidate candidate = new Candidate(path, price, path[0].departureMinute, path[path.length - 1].arrivalMinute);
+            best.add(candidate);
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+        
+        private List<ConnectingItineraryDTO> results() {
+            List<Candidate> ordered = new ArrayList<>(best);
+            ordered.sort(ranking());
+            return ordered.stream()
+                .map(candidate -> itinerary(Arrays.stream(candidate.legs()).map(IndexedFlight::toResponse)
+                    .collect(Collectors.toList())))
+                .collect(Collectors.toList());
+        }
+    }
+    
+    private record Candidate(IndexedFlight[] legs, long price, long departureMinute, long arrivalMinute) {
+    }
+    
+    //Departures from one city (or on one city pair) sorted by time, replaced on every change
+    private static final class Departures {
+        private static final Comparator<IndexedFlight> ORDER = Comparator
+            .<IndexedFlight>comparingLong(leg -> leg.departureMinute)
+            .thenComparingInt(leg -> leg.flightId);
+        
+        private final IndexedFlight[] legs;
+        
+        private Departures(IndexedFlight[] legs) {
+            this.legs = legs;
+        }
+        
+        private static Departures of(List<IndexedFlight> legs) {
+            IndexedFlight[] sorted = legs.toArray(new IndexedFlight[0]);
+            Arrays.sort(sorted, ORDER);
+            return new Departures(sorted);
+        }
+        
+        //A flight the build already placed is swapped for the newer object in place
+        private static Departures with(Departures departures, IndexedFlight leg) {
+            IndexedFlight[] current = departures == null ? new IndexedFlight[0] : departures.legs;
+            int found = Arrays.binarySearch(current, leg, ORDER);
+            if (found >= 0) {
+                IndexedFlight[] updated = current.clone();
+                updated[found] = leg;
+                return new Departures(updated);
+            }
+            int at = -(found + 1);
+            IndexedFlight[] updated = new IndexedFlight[current.length + 1];
+            System.arraycopy(current, 0, updated, 0, at);
+            updated[at] = leg;
+            System.arraycopy(current, at, updated, at + 1, current.length - at);
+            return new Departures(updated);
+        }
+        
+        //Returns null once the last leg is gone so compute drops the key
+        private Departures without(IndexedFlight leg) {
+            int at = Arrays.binarySearch(legs, leg, ORDER);
+            if (at < 0) {
+                return this;
+            }
+            if (legs.length == 1) {
+                return null;
+            }
+            IndexedFlight[] updated = Arrays.copyOf(legs, legs.length - 1);
+            System.arraycopy(legs, at + 1, updated, at, legs.length - at - 1);
+            return new Departures(updated);
+        }
+        
+        private int firstAtOrAfter(long minute) {
+            int low = 0;
+            int high = legs.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (legs[mid].departureMinute < minute) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
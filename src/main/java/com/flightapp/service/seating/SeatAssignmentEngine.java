@@ -0,0 +1,99 @@
+package com.flightapp.service.seating;
+
+import com.flightapp.exception.BookingException;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+//Seats a party together: first a contiguous block in one row, then the tightest band of
+//neighbouring rows. Works on the 64-bit words of the seat map, 8 rows at a time.
+@Component
+public class SeatAssignmentEngine {
+    
+    public List<String> assign(SeatMap seatMap, int count, String seatClass) {
+        if (count <= 0) {
+            return Collections.emptyList();
+        }
+        int firstRow = seatMap.firstRow(seatClass);
+        int endRow = seatMap.endRow(seatClass);
+        
+        if (count <= SeatMap.SEATS_PER_ROW) {
+            int start = findBlockInRow(seatMap, count, firstRow, endRow);
+            if (start >= 0) {
+                List<String> seats = new ArrayList<>(count);
+                for (int bit = start; bit < start + count; bit++) {
+                    seats.add(SeatMap.seatNumber(bit));
+                }
+                return seats;
+            }
+        }
+        
+        List<String> seats = findNearestRows(seatMap, count, firstRow, endRow);
+        if (seats.size() < count) {
+            throw new BookingException("Not enough free seats to seat " + count + " passengers");
+        }
+        return seats;
+    }
+    
+    //A start bit survives only if the next count-1 bits are free too. Bits 6 and 7 of every
+    //row slot never exist, so a run can't spill into the next row.
+    int findBlockInRow(SeatMap seatMap, int count, int firstRow, int endRow) {
+        if (endRow <= firstRow) {
+            return -1;
+        }
+        for (int word = firstRow / SeatMap.ROWS_PER_WORD; word <= (endRow - 1) / SeatMap.ROWS_PER_WORD; word++) {
+            long free = seatMap.freeWord(word) & SeatMap.rowRangeMask(word, firstRow, endRow);
+            long starts = free;
+            for (int shift = 1; shift < count && starts != 0; shift++) {
+                starts &= free >>> shift;
+            }
+            if (starts != 0) {
+                return (word << 6) + Long.numberOfTrailingZeros(starts);
+            }
+        }
+        return -1;
+    }
+    
+    //Smallest window of consecutive rows holding enough free seats, filled front to back
+    List<String> findNearestRows(SeatMap seatMap, int count, int firstRow, int endRow) {
+        int rows = Math.max(endRow - firstRow, 0);
+        int[] freeInRow = new int[rows];
+        for (int row = 0; row < rows; row++) {
+            freeInRow[row] = Long.bitCount(rowBits(seatMap, firstRow + row));
+        }
+        
+        int bestStart = -1;
+        int bestEnd = -1;
+        int windowFree = 0;
+        int start = 0;
+        for (int end = 0; end < rows; end++) {
+            windowFree += freeInRow[end];
+            while (windowFree - freeInRow[start] >= count) {
+                windowFree -= freeInRow[start++];
+            }
+            if (windowFree >= count && (bestStart < 0 || end - start < bestEnd - bestStart)) {
+                bestStart = start;
+                bestEnd = end;
+            }
+        }
+        
+        List<String> seats = new ArrayList<>(count);
+        if (bestStart < 0) {
+            return seats;
+        }
+        for (int row = firstRow + bestStart; row <= firstRow + bestEnd && seats.size() < count; row++) {
+            long free = rowBits(seatMap, row);
+            while (free != 0 && seats.size() < count) {
+                seats.add(SeatMap.seatNumber(row * SeatMap.ROW_BITS + Long.numberOfTrailingZeros(free)));
+                free &= free - 1;
+            }
+        }
+        return seats;
+    }
+    
+    private long rowBits(SeatMap seatMap, int row) {
+        int shift = (row % SeatMap.ROWS_PER_WORD) * SeatMap.ROW_BITS;
+        return (seatMap.freeWord(row / SeatMap.ROWS_PER_WORD) >>> shift) & SeatMap.FULL_ROW;
+    }
+}
@@ -0,0 +1,277 @@
+package com.flightapp.service.seating;
+
+import com.flightapp.exception.ValidationException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+//Bitset view of a flight's cabin. Each row takes an 8-bit slot of a long (seats A-F in the low 6 bits),
+//so a row never straddles two words and a whole word covers 8 rows.
+//Instances are copied before they are changed; published maps are treated as immutable.
+public final class SeatMap {
+    
+    public static final String BUSINESS = "BUSINESS";
+    public static final String ECONOMY = "ECONOMY";
+    public static final String SEAT_LETTERS = "ABCDEF";
+    public static final int SEATS_PER_ROW = SEAT_LETTERS.length();
+    
+    static final int ROW_BITS = 8;
+    static final int ROWS_PER_WORD = Long.SIZE / ROW_BITS;
+    static final long FULL_ROW = (1L << SEATS_PER_ROW) - 1;
+    
+    private static final int SEATS_PER_BUSINESS_ROW_BLOCK = 60;
+    
+    private final int totalSeats;
+    private final int rowCount;
+    private final int businessRows;
+    private final long[] exists;
+    private final long[] booked;
+    private final long[] held;
+    
+    public SeatMap(int totalSeats) {
+        this(totalSeats, totalSeats / SEATS_PER_BUSINESS_ROW_BLOCK);
+    }
+    
+    public SeatMap(int totalSeats, int businessRows) {
+        if (totalSeats <= 0) {
+            throw new ValidationException("Total seats must be greater than 0");
+        }
+        this.totalSeats = totalSeats;
+        this.rowCount = (totalSeats + SEATS_PER_ROW - 1) / SEATS_PER_ROW;
+        this.businessRows = Math.min(businessRows, rowCount);
+        int words = (rowCount + ROWS_PER_WORD - 1) / ROWS_PER_WORD;
+        this.exists = new long[words];
+        this.booked = new long[words];
+        this.held = new long[words];
+        for (int seat = 0; seat < totalSeats; seat++) {
+            int bit = (seat / SEATS_PER_ROW) * ROW_BITS + seat % SEATS_PER_ROW;
+            exists[bit >>> 6] |= 1L << bit;
+        }
+    }
+    
+    private SeatMap(SeatMap source) {
+        this.totalSeats = source.totalSeats;
+        this.rowCount = source.rowCount;
+        this.businessRows = source.businessRows;
+        this.exists = source.exists;
+        this.booked = source.booked.clone();
+        this.held = source.held.clone();
+    }
+    
+    public static SeatMap restore(int totalSeats, int businessRows, byte[] bookedBytes, byte[] heldBytes) {
+        SeatMap seatMap = new SeatMap(totalSeats, businessRows);
+        readWords(bookedBytes, seatMap.booked);
+        readWords(heldBytes, seatMap.held);
+        return seatMap;
+    }
+    
+    public SeatMap copy() {
+        return new SeatMap(this);
+    }
+    
+    public int getTotalSeats() {
+        return totalSeats;
+    }
+    
+    public int getRowCount() {
+        return rowCount;
+    }
+    
+    public int getBusinessRows() {
+        return businessRows;
+    }
+    
+    public boolean isFree(String seatNumber) {
+        int bit = bitIndex(seatNumber);
+        return (freeWord(bit >>> 6) & (1L << bit)) != 0;
+    }
+    
+    public boolean isHeld(String seatNumber) {
+        int bit = bitIndex(seatNumber);
+        return (held[bit >>> 6] & (1L << bit)) != 0;
+    }
+    
+    public boolean isBooked(String seatNumber) {
+        int bit = bitIndex(seatNumber);
+        return (booked[bit >>> 6] & (1L << bit)) != 0;
+    }
+    
+    public String seatClassOf(String seatNumber) {
+        return (bitIndex(seatNumber) / ROW_BITS) < businessRows ? BUSINESS : ECONOMY;
+    }
+    
+    public List<String> findFree(int count, String seatClass) {
+        List<String> seats = new ArrayList<>(count);
+        int firstRow = firstRow(seatClass);
+        int endRow = endRow(seatClass);
+        for (int word = firstRow / ROWS_PER_WORD; word <= (endRow - 1) / ROWS_PER_WORD && seats.size() < count; word++) {
+            long free = freeWord(word) & rowRangeMask(word, firstRow, endRow);
+            while (free != 0 && seats.size() < count) {
+                int bit = (word << 6) + Long.numberOfTrailingZeros(free);
+                seats.add(seatNumber(bit));
+                free &= free - 1;
+            }
+        }
+        return seats;
+    }
+    
+    public int freeCount(String seatClass) {
+        int firstRow = firstRow(seatClass);
+        int endRow = endRow(seatClass);
+        int count = 0;
+        for (int word = firstRow / ROWS_PER_WORD; word <= (endRow - 1) / ROWS_PER_WORD; word++) {
+            count += Long.bitCount(freeWord(word) & rowRangeMask(word, firstRow, endRow));
+        }
+        return count;
+    }
+    
+    public void hold(Collection<String> seatNumbers) {
+        for (String seatNumber : seatNumbers) {
+            int bit = bitIndex(seatNumber);
+            if ((freeWord(bit >>> 6) & (1L << bit)) == 0) {
+                throw new ValidationException("Seat " + seatNumber + " is not available");
+            }
+            held[bit >>> 6] |= 1L << bit;
+        }
+    }
+    
+    public void book(Collection<String> seatNumbers) {
+        for (String seatNumber : seatNumbers) {
+            int bit = bitIndex(seatNumber);
+            long mask = 1L << bit;
+            if ((freeWord(bit >>> 6) & mask) == 0 && (held[bit >>> 6] & mask) == 0) {
+                throw new ValidationException("Seat " + seatNumber + " is not available");
+            }
+            held[bit >>> 6] &= ~mask;
+            booked[bit >>> 6] |= mask;
+        }
+    }
+    
+    public void release(Collection<String> seatNumbers) {
+        for (String seatNumber : seatNumbers) {
+            int bit = bitIndex(seatNumber);
+            held[bit >>> 6] &= ~(1L << bit);
+            booked[bit >>> 6] &= ~(1L << bit);
+        }
+    }
+    
+    //Bits this map set or cleared since the earlier copy it was made from
+    public Delta diff(SeatMap before) {
+        int words = exists.length;
+        Delta delta = new Delta(words);
+        for (int i = 0; i < words; i++) {
+            delta.bookedSet[i] = booked[i] & ~before.booked[i];
+            delta.bookedCleared[i] = before.booked[i] & ~booked[i];
+            delta.heldSet[i] = held[i] & ~before.held[i];
+            delta.heldCleared[i] = before.held[i] & ~held[i];
+        }
+        return delta;
+    }
+    
+    //Replays a change made against another copy of the same flight's map
+    public void apply(Delta delta) {
+        for (int i = 0; i < exists.length; i++) {
+            booked[i] = (booked[i] | delta.bookedSet[i]) & ~delta.bookedCleared[i];
+            held[i] = (held[i] | delta.heldSet[i]) & ~delta.heldCleared[i];
+        }
+    }
+    
+    public byte[] bookedBytes() {
+        return writeWords(booked);
+    }
+    
+    public byte[] heldBytes() {
+        return writeWords(held);
+    }
+    
+    //Free seats of the 8 rows packed in this word
+    long freeWord(int word) {
+        return exists[word] & ~booked[word] & ~held[word];
+    }
+    
+    int wordCount() {
+        return exists.length;
+    }
+    
+    int firstRow(String seatClass) {
+        if (seatClass != null && !BUSINESS.equalsIgnoreCase(seatClass) && !ECONOMY.equalsIgnoreCase(seatClass)) {
+            throw new ValidationException("Seat class must be BUSINESS or ECONOMY");
+        }
+        return ECONOMY.equalsIgnoreCase(seatClass) ? businessRows : 0;
+    }
+    
+    int endRow(String seatClass) {
+        return BUSINESS.equalsIgnoreCase(seatClass) ? businessRows : rowCount;
+    }
+    
+    //Bits of this word that belong to rows in [firstRow, endRow)
+    static long rowRangeMask(int word, int firstRow, int endRow) {
+        int wordFirstRow = word * ROWS_PER_WORD;
+        int from = Math.max(firstRow - wordFirstRow, 0);
+        int to = Math.min(endRow - wordFirstRow, ROWS_PER_WORD);
+        if (from >= to) {
+            return 0L;
+        }
+        long high = to == ROWS_PER_WORD ? -1L : (1L << (to * ROW_BITS)) - 1;
+        long low = (1L << (from * ROW_BITS)) - 1;
+        return high & ~low;
+    }
+    
+    static String seatNumber(int bit) {
+        return (bit / ROW_BITS + 1) + String.valueOf(SEAT_LETTERS.charAt(bit % ROW_BITS));
+    }
+    
+    int bitIndex(String seatNumber) {
+        if (seatNumber == null || seatNumber.length() < 2) {
+            throw new ValidationException("Invalid seat number: " + seatNumber);
+        }
+        int column = SEAT_LETTERS.indexOf(Character.toUpperCase(seatNumber.charAt(seatNumber.length() - 1)));
+        int row;
+        try {
+            row = Integer.parseInt(seatNumber.substring(0, seatNumber.length() - 1)) - 1;
+        } catch (NumberFormatException ex) {
+            throw new ValidationException("Invalid seat number: " + seatNumber);
+        }
+        if (column < 0 || row < 0 || row >= rowCount) {
+            throw new ValidationException("Invalid seat number: " + seatNumber);
+        }
+        int bit = row * ROW_BITS + column;
+        if ((exists[bit >>> 6] & (1L << bit)) == 0) {
+            throw new ValidationException("Invalid seat number: " + seatNumber);
+        }
+        return bit;
+    }
+    
+    private static byte[] writeWords(long[] words) {
+        ByteBuffer buffer = ByteBuffer.allocate(words.length * Long.BYTES);
+        for (long word : words) {
+            buffer.putLong(word);
+        }
+        return buffer.array();
+    }
+    
+    private static void readWords(byte[] bytes, long[] words) {
+        if (bytes == null) {
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        for (int i = 0; i < words.length && buffer.remaining() >= Long.BYTES; i++) {
+            words[i] = buffer.getLong();
+        }
+    }
+    
+    public static final class Delta {
+        private final long[] bookedSet;
+        private final long[] bookedCleared;
+        private final long[] heldSet;
+        private final long[] heldCleared;
+        
+        private Delta(int words) {
+            this.bookedSet = new long[words];
+            this.bookedCleared = new long[words];
+            this.heldSet = new long[words];
+            this.heldCleared = new long[words];
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.flightapp.service.seating;
+
+import com.flightapp.entity.Flight;
+import com.flightapp.entity.FlightSeatMap;
+import com.flightapp.exception.ResourceNotFoundException;
+import com.flightapp.repository.FlightRepository;
+import com.flightapp.repository.FlightSeatMapRepository;
+import com.flightapp.repository.SeatRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+//Owns the per-flight seat bitmaps. Reads are served from the cache.
+//Direct bookings pick seats with a compare-and-set on the cached map and never lock the
+//flight_seat_map row, only read its version; their Seat rows record the choice and the
+//(flight, seat) unique key settles races with other instances. Holds, confirmations and releases
+//still lock the row, persist their change to it and replay it on the cache after commit. Either
+//path drops the cached map when its transaction rolls back.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SeatMapService {
+    
+    private final FlightSeatMapRepository seatMapRepository;
+    private final FlightRepository flightRepository;
+    private final SeatRepository seatRepository;
+    private final SeatAssignmentEngine seatAssignmentEngine;
+    
+    private final Map<Integer, CachedSeatMap> cache = new ConcurrentHashMap<>();
+    
+    @Transactional
+    public void createSeatMap(Flight flight) {
+        SeatMap seatMap = new SeatMap(flight.getTotalSeats());
+        FlightSeatMap row = seatMapRepository.save(toRow(flight.getFlightId(), seatMap));
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cache.put(flight.getFlightId(), new CachedSeatMap(row.getVersion(), seatMap));
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cache.put(flight.getFlightId(), new CachedSeatMap(row.getVersion(), seatMap));
+            }
+        });
+    }
+    
+    @Transactional(readOnly = true)
+    public SeatMap getSeatMap(Integer flightId) {
+        CachedSeatMap cached = revalidated(flightId);
+        if (cached != null) {
+            return cached.seatMap().copy();
+        }
+        Flight flight = flightRepository.findById(flightId)
+            .orElseThrow(() -> new ResourceNotFoundException("Flight not found with ID: " + flightId));
+        return load(flight).seatMap().copy();
+    }
+    
+    @Transactional(readOnly = true)
+    public List<String> findAvailableSeats(Integer flightId, String seatClass, int limit) {
+        return getSeatMap(flightId).findFree(limit, seatClass);
+    }
+    
+    public String seatClassOf(Flight flight, String seatNumber) {
+        return cachedOrLoad(flight).seatMap().seatClassOf(seatNumber);
+    }
+    
+    @Transactional
+    public List<String> holdSeats(Flight flight, int count, String seatClass) {
+        return update(flight, seatMap -> {
+            List<String> seats = seatAssignmentEngine.assign(seatMap, count, seatClass);
+            seatMap.hold(seats);
+            return seats;
+        });
+    }
+    
+    //Picks seats for the whole party and books them on the cached map with a compare-and-set.
+    //A booking that rolls back drops the cached map so it is rebuilt from committed rows; that
+    //includes one that found no seats on a map missing a release made elsewhere.
+    public List<String> assignSeats(Flight flight, int count, String seatClass) {
+        Integer flightId = flight.getFlightId();
+        evictOnRollback(flightId);
+        revalidated(flightId);
+        while (true) {
+            CachedSeatMap current = cachedOrLoad(flight);
+            SeatMap working = current.seatMap().copy();
+            List<String> seats = seatAssignmentEngine.assign(working, count, seatClass);
+            working.book(seats);
+            if (cache.replace(flightId, current, new CachedSeatMap(current.version(), working))) {
+                return seats;
+            }
+        }
+    }
+    
+    @Transactional
+    public void bookSeats(Flight flight, Collection<String> seatNumbers) {
+        update(flight, seatMap -> {
+            seatMap.book(seatNumbers);
+            return null;
+        });
+    }
+    
+    @Transactional
+    public void releaseSeats(Flight flight, Collection<String> seatNumbers) {
+        if (seatNumbers.isEmpty()) {
+            return;
+        }
+        update(flight, seatMap -> {
+            seatMap.release(seatNumbers);
+            return null;
+        });
+    }
+    
+    //Runs the change against the full seat picture while the seat map row is locked, then writes
+    //only the bits it changed, since the row does not carry directly booked seats
+    @Transactional
+    public <T> T update(Flight flight, Function<SeatMap, T> change) {
+        Integer flightId = flight.getFlightId();
+        FlightSeatMap row = seatMapRepository.findForUpdate(flightId)
+            .orElseGet(() -> toRow(flightId, new SeatMap(flight.getTotalSeats())));
+        
+        CachedSeatMap cached = cache.get(flightId);
+        SeatMap before = cached != null && Objects.equals(cached.version(), row.getVersion())
+            ? cached.seatMap()
+            : withBookedSeatRows(flightId, fromRow(row));
+        SeatMap working = before.copy();
+        
+        T result = change.apply(working);
+        
+        SeatMap.Delta delta = working.diff(before);
+        SeatMap persisted = fromRow(row);
+        persisted.apply(delta);
+        Long baseVersion = row.getVersion();
+        row.setBookedSeats(persisted.bookedBytes());
+        row.setHeldSeats(persisted.heldBytes());
+        FlightSeatMap saved = seatMapRepository.saveAndFlush(row);
+        publishAfterCommit(flightId, baseVersion, saved.getVersion(), working, delta);
+        //The cached map can miss seats another instance booked straight into Seat rows; if this change
+        //trips over one, drop it so the retry rebuilds from committed rows instead of picking it again
+        evictOnRollback(flightId);
+        return result;
+    }
+    
+    //Replays the committed change on the cached map. A cached map that missed an earlier row change
+    //is replaced by the locked view instead, unless a later change has already been published.
+    private void publishAfterCommit(Integer flightId, Long baseVersion, Long version, SeatMap working, SeatMap.Delta delta) {
+        Runnable publish = () -> cache.compute(flightId, (id, current) -> {
+            if (current != null && Objects.equals(current.version(), baseVersion)) {
+                SeatMap next = current.seatMap().copy();
+                next.apply(delta);
+                return new CachedSeatMap(version, next);
+            }
+            if (current != null && current.version() != null && version != null && current.version() >= version) {
+                return current;
+            }
+            return new CachedSeatMap(version, working);
+        });
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publish.run();
+            }
+        });
+    }
+    
+    private void evictOnRollback(Integer flightId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    cache.remove(flightId);
+                }
+            }
+        });
+    }
+    
+    //Holds, confirmations and releases on other instances bump the row version without reaching this
+    //cache, so a cached map is only trusted while a plain read of that version still matches it
+    private CachedSeatMap revalidated(Integer flightId) {
+        CachedSeatMap cached = cache.get(flightId);
+        if (cached == null) {
+            return null;
+        }
+        Long rowVersion = seatMapRepository.findVersion(flightId).orElse(null);
+        if (!Objects.equals(cached.version(), rowVersion)) {
+            cache.remove(flightId, cached);
+            return null;
+        }
+        return cached;
+    }
+    
+    private CachedSeatMap cachedOrLoad(Flight flight) {
+        CachedSeatMap cached = cache.get(flight.getFlightId());
+        return cached != null ? cached : load(flight);
+    }
+    
+    private CachedSeatMap load(Flight flight) {
+        Integer flightId = flight.getFlightId();
+        CachedSeatMap loaded = seatMapRepository.findById(flightId)
+            .map(row -> new CachedSeatMap(row.getVersion(), withBookedSeatRows(flightId, fromRow(row))))
+            .orElseGet(() -> new CachedSeatMap(null, withBookedSeatRows(flightId, new SeatMap(flight.getTotalSeats()))));
+        CachedSeatMap existing = cache.putIfAbsent(flightId, loaded);
+        return existing != null ? existing : loaded;
+    }
+    
+    //Directly booked seats live only in Seat rows, so fold them into a map read from its row
+    private SeatMap withBookedSeatRows(Integer flightId, SeatMap seatMap) {
+        List<String> booked = seatRepository.findBookedSeatNumbers(flightId).stream()
+            .filter(seatNumber -> !seatMap.isBooked(seatNumber))
+            .collect(Collectors.toList());
+        seatMap.book(booked);
+        return seatMap;
+    }
+    
+    private FlightSeatMap toRow(Integer flightId, SeatMap seatMap) {
+        return FlightSeatMap.builder()
+            .flightId(flightId)
+            .totalSeats(seatMap.getTotalSeats())
+            .businessRows(seatMap.getBusinessRows())
+            .bookedSeats(seatMap.bookedBytes())
+            .heldSeats(seatMap.heldBytes())
+            .build();
+    }
+    
+    private SeatMap fromRow(FlightSeatMap row) {
+        return SeatMap.restore(row.getTotalSeats(), row.getBusinessRows(), row.getBookedSeats(), row.getHeldSeats());
+    }
+    
+    private record CachedSeatMap(Long version, SeatMap seatMap) {
+    }
+}
@@ -0,0 +1,90 @@
+package com.flightapp.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+//Fixed-size Bloom filter over strings. mightContain never misses a value that was put, but can
+//answer yes for one that was not, at about the rate the filter was sized for.
+//Safe to put and read from several threads; it cannot remove values, so shrinking means rebuilding.
+public class BloomFilter {
+    
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashFunctions;
+    
+    private BloomFilter(long bitCount, int hashFunctions) {
+        this.words = new AtomicLongArray((int) (bitCount / Long.SIZE));
+        this.bitCount = bitCount;
+        this.hashFunctions = hashFunctions;
+    }
+    
+    //Optimal bits and hash count for the expected number of values and target false positive rate
+    public static BloomFilter create(int expectedInsertions, double falsePositiveRate) {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("False positive rate must be between 0 and 1");
+        }
+        int expected = Math.max(expectedInsertions, 1);
+        double bits = -expected * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+        long words = Math.min(Math.max((long) Math.ceil(bits / Long.SIZE), 1), Integer.MAX_VALUE / Long.SIZE);
+        long bitCount = words * Long.SIZE;
+        int hashFunctions = Math.max(1, (int) Math.round((double) bitCount / expected * Math.log(2)));
+        return new BloomFilter(bitCount, hashFunctions);
+    }
+    
+    public void put(String value) {
+        long first = hash(value, 0xcbf29ce484222325L);
+        long second = hash(value, 0x9e3779b97f4a7c15L) | 1;
+        for (int i = 0; i < hashFunctions; i++) {
+            long bit = Math.floorMod(first + i * second, bitCount);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current = words.get(word);
+            while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask)) {
+                current = words.get(word);
+            }
+        }
+    }
+    
+    public boolean mightContain(String value) {
+        long first = hash(value, 0xcbf29ce484222325L);
+        long second = hash(value, 0x9e3779b97f4a7c15L) | 1;
+        for (int i = 0; i < hashFunctions; i++) {
+            long bit = Math.floorMod(first + i * second, bitCount);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    public long bitCount() {
+        return bitCount;
+    }
+    
+    public int hashFunctions() {
+        return hashFunctions;
+    }
+    
+    //Chance that a value never put is reported present, from how full the bits actually are
+    public double falsePositiveRate() {
+        long set = 0;
+        for (int i = 0; i < words.length(); i++) {
+            set += Long.bitCount(words.get(i));
+        }
+        return Math.pow((double) set / bitCount, hashFunctions);
+    }
+    
+    //FNV-1a over the chars, finished with the murmur3 mixer so close strings spread apart;
+    //two seeds give the two hashes the bit positions are derived from
+    private static long hash(String value, long seed) {
+        long hash = seed;
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb93fe1a85ec5L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,76 @@
+package com.flightapp.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+//Collapses concurrent calls for the same key into one execution: the first caller runs the
+//loader, everyone arriving while it runs waits for and shares its result or its exception.
+//Nothing is kept once the execution finishes, caching results is up to the caller.
+public class SingleFlight<K, V> {
+    
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder joined = new LongAdder();
+    
+    public V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, call);
+        if (running != null) {
+            joined.increment();
+            return await(running);
+        }
+        
+        executions.increment();
+        try {
+            V value = loader.get();
+            call.complete(value);
+            return value;
+        } catch (RuntimeException | Error ex) {
+            call.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            //Only our own entry; a detached key may already have a newer execution
+            inFlight.remove(key, call);
+        }
+    }
+    
+    //Callers arriving after this start a fresh execution instead of joining one that may have
+    //read data from before a change; callers already waiting still get the old result
+    public int detach(Predicate<K> keys) {
+        int detached = 0;
+        for (Map.Entry<K, CompletableFuture<V>> entry : inFlight.entrySet()) {
+            if (keys.test(entry.getKey()) && inFlight.remove(entry.getKey(), entry.getValue())) {
+                detached++;
+            }
+        }
+        return detached;
+    }
+    
+    public Map<String, Object> snapshot() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("executions", executions.sum());
+        stats.put("joined", joined.sum());
+        stats.put("inFlight", inFlight.size());
+        return stats;
+    }
+    
+    private static <V> V await(CompletableFuture<V> running) {
+        try {
+            return running.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (ex.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.flightapp.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongBiFunction;
+
+//LRU cache bounded by an estimated byte size, with a TTL per entry and tag-based invalidation:
+//every entry lists the tags its value depends on and invalidating a tag drops exactly those entries.
+//Loads take a ticket first; a put is refused if one of its tags was invalidated after the ticket,
+//so a value computed before a change can never be stored after that change was invalidated.
+public class TaggedCache<K, V> {
+    
+    private static final int STAMP_SLOTS = 4096;
+    
+    private final long maxBytes;
+    private final long ttlNanos;
+    private final ToLongBiFunction<K, V> weigher;
+    
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private final Map<Object, Set<K>> keysByTag = new HashMap<>();
+    //Last invalidation sequence per tag hash slot; collisions only cost a refused put
+    private final long[] tagStamps = new long[STAMP_SLOTS];
+    private long invalidationSequence;
+    private long currentBytes;
+    
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+    private long invalidations;
+    private long staleRejections;
+    
+    public TaggedCache(long maxBytes, long ttl, TimeUnit unit, ToLongBiFunction<K, V> weigher) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("Cache size must be greater than 0");
+        }
+        if (ttl <= 0) {
+            throw new IllegalArgumentException("TTL must be greater than 0");
+        }
+        this.maxBytes = maxBytes;
+        this.ttlNanos = unit.toNanos(ttl);
+        this.weigher = weigher;
+    }
+    
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        if (entry.expiresAt() - nanoTime() <= 0) {
+            remove(key);
+            expirations++;
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.value();
+    }
+    
+    //Take before computing a value that will be passed to put
+    public synchronized long loadTicket() {
+        return invalidationSequence;
+    }
+    
+    public synchronized boolean put(K key, V value, Collection<?> tags, long ticket) {
+        for (Object tag : tags) {
+            if (tagStamps[slot(tag)] > ticket) {
+                staleRejections++;
+                return false;
+            }
+        }
+        long weight = weigher.applyAsLong(key, value);
+        if (weight > maxBytes) {
+            return false;
+        }
+        
+        remove(key);
+        List<Object> entryTags = new ArrayList<>(tags);
+        entries.put(key, new Entry<>(value, entryTags, weight, nanoTime() + ttlNanos));
+        for (Object tag : entryTags) {
+            keysByTag.computeIfAbsent(tag, t -> new HashSet<>()).add(key);
+        }
+        currentBytes += weight;
+        
+        Iterator<Map.Entry<K, Entry<V>>> eldest = entries.entrySet().iterator();
+        while (currentBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<K, Entry<V>> evicted = eldest.next();
+            eldest.remove();
+            unlink(evicted.getKey(), evicted.getValue());
+            evictions++;
+        }
+        return true;
+    }
+    
+    public synchronized int invalidateTag(Object tag) {
+        tagStamps[slot(tag)] = ++invalidationSequence;
+        Set<K> keys = keysByTag.get(tag);
+        if (keys == null) {
+            return 0;
+        }
+        List<K> affected = new ArrayList<>(keys);
+        affected.forEach(this::remove);
+        invalidations += affected.size();
+        return affected.size();
+    }
+    
+    public synchronized int purgeExpired() {
+        long now = nanoTime();
+        List<K> expired = new ArrayList<>();
+        entries.forEach((key, entry) -> {
+            if (entry.expiresAt() - now <= 0) {
+                expired.add(key);
+            }
+        });
+        expired.forEach(this::remove);
+        expirations += expired.size();
+        return expired.size();
+    }
+    
+    public synchronized void clear() {
+        entries.clear();
+        keysByTag.clear();
+        currentBytes = 0;
+    }
+    
+    public synchronized Map<String, Object> snapshot() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("hitRatio", hits + misses == 0 ? 0.0 : (double) hits / (hits + misses));
+        stats.put("evictions", evictions);
+        stats.put("expirations", expirations);
+        stats.put("invalidations", invalidations);
+        stats.put("staleRejections", staleRejections);
+        stats.put("entries", entries.size());
+        stats.put("bytes", currentBytes);
+        stats.put("maxBytes", maxBytes);
+        return stats;
+    }
+    
+    protected long nanoTime() {
+        return System.nanoTime();
+    }
+    
+    private void remove(K key) {
+        Entry<V> entry = entries.remove(key);
+        if (entry != null) {
+            unlink(key, entry);
+        }
+    }
+    
+    private void unlink(K key, Entry<V> entry) {
+        currentBytes -= entry.weight();
+        for (Object tag : entry.tags()) {
+            Set<K> keys = keysByTag.get(tag);
+            if (keys != null && keys.remove(key) && keys.isEmpty()) {
+                keysByTag.remove(tag);
+            }
+        }
+    }
+    
+    private static int slot(Object tag) {
+        int hash = tag.hashCode() * 0x9E3779B9;
+        return (hash >>> 16) & (STAMP_SLOTS - 1);
+    }
+    
+    private record Entry<V>(V value, List<Object> tags, long weight, long expiresAt) {
+    }
+}
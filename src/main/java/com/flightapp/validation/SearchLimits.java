@@ -0,0 +1,15 @@
+package com.flightapp.validation;
+
+//Bounds a search request is validated against; the search services cap their work at the same values
+public final class SearchLimits {
+    
+    public static final int MAX_SEARCH_LIMIT = 200;
+    //Most rows one search reads while refilling a page the live seat check thinned out
+    public static final int MAX_SEARCH_FETCH = 4 * MAX_SEARCH_LIMIT;
+    public static final int MAX_RADIUS_KM = 500;
+    //Caps the IN lists of the batched nearby query, the searched city included
+    public static final int MAX_CITIES = 8;
+    
+    private SearchLimits() {
+    }
+}
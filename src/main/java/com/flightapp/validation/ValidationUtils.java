@@ -1,5 +1,8 @@
 package com.flightapp.validation;
 
+import com.flightapp.dto.FlightSearchDTO;
+import com.flightapp.dto.FlightSortOrder;
+import com.flightapp.dto.SearchCursor;
 import com.flightapp.exception.ValidationException;
 import java.util.regex.Pattern;
 
@@ -61,4 +64,50 @@ public class ValidationUtils {
             throw new ValidationException("Not enough available seats. Available: " + availableSeats);
         }
     }
+    
+    public static void validateSearchRequest(FlightSearchDTO searchDTO) {
+        if (searchDTO.getDepartureCity() == null || searchDTO.getDepartureCity().trim().isEmpty()) {
+            throw new ValidationException("Departure city is required");
+        }
+        if (searchDTO.getArrivalCity() == null || searchDTO.getArrivalCity().trim().isEmpty()) {
+            throw new ValidationException("Arrival city is required");
+        }
+        if (searchDTO.getDepartureDate() == null) {
+            throw new ValidationException("Departure date is required");
+        }
+        if (searchDTO.getNumberOfPassengers() == null || searchDTO.getNumberOfPassengers() <= 0) {
+            throw new ValidationException("Number of passengers must be greater than 0");
+        }
+        if (searchDTO.getMaxPrice() != null && searchDTO.getMaxPrice().signum() <= 0) {
+            throw new ValidationException("Maximum price must be greater than 0");
+        }
+        if (searchDTO.getDepartureTimeFrom() != null && searchDTO.getDepartureTimeTo() != null
+                && searchDTO.getDepartureTimeFrom().isAfter(searchDTO.getDepartureTimeTo())) {
+            throw new ValidationException("Departure window start must not be after its end");
+        }
+        if (searchDTO.getLimit() != null
+                && (searchDTO.getLimit() <= 0 || searchDTO.getLimit() > SearchLimits.MAX_SEARCH_LIMIT)) {
+            throw new ValidationException("Limit must be between 1 and " + SearchLimits.MAX_SEARCH_LIMIT);
+        }
+        if (searchDTO.getNearbyRadiusKm() != null
+                && (searchDTO.getNearbyRadiusKm() < 0 || searchDTO.getNearbyRadiusKm() > SearchLimits.MAX_RADIUS_KM)) {
+            throw new ValidationException("Nearby radius must be between 0 and " + SearchLimits.MAX_RADIUS_KM + " km");
+        }
+        validateSearchCursor(searchDTO);
+    }
+    
+    //Every search honours a cursor, so each entry point rejects one it could not apply
+    private static void validateSearchCursor(FlightSearchDTO searchDTO) {
+        if (searchDTO.getCursor() == null) {
+            return;
+        }
+        if (searchDTO.getSortBy() == FlightSortOrder.PRICE) {
+            throw new ValidationException("Cursor paging is only supported in departure order");
+        }
+        try {
+            SearchCursor.decode(searchDTO.getCursor());
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException(e.getMessage());
+        }
+    }
 }
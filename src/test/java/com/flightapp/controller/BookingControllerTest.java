@@ -1,11 +1,18 @@
 package com.flightapp.controller;
 import com.flightapp.dto.BookingRequestDTO;
 import com.flightapp.dto.BookingResponseDTO;
+import com.flightapp.dto.BookingStatusDTO;
 import com.flightapp.dto.PassengerDTO;
+import com.flightapp.dto.SeatHoldRequestDTO;
+import com.flightapp.dto.SeatHoldResponseDTO;
 import com.flightapp.exception.BookingException;
 import com.flightapp.exception.ResourceNotFoundException;
 import com.flightapp.exception.ValidationException;
 import com.flightapp.service.BookingService;
+import com.flightapp.service.SeatService;
+import com.flightapp.service.idempotency.IdempotencyService;
+import com.flightapp.service.pipeline.BookingPipeline;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -14,6 +21,9 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Arrays;
@@ -29,6 +39,15 @@ class BookingControllerTest {
     @Mock
     private BookingService bookingService;
     
+    @Mock
+    private SeatService seatService;
+    
+    @Mock
+    private IdempotencyService idempotencyService;
+    
+    @Mock
+    private BookingPipeline bookingPipeline;
+    
     @InjectMocks
     private BookingController bookingController;
     
@@ -37,6 +56,10 @@ class BookingControllerTest {
     
     @BeforeEach
     public void setUp() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setContextPath("/api");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        
         PassengerDTO passenger = new PassengerDTO();
         passenger.setPassengerName("John Doe");
         passenger.setGender("Male");
@@ -62,39 +85,58 @@ class BookingControllerTest {
             .bookingDate(LocalDateTime.now())
             .numberOfPassengers(1)
             .build();
+        
+        lenient().when(idempotencyService.execute(any(), anyString(), any(), eq(BookingResponseDTO.class), any()))
+            .thenAnswer(invocation -> ((IdempotencyService.Action<BookingResponseDTO>) invocation.getArgument(4))
+                .run(response -> { }));
+    }
+    
+    @AfterEach
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
     }
     
     @Test
     void testBookFlight_Success() {
-        when(bookingService.bookFlight(anyInt(), any(BookingRequestDTO.class)))
+        when(bookingService.bookFlight(anyInt(), any(BookingRequestDTO.class), any()))
             .thenReturn(bookingResponse);
         
-        ResponseEntity<BookingResponseDTO> response = bookingController.bookFlight(1, bookingRequest);
+        ResponseEntity<BookingResponseDTO> response = bookingController.bookFlight(1, null, bookingRequest);
         
         assertEquals(HttpStatus.CREATED, response.getStatusCode());
         assertNotNull(response.getBody());
         assertEquals("PNR0012345", response.getBody().getPnrNumber());
         assertEquals("CONFIRMED", response.getBody().getBookingStatus());
-        verify(bookingService, times(1)).bookFlight(anyInt(), any());
+        verify(bookingService, times(1)).bookFlight(anyInt(), any(), any());
+    }
+    
+    @Test
+    void testBookFlight_PassesIdempotencyKey() {
+        when(bookingService.bookFlight(eq(1), eq(bookingRequest), any())).thenReturn(bookingResponse);
+        
+        bookingController.bookFlight(1, "retry-key-1", bookingRequest);
+        
+        verify(idempotencyService, times(1))
+            .execute(eq("retry-key-1"), eq("book:1"), eq(bookingRequest), eq(BookingResponseDTO.class), any());
     }
     
     @Test
     void testBookFlight_InvalidFlightId() {
-        assertThrows(ValidationException.class, () -> bookingController.bookFlight(-1, bookingRequest));
+        assertThrows(ValidationException.class, () -> bookingController.bookFlight(-1, null, bookingRequest));
     }
     
     @Test
     void testBookFlight_NullEmail() {
         bookingRequest.setUserEmail(null);
         
-        assertThrows(ValidationException.class, () -> bookingController.bookFlight(1, bookingRequest));
+        assertThrows(ValidationException.class, () -> bookingController.bookFlight(1, null, bookingRequest));
     }
     
     @Test
     void testBookFlight_InvalidPassengerCount() {
         bookingRequest.setNumberOfPassengers(2);
         
-        assertThrows(ValidationException.class, () -> bookingController.bookFlight(1, bookingRequest));
+        assertThrows(ValidationException.class, () -> bookingController.bookFlight(1, null, bookingRequest));
     }
     
     @Test
@@ -172,7 +214,7 @@ class BookingControllerTest {
     
     @Test
     void testBookFlight_NullRequest() {
-        assertThrows(ValidationException.class, () -> bookingController.bookFlight(1, null));
+        assertThrows(ValidationException.class, () -> bookingController.bookFlight(1, null, null));
     }
     
     @Test
@@ -204,11 +246,101 @@ class BookingControllerTest {
             passenger2
         ));
         
-        when(bookingService.bookFlight(anyInt(), any(BookingRequestDTO.class)))
+        when(bookingService.bookFlight(anyInt(), any(BookingRequestDTO.class), any()))
             .thenReturn(bookingResponse);
         
-        ResponseEntity<BookingResponseDTO> response = bookingController.bookFlight(1, bookingRequest);
+        ResponseEntity<BookingResponseDTO> response = bookingController.bookFlight(1, null, bookingRequest);
+        
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+    }
+    
+    @Test
+    void testHoldSeats_Success() {
+        SeatHoldResponseDTO hold = SeatHoldResponseDTO.builder()
+            .holdId("hold-1")
+            .flightId(1)
+            .seatNumbers(Arrays.asList("1A", "1B"))
+            .expiresAt(LocalDateTime.now().plusMinutes(10))
+            .build();
+        when(seatService.holdSeats(1, 2, "ECONOMY")).thenReturn(hold);
+        
+        ResponseEntity<SeatHoldResponseDTO> response = bookingController.holdSeats(1, new SeatHoldRequestDTO(2, "ECONOMY"));
+        
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals("hold-1", response.getBody().getHoldId());
+        assertEquals(2, response.getBody().getSeatNumbers().size());
+    }
+    
+    @Test
+    void testHoldSeats_InvalidSeatCount() {
+        assertThrows(ValidationException.class, () -> bookingController.holdSeats(1, new SeatHoldRequestDTO(0, null)));
+        verify(seatService, never()).holdSeats(anyInt(), anyInt(), any());
+    }
+    
+    @Test
+    void testConfirmHold_Success() {
+        when(bookingService.confirmHold("hold-1", bookingRequest)).thenReturn(bookingResponse);
+        
+        ResponseEntity<BookingResponseDTO> response = bookingController.confirmHold("hold-1", bookingRequest);
         
         assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals("PNR0012345", response.getBody().getPnrNumber());
+    }
+    
+    @Test
+    void testConfirmHold_MissingPassengers() {
+        bookingRequest.setPassengers(null);
+        
+        assertThrows(ValidationException.class, () -> bookingController.confirmHold("hold-1", bookingRequest));
+    }
+    
+    @Test
+    void testReleaseHold_Success() {
+        ResponseEntity<Map<String, Object>> response = bookingController.releaseHold("hold-1");
+        
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("hold-1", response.getBody().get("holdId"));
+        verify(seatService, times(1)).releaseHold("hold-1");
+    }
+    
+    @Test
+    void testBookFlightAsync_Accepted() {
+        when(bookingPipeline.submit(1, bookingRequest)).thenReturn("req-1");
+        
+        ResponseEntity<BookingStatusDTO> response = bookingController.bookFlightAsync(1, bookingRequest);
+        
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        assertEquals("PENDING", response.getBody().getStatus());
+        assertEquals("http://localhost/api/v1.0/flight/booking/status/req-1", response.getBody().getStatusUrl());
+        assertEquals("/api/v1.0/flight/booking/status/req-1", response.getHeaders().getLocation().getPath());
+    }
+    
+    @Test
+    void testBookFlightAsync_InvalidRequest() {
+        bookingRequest.setPassengers(null);
+        
+        assertThrows(ValidationException.class, () -> bookingController.bookFlightAsync(1, bookingRequest));
+        verify(bookingPipeline, never()).submit(any(), any());
+    }
+    
+    @Test
+    void testGetBookingStatus_Confirmed() {
+        BookingStatusDTO status = BookingStatusDTO.builder()
+            .requestId("req-1")
+            .status("CONFIRMED")
+            .booking(bookingResponse)
+            .build();
+        when(bookingPipeline.getStatus("req-1", 5000)).thenReturn(status);
+        
+        ResponseEntity<BookingStatusDTO> response = bookingController.getBookingStatus("req-1", 5000);
+        
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("PNR0012345", response.getBody().getBooking().getPnrNumber());
+        assertEquals("http://localhost/api/v1.0/flight/booking/status/req-1", response.getBody().getStatusUrl());
+    }
+    
+    @Test
+    void testGetBookingStatus_WaitTooLong() {
+        assertThrows(ValidationException.class, () -> bookingController.getBookingStatus("req-1", 60000));
     }
 }
@@ -1,26 +1,46 @@
 package com.flightapp.controller;
 
+import com.flightapp.dto.BatchSearchResultDTO;
+import com.flightapp.dto.ConnectingItineraryDTO;
+import com.flightapp.dto.DestinationFareDTO;
 import com.flightapp.dto.FlightResponseDTO;
 import com.flightapp.dto.FlightSearchDTO;
+import com.flightapp.dto.FlightSearchPageDTO;
+import com.flightapp.dto.FlightSortOrder;
+import com.flightapp.dto.RoundTripItineraryDTO;
+import com.flightapp.dto.SearchCursor;
+import com.flightapp.entity.Airport;
 import com.flightapp.entity.Flight;
 import com.flightapp.exception.ResourceNotFoundException;
 import com.flightapp.exception.ValidationException;
+import com.flightapp.service.AirportService;
 import com.flightapp.service.FlightService;
+import com.flightapp.service.search.BatchSearchService;
+import com.flightapp.service.search.RoundTripSearchService;
+import com.flightapp.service.search.RouteGraph;
+import com.flightapp.validation.SearchLimits;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -31,6 +51,18 @@ class FlightControllerTest {
     @Mock
     private FlightService flightService;
     
+    @Mock
+    private AirportService airportService;
+    
+    @Mock
+    private RoundTripSearchService roundTripSearchService;
+    
+    @Mock
+    private BatchSearchService batchSearchService;
+    
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    
     @InjectMocks
     private FlightController flightController;
     
@@ -146,6 +178,157 @@ class FlightControllerTest {
         
         assertThrows(ValidationException.class, () -> flightController.searchFlights(searchDTO));
     }
+    
+    @Test
+    void testSearchFlights_InvalidInput_NonPositiveMaxPrice() {
+        searchDTO.setMaxPrice(BigDecimal.ZERO);
+        
+        assertThrows(ValidationException.class, () -> flightController.searchFlights(searchDTO));
+    }
+    
+    @Test
+    void testSearchFlights_InvalidInput_InvertedDepartureWindow() {
+        searchDTO.setDepartureTimeFrom(LocalTime.of(18, 0));
+        searchDTO.setDepartureTimeTo(LocalTime.of(6, 0));
+        
+        assertThrows(ValidationException.class, () -> flightController.searchFlights(searchDTO));
+    }
+    
+    @Test
+    void testSearchFlights_InvalidInput_LimitOutOfRange() {
+        searchDTO.setLimit(SearchLimits.MAX_SEARCH_LIMIT + 1);
+        
+        assertThrows(ValidationException.class, () -> flightController.searchFlights(searchDTO));
+    }
+    
+    @Test
+    void testSearchFlights_InvalidInput_MalformedCursor() {
+        searchDTO.setCursor("garbage");
+        
+        assertThrows(ValidationException.class, () -> flightController.searchFlights(searchDTO));
+        verifyNoInteractions(flightService);
+    }
+    
+    @Test
+    void testSearchFlights_InvalidInput_CursorWithPriceOrder() {
+        searchDTO.setCursor(SearchCursor.after(testFlight).encode());
+        searchDTO.setSortBy(FlightSortOrder.PRICE);
+        
+        assertThrows(ValidationException.class, () -> flightController.searchFlights(searchDTO));
+    }
+    
+    @Test
+    void testSearchFlightPage_Success() {
+        FlightSearchPageDTO page = new FlightSearchPageDTO(List.of(testFlight), "next");
+        when(flightService.searchFlightPage(searchDTO)).thenReturn(page);
+        
+        ResponseEntity<FlightSearchPageDTO> response = flightController.searchFlightPage(searchDTO);
+        
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(page, response.getBody());
+    }
+    
+    @Test
+    void testSearchFlightPage_InvalidInput_CursorWithPriceOrder() {
+        searchDTO.setCursor(SearchCursor.after(testFlight).encode());
+        searchDTO.setSortBy(FlightSortOrder.PRICE);
+        
+        assertThrows(ValidationException.class, () -> flightController.searchFlightPage(searchDTO));
+    }
+    
+    @Test
+    void testSearchFlightPage_InvalidInput_MalformedCursor() {
+        searchDTO.setCursor("garbage");
+        
+        assertThrows(ValidationException.class, () -> flightController.searchFlightPage(searchDTO));
+    }
+    
+    @Test
+    void testStreamFlights_WritesJsonArrayIncrementally() throws Exception {
+        when(flightService.streamFlights(eq(searchDTO), any())).thenAnswer(invocation -> {
+            Consumer<FlightResponseDTO> sink = invocation.getArgument(1);
+            sink.accept(testFlight);
+            sink.accept(testFlight);
+            return 2;
+        });
+        
+        ResponseEntity<StreamingResponseBody> response = flightController.streamFlights(searchDTO);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        
+        List<?> flights = objectMapper.readValue(out.toByteArray(), List.class);
+        assertEquals(2, flights.size());
+        assertEquals("AI101", ((Map<?, ?>) flights.get(0)).get("flightNumber"));
+    }
+    
+    @Test
+    void testSearchRoundTrip_Success() {
+        searchDTO.setTripType("ROUND_TRIP");
+        searchDTO.setReturnDate(LocalDate.now().plusDays(5));
+        RoundTripItineraryDTO itinerary = RoundTripItineraryDTO.builder()
+            .outbound(testFlight)
+            .inbound(testFlight)
+            .combinedPricePerSeat(BigDecimal.valueOf(10000))
+            .build();
+        when(roundTripSearchService.searchRoundTrip(searchDTO)).thenReturn(List.of(itinerary));
+        
+        ResponseEntity<List<RoundTripItineraryDTO>> response = flightController.searchRoundTrip(searchDTO);
+        
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(List.of(itinerary), response.getBody());
+    }
+    
+    @Test
+    void testSearchRoundTrip_InvalidInput_MissingReturnDate() {
+        assertThrows(ValidationException.class, () -> flightController.searchRoundTrip(searchDTO));
+        verify(roundTripSearchService, never()).searchRoundTrip(any());
+    }
+    
+    @Test
+    void testSearchRoundTrip_InvalidInput_ReturnBeforeDeparture() {
+        searchDTO.setReturnDate(searchDTO.getDepartureDate().minusDays(1));
+        
+        assertThrows(ValidationException.class, () -> flightController.searchRoundTrip(searchDTO));
+    }
+    
+    @Test
+    void testSearchRoundTrip_InvalidInput_CombinationsOutOfRange() {
+        searchDTO.setReturnDate(LocalDate.now().plusDays(5));
+        searchDTO.setMaxCombinations(RoundTripSearchService.MAX_COMBINATIONS + 1);
+        
+        assertThrows(ValidationException.class, () -> flightController.searchRoundTrip(searchDTO));
+    }
+  
+    @Test
+    void testSearchConnections_Success() {
+        ConnectingItineraryDTO itinerary = ConnectingItineraryDTO.builder()
+            .legs(List.of(testFlight))
+            .stops(0)
+            .totalPricePerSeat(BigDecimal.valueOf(5000))
+            .build();
+        when(flightService.searchConnections(searchDTO)).thenReturn(List.of(itinerary));
+        
+        ResponseEntity<List<ConnectingItineraryDTO>> response = flightController.searchConnections(searchDTO);
+        
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(List.of(itinerary), response.getBody());
+    }
+    
+    @Test
+    void testSearchConnections_InvalidInput_TooManyStops() {
+        searchDTO.setMaxStops(RouteGraph.MAX_STOPS + 1);
+        
+        assertThrows(ValidationException.class, () -> flightController.searchConnections(searchDTO));
+        verify(flightService, never()).searchConnections(any());
+    }
+  
+    @Test
+    void testGetFareCalendar_InvalidInput_FlexDaysOutOfRange() {
+        searchDTO.setFlexDays(FlightService.MAX_FLEX_DAYS + 1);
+        
+        assertThrows(ValidationException.class, () -> flightController.getFareCalendar(searchDTO));
+        verify(flightService, never()).getFareCalendar(any());
+    }
   
     @Test
     void testGetFlightById_Success() {
@@ -191,6 +374,30 @@ class FlightControllerTest {
         verify(flightService, times(1)).addFlight(any());
     }
     
+    @Test
+    void testAddAirport_Success() {
+        Airport airport = Airport.builder().airportCode("HDO").airportName("Hindon Airport").city("Ghaziabad")
+            .latitude(28.7075).longitude(77.3589).build();
+        when(airportService.addAirport(airport)).thenAnswer(invocation -> {
+            airport.setAirportId(1);
+            return airport;
+        });
+        
+        ResponseEntity<Map<String, Object>> response = flightController.addAirport(airport);
+        
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals(1, response.getBody().get("airportId"));
+        assertEquals("Ghaziabad", response.getBody().get("city"));
+    }
+    
+    @Test
+    void testAddAirport_Duplicate() {
+        Airport airport = Airport.builder().airportCode("DEL").build();
+        when(airportService.addAirport(airport)).thenThrow(new IllegalArgumentException("Airport with this code already exists"));
+        
+        assertThrows(ValidationException.class, () -> flightController.addAirport(airport));
+    }
+    
     @Test
     void testSearchFlights_DifferentCities() {
         FlightSearchDTO newSearch = FlightSearchDTO.builder()
@@ -217,4 +424,88 @@ class FlightControllerTest {
         
         assertThrows(ResourceNotFoundException.class, () -> flightController.getFlightDetails(999999));
     }
+    
+    @Test
+    void testSearchBatch_ReturnsResultPerSearch() {
+        FlightSearchDTO undated = FlightSearchDTO.builder().departureCity("Delhi").arrivalCity("Goa")
+            .numberOfPassengers(1).build();
+        List<BatchSearchResultDTO> results = List.of(new BatchSearchResultDTO(0, List.of(testFlight), null));
+        when(batchSearchService.searchAll(List.of(searchDTO, undated))).thenReturn(results);
+        
+        ResponseEntity<List<BatchSearchResultDTO>> response = flightController.searchBatch(List.of(searchDTO, undated));
+        
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(results, response.getBody());
+    }
+    
+    @Test
+    void testSearchBatch_InvalidBatchSize() {
+        assertThrows(ValidationException.class, () -> flightController.searchBatch(List.of()));
+        assertThrows(ValidationException.class, () -> flightController.searchBatch(
+            Collections.nCopies(BatchSearchService.MAX_BATCH_SIZE + 1, searchDTO)));
+        assertThrows(ValidationException.class, () -> flightController.searchBatch(Arrays.asList(searchDTO, null)));
+        verifyNoInteractions(batchSearchService);
+    }
+    
+    @Test
+    void testExploreDestinations_Success() {
+        YearMonth month = YearMonth.now().plusMonths(1);
+        List<DestinationFareDTO> fares = List.of(new DestinationFareDTO("Goa", month.atDay(5), BigDecimal.valueOf(2900)));
+        when(flightService.exploreDestinations("Delhi", month)).thenReturn(fares);
+        
+        ResponseEntity<List<DestinationFareDTO>> response = flightController.exploreDestinations("Delhi", month.toString());
+        
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(fares, response.getBody());
+    }
+    
+    @Test
+    void testExploreDestinations_InvalidRequest() {
+        assertThrows(ValidationException.class, () -> flightController.exploreDestinations(" ", "2030-01"));
+        assertThrows(ValidationException.class, () -> flightController.exploreDestinations("Delhi", "January"));
+        assertThrows(ValidationException.class,
+            () -> flightController.exploreDestinations("Delhi", YearMonth.now().minusMonths(1).toString()));
+        verifyNoInteractions(flightService);
+    }
+    
+    @Test
+    void testSuggestCities_Success() {
+        when(flightService.suggestCities("mu", 5)).thenReturn(List.of("Mumbai", "Mussoorie"));
+        
+        ResponseEntity<List<String>> response = flightController.suggestCities("mu", 5);
+        
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(List.of("Mumbai", "Mussoorie"), response.getBody());
+    }
+    
+    @Test
+    void testSuggestCities_InvalidLimit() {
+        assertThrows(ValidationException.class, () -> flightController.suggestCities("mu", 0));
+        assertThrows(ValidationException.class,
+            () -> flightController.suggestCities("mu", FlightService.MAX_CITY_SUGGESTIONS + 1));
+        verifyNoInteractions(flightService);
+    }
+    
+    @Test
+    void testSearchFlights_InvalidNearbyRadius() {
+        searchDTO.setNearbyRadiusKm(SearchLimits.MAX_RADIUS_KM + 1);
+        
+        assertThrows(ValidationException.class, () -> flightController.searchFlights(searchDTO));
+        verifyNoInteractions(flightService);
+    }
+    
+    @Test
+    void testGetAvailableSeats_Success() {
+        when(flightService.getAvailableSeats(1, "ECONOMY")).thenReturn(Arrays.asList("3A", "3B"));
+        
+        ResponseEntity<List<String>> response = flightController.getAvailableSeats(1, "ECONOMY");
+        
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(Arrays.asList("3A", "3B"), response.getBody());
+    }
+    
+    @Test
+    void testGetAvailableSeats_InvalidId() {
+        assertThrows(ValidationException.class, () -> flightController.getAvailableSeats(0, null));
+    }
 }
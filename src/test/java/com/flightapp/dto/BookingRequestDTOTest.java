@@ -24,7 +24,8 @@ class BookingRequestDTOTest {
             1,
             passengers,
             "ONE_WAY",
-            null
+            null,
+            "ECONOMY"
         );
         
         assertEquals("test@email.com", dto.getUserEmail());
@@ -32,6 +33,7 @@ class BookingRequestDTOTest {
         assertEquals(passengers, dto.getPassengers());
         assertEquals("ONE_WAY", dto.getTripType());
         assertNull(dto.getReturnFlightId());
+        assertEquals("ECONOMY", dto.getSeatClass());
     }
 
     @Test
@@ -41,7 +41,18 @@ class FlightSearchDTOTest {
                 depDate,
                 retDate,
                 "ONE_WAY",
-                1
+                1,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null
         );
 
         assertEquals("BLR", dto.getDepartureCity());
@@ -78,10 +89,10 @@ class FlightSearchDTOTest {
         LocalDate depDate = LocalDate.now();
 
         FlightSearchDTO s1 = new FlightSearchDTO(
-                "A", "B", depDate, null, "ONE_WAY", 1
+                "A", "B", depDate, null, "ONE_WAY", 1, null, null, null, null, null, null, null, null, null, null, null
         );
         FlightSearchDTO s2 = new FlightSearchDTO(
-                "A", "B", depDate, null, "ONE_WAY", 1
+                "A", "B", depDate, null, "ONE_WAY", 1, null, null, null, null, null, null, null, null, null, null, null
         );
 
         assertEquals(s1, s2);
@@ -0,0 +1,47 @@
+package com.flightapp.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchCursorTest {
+
+    @Test
+    void testEncodeDecodeRoundTrip() {
+        SearchCursor cursor = new SearchCursor(LocalDateTime.of(2030, 1, 1, 9, 30), 42);
+
+        String token = cursor.encode();
+
+        assertEquals(cursor, SearchCursor.decode(token));
+        assertFalse(token.contains("|"));
+    }
+
+    @Test
+    void testAfterUsesLastFlightOfPage() {
+        FlightResponseDTO flight = FlightResponseDTO.builder()
+                .flightId(7)
+                .departureTime(LocalDateTime.of(2030, 1, 1, 18, 0))
+                .build();
+
+        assertEquals(new SearchCursor(flight.getDepartureTime(), 7), SearchCursor.after(flight));
+    }
+
+    @Test
+    void testIsBeforeOrdersByDepartureThenFlightId() {
+        LocalDateTime nine = LocalDateTime.of(2030, 1, 1, 9, 0);
+        SearchCursor cursor = new SearchCursor(nine, 10);
+
+        assertTrue(cursor.isBefore(nine.plusMinutes(1), 1));
+        assertTrue(cursor.isBefore(nine, 11));
+        assertFalse(cursor.isBefore(nine, 10));
+        assertFalse(cursor.isBefore(nine.minusMinutes(1), 99));
+    }
+
+    @Test
+    void testDecodeRejectsGarbage() {
+        assertThrows(IllegalArgumentException.class, () -> SearchCursor.decode("not a cursor"));
+        assertThrows(IllegalArgumentException.class, () -> SearchCursor.decode("bm9waXBl"));
+    }
+}
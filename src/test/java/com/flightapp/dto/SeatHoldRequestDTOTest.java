@@ -0,0 +1,24 @@
+package com.flightapp.dto;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeatHoldRequestDTOTest {
+
+    @Test
+    void testNoArgsConstructorAndSettersGetters() {
+        SeatHoldRequestDTO dto = new SeatHoldRequestDTO();
+        dto.setNumberOfSeats(3);
+
+        assertEquals(3, dto.getNumberOfSeats());
+    }
+
+    @Test
+    void testAllArgsConstructor() {
+        SeatHoldRequestDTO dto = new SeatHoldRequestDTO(2, "BUSINESS");
+
+        assertEquals(2, dto.getNumberOfSeats());
+        assertEquals("BUSINESS", dto.getSeatClass());
+    }
+}
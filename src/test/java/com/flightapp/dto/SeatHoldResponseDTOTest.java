@@ -0,0 +1,41 @@
+package com.flightapp.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeatHoldResponseDTOTest {
+
+    @Test
+    void testBuilder() {
+        LocalDateTime expiresAt = LocalDateTime.now().plusMinutes(10);
+
+        SeatHoldResponseDTO dto = SeatHoldResponseDTO.builder()
+                .holdId("hold-1")
+                .flightId(1)
+                .flightNumber("AI101")
+                .seatNumbers(Arrays.asList("1A", "1B"))
+                .expiresAt(expiresAt)
+                .build();
+
+        assertEquals("hold-1", dto.getHoldId());
+        assertEquals(1, dto.getFlightId());
+        assertEquals("AI101", dto.getFlightNumber());
+        assertEquals(Arrays.asList("1A", "1B"), dto.getSeatNumbers());
+        assertEquals(expiresAt, dto.getExpiresAt());
+    }
+
+    @Test
+    void testNoArgsConstructorAndSetters() {
+        SeatHoldResponseDTO dto = new SeatHoldResponseDTO();
+        dto.setHoldId("hold-2");
+        dto.setFlightId(2);
+
+        assertEquals("hold-2", dto.getHoldId());
+        assertEquals(2, dto.getFlightId());
+        assertNull(dto.getSeatNumbers());
+    }
+}
@@ -0,0 +1,32 @@
+package com.flightapp.entity;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlightSeatMapTest {
+
+    @Test
+    void testBuilderAndLifecycle() {
+        FlightSeatMap seatMap = FlightSeatMap.builder()
+                .flightId(7)
+                .totalSeats(180)
+                .businessRows(3)
+                .bookedSeats(new byte[32])
+                .heldSeats(new byte[32])
+                .build();
+
+        seatMap.prePersist();
+
+        assertEquals(7, seatMap.getFlightId());
+        assertEquals(180, seatMap.getTotalSeats());
+        assertEquals(3, seatMap.getBusinessRows());
+        assertEquals(32, seatMap.getBookedSeats().length);
+        assertEquals(32, seatMap.getHeldSeats().length);
+        assertNotNull(seatMap.getCreatedAt());
+        assertNotNull(seatMap.getUpdatedAt());
+
+        seatMap.preUpdate();
+        assertFalse(seatMap.getUpdatedAt().isBefore(seatMap.getCreatedAt()));
+    }
+}
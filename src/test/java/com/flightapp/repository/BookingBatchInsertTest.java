@@ -0,0 +1,174 @@
+package com.flightapp.repository;
+
+import com.flightapp.dto.BookingRequestDTO;
+import com.flightapp.dto.PassengerDTO;
+import com.flightapp.entity.Airline;
+import com.flightapp.entity.Booking;
+import com.flightapp.entity.Flight;
+import com.flightapp.entity.Passenger;
+import com.flightapp.entity.User;
+import com.flightapp.service.BookingService;
+import com.flightapp.service.SeatService;
+import com.flightapp.service.inventory.SeatInventoryEngine;
+import com.flightapp.service.inventory.SeatInventoryService;
+import com.flightapp.service.pnr.PnrGenerator;
+import com.flightapp.service.pnr.PnrNodeLeaseService;
+import com.flightapp.service.seating.SeatAssignmentEngine;
+import com.flightapp.service.seating.SeatMapService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+    "spring.jpa.properties.hibernate.order_inserts=true",
+    "flightapp.pnr.node-id=1"
+})
+@Import({BookingService.class, SeatService.class, SeatMapService.class, SeatAssignmentEngine.class,
+    SeatInventoryService.class, SeatInventoryEngine.class, PnrGenerator.class, PnrNodeLeaseService.class})
+class BookingBatchInsertTest {
+    
+    @Autowired
+    private TestEntityManager entityManager;
+    
+    @Autowired
+    private BookingRepository bookingRepository;
+    
+    @Autowired
+    private BookingService bookingService;
+    
+    private Statistics statistics;
+    private User user;
+    private Flight flight;
+    private int pnrCounter;
+    
+    @BeforeEach
+    public void setUp() {
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+            .unwrap(SessionFactory.class).getStatistics();
+        
+        Airline airline = entityManager.persist(Airline.builder()
+            .airlineName("Air India")
+            .airlineCode("AI")
+            .isActive(true)
+            .build());
+        user = entityManager.persist(User.builder()
+            .email("batch@example.com")
+            .password("secret")
+            .firstName("Batch")
+            .lastName("Test")
+            .role("USER")
+            .isActive(true)
+            .build());
+        flight = entityManager.persist(Flight.builder()
+            .airline(airline)
+            .flightNumber("AI101")
+            .departureCity("Delhi")
+            .arrivalCity("Mumbai")
+            .departureTime(LocalDateTime.now().plusDays(2))
+            .arrivalTime(LocalDateTime.now().plusDays(2).plusHours(2))
+            .totalSeats(180)
+            .availableSeats(180)
+            .pricePerSeat(BigDecimal.valueOf(5000))
+            .status("ACTIVE")
+            .isActive(true)
+            .build());
+        
+        //The pooled optimizer hands out a single ID from its first sequence read and only pulls a
+        //full block on the next one, so two bookings leave the booking and passenger pools warm
+        bookingRepository.saveAndFlush(booking(1));
+        bookingRepository.saveAndFlush(booking(1));
+        entityManager.clear();
+    }
+    
+    @Test
+    void testSaveBooking_StatementCountIndependentOfPartySize() {
+        long singlePassenger = statementsToSave(booking(1));
+        long ninePassengers = statementsToSave(booking(9));
+        
+        assertEquals(singlePassenger, ninePassengers);
+        //One batched INSERT for the booking and one for all its passengers
+        assertEquals(2, ninePassengers);
+    }
+    
+    @Test
+    void testBookFlight_StatementCountIndependentOfPartySize() {
+        //Warm the seat map cache and the seat ID pool so both bookings take the same path
+        bookingService.bookFlight(flight.getFlightId(), bookingRequest(2));
+        entityManager.flush();
+        entityManager.clear();
+        
+        long singlePassenger = statementsToBook(bookingRequest(1));
+        long ninePassengers = statementsToBook(bookingRequest(9));
+        
+        //Booking, passenger and seat rows each go out as one batched INSERT whatever the party size
+        assertEquals(singlePassenger, ninePassengers);
+        assertEquals(1 + 9 + 9, statistics.getEntityInsertCount());
+    }
+    
+    private long statementsToBook(BookingRequestDTO request) {
+        statistics.clear();
+        bookingService.bookFlight(flight.getFlightId(), request);
+        entityManager.flush();
+        long statements = statistics.getPrepareStatementCount();
+        entityManager.clear();
+        return statements;
+    }
+    
+    private BookingRequestDTO bookingRequest(int passengers) {
+        List<PassengerDTO> passengerList = new ArrayList<>(passengers);
+        for (int i = 0; i < passengers; i++) {
+            passengerList.add(new PassengerDTO("Passenger " + i, "Female", 30, "Vegetarian"));
+        }
+        return BookingRequestDTO.builder()
+            .userEmail(user.getEmail())
+            .numberOfPassengers(passengers)
+            .passengers(passengerList)
+            .tripType("ONE_WAY")
+            .build();
+    }
+    
+    private long statementsToSave(Booking booking) {
+        statistics.clear();
+        bookingRepository.saveAndFlush(booking);
+        long statements = statistics.getPrepareStatementCount();
+        entityManager.clear();
+        return statements;
+    }
+    
+    private Booking booking(int passengers) {
+        Booking booking = Booking.builder()
+            .pnrNumber("BATCH" + String.format("%05d", ++pnrCounter))
+            .user(user)
+            .flight(flight)
+            .numberOfPassengers(passengers)
+            .totalPrice(BigDecimal.valueOf(5000L * passengers))
+            .bookingStatus("CONFIRMED")
+            .tripType("ONE_WAY")
+            .isActive(true)
+            .build();
+        List<Passenger> passengerList = new ArrayList<>(passengers);
+        for (int i = 0; i < passengers; i++) {
+            passengerList.add(Passenger.builder()
+                .booking(booking)
+                .passengerName("Passenger " + i)
+                .age(30)
+                .isActive(true)
+                .build());
+        }
+        booking.setPassengers(passengerList);
+        return booking;
+    }
+}
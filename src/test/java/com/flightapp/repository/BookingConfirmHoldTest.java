@@ -0,0 +1,109 @@
+package com.flightapp.repository;
+
+import com.flightapp.dto.BookingRequestDTO;
+import com.flightapp.dto.BookingResponseDTO;
+import com.flightapp.dto.PassengerDTO;
+import com.flightapp.dto.SeatHoldResponseDTO;
+import com.flightapp.entity.Airline;
+import com.flightapp.entity.Booking;
+import com.flightapp.entity.Flight;
+import com.flightapp.service.BookingService;
+import com.flightapp.service.SeatService;
+import com.flightapp.service.inventory.SeatInventoryEngine;
+import com.flightapp.service.inventory.SeatInventoryService;
+import com.flightapp.service.pnr.PnrGenerator;
+import com.flightapp.service.pnr.PnrNodeLeaseService;
+import com.flightapp.service.seating.SeatAssignmentEngine;
+import com.flightapp.service.seating.SeatMapService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+//Booking IDs come from a pooled sequence, so the booking INSERT is deferred; confirming a hold
+//points the held seat rows at it with a bulk UPDATE that must find the row already written
+@DataJpaTest(properties = {
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "flightapp.pnr.node-id=1"
+})
+@Import({BookingService.class, SeatService.class, SeatMapService.class, SeatAssignmentEngine.class,
+    SeatInventoryService.class, SeatInventoryEngine.class, PnrGenerator.class, PnrNodeLeaseService.class})
+class BookingConfirmHoldTest {
+    
+    @Autowired
+    private TestEntityManager entityManager;
+    
+    @Autowired
+    private SeatRepository seatRepository;
+    
+    @Autowired
+    private BookingRepository bookingRepository;
+    
+    @Autowired
+    private BookingService bookingService;
+    
+    @Autowired
+    private SeatService seatService;
+    
+    private Flight flight;
+    
+    @BeforeEach
+    public void setUp() {
+        Airline airline = entityManager.persist(Airline.builder()
+            .airlineName("Air India")
+            .airlineCode("AI")
+            .isActive(true)
+            .build());
+        flight = entityManager.persist(Flight.builder()
+            .airline(airline)
+            .flightNumber("AI202")
+            .departureCity("Delhi")
+            .arrivalCity("Mumbai")
+            .departureTime(LocalDateTime.now().plusDays(2))
+            .arrivalTime(LocalDateTime.now().plusDays(2).plusHours(2))
+            .totalSeats(180)
+            .availableSeats(180)
+            .pricePerSeat(BigDecimal.valueOf(5000))
+            .status("ACTIVE")
+            .isActive(true)
+            .build());
+        entityManager.flush();
+    }
+    
+    @Test
+    void testConfirmHold_HeldSeatsPointAtTheNewBooking() {
+        SeatHoldResponseDTO hold = seatService.holdSeats(flight.getFlightId(), 2, null);
+        entityManager.flush();
+        entityManager.clear();
+        
+        BookingResponseDTO response = bookingService.confirmHold(hold.getHoldId(), bookingRequest(2));
+        entityManager.flush();
+        entityManager.clear();
+        
+        Booking booking = bookingRepository.findByPnrNumber(response.getPnrNumber()).orElseThrow();
+        assertEquals(response.getBookingId(), booking.getBookingId());
+        assertEquals(hold.getSeatNumbers().stream().sorted().toList(),
+            seatRepository.findSeatNumbersByBooking(booking).stream().sorted().toList());
+        assertTrue(seatRepository.findActiveHold(hold.getHoldId()).isEmpty());
+    }
+    
+    private BookingRequestDTO bookingRequest(int passengers) {
+        List<PassengerDTO> passengerList = new ArrayList<>(passengers);
+        for (int i = 0; i < passengers; i++) {
+            passengerList.add(new PassengerDTO("Passenger " + i, "Female", 30, "Vegetarian"));
+        }
+        return BookingRequestDTO.builder()
+            .userEmail("hold@example.com")
+            .numberOfPassengers(passengers)
+            .passengers(passengerList)
+            .tripType("ONE_WAY")
+            .build();
+    }
+}
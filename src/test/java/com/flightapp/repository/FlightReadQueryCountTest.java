@@ -0,0 +1,99 @@
+package com.flightapp.repository;
+
+import com.flightapp.dto.FlightResponseDTO;
+import com.flightapp.dto.FlightSearchDTO;
+import com.flightapp.entity.Airline;
+import com.flightapp.entity.Flight;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+//Guards the read paths behind POST /flight/search and GET /flight/{id} against N+1 regressions
+@DataJpaTest(properties = {
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class FlightReadQueryCountTest {
+    
+    private static final int FLIGHTS = 50;
+    
+    @Autowired
+    private TestEntityManager entityManager;
+    
+    @Autowired
+    private FlightRepository flightRepository;
+    
+    private Statistics statistics;
+    private LocalDate day;
+    private Integer firstFlightId;
+    
+    @BeforeEach
+    public void setUp() {
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+            .unwrap(SessionFactory.class).getStatistics();
+        day = LocalDate.now().plusDays(5);
+        
+        //One airline per flight, so a lazy airline load would show up as one query per row
+        for (int i = 0; i < FLIGHTS; i++) {
+            Airline airline = entityManager.persist(Airline.builder()
+                .airlineName("Airline " + i)
+                .airlineCode("A" + i)
+                .isActive(true)
+                .build());
+            Flight flight = entityManager.persist(Flight.builder()
+                .airline(airline)
+                .flightNumber("QC" + i)
+                .departureCity("Delhi")
+                .arrivalCity("Mumbai")
+                .departureTime(day.atTime(6, 0).plusMinutes(i * 10L))
+                .arrivalTime(day.atTime(8, 0).plusMinutes(i * 10L))
+                .totalSeats(180)
+                .availableSeats(180)
+                .pricePerSeat(BigDecimal.valueOf(5000 + i))
+                .status("ACTIVE")
+                .isActive(true)
+                .build());
+            if (firstFlightId == null) {
+                firstFlightId = flight.getFlightId();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+    }
+    
+    @Test
+    void testSearchByCriteria_SingleStatementWithoutEntities() {
+        FlightSearchDTO criteria = FlightSearchDTO.builder()
+            .departureCity("Delhi")
+            .arrivalCity("Mumbai")
+            .departureDate(day)
+            .numberOfPassengers(2)
+            .build();
+        
+        List<FlightResponseDTO> flights = flightRepository.searchByCriteria(criteria, FLIGHTS);
+        
+        assertEquals(FLIGHTS, flights.size());
+        assertEquals("Airline 0", flights.get(0).getAirlineName());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+    
+    @Test
+    void testFindResponseById_SingleStatementWithoutEntities() {
+        FlightResponseDTO flight = flightRepository.findResponseById(firstFlightId).orElseThrow();
+        
+        assertEquals("QC0", flight.getFlightNumber());
+        assertEquals("Airline 0", flight.getAirlineName());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+}
@@ -0,0 +1,139 @@
+package com.flightapp.repository;
+
+import com.flightapp.entity.Airline;
+import com.flightapp.entity.Booking;
+import com.flightapp.entity.Flight;
+import com.flightapp.entity.Seat;
+import com.flightapp.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+class FlightReconcileSeatsTest {
+    
+    @Autowired
+    private TestEntityManager entityManager;
+    
+    @Autowired
+    private FlightRepository flightRepository;
+    
+    private User user;
+    private Flight flight;
+    private int pnrCounter;
+    
+    @BeforeEach
+    public void setUp() {
+        Airline airline = entityManager.persist(Airline.builder()
+            .airlineName("Air India")
+            .airlineCode("AI")
+            .isActive(true)
+            .build());
+        user = entityManager.persist(User.builder()
+            .email("reconcile@example.com")
+            .password("secret")
+            .firstName("Reconcile")
+            .lastName("Test")
+            .role("USER")
+            .isActive(true)
+            .build());
+        //Start from a drifted count so the test shows the query rebuilding it
+        flight = entityManager.persist(Flight.builder()
+            .airline(airline)
+            .flightNumber("AI303")
+            .departureCity("Delhi")
+            .arrivalCity("Mumbai")
+            .departureTime(LocalDateTime.now().plusDays(2))
+            .arrivalTime(LocalDateTime.now().plusDays(2).plusHours(2))
+            .totalSeats(180)
+            .availableSeats(42)
+            .pricePerSeat(BigDecimal.valueOf(5000))
+            .status("ACTIVE")
+            .isActive(true)
+            .build());
+    }
+    
+    @Test
+    void testReconcileAvailableSeats_SubtractsConfirmedBookings() {
+        entityManager.persist(booking(3, "CONFIRMED"));
+        entityManager.persist(booking(2, "CONFIRMED"));
+        entityManager.persist(booking(4, "CANCELLED"));
+        entityManager.flush();
+        
+        assertEquals(1, flightRepository.reconcileAvailableSeats(LocalDateTime.now()));
+        entityManager.clear();
+        
+        assertEquals(175, flightRepository.findById(flight.getFlightId()).orElseThrow().getAvailableSeats());
+    }
+    
+    @Test
+    void testReconcileAvailableSeats_SubtractsHeldButUnbookedSeats() {
+        Booking booking = entityManager.persist(booking(1, "CONFIRMED"));
+        entityManager.persist(seat("1A", true, booking, null));
+        entityManager.persist(seat("1B", true, null, "hold-1"));
+        entityManager.persist(seat("1C", true, null, "hold-1"));
+        //A released hold no longer takes a seat
+        entityManager.persist(seat("1D", false, null, null));
+        entityManager.flush();
+        
+        flightRepository.reconcileAvailableSeats(LocalDateTime.now());
+        entityManager.clear();
+        
+        //The booked seat counts once through its booking, the two held seats on their own
+        assertEquals(177, flightRepository.findById(flight.getFlightId()).orElseThrow().getAvailableSeats());
+    }
+    
+    @Test
+    void testReconcileAvailableSeats_NoBookingsRestoresCapacity() {
+        entityManager.flush();
+        
+        flightRepository.reconcileAvailableSeats(LocalDateTime.now());
+        entityManager.clear();
+        
+        assertEquals(180, flightRepository.findById(flight.getFlightId()).orElseThrow().getAvailableSeats());
+    }
+    
+    @Test
+    void testReconcileAvailableSeats_StampsUpdatedAtWithGivenTime() {
+        //Far from the database clock, so a CURRENT_TIMESTAMP stamp could not pass for it
+        LocalDateTime now = LocalDateTime.of(2030, 1, 15, 10, 30);
+        entityManager.flush();
+        
+        flightRepository.reconcileAvailableSeats(now);
+        entityManager.clear();
+        
+        assertEquals(now, flightRepository.findById(flight.getFlightId()).orElseThrow().getUpdatedAt());
+    }
+    
+    private Booking booking(int passengers, String status) {
+        return Booking.builder()
+            .pnrNumber("RECON" + String.format("%05d", ++pnrCounter))
+            .user(user)
+            .flight(flight)
+            .numberOfPassengers(passengers)
+            .totalPrice(BigDecimal.valueOf(5000L * passengers))
+            .bookingStatus(status)
+            .tripType("ONE_WAY")
+            .isActive(true)
+            .build();
+    }
+    
+    private Seat seat(String seatNumber, boolean reserved, Booking booking, String holdId) {
+        return Seat.builder()
+            .flight(flight)
+            .seatNumber(seatNumber)
+            .seatClass("ECONOMY")
+            .isAvailable(!reserved)
+            .isReserved(reserved)
+            .booking(booking)
+            .holdId(holdId)
+            .reservedAt(reserved ? LocalDateTime.now() : null)
+            .isActive(true)
+            .build();
+    }
+}
@@ -0,0 +1,171 @@
+package com.flightapp.repository;
+
+import com.flightapp.dto.DestinationFareDTO;
+import com.flightapp.dto.FareCalendarDayDTO;
+import com.flightapp.dto.FlightResponseDTO;
+import com.flightapp.dto.FlightSearchDTO;
+import com.flightapp.dto.FlightSortOrder;
+import com.flightapp.dto.SearchCursor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.stream.Stream;
+import static org.junit.jupiter.api.Assertions.*;
+
+//What the flight search and fare queries return; their plans are covered by FlightSearchPlanTest
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+class FlightRepositoryQueryTest {
+    
+    private static final LocalDate FIRST_DAY = LocalDate.of(2030, 1, 1);
+    
+    @Autowired
+    private FlightRepository flightRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    private long airlineId;
+    
+    @BeforeEach
+    public void setUp() {
+        jdbcTemplate.update("INSERT INTO airline (airline_name, airline_code, is_active, created_at, updated_at) " +
+            "VALUES ('Air India', 'AI', TRUE, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)");
+        airlineId = jdbcTemplate.queryForObject("SELECT MAX(airline_id) FROM airline", Long.class);
+    }
+    
+    @Test
+    void testSearchFlights_HalfOpenDayBoundaries() {
+        LocalDateTime dayStart = FIRST_DAY.atStartOfDay();
+        insertFlight("AI100", "Delhi", "Mumbai", dayStart.minusMinutes(1), 10);
+        insertFlight("AI101", "Delhi", "Mumbai", dayStart, 10);
+        insertFlight("AI102", "Delhi", "Mumbai", dayStart.plusHours(23).plusMinutes(59), 10);
+        insertFlight("AI103", "Delhi", "Mumbai", dayStart.plusDays(1), 10);
+        insertFlight("AI104", "Delhi", "Mumbai", dayStart.plusHours(12), 0);
+        
+        List<FlightResponseDTO> flights = flightRepository.searchByCriteria(criteria().build(), 10);
+        
+        assertEquals(List.of("AI101", "AI102"), flights.stream().map(FlightResponseDTO::getFlightNumber).toList());
+    }
+    
+    @Test
+    void testFindFareCalendar_GroupsWindowByDay() {
+        LocalDateTime dayStart = FIRST_DAY.atStartOfDay();
+        insertFlight("AI301", "Delhi", "Mumbai", dayStart.plusHours(6), 10);
+        insertFlight("AI302", "Delhi", "Mumbai", dayStart.plusHours(18), 10);
+        insertFlight("AI303", "Delhi", "Mumbai", dayStart.plusDays(2).plusHours(9), 10);
+        insertFlight("AI304", "Delhi", "Mumbai", dayStart.plusDays(2).plusHours(12), 1);
+        insertFlight("AI305", "Delhi", "Mumbai", dayStart.plusDays(3), 10);
+        jdbcTemplate.update("UPDATE flight SET price_per_seat = 3500 WHERE flight_number IN ('AI302', 'AI304')");
+        
+        List<FareCalendarDayDTO> days = flightRepository.findFareCalendar("Delhi", "Mumbai",
+            dayStart, dayStart.plusDays(3), 2);
+        
+        assertEquals(List.of(FIRST_DAY, FIRST_DAY.plusDays(2)), days.stream().map(FareCalendarDayDTO::getDate).toList());
+        assertEquals(0, BigDecimal.valueOf(3500).compareTo(days.get(0).getCheapestPricePerSeat()));
+        assertEquals(2L, days.get(0).getFlightCount());
+        assertEquals(1L, days.get(1).getFlightCount());
+    }
+    
+    @Test
+    void testFindCheapestDestinationDays_GroupsByDestinationAndDay() {
+        LocalDateTime dayStart = FIRST_DAY.atStartOfDay();
+        insertFlight("AI601", "Delhi", "Mumbai", dayStart.plusHours(6), 10);
+        insertFlight("AI602", "Delhi", "Mumbai", dayStart.plusHours(18), 10);
+        insertFlight("AI603", "Delhi", "Goa", dayStart.plusDays(1).plusHours(9), 10);
+        insertFlight("AI604", "Delhi", "Goa", dayStart.plusDays(2).plusHours(9), 0);
+        insertFlight("AI605", "Mumbai", "Goa", dayStart.plusHours(9), 10);
+        jdbcTemplate.update("UPDATE flight SET price_per_seat = 3500 WHERE flight_number = 'AI602'");
+        
+        List<DestinationFareDTO> days = flightRepository.findCheapestDestinationDays("Delhi",
+            dayStart, dayStart.plusDays(31));
+        
+        assertEquals(List.of("Goa", "Mumbai"), days.stream().map(DestinationFareDTO::getArrivalCity).toList());
+        assertEquals(FIRST_DAY.plusDays(1), days.get(0).getDate());
+        assertEquals(0, new BigDecimal("3500").compareTo(days.get(1).getCheapestPricePerSeat()));
+    }
+    
+    @Test
+    void testSearchByCriteria_KeysetPagesInDepartureOrder() {
+        LocalDateTime dayStart = FIRST_DAY.atStartOfDay();
+        insertFlight("AI401", "Delhi", "Mumbai", dayStart.plusHours(6), 10);
+        insertFlight("AI402", "Delhi", "Mumbai", dayStart.plusHours(9), 10);
+        insertFlight("AI403", "Delhi", "Mumbai", dayStart.plusHours(9), 10);
+        insertFlight("AI404", "Delhi", "Mumbai", dayStart.plusHours(12), 10);
+        
+        FlightSearchDTO criteria = criteria().build();
+        List<FlightResponseDTO> firstPage = flightRepository.searchByCriteria(criteria, 2);
+        criteria.setCursor(SearchCursor.after(firstPage.get(1)).encode());
+        List<FlightResponseDTO> secondPage = flightRepository.searchByCriteria(criteria, 2);
+        
+        assertEquals(List.of("AI401", "AI402"), firstPage.stream().map(FlightResponseDTO::getFlightNumber).toList());
+        assertEquals(List.of("AI403", "AI404"), secondPage.stream().map(FlightResponseDTO::getFlightNumber).toList());
+        try (Stream<FlightResponseDTO> rows = flightRepository.streamByCriteria(criteria)) {
+            assertEquals(2, rows.count());
+        }
+    }
+    
+    @Test
+    void testSearchByCities_OneQueryOverEveryPair() {
+        LocalDateTime dayStart = FIRST_DAY.atStartOfDay();
+        insertFlight("AI501", "Delhi", "Mumbai", dayStart.plusHours(9), 10);
+        insertFlight("AI502", "Jaipur", "Pune", dayStart.plusHours(6), 10);
+        insertFlight("AI503", "Delhi", "Pune", dayStart.plusHours(12), 10);
+        insertFlight("AI504", "Delhi", "Goa", dayStart.plusHours(7), 10);
+        insertFlight("AI505", "Kochi", "Mumbai", dayStart.plusHours(8), 10);
+        
+        List<FlightResponseDTO> flights = flightRepository.searchByCities(criteria().build(),
+            List.of("Delhi", "Jaipur"), List.of("Mumbai", "Pune"), 10);
+        
+        assertEquals(List.of("AI502", "AI501", "AI503"),
+            flights.stream().map(FlightResponseDTO::getFlightNumber).toList());
+    }
+    
+    @Test
+    void testFindByCriteria_FiltersSortsAndLimitsInQuery() {
+        LocalDateTime dayStart = FIRST_DAY.atStartOfDay();
+        insertFlight("AI201", "Delhi", "Mumbai", dayStart.plusHours(6), 10);
+        insertFlight("AI202", "Delhi", "Mumbai", dayStart.plusHours(10), 10);
+        insertFlight("AI203", "Delhi", "Mumbai", dayStart.plusHours(14), 1);
+        insertFlight("AI204", "Delhi", "Mumbai", dayStart.plusHours(16), 10);
+        insertFlight("AI205", "Delhi", "Mumbai", dayStart.plusHours(22), 10);
+        jdbcTemplate.update("UPDATE flight SET price_per_seat = 3000 WHERE flight_number IN ('AI203', 'AI204')");
+        
+        FlightSearchDTO criteria = criteria()
+            .numberOfPassengers(2)
+            .maxPrice(BigDecimal.valueOf(4000))
+            .airlineCode("ai")
+            .departureTimeFrom(LocalTime.of(8, 0))
+            .departureTimeTo(LocalTime.of(20, 0))
+            .sortBy(FlightSortOrder.PRICE)
+            .build();
+        
+        assertEquals(List.of("AI204"), flightRepository.searchByCriteria(criteria, 10).stream()
+            .map(FlightResponseDTO::getFlightNumber).toList());
+        
+        criteria.setMaxPrice(null);
+        assertEquals(List.of("AI204", "AI202"), flightRepository.searchByCriteria(criteria, 10).stream()
+            .map(FlightResponseDTO::getFlightNumber).toList());
+        assertEquals(1, flightRepository.searchByCriteria(criteria, 1).size());
+    }
+    
+    private FlightSearchDTO.FlightSearchDTOBuilder criteria() {
+        return FlightSearchDTO.builder().departureCity("Delhi").arrivalCity("Mumbai").departureDate(FIRST_DAY);
+    }
+    
+    private void insertFlight(String number, String from, String to, LocalDateTime departure, int availableSeats) {
+        jdbcTemplate.update("INSERT INTO flight (airline_id, flight_number, departure_city, arrival_city, " +
+            "departure_time, arrival_time, total_seats, available_seats, price_per_seat, status, is_active, version, " +
+            "created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, 180, ?, 5000, 'ACTIVE', TRUE, 0, " +
+            "CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)",
+            airlineId, number, from, to, Timestamp.valueOf(departure), Timestamp.valueOf(departure.plusHours(2)),
+            availableSeats);
+    }
+}
@@ -0,0 +1,195 @@
+package com.flightapp.repository;
+
+import com.flightapp.dto.FlightSearchDTO;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import static org.junit.jupiter.api.Assertions.*;
+
+//Index use of flight search only; what the queries return is covered by FlightRepositoryQueryTest.
+//Plans are taken for the statement searchByCriteria actually sends, as Hibernate hands it to JDBC
+@DataJpaTest(properties = {
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+        "com.flightapp.repository.FlightSearchPlanTest$StatementRecorder"
+})
+class FlightSearchPlanTest {
+    
+    private static final String[] CITIES = {
+        "Delhi", "Mumbai", "Bangalore", "Chennai", "Kolkata", "Hyderabad", "Pune", "Goa", "Jaipur", "Kochi"
+    };
+    private static final LocalDate FIRST_DAY = LocalDate.of(2030, 1, 1);
+    //How H2 names the flight table in a plan; the search's airline join follows it
+    private static final String FLIGHT_TABLE = "\"PUBLIC\".\"FLIGHT\"";
+    
+    //What the search sent before it moved to a half-open range, kept as the baseline to compare against
+    private static final String OLD_PREDICATE =
+        "SELECT flight_id FROM flight WHERE departure_city = ? AND arrival_city = ? " +
+        "AND CAST(departure_time AS DATE) = ? AND available_seats > 0 AND is_active = TRUE";
+    
+    @Autowired
+    private FlightRepository flightRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    private long airlineId;
+    
+    @BeforeEach
+    public void setUp() {
+        jdbcTemplate.update("INSERT INTO airline (airline_name, airline_code, is_active, created_at, updated_at) " +
+            "VALUES ('Air India', 'AI', TRUE, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)");
+        airlineId = jdbcTemplate.queryForObject("SELECT MAX(airline_id) FROM airline", Long.class);
+    }
+    
+    @Test
+    void testSearchPlan_SeeksOnDepartureTime() {
+        String searchSql = searchSql(FIRST_DAY);
+        String oldPlan = plan(OLD_PREDICATE, "'Delhi'", "'Mumbai'", "DATE '2030-01-01'");
+        String newPlan = plan(searchSql, searchLiterals(FIRST_DAY));
+        
+        //The old predicate can only use the city prefix of the index and filters every flight on the route
+        assertFalse(indexCondition(oldPlan).contains("DEPARTURE_TIME"), oldPlan);
+        assertTrue(indexCondition(newPlan).contains("IDX_FLIGHT_ROUTE_DEPARTURE"), newPlan);
+        assertTrue(indexCondition(newPlan).contains("DEPARTURE_TIME >="), newPlan);
+    }
+    
+    //Run with -Dbenchmark=true; loads 1M flights (10 cities x 9 destinations x ~3 years of days x ~3 per day)
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void testSearchBenchmark_OneMillionFlights() {
+        int perDay = 3;
+        int days = 1_000_000 / (CITIES.length * (CITIES.length - 1) * perDay) + 1;
+        List<Object[]> batch = new ArrayList<>(10_000);
+        int flightNumber = 0;
+        for (int day = 0; day < days; day++) {
+            for (String from : CITIES) {
+                for (String to : CITIES) {
+                    if (from.equals(to)) {
+                        continue;
+                    }
+                    for (int slot = 0; slot < perDay; slot++) {
+                        LocalDateTime departure = FIRST_DAY.plusDays(day).atTime(6 + slot * 6, 0);
+                        batch.add(flightRow("B" + (flightNumber++), from, to, departure, 50));
+                        if (batch.size() == 10_000) {
+                            insertFlights(batch);
+                            batch.clear();
+                        }
+                    }
+                }
+            }
+        }
+        insertFlights(batch);
+        
+        LocalDate day = FIRST_DAY.plusDays(days / 2);
+        String searchSql = searchSql(day);
+        String[] oldLiterals = {"'Delhi'", "'Mumbai'", "DATE '" + day + "'"};
+        String[] newLiterals = searchLiterals(day);
+        
+        String oldPlan = plan(OLD_PREDICATE, oldLiterals);
+        String newPlan = plan(searchSql, newLiterals);
+        
+        //At this size the range predicate has to stay a seek on the route and departure time, never a scan
+        assertFalse(newPlan.contains("TABLESCAN"), newPlan);
+        assertTrue(newPlan.contains("IDX_FLIGHT_ROUTE_DEPARTURE"), newPlan);
+        assertTrue(indexCondition(newPlan).contains("DEPARTURE_TIME >="), newPlan);
+        assertFalse(indexCondition(oldPlan).contains("DEPARTURE_TIME"), oldPlan);
+        
+        //Rows read rather than wall time: the DATE() predicate walks every day of the route, the range
+        //reads only the day asked for
+        long oldRows = scanCount(OLD_PREDICATE, oldLiterals);
+        long newRows = scanCount(searchSql, newLiterals);
+        assertTrue(oldRows >= (long) days * perDay, String.format("Over %,d flights the DATE() predicate read %,d rows",
+            flightNumber, oldRows));
+        assertTrue(newRows <= perDay + 1, String.format("Over %,d flights the range predicate read %,d rows",
+            flightNumber, newRows));
+    }
+    
+    private FlightSearchDTO.FlightSearchDTOBuilder criteria() {
+        return FlightSearchDTO.builder().departureCity("Delhi").arrivalCity("Mumbai").departureDate(FIRST_DAY);
+    }
+    
+    //Runs the search once and returns the SELECT it sent, parameters still as ?
+    private String searchSql(LocalDate day) {
+        StatementRecorder.STATEMENTS.clear();
+        flightRepository.searchByCriteria(criteria().departureDate(day).build(), 10);
+        return StatementRecorder.STATEMENTS.stream()
+            .filter(sql -> sql.startsWith("select") && sql.contains(" from flight "))
+            .reduce((first, second) -> second)
+            .orElseThrow();
+    }
+    
+    //In bind order: route, day range, seats wanted, page size
+    private static String[] searchLiterals(LocalDate day) {
+        return new String[] {"'Delhi'", "'Mumbai'",
+            "TIMESTAMP '" + Timestamp.valueOf(day.atStartOfDay()) + "'",
+            "TIMESTAMP '" + Timestamp.valueOf(day.plusDays(1).atStartOfDay()) + "'", "1", "10"};
+    }
+    
+    //EXPLAIN needs literals so H2 can pick the index it would use for real values
+    private String plan(String sql, String... literals) {
+        return jdbcTemplate.queryForObject("EXPLAIN " + withLiterals(sql, literals), String.class).toUpperCase();
+    }
+    
+    //EXPLAIN ANALYZE runs the query and reports the rows the index or table scan of flight read
+    private long scanCount(String sql, String... literals) {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN ANALYZE " + withLiterals(sql, literals), String.class);
+        Matcher matcher = Pattern.compile("scanCount: (\\d+)").matcher(plan);
+        assertTrue(plan.contains(FLIGHT_TABLE) && matcher.find(plan.indexOf(FLIGHT_TABLE)), plan);
+        return Long.parseLong(matcher.group(1));
+    }
+    
+    private static String withLiterals(String sql, String... literals) {
+        for (String literal : literals) {
+            sql = sql.replaceFirst("\\?", Matcher.quoteReplacement(literal));
+        }
+        //A parameter the search gained since would otherwise reach EXPLAIN unbound
+        assertFalse(sql.contains("?"), sql);
+        return sql;
+    }
+    
+    //H2 prints the index lookup as /* PUBLIC.INDEX_NAME: conditions */ after the table it reads
+    private static String indexCondition(String plan) {
+        int table = plan.indexOf(FLIGHT_TABLE);
+        int start = table < 0 ? -1 : plan.indexOf("/* PUBLIC.", table);
+        int end = plan.indexOf("*/", start);
+        return start < 0 || end < 0 ? "" : plan.substring(start, end);
+    }
+    
+    private Object[] flightRow(String number, String from, String to, LocalDateTime departure, int availableSeats) {
+        return new Object[] {
+            airlineId, number, from, to, Timestamp.valueOf(departure), Timestamp.valueOf(departure.plusHours(2)),
+            180, availableSeats, 5000, "ACTIVE", true, 0L
+        };
+    }
+    
+    private void insertFlights(List<Object[]> rows) {
+        jdbcTemplate.batchUpdate("INSERT INTO flight (airline_id, flight_number, departure_city, arrival_city, " +
+            "departure_time, arrival_time, total_seats, available_seats, price_per_seat, status, is_active, version, " +
+            "created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)", rows);
+    }
+    
+    //Registered by class name, so Hibernate creates it outside the Spring context
+    public static class StatementRecorder implements StatementInspector {
+        
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+        
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.flightapp.repository;
+
+import com.flightapp.dto.SeatHoldResponseDTO;
+import com.flightapp.entity.Airline;
+import com.flightapp.entity.Booking;
+import com.flightapp.entity.Flight;
+import com.flightapp.entity.Seat;
+import com.flightapp.entity.User;
+import com.flightapp.service.SeatService;
+import com.flightapp.service.inventory.SeatInventoryEngine;
+import com.flightapp.service.inventory.SeatInventoryService;
+import com.flightapp.service.retry.ConflictRetryMetrics;
+import com.flightapp.service.retry.OptimisticRetryAspect;
+import com.flightapp.service.seating.SeatAssignmentEngine;
+import com.flightapp.service.seating.SeatMapService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.aop.AopAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+//Holds lock the seat map row but pick seats from the cached map; a seat another instance booked
+//straight into the seat table is missing from it. Every attempt commits or rolls back for real here,
+//so the retry around holdSeats sees what a rolled-back attempt left in the cache.
+@DataJpaTest(properties = {
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "flightapp.booking.retry.max-attempts=3"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ImportAutoConfiguration(AopAutoConfiguration.class)
+@Import({SeatService.class, SeatMapService.class, SeatAssignmentEngine.class, SeatInventoryService.class,
+    SeatInventoryEngine.class, OptimisticRetryAspect.class, ConflictRetryMetrics.class})
+class SeatHoldConflictTest {
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private TestEntityManager entityManager;
+    
+    @Autowired
+    private SeatMapService seatMapService;
+    
+    @Autowired
+    private SeatService seatService;
+    
+    private Flight flight;
+    
+    @BeforeEach
+    public void setUp() {
+        flight = transactionTemplate.execute(status -> {
+            Airline airline = entityManager.persist(Airline.builder()
+                .airlineName("Air India")
+                .airlineCode("AI")
+                .isActive(true)
+                .build());
+            Flight saved = entityManager.persist(Flight.builder()
+                .airline(airline)
+                .flightNumber("AI404")
+                .departureCity("Delhi")
+                .arrivalCity("Mumbai")
+                .departureTime(LocalDateTime.now().plusDays(2))
+                .arrivalTime(LocalDateTime.now().plusDays(2).plusHours(2))
+                .totalSeats(12)
+                .availableSeats(12)
+                .pricePerSeat(BigDecimal.valueOf(5000))
+                .status("ACTIVE")
+                .isActive(true)
+                .build());
+            seatMapService.createSeatMap(saved);
+            return saved;
+        });
+    }
+    
+    @AfterEach
+    public void tearDown() {
+        for (String table : List.of("seat", "passenger", "booking", "flight_seat_map", "flight", "users", "airline")) {
+            jdbcTemplate.update("DELETE FROM " + table);
+        }
+    }
+    
+    @Test
+    void testHoldSeats_RetrySeesSeatBookedOnAnotherInstance() {
+        //Another instance books 1A directly: a Seat row only, the seat map row and this cache never hear of it
+        transactionTemplate.executeWithoutResult(status -> {
+            User user = entityManager.persist(User.builder()
+                .email("other@example.com")
+                .password("secret")
+                .firstName("Other")
+                .lastName("Node")
+                .role("USER")
+                .isActive(true)
+                .build());
+            Booking booking = entityManager.persist(Booking.builder()
+                .pnrNumber("OTHER00001")
+                .user(user)
+                .flight(flight)
+                .numberOfPassengers(1)
+                .totalPrice(BigDecimal.valueOf(5000))
+                .bookingStatus("CONFIRMED")
+                .tripType("ONE_WAY")
+                .isActive(true)
+                .build());
+            entityManager.persist(Seat.builder()
+                .flight(flight)
+                .seatNumber("1A")
+                .seatClass("ECONOMY")
+                .isAvailable(false)
+                .isReserved(true)
+                .booking(booking)
+                .isActive(true)
+                .build());
+        });
+        
+        SeatHoldResponseDTO hold = seatService.holdSeats(flight.getFlightId(), 1, null);
+        
+        assertEquals(List.of("1B"), hold.getSeatNumbers());
+        assertTrue(seatMapService.getSeatMap(flight.getFlightId()).isBooked("1A"));
+    }
+}
@@ -0,0 +1,103 @@
+package com.flightapp.service;
+
+import com.flightapp.entity.Airport;
+import com.flightapp.event.AirportAddedEvent;
+import com.flightapp.exception.ValidationException;
+import com.flightapp.repository.AirportRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import java.util.List;
+import java.util.Optional;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AirportServiceTest {
+    
+    @Mock
+    private AirportRepository airportRepository;
+    
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    
+    @InjectMocks
+    private AirportService airportService;
+    
+    private Airport testAirport;
+    
+    @BeforeEach
+    public void setUp() {
+        testAirport = Airport.builder()
+            .airportCode("hdo ")
+            .airportName("Hindon Airport")
+            .city(" Ghaziabad")
+            .latitude(28.7075)
+            .longitude(77.3589)
+            .build();
+    }
+    
+    @Test
+    void testAddAirport_SavesAndPublishes() {
+        when(airportRepository.findByAirportCode("HDO")).thenReturn(Optional.empty());
+        when(airportRepository.save(testAirport)).thenAnswer(invocation -> {
+            testAirport.setAirportId(1);
+            return testAirport;
+        });
+        
+        Airport saved = airportService.addAirport(testAirport);
+        
+        assertEquals("HDO", saved.getAirportCode());
+        assertEquals("Ghaziabad", saved.getCity());
+        verify(eventPublisher, times(1)).publishEvent(new AirportAddedEvent(1, "HDO", "Ghaziabad"));
+    }
+    
+    @Test
+    void testAddAirport_Duplicate() {
+        when(airportRepository.findByAirportCode("HDO")).thenReturn(Optional.of(new Airport()));
+        
+        assertThrows(IllegalArgumentException.class, () -> airportService.addAirport(testAirport));
+        verify(airportRepository, never()).save(any());
+    }
+    
+    @Test
+    void testAddAirport_LatitudeOutOfRange() {
+        testAirport.setLatitude(91.0);
+        
+        assertThrows(ValidationException.class, () -> airportService.addAirport(testAirport));
+        verifyNoInteractions(eventPublisher);
+    }
+    
+    @Test
+    void testSeedAirports_FillsEmptyTable() {
+        when(airportRepository.count()).thenReturn(0L);
+        
+        airportService.seedAirports();
+        
+        verify(airportRepository, times(1)).saveAll(argThat(airports -> ((List<Airport>) airports).stream()
+            .anyMatch(airport -> "HDO".equals(airport.getAirportCode()) && "Ghaziabad".equals(airport.getCity()))));
+    }
+    
+    @Test
+    void testSeedAirports_SkipsPopulatedTable() {
+        when(airportRepository.count()).thenReturn(3L);
+        
+        airportService.seedAirports();
+        
+        verify(airportRepository, never()).saveAll(any());
+    }
+    
+    @Test
+    void testSeedAirports_AnotherInstanceSeededFirst() {
+        when(airportRepository.count()).thenReturn(0L);
+        when(airportRepository.saveAll(anyList())).thenThrow(new DataIntegrityViolationException("duplicate"));
+        
+        assertDoesNotThrow(() -> airportService.seedAirports());
+    }
+}
@@ -1,21 +1,28 @@
 package com.flightapp.service;
 
 import com.flightapp.dto.BookingRequestDTO;
+import com.flightapp.dto.BookingResponseDTO;
 import com.flightapp.dto.PassengerDTO;
 import com.flightapp.entity.*;
 import com.flightapp.repository.*;
+import com.flightapp.exception.BookingException;
 import com.flightapp.exception.ResourceNotFoundException;
 import com.flightapp.exception.ValidationException;
+import com.flightapp.service.inventory.SeatInventoryService;
+import com.flightapp.service.pnr.PnrGenerator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -35,6 +42,15 @@ class BookingServiceTest {
     @Mock
     private PassengerRepository passengerRepository;
     
+    @Mock
+    private SeatInventoryService seatInventoryService;
+    
+    @Mock
+    private SeatService seatService;
+    
+    @Mock
+    private PnrGenerator pnrGenerator;
+    
     @InjectMocks
     private BookingService bookingService;
     
@@ -92,15 +108,37 @@ class BookingServiceTest {
     void testBookFlight_Success() {
         when(userRepository.findByEmail("user@example.com")).thenReturn(Optional.of(testUser));
         when(flightRepository.findById(1)).thenReturn(Optional.of(testFlight));
+        when(seatService.assignSeats(testFlight, 1, null)).thenReturn(Arrays.asList("4C"));
+        when(pnrGenerator.nextPnr()).thenReturn("0K2X9QZ1AB");
         when(bookingRepository.save(any(Booking.class))).thenAnswer(invocation -> invocation.getArgument(0));
-        when(flightRepository.save(any(Flight.class))).thenReturn(testFlight);
         
         var result = bookingService.bookFlight(1, bookingRequest);
         
         assertNotNull(result);
-        assertNotNull(result.getPnrNumber());
+        assertEquals("0K2X9QZ1AB", result.getPnrNumber());
         assertEquals("AI101", result.getFlightNumber());
-        verify(bookingRepository, times(1)).save(any(Booking.class));
+        InOrder inOrder = inOrder(bookingRepository, seatService, seatInventoryService);
+        inOrder.verify(bookingRepository, times(1)).save(any(Booking.class));
+        inOrder.verify(seatService, times(1)).saveAssignedSeats(argThat(booking ->
+            "4C".equals(booking.getPassengers().get(0).getSeatNumber())));
+        inOrder.verify(seatInventoryService, times(1)).reserveSeats(testFlight, 1);
+    }
+    
+    @Test
+    void testBookFlight_BeforeCommitGetsResponseAfterReserve() {
+        when(userRepository.findByEmail("user@example.com")).thenReturn(Optional.of(testUser));
+        when(flightRepository.findById(1)).thenReturn(Optional.of(testFlight));
+        when(seatService.assignSeats(testFlight, 1, null)).thenReturn(Arrays.asList("4C"));
+        when(pnrGenerator.nextPnr()).thenReturn("0K2X9QZ1AB");
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        AtomicReference<BookingResponseDTO> recorded = new AtomicReference<>();
+        
+        var result = bookingService.bookFlight(1, bookingRequest, response -> {
+            verify(seatInventoryService, times(1)).reserveSeats(testFlight, 1);
+            recorded.set(response);
+        });
+        
+        assertSame(result, recorded.get());
     }
     
     @Test
@@ -108,8 +146,9 @@ class BookingServiceTest {
         when(userRepository.findByEmail(anyString())).thenReturn(Optional.empty());
         when(userRepository.save(any(User.class))).thenReturn(testUser);
         when(flightRepository.findById(1)).thenReturn(Optional.of(testFlight));
+        when(seatService.assignSeats(testFlight, 1, null)).thenReturn(Arrays.asList("4C"));
+        when(pnrGenerator.nextPnr()).thenReturn("0K2X9QZ1AB");
         when(bookingRepository.save(any(Booking.class))).thenAnswer(invocation -> invocation.getArgument(0));
-        when(flightRepository.save(any(Flight.class))).thenReturn(testFlight);
         
         var result = bookingService.bookFlight(1, bookingRequest);
         
@@ -118,17 +157,52 @@ class BookingServiceTest {
     }
     
     @Test
-    void testBookFlight_InsufficientSeats() {
-      
+    void testBookFlight_StaleRowSeatCountDoesNotReject() {
+        //The row still shows the flight full, but cancellations have freed seats in the inventory
         testFlight.setAvailableSeats(0);
-        bookingRequest.setNumberOfPassengers(5);
         
         when(userRepository.findByEmail("user@example.com")).thenReturn(Optional.of(testUser));
         when(flightRepository.findById(1)).thenReturn(Optional.of(testFlight));
+        when(seatService.assignSeats(testFlight, 1, null)).thenReturn(Arrays.asList("4C"));
+        when(pnrGenerator.nextPnr()).thenReturn("0K2X9QZ1AB");
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(invocation -> invocation.getArgument(0));
         
+        var result = bookingService.bookFlight(1, bookingRequest);
+        
+        assertEquals("0K2X9QZ1AB", result.getPnrNumber());
+        verify(seatInventoryService, times(1)).reserveSeats(testFlight, 1);
+    }
+    
+    @Test
+    void testBookFlight_SeatsTakenConcurrently() {
+        when(userRepository.findByEmail("user@example.com")).thenReturn(Optional.of(testUser));
+        when(flightRepository.findById(1)).thenReturn(Optional.of(testFlight));
+        when(seatService.assignSeats(testFlight, 1, null)).thenReturn(Arrays.asList("4C"));
+        when(pnrGenerator.nextPnr()).thenReturn("0K2X9QZ1AB");
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        doThrow(new ValidationException("Not enough available seats for flight AI101"))
+            .when(seatInventoryService).reserveSeats(testFlight, 1);
+        
+        //The guarded update runs last, so losing it rolls back the rows written before it
         assertThrows(ValidationException.class, () -> bookingService.bookFlight(1, bookingRequest));
     }
     
+    @Test
+    void testBookFlightBatch_SingleInventoryUpdate() {
+        when(flightRepository.findById(1)).thenReturn(Optional.of(testFlight));
+        when(userRepository.findByEmail("user@example.com")).thenReturn(Optional.of(testUser));
+        when(seatService.assignSeats(testFlight, 1, null)).thenReturn(Arrays.asList("5A"), Arrays.asList("5B"));
+        when(pnrGenerator.nextPnr()).thenReturn("0K2X9QZ1AB", "0K2X9QZ1AC");
+        when(bookingRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        
+        List<BookingResponseDTO> results = bookingService.bookFlightBatch(1, Arrays.asList(bookingRequest, bookingRequest));
+        
+        assertEquals(2, results.size());
+        assertEquals("0K2X9QZ1AC", results.get(1).getPnrNumber());
+        verify(seatInventoryService, times(1)).reserveSeats(testFlight, 2);
+        verify(seatService, times(2)).saveAssignedSeats(any(Booking.class));
+    }
+    
     @Test
     void testGetBookingByPNR_Success() {
         Booking booking = Booking.builder()
@@ -189,12 +263,58 @@ class BookingServiceTest {
         
         when(bookingRepository.findByPnrNumber("PNR123")).thenReturn(Optional.of(booking));
         when(bookingRepository.save(any(Booking.class))).thenReturn(booking);
-        when(flightRepository.save(any(Flight.class))).thenReturn(flightFor2Days);
         
         bookingService.cancelBooking("PNR123");
         
         assertEquals("CANCELLED", booking.getBookingStatus());
         verify(bookingRepository, times(1)).save(any(Booking.class));
+        verify(seatInventoryService, times(1)).releaseSeats(flightFor2Days, 1);
+        verify(seatService, times(1)).releaseBookedSeats(booking);
+    }
+    
+    @Test
+    void testConfirmHold_Success() {
+        Seat heldSeat = Seat.builder()
+            .flight(testFlight)
+            .seatNumber("1A")
+            .holdId("hold-1")
+            .isReserved(true)
+            .build();
+        
+        when(seatService.getActiveHold("hold-1")).thenReturn(Arrays.asList(heldSeat));
+        when(userRepository.findByEmail("user@example.com")).thenReturn(Optional.of(testUser));
+        when(pnrGenerator.nextPnr()).thenReturn("0K2X9QZ1AB");
+        when(bookingRepository.saveAndFlush(any(Booking.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        
+        var result = bookingService.confirmHold("hold-1", bookingRequest);
+        
+        assertEquals("AI101", result.getFlightNumber());
+        assertEquals("CONFIRMED", result.getBookingStatus());
+        verify(seatService, times(1)).confirmHold(eq("hold-1"), any(Booking.class), eq(Arrays.asList("1A")));
+        verify(seatInventoryService, never()).reserveSeats(any(), any());
+    }
+    
+    @Test
+    void testConfirmHold_FlightDepartedDuringHold() {
+        testFlight.setDepartureTime(LocalDateTime.now().minusMinutes(1));
+        Seat heldSeat = Seat.builder().flight(testFlight).seatNumber("1A").holdId("hold-1").build();
+        
+        when(seatService.getActiveHold("hold-1")).thenReturn(Arrays.asList(heldSeat));
+        
+        assertThrows(BookingException.class, () -> bookingService.confirmHold("hold-1", bookingRequest));
+        verify(bookingRepository, never()).saveAndFlush(any(Booking.class));
+        verify(seatService, never()).confirmHold(any(), any(), any());
+    }
+    
+    @Test
+    void testConfirmHold_PassengerCountMismatch() {
+        Seat first = Seat.builder().flight(testFlight).seatNumber("1A").holdId("hold-1").build();
+        Seat second = Seat.builder().flight(testFlight).seatNumber("1B").holdId("hold-1").build();
+        
+        when(seatService.getActiveHold("hold-1")).thenReturn(Arrays.asList(first, second));
+        
+        assertThrows(BookingException.class, () -> bookingService.confirmHold("hold-1", bookingRequest));
+        verify(bookingRepository, never()).saveAndFlush(any(Booking.class));
     }
     
     @Test
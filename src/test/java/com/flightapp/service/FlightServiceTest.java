@@ -1,11 +1,26 @@
 package com.flightapp.service;
 
+import com.flightapp.dto.ConnectingItineraryDTO;
+import com.flightapp.dto.DestinationFareDTO;
+import com.flightapp.dto.FareCalendarDayDTO;
+import com.flightapp.dto.FlightResponseDTO;
 import com.flightapp.dto.FlightSearchDTO;
+import com.flightapp.dto.SearchCursor;
 import com.flightapp.entity.Airline;
 import com.flightapp.entity.Flight;
+import com.flightapp.event.FlightAddedEvent;
 import com.flightapp.exception.ResourceNotFoundException;
 import com.flightapp.exception.ValidationException;
 import com.flightapp.repository.FlightRepository;
+import com.flightapp.service.inventory.SeatInventoryEngine;
+import com.flightapp.service.search.CityDirectory;
+import com.flightapp.service.search.FlightSearchCache;
+import com.flightapp.service.search.FlightSearchIndex;
+import com.flightapp.service.search.NearbyCityIndex;
+import com.flightapp.service.search.RouteFilter;
+import com.flightapp.service.search.RouteGraph;
+import com.flightapp.service.seating.SeatMapService;
+import com.flightapp.validation.SearchLimits;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -14,11 +29,16 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -30,6 +50,33 @@ class FlightServiceTest {
     @Mock
     private FlightRepository flightRepository;
 
+    @Mock
+    private SeatInventoryEngine seatInventoryEngine;
+
+    @Mock
+    private SeatMapService seatMapService;
+
+    @Mock
+    private FlightSearchIndex flightSearchIndex;
+
+    @Mock
+    private FlightSearchCache flightSearchCache;
+
+    @Mock
+    private RouteGraph routeGraph;
+
+    @Mock
+    private RouteFilter routeFilter;
+
+    @Mock
+    private CityDirectory cityDirectory;
+
+    @Mock
+    private NearbyCityIndex nearbyCityIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private FlightService flightService;
 
@@ -39,6 +86,9 @@ class FlightServiceTest {
 
     @BeforeEach
     void setUp() {
+        lenient().when(flightSearchCache.search(any(), anyInt(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(2).get());
+
         testAirline = Airline.builder()
                 .airlineId(1)
                 .airlineName("Air India")
@@ -72,20 +122,31 @@ class FlightServiceTest {
 
     @Test
     void testSearchFlights_Success() {
-        when(flightRepository.searchFlights(anyString(), anyString(), any(LocalDateTime.class)))
-                .thenReturn(List.of(testFlight));
+        when(flightRepository.searchByCriteria(any(FlightSearchDTO.class), anyInt()))
+                .thenReturn(List.of(response(testFlight)));
 
         var result = flightService.searchFlights(searchDTO);
 
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals("AI101", result.get(0).getFlightNumber());
-        verify(flightRepository, times(1)).searchFlights(anyString(), anyString(), any());
+        verify(flightRepository, times(1)).searchByCriteria(searchDTO, FlightService.DEFAULT_SEARCH_LIMIT);
+    }
+
+    @Test
+    void testSearchFlights_CapsRequestedLimit() {
+        searchDTO.setLimit(10_000);
+        when(flightRepository.searchByCriteria(searchDTO, SearchLimits.MAX_SEARCH_LIMIT))
+                .thenReturn(Collections.emptyList());
+
+        flightService.searchFlights(searchDTO);
+
+        verify(flightRepository, times(1)).searchByCriteria(searchDTO, SearchLimits.MAX_SEARCH_LIMIT);
     }
 
     @Test
     void testSearchFlights_EmptyResult() {
-        when(flightRepository.searchFlights(anyString(), anyString(), any(LocalDateTime.class)))
+        when(flightRepository.searchByCriteria(any(FlightSearchDTO.class), anyInt()))
                 .thenReturn(Collections.emptyList());
 
         var result = flightService.searchFlights(searchDTO);
@@ -94,9 +155,95 @@ class FlightServiceTest {
         assertTrue(result.isEmpty());
     }
 
+    @Test
+    void testSearchFlights_UnservedRouteSkipsDatabase() {
+        when(routeFilter.rulesOut("Delhi", "Mumbai")).thenReturn(true);
+
+        var result = flightService.searchFlights(searchDTO);
+
+        assertTrue(result.isEmpty());
+        verifyNoInteractions(flightSearchCache, flightRepository);
+    }
+
+    @Test
+    void testSearchFlights_NearbyCitiesInOneQuery() {
+        searchDTO.setNearbyRadiusKm(150);
+        when(nearbyCityIndex.citiesNear("Delhi", 150)).thenReturn(List.of("Delhi", "Ghaziabad"));
+        when(nearbyCityIndex.citiesNear("Mumbai", 150)).thenReturn(List.of("Mumbai", "Pune"));
+        when(routeFilter.rulesOut(anyString(), anyString())).thenReturn(true);
+        when(routeFilter.rulesOut("Delhi", "Mumbai")).thenReturn(false);
+        when(routeFilter.rulesOut("Delhi", "Pune")).thenReturn(false);
+        when(flightRepository.searchByCities(eq(searchDTO), any(), any(), anyInt()))
+                .thenReturn(List.of(response(testFlight)));
+
+        var result = flightService.searchFlights(searchDTO);
+
+        assertEquals(1, result.size());
+        verify(flightRepository).searchByCities(searchDTO, Set.of("Delhi"), Set.of("Mumbai", "Pune"),
+                FlightService.DEFAULT_SEARCH_LIMIT);
+        verifyNoInteractions(flightSearchCache);
+    }
+
+    @Test
+    void testSearchFlights_NearbyPairsAllUnservedSkipsDatabase() {
+        searchDTO.setNearbyRadiusKm(150);
+        when(nearbyCityIndex.citiesNear("Delhi", 150)).thenReturn(List.of("Delhi", "Ghaziabad"));
+        when(nearbyCityIndex.citiesNear("Mumbai", 150)).thenReturn(List.of("Mumbai"));
+        when(routeFilter.rulesOut(anyString(), anyString())).thenReturn(true);
+
+        assertTrue(flightService.searchFlights(searchDTO).isEmpty());
+        verifyNoInteractions(flightRepository);
+    }
+
+    @Test
+    void testSearchFlights_NoNearbyCitiesUsesRouteSearch() {
+        searchDTO.setNearbyRadiusKm(150);
+        when(nearbyCityIndex.citiesNear(anyString(), eq(150.0))).thenAnswer(invocation -> List.of(invocation.<String>getArgument(0)));
+        when(flightRepository.searchByCriteria(searchDTO, FlightService.DEFAULT_SEARCH_LIMIT))
+                .thenReturn(List.of(response(testFlight)));
+
+        var result = flightService.searchFlights(searchDTO);
+
+        assertEquals(1, result.size());
+        verify(flightSearchCache).search(eq(searchDTO), eq(FlightService.DEFAULT_SEARCH_LIMIT), any());
+        verify(flightRepository, never()).searchByCities(any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void testSearchFlights_NearbyKeepsOnlyServedPairs() {
+        searchDTO.setNearbyRadiusKm(150);
+        when(nearbyCityIndex.citiesNear("Delhi", 150)).thenReturn(List.of("Delhi", "Ghaziabad"));
+        when(nearbyCityIndex.citiesNear("Mumbai", 150)).thenReturn(List.of("Mumbai", "Pune"));
+        when(routeFilter.rulesOut(anyString(), anyString())).thenReturn(true);
+        when(routeFilter.rulesOut("Delhi", "Mumbai")).thenReturn(false);
+        when(routeFilter.rulesOut("Ghaziabad", "Pune")).thenReturn(false);
+        FlightResponseDTO ruledOut = response(testFlight);
+        ruledOut.setFlightId(2);
+        ruledOut.setDepartureCity("Ghaziabad");
+        when(flightRepository.searchByCities(eq(searchDTO), any(), any(), anyInt()))
+                .thenReturn(List.of(ruledOut, response(testFlight)));
+
+        var result = flightService.searchFlights(searchDTO);
+
+        assertEquals(List.of(1), result.stream().map(FlightResponseDTO::getFlightId).toList());
+    }
+
+    @Test
+    void testSearchFlights_NearbyNeverSearchesBackTheOtherWay() {
+        searchDTO.setArrivalCity("Jaipur");
+        searchDTO.setNearbyRadiusKm(300);
+        when(nearbyCityIndex.citiesNear("Delhi", 300)).thenReturn(List.of("Delhi", "Jaipur"));
+        when(nearbyCityIndex.citiesNear("Jaipur", 300)).thenReturn(List.of("Jaipur", "Delhi"));
+
+        flightService.searchFlights(searchDTO);
+
+        verify(flightRepository).searchByCities(searchDTO, Set.of("Delhi"), Set.of("Jaipur"),
+                FlightService.DEFAULT_SEARCH_LIMIT);
+    }
+
     @Test
     void testSearchFlights_NoResults() {
-        when(flightRepository.searchFlights(any(), any(), any()))
+        when(flightRepository.searchByCriteria(any(), anyInt()))
                 .thenReturn(Collections.emptyList());
 
         var result = flightService.searchFlights(searchDTO);
@@ -104,9 +251,20 @@ class FlightServiceTest {
         assertTrue(result.isEmpty());
     }
 
+    @Test
+    void testSuggestCities_DefaultsAndCapsLimit() {
+        when(cityDirectory.suggest("de", FlightService.DEFAULT_CITY_SUGGESTIONS)).thenReturn(List.of("Delhi"));
+
+        assertEquals(List.of("Delhi"), flightService.suggestCities("de", null));
+        flightService.suggestCities("de", 1_000);
+
+        verify(cityDirectory).suggest("de", FlightService.MAX_CITY_SUGGESTIONS);
+        verifyNoInteractions(flightRepository);
+    }
+
     @Test
     void testGetFlightById_Success() {
-        when(flightRepository.findById(1)).thenReturn(Optional.of(testFlight));
+        when(flightRepository.findResponseById(1)).thenReturn(Optional.of(response(testFlight)));
 
         var result = flightService.getFlightById(1);
 
@@ -117,7 +275,7 @@ class FlightServiceTest {
 
     @Test
     void testGetFlightById_NotFound() {
-        when(flightRepository.findById(anyInt())).thenReturn(Optional.empty());
+        when(flightRepository.findResponseById(anyInt())).thenReturn(Optional.empty());
 
         assertThrows(ResourceNotFoundException.class,
                 () -> flightService.getFlightById(1));
@@ -125,7 +283,7 @@ class FlightServiceTest {
 
     @Test
     void testGetFlightById_InvalidId() {
-        when(flightRepository.findById(999)).thenReturn(Optional.empty());
+        when(flightRepository.findResponseById(999)).thenReturn(Optional.empty());
 
         assertThrows(ResourceNotFoundException.class,
                 () -> flightService.getFlightById(999));
@@ -240,6 +398,19 @@ class FlightServiceTest {
         assertNotNull(result);
         assertEquals("AI101", result.getFlightNumber());
         verify(flightRepository, times(1)).save(any(Flight.class));
+        verify(seatMapService, times(1)).createSeatMap(testFlight);
+        verify(eventPublisher, times(1)).publishEvent(FlightAddedEvent.of(testFlight));
+    }
+
+    @Test
+    void testGetAvailableSeats_FromSeatMap() {
+        when(flightRepository.findById(1)).thenReturn(Optional.of(testFlight));
+        when(seatMapService.findAvailableSeats(1, "BUSINESS", testFlight.getTotalSeats()))
+                .thenReturn(List.of("1A", "1B"));
+
+        List<String> seats = flightService.getAvailableSeats(1, "BUSINESS");
+
+        assertEquals(List.of("1A", "1B"), seats);
     }
 
     @Test
@@ -252,7 +423,7 @@ class FlightServiceTest {
                 .tripType("ONE_WAY")
                 .build();
 
-        when(flightRepository.searchFlights(anyString(), anyString(), any(LocalDateTime.class)))
+        when(flightRepository.searchByCriteria(any(FlightSearchDTO.class), anyInt()))
                 .thenReturn(Collections.emptyList());
 
         var result = flightService.searchFlights(newSearch);
@@ -270,13 +441,255 @@ class FlightServiceTest {
                 .arrivalCity("Mumbai")
                 .departureTime(LocalDateTime.now().plusHours(5))
                 .arrivalTime(LocalDateTime.now().plusHours(7))
+                .availableSeats(40)
                 .build();
 
-        when(flightRepository.searchFlights(anyString(), anyString(), any(LocalDateTime.class)))
-                .thenReturn(Arrays.asList(testFlight, flight2));
+        when(flightRepository.searchByCriteria(any(FlightSearchDTO.class), anyInt()))
+                .thenReturn(Arrays.asList(response(testFlight), response(flight2)));
 
         var result = flightService.searchFlights(searchDTO);
 
         assertEquals(2, result.size());
     }
+
+    @Test
+    void testSearchFlights_UsesInMemoryAvailability() {
+        Flight soldOut = Flight.builder()
+                .flightId(2)
+                .flightNumber("AI102")
+                .airline(testAirline)
+                .departureCity("Delhi")
+                .arrivalCity("Mumbai")
+                .departureTime(LocalDateTime.now().plusHours(5))
+                .arrivalTime(LocalDateTime.now().plusHours(7))
+                .availableSeats(3)
+                .build();
+
+        when(flightRepository.searchByCriteria(any(FlightSearchDTO.class), anyInt()))
+                .thenReturn(Arrays.asList(response(testFlight), response(soldOut)));
+        when(seatInventoryEngine.availableSeats(1)).thenReturn(OptionalInt.of(120));
+        when(seatInventoryEngine.availableSeats(2)).thenReturn(OptionalInt.of(1));
+
+        var result = flightService.searchFlights(searchDTO);
+
+        assertEquals(1, result.size());
+        assertEquals(120, result.get(0).getAvailableSeats());
+    }
+
+    @Test
+    void testSearchFlights_RefetchesWhenLiveSeatsEmptyThePage() {
+        searchDTO.setLimit(1);
+        FlightResponseDTO soldOut = FlightResponseDTO.builder()
+                .flightId(2)
+                .flightNumber("AI102")
+                .availableSeats(40)
+                .build();
+        when(flightRepository.searchByCriteria(searchDTO, 1)).thenReturn(List.of(soldOut));
+        when(flightRepository.searchByCriteria(searchDTO, 2)).thenReturn(List.of(soldOut, response(testFlight)));
+        when(seatInventoryEngine.availableSeats(2)).thenReturn(OptionalInt.of(1));
+
+        var result = flightService.searchFlights(searchDTO);
+
+        assertEquals(1, result.size());
+        assertEquals("AI101", result.get(0).getFlightNumber());
+    }
+
+    @Test
+    void testSearchFlights_RefetchGrowthStopsAtFetchCap() {
+        searchDTO.setLimit(SearchLimits.MAX_SEARCH_LIMIT);
+        when(flightRepository.searchByCriteria(eq(searchDTO), anyInt())).thenAnswer(invocation -> {
+            int fetch = invocation.getArgument(1);
+            List<FlightResponseDTO> rows = new ArrayList<>(fetch);
+            for (int i = 0; i < fetch; i++) {
+                rows.add(FlightResponseDTO.builder().flightId(100 + i).availableSeats(0).build());
+            }
+            rows.set(0, response(testFlight));
+            return rows;
+        });
+
+        var result = flightService.searchFlights(searchDTO);
+
+        assertEquals(1, result.size());
+        verify(flightRepository).searchByCriteria(searchDTO, SearchLimits.MAX_SEARCH_LIMIT);
+        verify(flightRepository).searchByCriteria(searchDTO, 2 * SearchLimits.MAX_SEARCH_LIMIT);
+        verify(flightRepository).searchByCriteria(searchDTO, SearchLimits.MAX_SEARCH_FETCH);
+        verify(flightRepository, never()).searchByCriteria(eq(searchDTO), intThat(fetch -> fetch > SearchLimits.MAX_SEARCH_FETCH));
+    }
+
+    @Test
+    void testSearchFlights_AnswersFromWarmIndex() {
+        FlightResponseDTO indexed = FlightResponseDTO.builder()
+                .flightId(1)
+                .flightNumber("AI101")
+                .availableSeats(150)
+                .build();
+        when(flightSearchIndex.search(searchDTO, FlightService.DEFAULT_SEARCH_LIMIT))
+                .thenReturn(Optional.of(List.of(indexed)));
+        when(seatInventoryEngine.availableSeats(1)).thenReturn(OptionalInt.of(90));
+
+        var result = flightService.searchFlights(searchDTO);
+
+        assertEquals(1, result.size());
+        assertEquals(90, result.get(0).getAvailableSeats());
+        verify(flightRepository, never()).searchByCriteria(any(), anyInt());
+    }
+
+    @Test
+    void testSearchFlightPage_FullPageCarriesCursorFromLastRowRead() {
+        searchDTO.setLimit(2);
+        FlightResponseDTO first = response(testFlight);
+        FlightResponseDTO soldOut = FlightResponseDTO.builder()
+                .flightId(2)
+                .departureTime(testFlight.getDepartureTime().plusHours(1))
+                .availableSeats(1)
+                .build();
+        when(flightRepository.searchByCriteria(searchDTO, 2)).thenReturn(new ArrayList<>(List.of(first, soldOut)));
+
+        var page = flightService.searchFlightPage(searchDTO);
+
+        assertEquals(1, page.getFlights().size());
+        assertEquals(new SearchCursor(soldOut.getDepartureTime(), 2), SearchCursor.decode(page.getNextCursor()));
+        verify(flightSearchCache, never()).search(any(), anyInt(), any());
+    }
+
+    @Test
+    void testSearchFlightPage_ShortPageIsLast() {
+        when(flightRepository.searchByCriteria(searchDTO, FlightService.DEFAULT_SEARCH_LIMIT))
+                .thenReturn(new ArrayList<>(List.of(response(testFlight))));
+
+        var page = flightService.searchFlightPage(searchDTO);
+
+        assertEquals(1, page.getFlights().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void testStreamFlights_WritesBookableRowsAndClosesCursor() {
+        AtomicBoolean closed = new AtomicBoolean();
+        FlightResponseDTO soldOut = FlightResponseDTO.builder().flightId(2).availableSeats(0).build();
+        when(flightRepository.streamByCriteria(searchDTO))
+                .thenReturn(Stream.of(response(testFlight), soldOut).onClose(() -> closed.set(true)));
+        List<FlightResponseDTO> written = new ArrayList<>();
+
+        int count = flightService.streamFlights(searchDTO, written::add);
+
+        assertEquals(1, count);
+        assertEquals(1, written.get(0).getFlightId());
+        assertTrue(closed.get());
+    }
+
+    @Test
+    void testSearchConnections_DropsItinerariesWithSoldOutLegs() {
+        FlightResponseDTO first = response(testFlight);
+        FlightResponseDTO second = FlightResponseDTO.builder()
+                .flightId(2)
+                .flightNumber("AI202")
+                .availableSeats(40)
+                .build();
+        when(routeGraph.search(searchDTO, RouteGraph.MAX_STOPS, FlightService.DEFAULT_SEARCH_LIMIT))
+                .thenReturn(Optional.of(new ArrayList<>(List.of(
+                        ConnectingItineraryDTO.builder().legs(List.of(first)).build(),
+                        ConnectingItineraryDTO.builder().legs(List.of(first, second)).build()))));
+        when(seatInventoryEngine.availableSeats(1)).thenReturn(OptionalInt.of(90));
+        when(seatInventoryEngine.availableSeats(2)).thenReturn(OptionalInt.of(1));
+
+        var result = flightService.searchConnections(searchDTO);
+
+        assertEquals(1, result.size());
+        assertEquals(90, result.get(0).getLegs().get(0).getAvailableSeats());
+    }
+
+    @Test
+    void testSearchConnections_ColdGraphOffersDirectFlights() {
+        when(routeGraph.search(any(), anyInt(), anyInt())).thenReturn(Optional.empty());
+        when(flightRepository.searchByCriteria(searchDTO, FlightService.DEFAULT_SEARCH_LIMIT))
+                .thenReturn(new ArrayList<>(List.of(response(testFlight))));
+
+        var result = flightService.searchConnections(searchDTO);
+
+        assertEquals(1, result.size());
+        assertEquals(0, result.get(0).getStops());
+        assertEquals(BigDecimal.valueOf(5000), result.get(0).getTotalPricePerSeat());
+    }
+
+    @Test
+    void testGetFareCalendar_OneQueryForTheWholeWindow() {
+        LocalDate date = LocalDate.now().plusDays(10);
+        searchDTO.setDepartureDate(date);
+        searchDTO.setFlexDays(2);
+        when(flightSearchCache.fareCalendar(anyString(), anyString(), any(), any(), anyInt(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(5).get());
+        when(flightRepository.findFareCalendar("Delhi", "Mumbai", date.minusDays(2).atStartOfDay(),
+                date.plusDays(3).atStartOfDay(), 2))
+                .thenReturn(List.of(new FareCalendarDayDTO(date.plusDays(1), BigDecimal.valueOf(3900), 4L)));
+
+        var result = flightService.getFareCalendar(searchDTO);
+
+        assertEquals(5, result.size());
+        assertEquals(date.minusDays(2), result.get(0).getDate());
+        assertEquals(0L, result.get(0).getFlightCount());
+        assertNull(result.get(0).getCheapestPricePerSeat());
+        assertEquals(BigDecimal.valueOf(3900), result.get(3).getCheapestPricePerSeat());
+        verify(flightRepository, times(1)).findFareCalendar(any(), any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void testGetFareCalendar_WindowStartsToday() {
+        searchDTO.setDepartureDate(LocalDate.now().plusDays(1));
+        when(flightSearchCache.fareCalendar(anyString(), anyString(), any(), any(), anyInt(), any()))
+                .thenReturn(List.of());
+
+        var result = flightService.getFareCalendar(searchDTO);
+
+        assertEquals(LocalDate.now(), result.get(0).getDate());
+        assertEquals(LocalDate.now().plusDays(1 + FlightService.DEFAULT_FLEX_DAYS), result.get(result.size() - 1).getDate());
+    }
+
+    @Test
+    void testExploreDestinations_ServedFromIndex() {
+        YearMonth month = YearMonth.now().plusMonths(1);
+        List<DestinationFareDTO> fares = List.of(new DestinationFareDTO("Goa", month.atDay(3), BigDecimal.valueOf(2900)));
+        when(flightSearchIndex.cheapestDestinations("Delhi", month.atDay(1), month.atEndOfMonth()))
+                .thenReturn(Optional.of(fares));
+
+        assertEquals(fares, flightService.exploreDestinations("Delhi", month));
+        verifyNoInteractions(flightRepository);
+    }
+
+    @Test
+    void testExploreDestinations_ColdIndexReducesGroupedDays() {
+        YearMonth month = YearMonth.now();
+        LocalDate today = LocalDate.now();
+        when(flightRepository.findCheapestDestinationDays("Delhi", today.atStartOfDay(),
+                month.atEndOfMonth().plusDays(1).atStartOfDay()))
+                .thenReturn(List.of(
+                        new DestinationFareDTO("Goa", today, BigDecimal.valueOf(3100)),
+                        new DestinationFareDTO("Mumbai", today, BigDecimal.valueOf(4200)),
+                        new DestinationFareDTO("Mumbai", month.atEndOfMonth(), BigDecimal.valueOf(2800))));
+
+        var result = flightService.exploreDestinations("Delhi", month);
+
+        assertEquals(List.of("Mumbai", "Goa"), result.stream().map(DestinationFareDTO::getArrivalCity).toList());
+        assertEquals(BigDecimal.valueOf(2800), result.get(0).getCheapestPricePerSeat());
+        assertEquals(month.atEndOfMonth(), result.get(0).getDate());
+    }
+
+    @Test
+    void testGetFlightById_UsesLiveSeatsWithoutLoadingEntity() {
+        when(flightRepository.findResponseById(1)).thenReturn(Optional.of(response(testFlight)));
+        when(seatInventoryEngine.availableSeats(1)).thenReturn(OptionalInt.of(12));
+
+        var result = flightService.getFlightById(1);
+
+        assertEquals(12, result.getAvailableSeats());
+        verify(flightRepository, never()).findById(anyInt());
+    }
+
+    //What the projection queries return for a flight row
+    private FlightResponseDTO response(Flight flight) {
+        return new FlightResponseDTO(flight.getFlightId(), flight.getFlightNumber(),
+                flight.getAirline().getAirlineName(), flight.getAircraftType(), flight.getDepartureCity(),
+                flight.getArrivalCity(), flight.getDepartureTime(), flight.getArrivalTime(),
+                flight.getAvailableSeats(), flight.getPricePerSeat());
+    }
 }
@@ -0,0 +1,212 @@
+package com.flightapp.service;
+
+import com.flightapp.dto.SeatHoldResponseDTO;
+import com.flightapp.entity.Airline;
+import com.flightapp.entity.Booking;
+import com.flightapp.entity.Flight;
+import com.flightapp.entity.Passenger;
+import com.flightapp.entity.Seat;
+import com.flightapp.exception.BookingException;
+import com.flightapp.exception.ResourceNotFoundException;
+import com.flightapp.repository.FlightRepository;
+import com.flightapp.repository.SeatRepository;
+import com.flightapp.service.inventory.SeatInventoryService;
+import com.flightapp.service.seating.SeatMap;
+import com.flightapp.service.seating.SeatMapService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SeatServiceTest {
+    
+    @Mock
+    private SeatRepository seatRepository;
+    
+    @Mock
+    private FlightRepository flightRepository;
+    
+    @Mock
+    private SeatInventoryService seatInventoryService;
+    
+    @Mock
+    private SeatMapService seatMapService;
+    
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    
+    @InjectMocks
+    private SeatService seatService;
+    
+    private Flight testFlight;
+    
+    @BeforeEach
+    public void setUp() {
+        seatService.startExpiryWheel();
+        
+        testFlight = Flight.builder()
+            .flightId(1)
+            .flightNumber("AI101")
+            .airline(Airline.builder().airlineId(1).airlineName("Air India").build())
+            .departureTime(LocalDateTime.now().plusDays(2))
+            .totalSeats(12)
+            .availableSeats(12)
+            .pricePerSeat(BigDecimal.valueOf(5000))
+            .build();
+    }
+    
+    @AfterEach
+    public void tearDown() {
+        seatService.stopExpiryWheel();
+    }
+    
+    @Test
+    void testHoldSeats_PicksFreeSeatsAndSchedulesExpiry() {
+        when(flightRepository.findById(1)).thenReturn(Optional.of(testFlight));
+        when(seatMapService.seatClassOf(eq(testFlight), anyString())).thenReturn(SeatMap.ECONOMY);
+        when(seatMapService.holdSeats(testFlight, 2, null)).thenReturn(Arrays.asList("1B", "1D"));
+        
+        SeatHoldResponseDTO hold = seatService.holdSeats(1, 2, null);
+        
+        assertNotNull(hold.getHoldId());
+        assertEquals(Arrays.asList("1B", "1D"), hold.getSeatNumbers());
+        assertTrue(hold.getExpiresAt().isAfter(LocalDateTime.now()));
+        assertEquals(1, seatService.pendingHoldCount());
+        InOrder inOrder = inOrder(seatRepository, seatInventoryService);
+        inOrder.verify(seatRepository, times(1)).saveAll(anyList());
+        inOrder.verify(seatInventoryService, times(1)).reserveSeats(testFlight, 2);
+    }
+    
+    @Test
+    void testHoldSeats_DepartedFlight() {
+        testFlight.setDepartureTime(LocalDateTime.now().minusHours(1));
+        when(flightRepository.findById(1)).thenReturn(Optional.of(testFlight));
+        
+        assertThrows(BookingException.class, () -> seatService.holdSeats(1, 2, null));
+        verify(seatInventoryService, never()).reserveSeats(any(), any());
+    }
+    
+    @Test
+    void testGetActiveHold_NotFound() {
+        when(seatRepository.findActiveHold("missing")).thenReturn(Collections.emptyList());
+        
+        assertThrows(ResourceNotFoundException.class, () -> seatService.getActiveHold("missing"));
+    }
+    
+    @Test
+    void testGetActiveHold_Expired() {
+        Seat seat = Seat.builder()
+            .flight(testFlight)
+            .seatNumber("1A")
+            .holdId("hold-1")
+            .reservedAt(LocalDateTime.now().minusHours(1))
+            .build();
+        when(seatRepository.findActiveHold("hold-1")).thenReturn(Arrays.asList(seat));
+        
+        assertThrows(BookingException.class, () -> seatService.getActiveHold("hold-1"));
+    }
+    
+    @Test
+    void testConfirmHold_LostToExpiry() {
+        Booking booking = Booking.builder().bookingId(1).build();
+        when(seatRepository.confirmHold("hold-1", booking)).thenReturn(0);
+        
+        assertThrows(BookingException.class,
+            () -> seatService.confirmHold("hold-1", booking, Arrays.asList("1A", "1B")));
+        verify(seatMapService, never()).bookSeats(any(), anyCollection());
+    }
+    
+    @Test
+    void testSweepExpiredHolds_ReleasesHoldsPlacedElsewhere() {
+        when(seatRepository.findPendingHoldsReservedBefore(any(LocalDateTime.class)))
+            .thenReturn(Collections.singletonList(new Object[] {"hold-9", 1}));
+        doAnswer(invocation -> {
+            invocation.<Consumer<Object>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        when(flightRepository.findById(1)).thenReturn(Optional.of(testFlight));
+        when(seatRepository.findUnconfirmedHoldSeatNumbers("hold-9")).thenReturn(Arrays.asList("2A", "2B"));
+        when(seatRepository.deleteUnconfirmedHold("hold-9")).thenReturn(2);
+        
+        seatService.sweepExpiredHolds();
+        
+        verify(seatMapService, times(1)).releaseSeats(testFlight, Arrays.asList("2A", "2B"));
+        verify(seatInventoryService, times(1)).releaseSeats(testFlight, 2);
+    }
+    
+    @Test
+    void testSweepExpiredHolds_AlreadyReleasedIsNoOp() {
+        when(seatRepository.findPendingHoldsReservedBefore(any(LocalDateTime.class)))
+            .thenReturn(Collections.singletonList(new Object[] {"hold-9", 1}));
+        doAnswer(invocation -> {
+            invocation.<Consumer<Object>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        when(flightRepository.findById(1)).thenReturn(Optional.of(testFlight));
+        when(seatRepository.deleteUnconfirmedHold("hold-9")).thenReturn(0);
+        
+        seatService.sweepExpiredHolds();
+        
+        verify(seatMapService, never()).releaseSeats(any(), anyCollection());
+        verify(seatInventoryService, never()).releaseSeats(any(), anyInt());
+    }
+    
+    @Test
+    void testReleaseHold_ReturnsSeatsToInventory() {
+        Seat seat = Seat.builder()
+            .flight(testFlight)
+            .seatNumber("1A")
+            .holdId("hold-1")
+            .reservedAt(LocalDateTime.now())
+            .build();
+        when(seatRepository.findActiveHold("hold-1")).thenReturn(Arrays.asList(seat));
+        when(seatRepository.findUnconfirmedHoldSeatNumbers("hold-1")).thenReturn(Arrays.asList("1A"));
+        when(seatRepository.deleteUnconfirmedHold("hold-1")).thenReturn(1);
+        
+        seatService.releaseHold("hold-1");
+        
+        verify(seatMapService, times(1)).releaseSeats(testFlight, Arrays.asList("1A"));
+        verify(seatInventoryService, times(1)).releaseSeats(testFlight, 1);
+    }
+    
+    @Test
+    void testSaveAssignedSeats_WritesRowPerPassenger() {
+        Booking booking = Booking.builder().bookingId(1).flight(testFlight).build();
+        booking.setPassengers(Arrays.asList(
+            Passenger.builder().passengerName("A").seatNumber("1A").build(),
+            Passenger.builder().passengerName("B").seatNumber("1B").build()));
+        when(seatMapService.seatClassOf(eq(testFlight), anyString())).thenReturn(SeatMap.ECONOMY);
+        
+        seatService.saveAssignedSeats(booking);
+        
+        verify(seatRepository, times(1)).saveAll(argThat(seats -> ((List<Seat>) seats).size() == 2));
+        verify(seatMapService, never()).getSeatMap(any());
+    }
+    
+    @Test
+    void testReleaseBookedSeats_ClearsSeatMap() {
+        Booking booking = Booking.builder().bookingId(1).flight(testFlight).build();
+        when(seatRepository.findSeatNumbersByBooking(booking)).thenReturn(Arrays.asList("2A", "2B"));
+        
+        seatService.releaseBookedSeats(booking);
+        
+        verify(seatRepository, times(1)).deleteByBooking(booking);
+        verify(seatMapService, times(1)).releaseSeats(testFlight, Arrays.asList("2A", "2B"));
+    }
+}
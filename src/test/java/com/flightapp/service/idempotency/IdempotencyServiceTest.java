@@ -0,0 +1,224 @@
+package com.flightapp.service.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flightapp.dto.BookingRequestDTO;
+import com.flightapp.dto.BookingResponseDTO;
+import com.flightapp.entity.IdempotencyRecord;
+import com.flightapp.exception.BookingException;
+import com.flightapp.exception.ValidationException;
+import com.flightapp.repository.IdempotencyRecordRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+    
+    @Mock
+    private IdempotencyRecordRepository recordRepository;
+    
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    
+    @InjectMocks
+    private IdempotencyService idempotencyService;
+    
+    private BookingRequestDTO request;
+    private AtomicInteger executions;
+    
+    @BeforeEach
+    public void setUp() {
+        request = BookingRequestDTO.builder()
+            .userEmail("user@example.com")
+            .numberOfPassengers(1)
+            .tripType("ONE_WAY")
+            .build();
+        executions = new AtomicInteger();
+        
+        lenient().when(transactionTemplate.execute(any()))
+            .thenAnswer(invocation -> ((TransactionCallback<?>) invocation.getArgument(0)).doInTransaction(null));
+        lenient().doAnswer(invocation -> {
+            ((Consumer<Object>) invocation.getArgument(0)).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        lenient().when(recordRepository.complete(anyString(), anyString(), anyString())).thenReturn(1);
+    }
+    
+    @Test
+    void testExecute_NoKeyRunsDirectly() {
+        BookingResponseDTO response = idempotencyService.execute(null, "book:1", request,
+            BookingResponseDTO.class, this::book);
+        
+        assertEquals("PNR0000001", response.getPnrNumber());
+        verifyNoInteractions(recordRepository);
+    }
+    
+    @Test
+    void testExecute_ReplaysFromCacheWithoutRunningAgain() {
+        when(recordRepository.findById("key-1")).thenReturn(Optional.empty());
+        
+        BookingResponseDTO first = idempotencyService.execute("key-1", "book:1", request, BookingResponseDTO.class, this::book);
+        BookingResponseDTO second = idempotencyService.execute("key-1", "book:1", request, BookingResponseDTO.class, this::book);
+        
+        assertEquals(1, executions.get());
+        assertEquals(first.getPnrNumber(), second.getPnrNumber());
+        verify(recordRepository, times(1)).findById("key-1");
+        verify(recordRepository, times(1)).saveAndFlush(any(IdempotencyRecord.class));
+        verify(recordRepository, times(1)).complete(eq("key-1"), anyString(), contains("PNR0000001"));
+    }
+    
+    @Test
+    void testExecute_ReplaysStoredRecord() throws Exception {
+        String body = objectMapper.writeValueAsString(BookingResponseDTO.builder().pnrNumber("STORED0001").build());
+        IdempotencyRecord record = IdempotencyRecord.builder()
+            .idempotencyKey("key-1")
+            .requestHash(idempotencyService.fingerprint("book:1", request))
+            .status(IdempotencyRecord.COMPLETED)
+            .responseBody(body)
+            .lockedUntil(LocalDateTime.now().minusMinutes(1))
+            .expiresAt(LocalDateTime.now().plusHours(1))
+            .build();
+        when(recordRepository.findById("key-1")).thenReturn(Optional.of(record));
+        
+        BookingResponseDTO response = idempotencyService.execute("key-1", "book:1", request,
+            BookingResponseDTO.class, this::book);
+        
+        assertEquals("STORED0001", response.getPnrNumber());
+        assertEquals(0, executions.get());
+    }
+    
+    @Test
+    void testExecute_KeyReusedForDifferentRequest() {
+        when(recordRepository.findById("key-1")).thenReturn(Optional.empty());
+        idempotencyService.execute("key-1", "book:1", request, BookingResponseDTO.class, this::book);
+        
+        assertThrows(ValidationException.class, () -> idempotencyService.execute("key-1", "book:2", request,
+            BookingResponseDTO.class, this::book));
+    }
+    
+    @Test
+    void testExecute_ConcurrentDuplicateWaitsForFirst() throws Exception {
+        when(recordRepository.findById("key-1")).thenReturn(Optional.empty());
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        
+        Future<BookingResponseDTO> first = executor.submit(() -> idempotencyService.execute("key-1", "book:1", request,
+            BookingResponseDTO.class, complete -> {
+                started.countDown();
+                awaitQuietly(release);
+                return book(complete);
+            }));
+        started.await(5, TimeUnit.SECONDS);
+        Future<BookingResponseDTO> duplicate = executor.submit(() -> idempotencyService.execute("key-1", "book:1", request,
+            BookingResponseDTO.class, this::book));
+        release.countDown();
+        
+        assertEquals(first.get(5, TimeUnit.SECONDS).getPnrNumber(), duplicate.get(5, TimeUnit.SECONDS).getPnrNumber());
+        assertEquals(1, executions.get());
+        executor.shutdown();
+    }
+    
+    @Test
+    void testExecute_FailureReleasesClaim() {
+        when(recordRepository.findById("key-1")).thenReturn(Optional.empty());
+        
+        assertThrows(BookingException.class, () -> idempotencyService.execute("key-1", "book:1", request,
+            BookingResponseDTO.class, complete -> {
+                throw new BookingException("Not enough available seats");
+            }));
+        verify(recordRepository, times(1)).releaseClaim(eq("key-1"), anyString());
+        
+        BookingResponseDTO retried = idempotencyService.execute("key-1", "book:1", request,
+            BookingResponseDTO.class, this::book);
+        assertEquals("PNR0000001", retried.getPnrNumber());
+    }
+    
+    @Test
+    void testExecute_RecordsResponseBeforeActionReturns() {
+        when(recordRepository.findById("key-1")).thenReturn(Optional.empty());
+        
+        idempotencyService.execute("key-1", "book:1", request, BookingResponseDTO.class, complete -> {
+            BookingResponseDTO response = book(complete);
+            verify(recordRepository, times(1)).complete(eq("key-1"), anyString(), contains("PNR0000001"));
+            return response;
+        });
+        
+        verify(recordRepository, times(1)).complete(anyString(), anyString(), anyString());
+    }
+    
+    @Test
+    void testExecute_TakenOverClaimFailsAttempt() {
+        when(recordRepository.findById("key-1")).thenReturn(Optional.empty());
+        when(recordRepository.complete(eq("key-1"), anyString(), anyString())).thenReturn(0);
+        
+        assertThrows(BookingException.class, () -> idempotencyService.execute("key-1", "book:1", request,
+            BookingResponseDTO.class, this::book));
+        verify(recordRepository, times(1)).releaseClaim(eq("key-1"), anyString());
+    }
+    
+    @Test
+    void testExecute_StaleClaimTakenOverWithNewToken() {
+        IdempotencyRecord stale = IdempotencyRecord.builder()
+            .idempotencyKey("key-1")
+            .requestHash(idempotencyService.fingerprint("book:1", request))
+            .status(IdempotencyRecord.PENDING)
+            .claimToken("old-token")
+            .lockedUntil(LocalDateTime.now().minusMinutes(1))
+            .expiresAt(LocalDateTime.now().plusHours(1))
+            .build();
+        when(recordRepository.findById("key-1")).thenReturn(Optional.of(stale));
+        when(recordRepository.claimStale(eq("key-1"), anyString(), anyString(), any(), any(), any())).thenReturn(1);
+        
+        idempotencyService.execute("key-1", "book:1", request, BookingResponseDTO.class, this::book);
+        
+        verify(recordRepository, never()).complete(eq("key-1"), eq("old-token"), anyString());
+        verify(recordRepository, times(1)).complete(eq("key-1"), anyString(), contains("PNR0000001"));
+    }
+    
+    @Test
+    void testExecute_KeyTooLong() {
+        String key = "k".repeat(IdempotencyService.MAX_KEY_LENGTH + 1);
+        
+        assertThrows(ValidationException.class, () -> idempotencyService.execute(key, "book:1", request,
+            BookingResponseDTO.class, this::book));
+    }
+    
+    private BookingResponseDTO book(Consumer<BookingResponseDTO> complete) {
+        BookingResponseDTO response = BookingResponseDTO.builder()
+            .pnrNumber(String.format("PNR%07d", executions.incrementAndGet()))
+            .bookingStatus("CONFIRMED")
+            .build();
+        complete.accept(response);
+        return response;
+    }
+    
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.flightapp.service.inventory;
+
+import com.flightapp.entity.Flight;
+import com.flightapp.repository.FlightRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SeatInventoryEngineTest {
+    
+    @Mock
+    private FlightRepository flightRepository;
+    
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    
+    private SeatInventoryEngine engine;
+    private Flight testFlight;
+    
+    @BeforeEach
+    public void setUp() {
+        engine = new SeatInventoryEngine(flightRepository, transactionTemplate);
+        ReflectionTestUtils.setField(engine, "mode", InventoryMode.IN_MEMORY);
+        
+        testFlight = Flight.builder()
+            .flightId(1)
+            .flightNumber("AI101")
+            .totalSeats(500)
+            .availableSeats(500)
+            .build();
+    }
+    
+    @Test
+    void testTryReserve_NeverOversellsUnderContention() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int t = 0; t < 16; t++) {
+            results.add(executor.submit(() -> {
+                int reserved = 0;
+                for (int i = 0; i < 100; i++) {
+                    if (engine.tryReserve(testFlight, 1)) {
+                        reserved++;
+                    }
+                }
+                return reserved;
+            }));
+        }
+        int total = 0;
+        for (Future<Integer> result : results) {
+            total += result.get();
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        
+        assertEquals(500, total);
+        assertEquals(0, engine.availableSeats(1).getAsInt());
+        assertTrue(engine.isSoldOut(1));
+    }
+    
+    @Test
+    void testRelease_CappedAtTotalSeats() {
+        assertTrue(engine.tryReserve(testFlight, 2));
+        
+        engine.release(testFlight, 5);
+        
+        assertEquals(500, engine.availableSeats(1).getAsInt());
+    }
+    
+    @Test
+    void testFlush_AppliesCoalescedDelta() {
+        doAnswer(invocation -> {
+            Consumer<TransactionStatus> action = invocation.getArgument(0);
+            action.accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        
+        engine.tryReserve(testFlight, 3);
+        engine.tryReserve(testFlight, 4);
+        engine.release(testFlight, 2);
+        engine.flush();
+        engine.flush();
+        
+        verify(flightRepository, times(1)).applySeatDelta(eq(1), eq(-5), any(LocalDateTime.class));
+    }
+    
+    @Test
+    void testFlush_KeepsDeltaWhenWriteFails() {
+        doThrow(new IllegalStateException("db down"))
+            .when(transactionTemplate).executeWithoutResult(any());
+        
+        engine.tryReserve(testFlight, 3);
+        engine.flush();
+        
+        doAnswer(invocation -> {
+            Consumer<TransactionStatus> action = invocation.getArgument(0);
+            action.accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        engine.flush();
+        
+        verify(flightRepository, times(1)).applySeatDelta(eq(1), eq(-3), any(LocalDateTime.class));
+    }
+    
+    @Test
+    void testAvailableSeats_EmptyWhenDisabled() {
+        ReflectionTestUtils.setField(engine, "mode", InventoryMode.ATOMIC);
+        
+        assertFalse(engine.availableSeats(1).isPresent());
+        assertFalse(engine.isSoldOut(1));
+    }
+}
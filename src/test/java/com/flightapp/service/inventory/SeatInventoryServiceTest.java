@@ -0,0 +1,140 @@
+package com.flightapp.service.inventory;
+
+import com.flightapp.entity.Flight;
+import com.flightapp.event.SeatAvailabilityChangedEvent;
+import com.flightapp.exception.ValidationException;
+import com.flightapp.repository.FlightRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SeatInventoryServiceTest {
+    
+    @Mock
+    private FlightRepository flightRepository;
+    
+    @Mock
+    private SeatInventoryEngine seatInventoryEngine;
+    
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    
+    @InjectMocks
+    private SeatInventoryService seatInventoryService;
+    
+    private Flight testFlight;
+    
+    @BeforeEach
+    public void setUp() {
+        testFlight = Flight.builder()
+            .flightId(1)
+            .flightNumber("AI101")
+            .departureTime(LocalDateTime.now().plusDays(2))
+            .totalSeats(180)
+            .availableSeats(150)
+            .pricePerSeat(BigDecimal.valueOf(5000))
+            .build();
+    }
+    
+    @Test
+    void testReserveSeats_AtomicSuccess() {
+        when(flightRepository.decrementAvailableSeats(eq(1), eq(2), any(LocalDateTime.class))).thenReturn(1);
+        
+        seatInventoryService.reserveSeats(testFlight, 2);
+        
+        InOrder inOrder = inOrder(flightRepository);
+        inOrder.verify(flightRepository).flush();
+        inOrder.verify(flightRepository).decrementAvailableSeats(eq(1), eq(2), any(LocalDateTime.class));
+        verify(flightRepository, never()).saveAndFlush(any(Flight.class));
+        verify(eventPublisher).publishEvent(SeatAvailabilityChangedEvent.of(testFlight, -2));
+    }
+    
+    @Test
+    void testReserveSeats_AtomicRejectsOversell() {
+        when(flightRepository.decrementAvailableSeats(eq(1), eq(2), any(LocalDateTime.class))).thenReturn(0);
+        
+        assertThrows(ValidationException.class, () -> seatInventoryService.reserveSeats(testFlight, 2));
+        verifyNoInteractions(eventPublisher);
+    }
+    
+    @Test
+    void testReleaseSeats_Atomic() {
+        when(flightRepository.incrementAvailableSeats(eq(1), eq(2), any(LocalDateTime.class))).thenReturn(1);
+        
+        seatInventoryService.releaseSeats(testFlight, 2);
+        
+        verify(flightRepository, times(1)).incrementAvailableSeats(eq(1), eq(2), any(LocalDateTime.class));
+        verify(eventPublisher).publishEvent(SeatAvailabilityChangedEvent.of(testFlight, 2));
+    }
+    
+    @Test
+    void testReserveSeats_Optimistic() {
+        ReflectionTestUtils.setField(seatInventoryService, "mode", InventoryMode.OPTIMISTIC);
+        
+        seatInventoryService.reserveSeats(testFlight, 2);
+        
+        assertEquals(148, testFlight.getAvailableSeats());
+        verify(flightRepository, times(1)).saveAndFlush(testFlight);
+        verify(flightRepository, never()).decrementAvailableSeats(anyInt(), anyInt(), any());
+    }
+    
+    @Test
+    void testReserveSeats_OptimisticInsufficientSeats() {
+        ReflectionTestUtils.setField(seatInventoryService, "mode", InventoryMode.OPTIMISTIC);
+        testFlight.setAvailableSeats(1);
+        
+        assertThrows(ValidationException.class, () -> seatInventoryService.reserveSeats(testFlight, 2));
+        verify(flightRepository, never()).saveAndFlush(any(Flight.class));
+    }
+    
+    @Test
+    void testReleaseSeats_OptimisticCapsAtTotalSeats() {
+        ReflectionTestUtils.setField(seatInventoryService, "mode", InventoryMode.OPTIMISTIC);
+        testFlight.setAvailableSeats(179);
+        
+        seatInventoryService.releaseSeats(testFlight, 2);
+        
+        assertEquals(180, testFlight.getAvailableSeats());
+        verify(flightRepository, times(1)).saveAndFlush(testFlight);
+    }
+    
+    @Test
+    void testReserveSeats_InMemory() {
+        ReflectionTestUtils.setField(seatInventoryService, "mode", InventoryMode.IN_MEMORY);
+        when(seatInventoryEngine.tryReserve(testFlight, 2)).thenReturn(true);
+        
+        seatInventoryService.reserveSeats(testFlight, 2);
+        
+        verifyNoInteractions(flightRepository);
+    }
+    
+    @Test
+    void testReserveSeats_InMemorySoldOut() {
+        ReflectionTestUtils.setField(seatInventoryService, "mode", InventoryMode.IN_MEMORY);
+        when(seatInventoryEngine.tryReserve(testFlight, 2)).thenReturn(false);
+        
+        assertThrows(ValidationException.class, () -> seatInventoryService.reserveSeats(testFlight, 2));
+    }
+    
+    @Test
+    void testReleaseSeats_InMemory() {
+        ReflectionTestUtils.setField(seatInventoryService, "mode", InventoryMode.IN_MEMORY);
+        
+        seatInventoryService.releaseSeats(testFlight, 2);
+        
+        verify(seatInventoryEngine, times(1)).release(testFlight, 2);
+        verifyNoInteractions(flightRepository);
+    }
+}
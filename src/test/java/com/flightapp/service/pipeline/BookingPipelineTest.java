@@ -0,0 +1,135 @@
+package com.flightapp.service.pipeline;
+
+import com.flightapp.dto.BookingRequestDTO;
+import com.flightapp.dto.BookingResponseDTO;
+import com.flightapp.dto.BookingStatusDTO;
+import com.flightapp.exception.BookingException;
+import com.flightapp.exception.ResourceNotFoundException;
+import com.flightapp.service.BookingService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookingPipelineTest {
+    
+    @Mock
+    private BookingService bookingService;
+    
+    @InjectMocks
+    private BookingPipeline bookingPipeline;
+    
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(bookingPipeline, "enabled", true);
+        bookingPipeline.startWorkers();
+    }
+    
+    @AfterEach
+    public void tearDown() {
+        bookingPipeline.stopWorkers();
+    }
+    
+    @Test
+    void testSubmit_Disabled() {
+        ReflectionTestUtils.setField(bookingPipeline, "enabled", false);
+        
+        assertThrows(BookingException.class, () -> bookingPipeline.submit(1, request("a@example.com")));
+    }
+    
+    @Test
+    void testSubmit_SingleRequestConfirmed() {
+        BookingRequestDTO request = request("a@example.com");
+        when(bookingService.bookFlight(1, request)).thenReturn(response("PNR0000001"));
+        
+        String requestId = bookingPipeline.submit(1, request);
+        BookingStatusDTO status = bookingPipeline.getStatus(requestId, 5000);
+        
+        assertEquals(BookingPipeline.CONFIRMED, status.getStatus());
+        assertEquals("PNR0000001", status.getBooking().getPnrNumber());
+    }
+    
+    @Test
+    void testSubmit_QueuedRequestsAreBookedAsOneBatch() throws Exception {
+        CountDownLatch firstStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+        BookingRequestDTO first = request("first@example.com");
+        when(bookingService.bookFlight(1, first)).thenAnswer(invocation -> {
+            firstStarted.countDown();
+            releaseFirst.await(5, TimeUnit.SECONDS);
+            return response("PNR0000001");
+        });
+        when(bookingService.bookFlightBatch(eq(1), anyList()))
+            .thenReturn(List.of(response("PNR0000002"), response("PNR0000003"), response("PNR0000004")));
+        
+        bookingPipeline.submit(1, first);
+        firstStarted.await(5, TimeUnit.SECONDS);
+        String second = bookingPipeline.submit(1, request("b@example.com"));
+        bookingPipeline.submit(1, request("c@example.com"));
+        String fourth = bookingPipeline.submit(1, request("d@example.com"));
+        releaseFirst.countDown();
+        
+        assertEquals("PNR0000002", bookingPipeline.getStatus(second, 5000).getBooking().getPnrNumber());
+        assertEquals("PNR0000004", bookingPipeline.getStatus(fourth, 5000).getBooking().getPnrNumber());
+        verify(bookingService, times(1)).bookFlightBatch(eq(1), argThat(batch -> batch.size() == 3));
+    }
+    
+    @Test
+    void testSubmit_FailedBatchFallsBackToSingleBookings() throws Exception {
+        CountDownLatch firstStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+        BookingRequestDTO first = request("first@example.com");
+        BookingRequestDTO good = request("good@example.com");
+        BookingRequestDTO bad = request("bad@example.com");
+        when(bookingService.bookFlight(1, first)).thenAnswer(invocation -> {
+            firstStarted.countDown();
+            releaseFirst.await(5, TimeUnit.SECONDS);
+            return response("PNR0000001");
+        });
+        when(bookingService.bookFlightBatch(eq(1), anyList())).thenThrow(new BookingException("Not enough available seats"));
+        when(bookingService.bookFlight(1, good)).thenReturn(response("PNR0000002"));
+        when(bookingService.bookFlight(1, bad)).thenThrow(new BookingException("Not enough available seats"));
+        
+        bookingPipeline.submit(1, first);
+        firstStarted.await(5, TimeUnit.SECONDS);
+        String goodId = bookingPipeline.submit(1, good);
+        String badId = bookingPipeline.submit(1, bad);
+        releaseFirst.countDown();
+        
+        assertEquals(BookingPipeline.CONFIRMED, bookingPipeline.getStatus(goodId, 5000).getStatus());
+        BookingStatusDTO failed = bookingPipeline.getStatus(badId, 5000);
+        assertEquals(BookingPipeline.FAILED, failed.getStatus());
+        assertEquals("Not enough available seats", failed.getErrorMessage());
+    }
+    
+    @Test
+    void testGetStatus_UnknownRequest() {
+        assertThrows(ResourceNotFoundException.class, () -> bookingPipeline.getStatus("missing", 0));
+    }
+    
+    private BookingRequestDTO request(String email) {
+        return BookingRequestDTO.builder()
+            .userEmail(email)
+            .numberOfPassengers(1)
+            .tripType("ONE_WAY")
+            .build();
+    }
+    
+    private BookingResponseDTO response(String pnr) {
+        return BookingResponseDTO.builder()
+            .pnrNumber(pnr)
+            .bookingStatus("CONFIRMED")
+            .build();
+    }
+}
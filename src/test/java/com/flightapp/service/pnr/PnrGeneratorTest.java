@@ -0,0 +1,181 @@
+package com.flightapp.service.pnr;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PnrGeneratorTest {
+    
+    private static final int THREADS = 8;
+    
+    @Mock
+    private PnrNodeLeaseService nodeLeaseService;
+    
+    @InjectMocks
+    private PnrGenerator pnrGenerator;
+    
+    @BeforeEach
+    public void setUp() {
+        lenient().when(nodeLeaseService.currentNodeId()).thenReturn(3);
+    }
+    
+    @Test
+    void testNextPnr_FixedLengthBase36() {
+        String pnr = pnrGenerator.nextPnr();
+        
+        assertEquals(PnrGenerator.PNR_LENGTH, pnr.length());
+        assertTrue(pnr.matches("[0-9A-Z]{10}"));
+    }
+    
+    @Test
+    void testNextId_EncodesTimestampAndNode() {
+        long before = System.currentTimeMillis() - PnrGenerator.EPOCH_MILLIS;
+        
+        long id = PnrGenerator.decode(pnrGenerator.nextPnr());
+        
+        long timestamp = id >>> (PnrGenerator.NODE_BITS + PnrGenerator.SEQUENCE_BITS);
+        assertEquals(3, (id >>> PnrGenerator.SEQUENCE_BITS) & PnrGenerator.MAX_NODE_ID);
+        assertTrue(timestamp >= before && timestamp <= before + 1000);
+    }
+    
+    @Test
+    void testNextId_SequenceOverflowBorrowsNextMillisecond() {
+        PnrGenerator generator = fixedClockGenerator(nodeLeaseService, new AtomicLong(PnrGenerator.EPOCH_MILLIS + 5000));
+        
+        long first = generator.nextId();
+        long last = first;
+        for (int i = 0; i <= PnrGenerator.SEQUENCE_MASK; i++) {
+            long next = generator.nextId();
+            assertTrue(next > last);
+            last = next;
+        }
+        
+        assertEquals(timestampOf(first) + 1, timestampOf(last));
+        assertEquals(0, last & PnrGenerator.SEQUENCE_MASK);
+    }
+    
+    @Test
+    void testNextId_ClockMovingBackwardsStaysMonotonic() {
+        AtomicLong clock = new AtomicLong(PnrGenerator.EPOCH_MILLIS + 5000);
+        PnrGenerator generator = fixedClockGenerator(nodeLeaseService, clock);
+        
+        long first = generator.nextId();
+        clock.addAndGet(-200);
+        long second = generator.nextId();
+        
+        assertTrue(second > first);
+    }
+    
+    @Test
+    void testEncodeDecode_RoundTrip() {
+        long largest = (1L << (PnrGenerator.TIMESTAMP_BITS + PnrGenerator.NODE_BITS + PnrGenerator.SEQUENCE_BITS)) - 1;
+        
+        assertEquals("0000000000", PnrGenerator.encode(0));
+        assertEquals(largest, PnrGenerator.decode(PnrGenerator.encode(largest)));
+        assertEquals(PnrGenerator.PNR_LENGTH, PnrGenerator.encode(largest).length());
+    }
+    
+    @Test
+    void testNextPnr_UniqueAcrossNodesWithSameClock() {
+        PnrNodeLeaseService otherLease = mock(PnrNodeLeaseService.class);
+        when(otherLease.currentNodeId()).thenReturn(4);
+        AtomicLong clock = new AtomicLong(PnrGenerator.EPOCH_MILLIS + 5000);
+        PnrGenerator first = fixedClockGenerator(nodeLeaseService, clock);
+        PnrGenerator second = fixedClockGenerator(otherLease, clock);
+        
+        Set<String> pnrs = ConcurrentHashMap.newKeySet();
+        for (int i = 0; i < 500; i++) {
+            assertTrue(pnrs.add(first.nextPnr()));
+            assertTrue(pnrs.add(second.nextPnr()));
+        }
+    }
+    
+    @Test
+    void testNextPnr_UniqueUnderContention() throws Exception {
+        int perThread = 10_000;
+        Set<String> pnrs = ConcurrentHashMap.newKeySet();
+        
+        runConcurrently(() -> {
+            for (int i = 0; i < perThread; i++) {
+                pnrs.add(pnrGenerator.nextPnr());
+            }
+        });
+        
+        assertEquals(THREADS * perThread, pnrs.size());
+    }
+    
+    //Run with -Dbenchmark=true
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void testNextPnr_ThroughputBenchmark() throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(3);
+        AtomicLong generated = new AtomicLong();
+        
+        long start = System.nanoTime();
+        runConcurrently(() -> {
+            long count = 0;
+            while (System.nanoTime() < deadline) {
+                pnrGenerator.nextPnr();
+                count++;
+            }
+            generated.addAndGet(count);
+        });
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        
+        //Contention must not keep the generator from using its whole sequence space, and the one
+        //second it may run ahead of the clock is all it can issue beyond that
+        long perMilli = PnrGenerator.SEQUENCE_MASK + 1;
+        assertTrue(generated.get() >= elapsedMillis * perMilli * 9 / 10,
+            "Only " + generated.get() + " PNRs in " + elapsedMillis + " ms");
+        assertTrue(generated.get() <= (elapsedMillis + 1 + 1000) * perMilli,
+            generated.get() + " PNRs in " + elapsedMillis + " ms overruns the sequence space");
+    }
+    
+    private void runConcurrently(Runnable task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                task.run();
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+    }
+    
+    private static long timestampOf(long id) {
+        return id >>> (PnrGenerator.NODE_BITS + PnrGenerator.SEQUENCE_BITS);
+    }
+    
+    private static PnrGenerator fixedClockGenerator(PnrNodeLeaseService leaseService, AtomicLong clock) {
+        return new PnrGenerator(leaseService) {
+            @Override
+            protected long currentTimeMillis() {
+                return clock.get();
+            }
+        };
+    }
+}
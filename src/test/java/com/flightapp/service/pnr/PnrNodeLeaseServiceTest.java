@@ -0,0 +1,136 @@
+package com.flightapp.service.pnr;
+
+import com.flightapp.entity.PnrNodeLease;
+import com.flightapp.repository.PnrNodeLeaseRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PnrNodeLeaseServiceTest {
+    
+    @Mock
+    private PnrNodeLeaseRepository leaseRepository;
+    
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    
+    @InjectMocks
+    private PnrNodeLeaseService leaseService;
+    
+    @BeforeEach
+    public void setUp() {
+        lenient().when(transactionTemplate.execute(any()))
+            .thenAnswer(invocation -> ((TransactionCallback<?>) invocation.getArgument(0)).doInTransaction(null));
+    }
+    
+    @Test
+    void testAcquireLease_SkipsLiveLeases() {
+        when(leaseRepository.claimExpiredLease(anyInt(), anyString(), anyLong())).thenReturn(0);
+        when(leaseRepository.existsById(0)).thenReturn(true);
+        when(leaseRepository.existsById(1)).thenReturn(false);
+        
+        leaseService.acquireLease();
+        
+        assertEquals(1, leaseService.currentNodeId());
+        verify(leaseRepository, times(1)).saveAndFlush(argThat((PnrNodeLease lease) -> lease.getNodeId() == 1));
+        verify(leaseRepository, times(1)).renewLease(eq(1), anyString(), eq(60L));
+    }
+    
+    @Test
+    void testAcquireLease_ClaimsExpiredLease() {
+        when(leaseRepository.claimExpiredLease(eq(0), anyString(), anyLong())).thenReturn(1);
+        
+        leaseService.acquireLease();
+        
+        assertEquals(0, leaseService.currentNodeId());
+        verify(leaseRepository, never()).saveAndFlush(any());
+    }
+    
+    @Test
+    void testAcquireLease_LosesInsertRace() {
+        when(leaseRepository.claimExpiredLease(anyInt(), anyString(), anyLong())).thenReturn(0);
+        when(leaseRepository.existsById(anyInt())).thenReturn(false);
+        when(leaseRepository.saveAndFlush(any(PnrNodeLease.class)))
+            .thenThrow(new DataIntegrityViolationException("duplicate"))
+            .thenAnswer(invocation -> invocation.getArgument(0));
+        
+        leaseService.acquireLease();
+        
+        assertEquals(1, leaseService.currentNodeId());
+    }
+    
+    @Test
+    void testAcquireLease_ConfiguredNodeIdSkipsTable() {
+        ReflectionTestUtils.setField(leaseService, "configuredNodeId", 7);
+        
+        leaseService.acquireLease();
+        
+        assertEquals(7, leaseService.currentNodeId());
+        verifyNoInteractions(leaseRepository);
+    }
+    
+    @Test
+    void testRenewLease_LostLeaseReacquires() {
+        when(leaseRepository.claimExpiredLease(eq(0), anyString(), anyLong())).thenReturn(1, 0);
+        when(leaseRepository.claimExpiredLease(eq(1), anyString(), anyLong())).thenReturn(1);
+        when(leaseRepository.existsById(0)).thenReturn(true);
+        when(leaseRepository.renewLease(eq(0), anyString(), anyLong())).thenReturn(0);
+        leaseService.acquireLease();
+        
+        leaseService.renewLease();
+        
+        assertEquals(1, leaseService.currentNodeId());
+    }
+    
+    @Test
+    void testRenewLease_FailedReacquireRetriedOnNextRenewal() {
+        when(leaseRepository.claimExpiredLease(eq(0), anyString(), anyLong())).thenReturn(1, 0);
+        when(leaseRepository.renewLease(eq(0), anyString(), anyLong())).thenReturn(0);
+        when(leaseRepository.existsById(0)).thenReturn(true);
+        doThrow(new IllegalStateException("db down")).doReturn(1)
+            .when(leaseRepository).claimExpiredLease(eq(1), anyString(), anyLong());
+        leaseService.acquireLease();
+        
+        leaseService.renewLease();
+        assertThrows(IllegalStateException.class, () -> leaseService.currentNodeId());
+        
+        leaseService.renewLease();
+        assertEquals(1, leaseService.currentNodeId());
+    }
+    
+    @Test
+    void testRenewLease_FailureKeepsIdUntilDeadline() {
+        when(leaseRepository.claimExpiredLease(eq(0), anyString(), anyLong())).thenReturn(1);
+        when(leaseRepository.renewLease(eq(0), anyString(), anyLong())).thenThrow(new IllegalStateException("db down"));
+        leaseService.acquireLease();
+        
+        leaseService.renewLease();
+        
+        assertEquals(0, leaseService.currentNodeId());
+    }
+    
+    @Test
+    void testCurrentNodeId_ExpiredLeaseIsNotHandedOut() {
+        when(leaseRepository.claimExpiredLease(eq(0), anyString(), anyLong())).thenReturn(1);
+        leaseService.acquireLease();
+        ReflectionTestUtils.setField(leaseService, "leaseValidUntilNanos", System.nanoTime() - 1);
+        
+        assertThrows(IllegalStateException.class, () -> leaseService.currentNodeId());
+    }
+    
+    @Test
+    void testCurrentNodeId_NotLeased() {
+        assertThrows(IllegalStateException.class, () -> leaseService.currentNodeId());
+    }
+}
@@ -0,0 +1,159 @@
+package com.flightapp.service.retry;
+
+import com.flightapp.entity.Flight;
+import com.flightapp.entity.Seat;
+import com.flightapp.exception.BookingException;
+import com.flightapp.exception.ValidationException;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.sql.SQLException;
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OptimisticRetryAspectTest {
+    
+    @Mock
+    private ProceedingJoinPoint joinPoint;
+    
+    @Mock
+    private MethodSignature signature;
+    
+    private ConflictRetryMetrics metrics;
+    private OptimisticRetryAspect aspect;
+    
+    @BeforeEach
+    public void setUp() throws NoSuchMethodException {
+        metrics = new ConflictRetryMetrics();
+        aspect = new OptimisticRetryAspect(metrics);
+        ReflectionTestUtils.setField(aspect, "maxAttempts", 3);
+        ReflectionTestUtils.setField(aspect, "initialBackoffMs", 1L);
+        ReflectionTestUtils.setField(aspect, "maxBackoffMs", 2L);
+        when(joinPoint.getSignature()).thenReturn(signature);
+        when(signature.getName()).thenReturn("bookFlight");
+        when(signature.getMethod()).thenReturn(Bookings.class.getDeclaredMethod("bookFlight"));
+    }
+    
+    @Test
+    void testRetry_SucceedsAfterConflict() throws Throwable {
+        when(joinPoint.proceed())
+            .thenThrow(new ObjectOptimisticLockingFailureException(Flight.class, 7))
+            .thenReturn("booked");
+        
+        Object result = aspect.retryOnConflict(joinPoint);
+        
+        assertEquals("booked", result);
+        verify(joinPoint, times(2)).proceed();
+        Map<String, Object> operations = (Map<String, Object>) metrics.snapshot().get("operations");
+        Map<String, Object> stats = (Map<String, Object>) operations.get("bookFlight");
+        assertEquals(2L, stats.get("attempts"));
+        assertEquals(1L, stats.get("conflicts"));
+        assertEquals(1L, stats.get("retriedCalls"));
+        Map<String, Long> hot = (Map<String, Long>) metrics.snapshot().get("hotResources");
+        assertEquals(1L, hot.get("Flight#7"));
+    }
+    
+    @Test
+    void testRetry_GivesUpAfterMaxAttempts() throws Throwable {
+        when(joinPoint.proceed()).thenThrow(new ObjectOptimisticLockingFailureException(Flight.class, 7));
+        
+        assertThrows(BookingException.class, () -> aspect.retryOnConflict(joinPoint));
+        verify(joinPoint, times(3)).proceed();
+        Map<String, Object> operations = (Map<String, Object>) metrics.snapshot().get("operations");
+        Map<String, Object> stats = (Map<String, Object>) operations.get("bookFlight");
+        assertEquals(1L, stats.get("exhausted"));
+    }
+    
+    @Test
+    void testRetry_DoesNotRetryOtherExceptions() throws Throwable {
+        when(joinPoint.proceed()).thenThrow(new IllegalStateException("boom"));
+        
+        assertThrows(IllegalStateException.class, () -> aspect.retryOnConflict(joinPoint));
+        verify(joinPoint, times(1)).proceed();
+    }
+    
+    @Test
+    void testRetry_FailureAfterConflictCountsAsOneCall() throws Throwable {
+        when(joinPoint.proceed())
+            .thenThrow(new ObjectOptimisticLockingFailureException(Flight.class, 7))
+            .thenThrow(new ValidationException("Not enough available seats for flight AI101"));
+        
+        assertThrows(ValidationException.class, () -> aspect.retryOnConflict(joinPoint));
+        Map<String, Object> operations = (Map<String, Object>) metrics.snapshot().get("operations");
+        Map<String, Object> stats = (Map<String, Object>) operations.get("bookFlight");
+        assertEquals(1L, stats.get("calls"));
+        assertEquals(2L, stats.get("attempts"));
+        assertEquals(1L, stats.get("retries"));
+        assertEquals(0.5, stats.get("conflictRate"));
+    }
+    
+    @Test
+    void testRetry_InterruptedBackoffRethrowsConflict() throws Throwable {
+        ReflectionTestUtils.setField(aspect, "initialBackoffMs", 1000L);
+        ReflectionTestUtils.setField(aspect, "maxBackoffMs", 1000L);
+        ObjectOptimisticLockingFailureException conflict = new ObjectOptimisticLockingFailureException(Flight.class, 7);
+        when(joinPoint.proceed()).thenThrow(conflict);
+        
+        Thread.currentThread().interrupt();
+        try {
+            ObjectOptimisticLockingFailureException thrown = assertThrows(ObjectOptimisticLockingFailureException.class,
+                () -> aspect.retryOnConflict(joinPoint));
+            assertSame(conflict, thrown);
+            assertTrue(Thread.currentThread().isInterrupted());
+        } finally {
+            Thread.interrupted();
+        }
+        verify(joinPoint, times(1)).proceed();
+    }
+    
+    @Test
+    void testRetry_RetriesSeatNumberCollision() throws Throwable {
+        when(joinPoint.proceed())
+            .thenThrow(violation("PUBLIC.UK_SEAT_FLIGHT_SEAT_NUMBER_INDEX_2"))
+            .thenReturn("booked");
+        
+        assertEquals("booked", aspect.retryOnConflict(joinPoint));
+        verify(joinPoint, times(2)).proceed();
+    }
+    
+    @Test
+    void testRetry_OtherIntegrityViolationsPropagate() throws Throwable {
+        DataIntegrityViolationException duplicateEmail = violation("user.uk_user_email");
+        when(joinPoint.proceed()).thenThrow(duplicateEmail);
+        
+        assertSame(duplicateEmail, assertThrows(DataIntegrityViolationException.class,
+            () -> aspect.retryOnConflict(joinPoint)));
+        verify(joinPoint, times(1)).proceed();
+    }
+    
+    @Test
+    void testRetry_UnnamedIntegrityViolationPropagates() throws Throwable {
+        when(joinPoint.proceed()).thenThrow(new DataIntegrityViolationException("Column 'email' cannot be null"));
+        
+        assertThrows(DataIntegrityViolationException.class, () -> aspect.retryOnConflict(joinPoint));
+        verify(joinPoint, times(1)).proceed();
+    }
+    
+    private static DataIntegrityViolationException violation(String constraintName) {
+        return new DataIntegrityViolationException("could not execute statement",
+            new ConstraintViolationException("could not execute statement", new SQLException("duplicate", "23505"),
+                constraintName));
+    }
+    
+    private static class Bookings {
+        
+        @RetryOnConflict(retryOnConstraints = Seat.UK_FLIGHT_SEAT_NUMBER)
+        void bookFlight() {
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.flightapp.service.search;
+
+import com.flightapp.dto.BatchSearchResultDTO;
+import com.flightapp.dto.FlightResponseDTO;
+import com.flightapp.dto.FlightSearchDTO;
+import com.flightapp.service.FlightService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BatchSearchServiceTest {
+    
+    @Mock
+    private FlightService flightService;
+    
+    @InjectMocks
+    private BatchSearchService batchSearchService;
+    
+    private LocalDate day;
+    
+    @BeforeEach
+    public void setUp() {
+        batchSearchService.startExecutor();
+        day = LocalDate.now().plusDays(3);
+    }
+    
+    @AfterEach
+    public void tearDown() {
+        batchSearchService.stopExecutor();
+    }
+    
+    @Test
+    void testSearchAll_IdenticalSearchesRunOnce() {
+        when(flightService.searchFlights(any())).thenAnswer(invocation -> {
+            FlightSearchDTO search = invocation.getArgument(0);
+            return List.of(flight(search.getArrivalCity().trim().equalsIgnoreCase("Mumbai") ? 1 : 2));
+        });
+        
+        List<BatchSearchResultDTO> results = batchSearchService.searchAll(List.of(
+            search("Delhi", "Mumbai"), search("Delhi", "Goa"), search(" delhi", "MUMBAI ")));
+        
+        assertEquals(List.of(0, 1, 2), results.stream().map(BatchSearchResultDTO::getIndex).toList());
+        assertEquals(1, results.get(0).getFlights().get(0).getFlightId());
+        assertEquals(2, results.get(1).getFlights().get(0).getFlightId());
+        assertEquals(results.get(0).getFlights(), results.get(2).getFlights());
+        verify(flightService, times(2)).searchFlights(any());
+    }
+    
+    @Test
+    void testSearchAll_ErrorsStayWithTheirSearch() {
+        when(flightService.searchFlights(argThat(search -> search != null && "Goa".equals(search.getArrivalCity()))))
+            .thenThrow(new IllegalStateException("connection reset"));
+        when(flightService.searchFlights(argThat(search -> search != null && "Mumbai".equals(search.getArrivalCity()))))
+            .thenReturn(List.of(flight(1)));
+        FlightSearchDTO undated = search("Delhi", "Pune");
+        undated.setDepartureDate(null);
+        
+        List<BatchSearchResultDTO> results = batchSearchService.searchAll(List.of(
+            search("Delhi", "Mumbai"), undated, search("Delhi", "Goa")));
+        
+        assertEquals(1, results.get(0).getFlights().size());
+        assertNull(results.get(0).getError());
+        assertEquals("Departure date is required", results.get(1).getError());
+        assertEquals("Search failed", results.get(2).getError());
+        assertNull(results.get(2).getFlights());
+    }
+    
+    @Test
+    void testSearchAll_MalformedCursorFailsOnlyItsSearch() {
+        when(flightService.searchFlights(any())).thenReturn(List.of(flight(1)));
+        FlightSearchDTO badCursor = search("Delhi", "Pune");
+        badCursor.setCursor("garbage");
+        
+        List<BatchSearchResultDTO> results = batchSearchService.searchAll(List.of(search("Delhi", "Mumbai"), badCursor));
+        
+        assertNull(results.get(0).getError());
+        assertEquals("Invalid search cursor", results.get(1).getError());
+        verify(flightService, times(1)).searchFlights(any());
+    }
+    
+    @Test
+    void testSearchAll_UnfinishedSearchesTimeOut() {
+        ReflectionTestUtils.setField(batchSearchService, "timeoutMs", 200L);
+        CountDownLatch release = new CountDownLatch(1);
+        when(flightService.searchFlights(argThat(search -> search != null && "Goa".equals(search.getArrivalCity()))))
+            .thenAnswer(invocation -> {
+                release.await(5, TimeUnit.SECONDS);
+                return List.of();
+            });
+        when(flightService.searchFlights(argThat(search -> search != null && "Mumbai".equals(search.getArrivalCity()))))
+            .thenReturn(List.of(flight(1)));
+        
+        try {
+            List<BatchSearchResultDTO> results = batchSearchService.searchAll(List.of(
+                search("Delhi", "Goa"), search("Delhi", "Mumbai")));
+            
+            assertEquals("Search timed out", results.get(0).getError());
+            assertEquals(1, results.get(1).getFlights().size());
+        } finally {
+            release.countDown();
+        }
+    }
+    
+    @Test
+    void testSearchAll_ParallelismIsBounded() {
+        ReflectionTestUtils.setField(batchSearchService, "parallelism", 2);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger mostRunning = new AtomicInteger();
+        when(flightService.searchFlights(any())).thenAnswer(invocation -> {
+            mostRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(20);
+            running.decrementAndGet();
+            return List.of();
+        });
+        
+        List<BatchSearchResultDTO> results = batchSearchService.searchAll(List.of(search("Delhi", "Goa"),
+            search("Delhi", "Pune"), search("Delhi", "Mumbai"), search("Delhi", "Chennai"),
+            search("Delhi", "Kochi"), search("Delhi", "Jaipur")));
+        
+        assertTrue(results.stream().allMatch(result -> result.getError() == null));
+        assertTrue(mostRunning.get() <= 2);
+        verify(flightService, times(6)).searchFlights(any());
+    }
+    
+    @Test
+    void testSearchAll_SaturatedPoolRejectsBatch() throws InterruptedException {
+        batchSearchService.stopExecutor();
+        ReflectionTestUtils.setField(batchSearchService, "threads", 1);
+        ReflectionTestUtils.setField(batchSearchService, "queueCapacity", 1);
+        batchSearchService.startExecutor();
+        ThreadPoolExecutor executor = (ThreadPoolExecutor) ReflectionTestUtils.getField(batchSearchService, "searchExecutor");
+        CountDownLatch release = new CountDownLatch(1);
+        executor.execute(() -> awaitQuietly(release));
+        executor.execute(() -> awaitQuietly(release));
+        
+        try {
+            List<BatchSearchResultDTO> results = batchSearchService.searchAll(List.of(
+                search("Delhi", "Goa"), search("Delhi", "Mumbai")));
+            
+            assertTrue(results.stream().allMatch(result -> "Search service is busy, try again".equals(result.getError())));
+            verifyNoInteractions(flightService);
+        } finally {
+            release.countDown();
+        }
+    }
+    
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private FlightSearchDTO search(String from, String to) {
+        return FlightSearchDTO.builder()
+            .departureCity(from)
+            .arrivalCity(to)
+            .departureDate(day)
+            .numberOfPassengers(1)
+            .build();
+    }
+    
+    private static FlightResponseDTO flight(int id) {
+        return FlightResponseDTO.builder()
+            .flightId(id)
+            .flightNumber("AI" + id)
+            .availableSeats(100)
+            .pricePerSeat(BigDecimal.valueOf(4000))
+            .build();
+    }
+}
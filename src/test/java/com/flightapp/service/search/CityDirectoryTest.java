@@ -0,0 +1,77 @@
+package com.flightapp.service.search;
+
+import com.flightapp.event.FlightAddedEvent;
+import com.flightapp.repository.FlightRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CityDirectoryTest {
+    
+    @Mock
+    private FlightRepository flightRepository;
+    
+    @InjectMocks
+    private CityDirectory cityDirectory;
+    
+    @Test
+    void testSuggest_EmptyBeforeBuild() {
+        assertTrue(cityDirectory.suggest("de", 10).isEmpty());
+    }
+    
+    @Test
+    void testSuggest_MatchesPrefixRankedByFlights() {
+        build(route("Delhi", "Mumbai", 12), route("Mumbai", "Goa", 3), route("Dehradun", "Mumbai", 2),
+            route("Madurai", "Chennai", 1), route("Mussoorie", "Delhi", 1));
+        
+        assertEquals(List.of("Mumbai", "Madurai", "Mussoorie"), cityDirectory.suggest(" M", 10));
+        assertEquals(List.of("Delhi", "Dehradun"), cityDirectory.suggest("de", 10));
+        assertEquals(List.of("Mumbai"), cityDirectory.suggest("mu", 1));
+        assertTrue(cityDirectory.suggest("x", 10).isEmpty());
+    }
+    
+    @Test
+    void testSuggest_BlankPrefixGivesMostFlownCities() {
+        build(route("Delhi", "Mumbai", 12), route("Mumbai", "Goa", 3));
+        
+        assertEquals(List.of("Mumbai", "Delhi"), cityDirectory.suggest("", 2));
+    }
+    
+    @Test
+    void testBuild_MergesCityNamesDifferingOnlyInCase() {
+        build(route("Delhi", "Mumbai", 2), route("delhi ", "Goa", 2), route("Goa", "Mumbai", 1));
+        
+        assertEquals(List.of("Delhi"), cityDirectory.suggest("del", 10));
+        assertEquals(List.of("Delhi", "Goa", "Mumbai"), cityDirectory.suggest("", 10));
+    }
+    
+    @Test
+    void testOnFlightAdded_AddsNewCityAndCountsKnownOnes() {
+        build(route("Delhi", "Mumbai", 1), route("Goa", "Mumbai", 1));
+        
+        cityDirectory.onFlightAdded(new FlightAddedEvent(9, " Guwahati", "delhi", LocalDate.now().plusDays(3)));
+        
+        assertEquals(List.of("Goa", "Guwahati"), cityDirectory.suggest("g", 10));
+        assertEquals(List.of("Delhi", "Mumbai"), cityDirectory.suggest("", 2));
+    }
+    
+    private void build(Object[]... routes) {
+        List<Object[]> activeRoutes = new ArrayList<>(List.of(routes));
+        when(flightRepository.findActiveRoutesFrom(any(LocalDateTime.class))).thenReturn(activeRoutes);
+        cityDirectory.build();
+    }
+    
+    private static Object[] route(String from, String to, long flights) {
+        return new Object[] {from, to, flights};
+    }
+}
@@ -0,0 +1,185 @@
+package com.flightapp.service.search;
+
+import com.flightapp.dto.FareCalendarDayDTO;
+import com.flightapp.dto.FlightResponseDTO;
+import com.flightapp.dto.FlightSearchDTO;
+import com.flightapp.event.FlightAddedEvent;
+import com.flightapp.event.SeatAvailabilityChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlightSearchCacheTest {
+    
+    private static final int LIMIT = 50;
+    
+    private FlightSearchCache flightSearchCache;
+    private FlightSearchDTO delhiMumbai;
+    private FlightSearchDTO delhiGoa;
+    private LocalDate day;
+    private AtomicInteger loads;
+    
+    @BeforeEach
+    public void setUp() {
+        flightSearchCache = new FlightSearchCache();
+        flightSearchCache.init();
+        day = LocalDate.now().plusDays(3);
+        delhiMumbai = FlightSearchDTO.builder().departureCity("Delhi").arrivalCity("Mumbai").departureDate(day).build();
+        delhiGoa = FlightSearchDTO.builder().departureCity("Delhi").arrivalCity("Goa").departureDate(day).build();
+        loads = new AtomicInteger();
+    }
+    
+    @Test
+    void testSearch_NormalizedQueriesShareOneEntry() {
+        flightSearchCache.search(delhiMumbai, LIMIT, loader(1, 2));
+        FlightSearchDTO sameRoute = FlightSearchDTO.builder()
+            .departureCity(" delhi ").arrivalCity("MUMBAI").departureDate(day).build();
+        
+        List<FlightResponseDTO> result = flightSearchCache.search(sameRoute, LIMIT, loader(1, 2));
+        
+        assertEquals(1, loads.get());
+        assertEquals(2, result.size());
+        assertEquals(1L, flightSearchCache.snapshot().get("hits"));
+    }
+    
+    @Test
+    void testSearch_DifferentCriteriaAreCachedSeparately() {
+        flightSearchCache.search(delhiMumbai, LIMIT, loader(1, 2));
+        delhiMumbai.setMaxPrice(new BigDecimal("4000.00"));
+        flightSearchCache.search(delhiMumbai, LIMIT, loader(2));
+        delhiMumbai.setMaxPrice(new BigDecimal("4000"));
+        flightSearchCache.search(delhiMumbai, LIMIT, loader(2));
+        flightSearchCache.search(delhiMumbai, 1, loader(2));
+        
+        assertEquals(3, loads.get());
+    }
+    
+    @Test
+    void testSearch_CallerCannotMutateCachedResult() {
+        flightSearchCache.search(delhiMumbai, LIMIT, loader(1)).get(0).setAvailableSeats(0);
+        
+        assertEquals(50, flightSearchCache.search(delhiMumbai, LIMIT, loader(1)).get(0).getAvailableSeats());
+    }
+    
+    @Test
+    void testOnSeatAvailabilityChanged_DropsOnlyListsWithThatFlight() {
+        flightSearchCache.search(delhiMumbai, LIMIT, loader(1, 2));
+        flightSearchCache.search(delhiGoa, LIMIT, loader(3));
+        
+        flightSearchCache.onSeatAvailabilityChanged(new SeatAvailabilityChangedEvent(2, -1, "Delhi", "Mumbai", day));
+        flightSearchCache.search(delhiMumbai, LIMIT, loader(1, 2));
+        flightSearchCache.search(delhiGoa, LIMIT, loader(3));
+        
+        assertEquals(3, loads.get());
+        assertEquals(1L, flightSearchCache.snapshot().get("invalidations"));
+    }
+    
+    @Test
+    void testOnSeatAvailabilityChanged_ReleasedSeatsRefreshRouteDay() {
+        //Flight 2 was sold out, so the cached list does not mention it
+        flightSearchCache.search(delhiMumbai, LIMIT, loader(1));
+        
+        flightSearchCache.onSeatAvailabilityChanged(new SeatAvailabilityChangedEvent(2, 2, "Delhi", "Mumbai", day));
+        List<FlightResponseDTO> result = flightSearchCache.search(delhiMumbai, LIMIT, loader(1, 2));
+        
+        assertEquals(2, result.size());
+        assertEquals(2, loads.get());
+    }
+    
+    @Test
+    void testOnFlightAdded_RefreshesRouteDay() {
+        flightSearchCache.search(delhiMumbai, LIMIT, loader(1));
+        
+        flightSearchCache.onFlightAdded(new FlightAddedEvent(9, "Delhi", "Mumbai", day));
+        flightSearchCache.search(delhiMumbai, LIMIT, loader(1, 9));
+        
+        assertEquals(2, loads.get());
+    }
+    
+    @Test
+    void testSearch_StaleLoadIsNotCached() {
+        flightSearchCache.search(delhiMumbai, LIMIT, () -> {
+            //A booking commits while this search is still reading
+            flightSearchCache.onSeatAvailabilityChanged(new SeatAvailabilityChangedEvent(1, -1, "Delhi", "Mumbai", day));
+            return loader(1).get();
+        });
+        flightSearchCache.search(delhiMumbai, LIMIT, loader(1));
+        
+        assertEquals(2, loads.get());
+        assertEquals(1L, flightSearchCache.snapshot().get("staleRejections"));
+    }
+    
+    @Test
+    void testSearch_SeatChangeDetachesRunningLoad() {
+        List<FlightResponseDTO> stale = flightSearchCache.search(delhiMumbai, LIMIT, () -> {
+            flightSearchCache.onSeatAvailabilityChanged(new SeatAvailabilityChangedEvent(1, -1, "Delhi", "Mumbai", day));
+            //Arriving after the commit, this search must not join the load that started before it
+            assertEquals(2, flightSearchCache.search(delhiMumbai, LIMIT, loader(1, 2)).size());
+            return loader(1).get();
+        });
+        
+        assertEquals(1, stale.size());
+        assertEquals(2, loads.get());
+        @SuppressWarnings("unchecked")
+        Map<String, Object> coalescing = (Map<String, Object>) flightSearchCache.snapshot().get("coalescing");
+        assertEquals(2L, coalescing.get("executions"));
+    }
+    
+    @Test
+    void testFareCalendar_CachedPerWindowAndDroppedByAnySeatChangeInIt() {
+        Supplier<List<FareCalendarDayDTO>> calendar = () -> {
+            loads.incrementAndGet();
+            return List.of(new FareCalendarDayDTO(day, new BigDecimal("4100.00"), 2L));
+        };
+        flightSearchCache.fareCalendar("Delhi", "Mumbai", day.minusDays(3), day.plusDays(3), 1, calendar);
+        List<FareCalendarDayDTO> cached = flightSearchCache.fareCalendar(" delhi", "MUMBAI", day.minusDays(3),
+            day.plusDays(3), 1, calendar);
+        cached.get(0).setFlightCount(99L);
+        assertEquals(1, loads.get());
+        
+        flightSearchCache.onSeatAvailabilityChanged(new SeatAvailabilityChangedEvent(7, -1, "Delhi", "Goa", day));
+        flightSearchCache.fareCalendar("Delhi", "Mumbai", day.minusDays(3), day.plusDays(3), 1, calendar);
+        assertEquals(1, loads.get());
+        
+        //The cheapest flight on a covered day may just have sold out
+        flightSearchCache.onSeatAvailabilityChanged(new SeatAvailabilityChangedEvent(1, -1, "Delhi", "Mumbai",
+            day.plusDays(2)));
+        List<FareCalendarDayDTO> reloaded = flightSearchCache.fareCalendar("Delhi", "Mumbai", day.minusDays(3),
+            day.plusDays(3), 1, calendar);
+        assertEquals(2, loads.get());
+        assertEquals(2L, reloaded.get(0).getFlightCount());
+    }
+    
+    @Test
+    void testEstimateBytes_GrowsWithResults() {
+        FlightSearchCache.SearchKey key = FlightSearchCache.SearchKey.of(
+            FlightSearchCache.RouteDay.of("Delhi", "Mumbai", day), delhiMumbai, LIMIT);
+        
+        assertTrue(FlightSearchCache.estimateBytes(key, loader(1, 2).get())
+            > FlightSearchCache.estimateBytes(key, loader(1).get()));
+    }
+    
+    private Supplier<List<FlightResponseDTO>> loader(Integer... flightIds) {
+        return () -> {
+            loads.incrementAndGet();
+            return Arrays.stream(flightIds)
+                .map(id -> FlightResponseDTO.builder()
+                    .flightId(id)
+                    .flightNumber("AI10" + id)
+                    .airlineName("Air India")
+                    .departureCity("Delhi")
+                    .arrivalCity("Mumbai")
+                    .availableSeats(50)
+                    .build())
+                .collect(Collectors.toList());
+        };
+    }
+}
@@ -0,0 +1,314 @@
+package com.flightapp.service.search;
+
+import com.flightapp.dto.DestinationFareDTO;
+import com.flightapp.dto.FareCalendarDayDTO;
+import com.flightapp.dto.FlightResponseDTO;
+import com.flightapp.dto.FlightSearchDTO;
+import com.flightapp.dto.FlightSortOrder;
+import com.flightapp.dto.SearchCursor;
+import com.flightapp.entity.Airline;
+import com.flightapp.entity.Flight;
+import com.flightapp.event.FlightAddedEvent;
+import com.flightapp.event.SeatAvailabilityChangedEvent;
+import com.flightapp.repository.FlightRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FlightSearchIndexTest {
+    
+    @Mock
+    private FlightRepository flightRepository;
+    
+    @InjectMocks
+    private FlightSearchIndex flightSearchIndex;
+    
+    private Airline airline;
+    private LocalDate day;
+    
+    @BeforeEach
+    public void setUp() {
+        airline = Airline.builder().airlineId(1).airlineName("Air India").airlineCode("AI").build();
+        day = LocalDate.now().plusDays(3);
+    }
+    
+    @Test
+    void testSearch_ColdIndexDefersToDatabase() {
+        assertTrue(search("Delhi", "Mumbai", day).isEmpty());
+        assertFalse(flightSearchIndex.isWarm());
+    }
+    
+    @Test
+    void testSearch_ReturnsRouteDaySortedByDeparture() {
+        when(flightRepository.findActiveDepartingFrom(any(LocalDateTime.class))).thenReturn(List.of(
+            flight(1, "AI101", "Delhi", "Mumbai", day.atTime(18, 30), "5400.50"),
+            flight(2, "AI102", "Delhi", "Mumbai", day.atTime(6, 15), "4200.00"),
+            flight(3, "AI103", "Delhi", "Mumbai", day.plusDays(1).atTime(6, 15), "4200.00"),
+            flight(4, "AI104", "Delhi", "Chennai", day.atTime(9, 0), "3900.00")));
+        flightSearchIndex.build();
+        
+        List<FlightResponseDTO> results = search("Delhi", "Mumbai", day).orElseThrow();
+        
+        assertEquals(List.of("AI102", "AI101"), results.stream().map(FlightResponseDTO::getFlightNumber).toList());
+        assertEquals(new BigDecimal("5400.50"), results.get(1).getPricePerSeat());
+        assertEquals("Air India", results.get(0).getAirlineName());
+    }
+    
+    @Test
+    void testSearch_CityNamesIgnoreCaseAndUnknownRoutesAreEmpty() {
+        when(flightRepository.findActiveDepartingFrom(any(LocalDateTime.class)))
+            .thenReturn(List.of(flight(1, "AI101", "Delhi", "Mumbai", day.atTime(10, 0), "5000")));
+        flightSearchIndex.build();
+        
+        assertEquals(1, search(" delhi", "MUMBAI", day).orElseThrow().size());
+        assertEquals(Optional.of(List.of()), search("Delhi", "Goa", day));
+        assertTrue(search("Delhi", "Mumbai", LocalDate.now().minusDays(1)).isEmpty());
+    }
+    
+    @Test
+    void testOnSeatAvailabilityChanged_HidesSoldOutFlights() {
+        when(flightRepository.findActiveDepartingFrom(any(LocalDateTime.class)))
+            .thenReturn(List.of(flight(1, "AI101", "Delhi", "Mumbai", day.atTime(10, 0), "5000")));
+        flightSearchIndex.build();
+        
+        flightSearchIndex.onSeatAvailabilityChanged(new SeatAvailabilityChangedEvent(1, -150, "Delhi", "Mumbai", day));
+        assertTrue(search("Delhi", "Mumbai", day).orElseThrow().isEmpty());
+        
+        flightSearchIndex.onSeatAvailabilityChanged(new SeatAvailabilityChangedEvent(1, 2, "Delhi", "Mumbai", day));
+        assertEquals(2, search("Delhi", "Mumbai", day).orElseThrow().get(0).getAvailableSeats());
+    }
+    
+    @Test
+    void testOnFlightAdded_IndexesNewFlight() {
+        when(flightRepository.findActiveDepartingFrom(any(LocalDateTime.class))).thenReturn(List.of());
+        when(flightRepository.findWithAirline(5))
+            .thenReturn(Optional.of(flight(5, "AI105", "Pune", "Goa", day.atTime(7, 45), "2500")));
+        flightSearchIndex.build();
+        
+        flightSearchIndex.onFlightAdded(new FlightAddedEvent(5, "Pune", "Goa", day));
+        
+        List<FlightResponseDTO> results = search("Pune", "Goa", day).orElseThrow();
+        assertEquals(1, results.size());
+        assertEquals(5, results.get(0).getFlightId());
+    }
+    
+    @Test
+    void testReload_PicksUpFlightsWrittenElsewhere() {
+        when(flightRepository.findActiveDepartingFrom(any(LocalDateTime.class))).thenReturn(List.of(
+            flight(1, "AI101", "Delhi", "Mumbai", day.atTime(10, 0), "5000")));
+        flightSearchIndex.build();
+        Flight cancelled = flight(1, "AI101", "Delhi", "Mumbai", day.atTime(10, 0), "5000");
+        cancelled.setIsActive(false);
+        when(flightRepository.findChangedSince(any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(List.of(
+            cancelled,
+            flight(2, "AI102", "Delhi", "Mumbai", day.atTime(12, 0), "4500")));
+        
+        flightSearchIndex.reload();
+        
+        assertEquals(List.of("AI102"), numbers(search("Delhi", "Mumbai", day)));
+        assertEquals(new BigDecimal("4500.00"), cheapestFromDelhi().get(0).getCheapestPricePerSeat());
+    }
+    
+    @Test
+    void testOnSeatAvailabilityChanged_DeltaDuringReloadLandsOnReindexedFlight() throws Exception {
+        when(flightRepository.findActiveDepartingFrom(any(LocalDateTime.class)))
+            .thenReturn(List.of(flight(1, "AI101", "Delhi", "Mumbai", day.atTime(10, 0), "5000")));
+        flightSearchIndex.build();
+        //A booking commits while the reload is reading rows that predate it
+        Thread booking = new Thread(() -> flightSearchIndex.onSeatAvailabilityChanged(
+            new SeatAvailabilityChangedEvent(1, -2, "Delhi", "Mumbai", day)));
+        when(flightRepository.findChangedSince(any(LocalDateTime.class), any(LocalDateTime.class))).thenAnswer(invocation -> {
+            booking.start();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (booking.getState() != Thread.State.BLOCKED && booking.isAlive() && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            return List.of(flight(1, "AI101", "Delhi", "Mumbai", day.atTime(10, 0), "5000"));
+        });
+        
+        flightSearchIndex.reload();
+        booking.join(TimeUnit.SECONDS.toMillis(5));
+        
+        assertEquals(148, search("Delhi", "Mumbai", day).orElseThrow().get(0).getAvailableSeats());
+    }
+    
+    @Test
+    void testEvictBefore_DropsDepartedDays() {
+        when(flightRepository.findActiveDepartingFrom(any(LocalDateTime.class))).thenReturn(List.of(
+            flight(1, "AI101", "Delhi", "Mumbai", day.atTime(10, 0), "5000"),
+            flight(2, "AI102", "Delhi", "Mumbai", day.plusDays(1).atTime(10, 0), "4000")));
+        flightSearchIndex.build();
+        
+        flightSearchIndex.evictBefore(day.plusDays(1));
+        
+        assertTrue(search("Delhi", "Mumbai", day).isEmpty());
+        assertEquals(List.of("AI102"), numbers(search("Delhi", "Mumbai", day.plusDays(1))));
+        assertEquals(day.plusDays(1), flightSearchIndex.cheapestDestinations("Delhi", day.plusDays(1), day.plusDays(2))
+            .orElseThrow().get(0).getDate());
+    }
+    
+    @Test
+    void testSearch_AppliesCriteriaSortAndLimit() {
+        Airline indigo = Airline.builder().airlineId(2).airlineName("IndiGo").airlineCode("6E").build();
+        Flight cheapIndigo = flight(3, "6E103", "Delhi", "Mumbai", day.atTime(12, 0), "3100");
+        cheapIndigo.setAirline(indigo);
+        Flight almostFull = flight(4, "AI104", "Delhi", "Mumbai", day.atTime(13, 0), "3000");
+        almostFull.setAvailableSeats(1);
+        when(flightRepository.findActiveDepartingFrom(any(LocalDateTime.class))).thenReturn(List.of(
+            flight(1, "AI101", "Delhi", "Mumbai", day.atTime(6, 0), "4500"),
+            flight(2, "AI102", "Delhi", "Mumbai", day.atTime(9, 30), "3500"),
+            cheapIndigo,
+            almostFull,
+            flight(5, "AI105", "Delhi", "Mumbai", day.atTime(21, 0), "2900")));
+        flightSearchIndex.build();
+        
+        FlightSearchDTO criteria = criteria("Delhi", "Mumbai", day).numberOfPassengers(2)
+            .maxPrice(new BigDecimal("4000")).departureTimeFrom(LocalTime.of(9, 0))
+            .departureTimeTo(LocalTime.of(20, 0)).sortBy(FlightSortOrder.PRICE).build();
+        assertEquals(List.of("6E103", "AI102"), numbers(flightSearchIndex.search(criteria, 10)));
+        assertEquals(List.of("6E103"), numbers(flightSearchIndex.search(criteria, 1)));
+        
+        criteria.setAirlineCode("ai");
+        assertEquals(List.of("AI102"), numbers(flightSearchIndex.search(criteria, 10)));
+    }
+    
+    @Test
+    void testSearch_ResumesAfterCursor() {
+        when(flightRepository.findActiveDepartingFrom(any(LocalDateTime.class))).thenReturn(List.of(
+            flight(1, "AI101", "Delhi", "Mumbai", day.atTime(6, 0), "5000"),
+            flight(2, "AI102", "Delhi", "Mumbai", day.atTime(9, 0), "5000"),
+            flight(3, "AI103", "Delhi", "Mumbai", day.atTime(9, 0), "5000")));
+        flightSearchIndex.build();
+        
+        FlightSearchDTO afterSecond = criteria("Delhi", "Mumbai", day)
+            .cursor(new SearchCursor(day.atTime(9, 0), 2).encode()).build();
+        
+        assertEquals(List.of("AI103"), numbers(flightSearchIndex.search(afterSecond, 50)));
+    }
+    
+    @Test
+    void testSearch_PagesFlightsInTheSameMinuteInCursorOrder() {
+        //Same minute, but the lower ID departs later: the cursor orders by full time, so must the index
+        when(flightRepository.findActiveDepartingFrom(any(LocalDateTime.class))).thenReturn(List.of(
+            flight(1, "AI101", "Delhi", "Mumbai", day.atTime(9, 0, 30), "5000"),
+            flight(2, "AI102", "Delhi", "Mumbai", day.atTime(9, 0, 10), "5000")));
+        flightSearchIndex.build();
+        
+        List<FlightResponseDTO> firstPage = flightSearchIndex.search(criteria("Delhi", "Mumbai", day).build(), 1)
+            .orElseThrow();
+        FlightSearchDTO nextPage = criteria("Delhi", "Mumbai", day)
+            .cursor(SearchCursor.after(firstPage.get(0)).encode()).build();
+        
+        assertEquals("AI102", firstPage.get(0).getFlightNumber());
+        assertEquals(List.of("AI101"), numbers(flightSearchIndex.search(nextPage, 1)));
+    }
+    
+    @Test
+    void testFareCalendar_CheapestBookableFarePerDay() {
+        when(flightRepository.findActiveDepartingFrom(any(LocalDateTime.class))).thenReturn(List.of(
+            flight(1, "AI101", "Delhi", "Mumbai", day.atTime(6, 0), "5200.00"),
+            flight(2, "AI102", "Delhi", "Mumbai", day.atTime(9, 0), "4100.00"),
+            flight(3, "AI103", "Delhi", "Mumbai", day.plusDays(2).atTime(9, 0), "3900.00"),
+            flight(4, "AI104", "Delhi", "Goa", day.plusDays(1).atTime(9, 0), "1500.00")));
+        flightSearchIndex.build();
+        flightSearchIndex.onSeatAvailabilityChanged(new SeatAvailabilityChangedEvent(2, -150, "Delhi", "Mumbai", day));
+        
+        List<FareCalendarDayDTO> days = flightSearchIndex.fareCalendar("delhi", "Mumbai", day, day.plusDays(3), 1)
+            .orElseThrow();
+        
+        assertEquals(List.of(day, day.plusDays(2)), days.stream().map(FareCalendarDayDTO::getDate).toList());
+        assertEquals(new BigDecimal("5200.00"), days.get(0).getCheapestPricePerSeat());
+        assertEquals(1L, days.get(0).getFlightCount());
+        assertTrue(flightSearchIndex.fareCalendar("Delhi", "Mumbai", LocalDate.now().minusDays(1), day, 1).isEmpty());
+    }
+    
+    @Test
+    void testCheapestDestinations_CheapestBookableDayPerDestination() {
+        when(flightRepository.findActiveDepartingFrom(any(LocalDateTime.class))).thenReturn(List.of(
+            flight(1, "AI101", "Delhi", "Mumbai", day.atTime(6, 0), "5200.00"),
+            flight(2, "AI102", "Delhi", "Mumbai", day.plusDays(1).atTime(9, 0), "4100.00"),
+            flight(3, "AI103", "Delhi", "goa", day.atTime(9, 0), "3900.00"),
+            flight(4, "AI104", "Delhi", "Goa", day.plusDays(2).atTime(9, 0), "3900.00"),
+            flight(5, "AI105", "Delhi", "Pune", day.plusDays(9).atTime(9, 0), "1500.00"),
+            flight(6, "AI106", "Mumbai", "Delhi", day.atTime(9, 0), "1000.00")));
+        flightSearchIndex.build();
+        
+        List<DestinationFareDTO> destinations = flightSearchIndex.cheapestDestinations("delhi", day, day.plusDays(5))
+            .orElseThrow();
+        
+        assertEquals(List.of("goa", "Mumbai"), destinations.stream().map(DestinationFareDTO::getArrivalCity).toList());
+        assertEquals(day, destinations.get(0).getDate());
+        assertEquals(new BigDecimal("4100.00"), destinations.get(1).getCheapestPricePerSeat());
+        assertEquals(day.plusDays(1), destinations.get(1).getDate());
+        assertTrue(flightSearchIndex.cheapestDestinations("Atlantis", day, day.plusDays(5)).orElseThrow().isEmpty());
+    }
+    
+    @Test
+    void testCheapestDestinations_FollowsSellOutsAndRepricing() {
+        when(flightRepository.findActiveDepartingFrom(any(LocalDateTime.class))).thenReturn(List.of(
+            flight(1, "AI101", "Delhi", "Mumbai", day.atTime(6, 0), "5200.00"),
+            flight(2, "AI102", "Delhi", "Mumbai", day.atTime(9, 0), "4100.00")));
+        flightSearchIndex.build();
+        
+        flightSearchIndex.onSeatAvailabilityChanged(new SeatAvailabilityChangedEvent(2, -150, "Delhi", "Mumbai", day));
+        assertEquals(new BigDecimal("5200.00"), cheapestFromDelhi().get(0).getCheapestPricePerSeat());
+        
+        flightSearchIndex.onSeatAvailabilityChanged(new SeatAvailabilityChangedEvent(1, -150, "Delhi", "Mumbai", day));
+        assertTrue(cheapestFromDelhi().isEmpty());
+        
+        //A re-indexed flight carries its new fare
+        when(flightRepository.findWithAirline(1))
+            .thenReturn(Optional.of(flight(1, "AI101", "Delhi", "Mumbai", day.atTime(6, 0), "3000.00")));
+        flightSearchIndex.onFlightAdded(new FlightAddedEvent(1, "Delhi", "Mumbai", day));
+        assertEquals(new BigDecimal("3000.00"), cheapestFromDelhi().get(0).getCheapestPricePerSeat());
+        
+        flightSearchIndex.onSeatAvailabilityChanged(new SeatAvailabilityChangedEvent(2, 1, "Delhi", "Mumbai", day));
+        assertEquals(new BigDecimal("3000.00"), cheapestFromDelhi().get(0).getCheapestPricePerSeat());
+    }
+    
+    private List<DestinationFareDTO> cheapestFromDelhi() {
+        return flightSearchIndex.cheapestDestinations("Delhi", day, day).orElseThrow();
+    }
+    
+    private Optional<List<FlightResponseDTO>> search(String from, String to, LocalDate date) {
+        return flightSearchIndex.search(criteria(from, to, date).build(), 50);
+    }
+    
+    private static FlightSearchDTO.FlightSearchDTOBuilder criteria(String from, String to, LocalDate date) {
+        return FlightSearchDTO.builder().departureCity(from).arrivalCity(to).departureDate(date);
+    }
+    
+    private static List<String> numbers(Optional<List<FlightResponseDTO>> results) {
+        return results.orElseThrow().stream().map(FlightResponseDTO::getFlightNumber).toList();
+    }
+    
+    private Flight flight(int id, String number, String from, String to, LocalDateTime departure, String price) {
+        return Flight.builder()
+            .flightId(id)
+            .flightNumber(number)
+            .airline(airline)
+            .departureCity(from)
+            .arrivalCity(to)
+            .departureTime(departure)
+            .arrivalTime(departure.plusHours(2))
+            .totalSeats(180)
+            .availableSeats(150)
+            .pricePerSeat(new BigDecimal(price))
+            .isActive(true)
+            .build();
+    }
+}
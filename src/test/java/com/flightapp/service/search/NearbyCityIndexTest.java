@@ -0,0 +1,110 @@
+package com.flightapp.service.search;
+
+import com.flightapp.entity.Airport;
+import com.flightapp.repository.AirportRepository;
+import com.flightapp.validation.SearchLimits;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NearbyCityIndexTest {
+    
+    @Mock
+    private AirportRepository airportRepository;
+    
+    @InjectMocks
+    private NearbyCityIndex nearbyCityIndex;
+    
+    @Test
+    void testCitiesNear_NearestFirstWithinRadius() {
+        build(airport("DEL", "Delhi", 28.5562, 77.1000),
+            airport("HDO", "Ghaziabad", 28.7075, 77.3589),
+            airport("JAI", "Jaipur", 26.8242, 75.8122),
+            airport("BOM", "Mumbai", 19.0896, 72.8656));
+        
+        assertEquals(List.of("Delhi", "Ghaziabad"), nearbyCityIndex.citiesNear("Delhi", 50));
+        assertEquals(List.of("delhi ", "Ghaziabad", "Jaipur"), nearbyCityIndex.citiesNear("delhi ", 300));
+        assertEquals(List.of("Delhi"), nearbyCityIndex.citiesNear("Delhi", 0));
+    }
+    
+    @Test
+    void testCitiesNear_UnknownCityOnlyMatchesItself() {
+        build(airport("DEL", "Delhi", 28.5562, 77.1000));
+        
+        assertEquals(List.of("Atlantis"), nearbyCityIndex.citiesNear("Atlantis", 500));
+    }
+    
+    @Test
+    void testCitiesNear_AnyAirportOfTheCityCounts() {
+        build(airport("BOM", "Mumbai", 19.0896, 72.8656),
+            airport("NMI", "Mumbai", 18.9900, 73.0700),
+            airport("PNQ", "Pune", 18.5822, 73.9197));
+        
+        //Pune is about 125 km from BOM but only about 100 km from the second airport
+        assertEquals(List.of("Mumbai", "Pune"), nearbyCityIndex.citiesNear("Mumbai", 110));
+    }
+    
+    @Test
+    void testCitiesNear_AcrossTheDateLine() {
+        build(airport("AAA", "East", 0, 179.9), airport("BBB", "West", 0, -179.9));
+        
+        assertEquals(List.of("East", "West"), nearbyCityIndex.citiesNear("East", 50));
+    }
+    
+    @Test
+    void testCitiesNear_MatchesBruteForce() {
+        Random random = new Random(42);
+        List<Airport> airports = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            airports.add(airport("A" + i, "City" + i, random.nextDouble() * 40 + 5, random.nextDouble() * 40 + 65));
+        }
+        build(airports.toArray(new Airport[0]));
+        
+        for (int i = 0; i < 50; i++) {
+            Airport origin = airports.get(random.nextInt(airports.size()));
+            Set<String> expected = new HashSet<>();
+            for (Airport other : airports) {
+                if (other != origin && kilometres(origin, other) <= 150) {
+                    expected.add(other.getCity());
+                }
+            }
+            List<String> found = nearbyCityIndex.citiesNear(origin.getCity(), 150);
+            
+            assertEquals(origin.getCity(), found.get(0));
+            if (expected.size() < SearchLimits.MAX_CITIES) {
+                assertEquals(expected, new HashSet<>(found.subList(1, found.size())));
+            } else {
+                assertTrue(expected.containsAll(found.subList(1, found.size())));
+            }
+        }
+    }
+    
+    private void build(Airport... airports) {
+        when(airportRepository.findByIsActiveTrue()).thenReturn(List.of(airports));
+        nearbyCityIndex.build();
+    }
+    
+    private static double kilometres(Airport a, Airport b) {
+        double lat1 = Math.toRadians(a.getLatitude());
+        double lat2 = Math.toRadians(b.getLatitude());
+        double dLat = lat2 - lat1;
+        double dLon = Math.toRadians(b.getLongitude() - a.getLongitude());
+        double h = Math.pow(Math.sin(dLat / 2), 2) + Math.cos(lat1) * Math.cos(lat2) * Math.pow(Math.sin(dLon / 2), 2);
+        return 2 * 6371.0 * Math.asin(Math.sqrt(h));
+    }
+    
+    private static Airport airport(String code, String city, double latitude, double longitude) {
+        return Airport.builder().airportCode(code).airportName(city + " Airport").city(city)
+            .latitude(latitude).longitude(longitude).isActive(true).build();
+    }
+}
@@ -0,0 +1,175 @@
+package com.flightapp.service.search;
+
+import com.flightapp.dto.FlightResponseDTO;
+import com.flightapp.dto.FlightSearchDTO;
+import com.flightapp.dto.FlightSortOrder;
+import com.flightapp.dto.RoundTripItineraryDTO;
+import com.flightapp.exception.ValidationException;
+import com.flightapp.service.FlightService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RoundTripSearchServiceTest {
+    
+    @Mock
+    private FlightService flightService;
+    
+    @InjectMocks
+    private RoundTripSearchService roundTripSearchService;
+    
+    private FlightSearchDTO searchDTO;
+    private LocalDate outboundDay;
+    private LocalDate returnDay;
+    
+    @BeforeEach
+    public void setUp() {
+        roundTripSearchService.startExecutor();
+        outboundDay = LocalDate.now().plusDays(3);
+        returnDay = outboundDay.plusDays(4);
+        searchDTO = FlightSearchDTO.builder()
+            .departureCity("Delhi")
+            .arrivalCity("Mumbai")
+            .departureDate(outboundDay)
+            .returnDate(returnDay)
+            .numberOfPassengers(2)
+            .tripType("ROUND_TRIP")
+            .build();
+    }
+    
+    @AfterEach
+    public void tearDown() {
+        roundTripSearchService.stopExecutor();
+    }
+    
+    @Test
+    void testSearchRoundTrip_PairsSortedByCombinedPrice() {
+        when(flightService.searchFlights(argThat(leg -> leg != null && "Delhi".equals(leg.getDepartureCity()))))
+            .thenReturn(List.of(flight(1, outboundDay, 9, 7000), flight(2, outboundDay, 12, 4000)));
+        when(flightService.searchFlights(argThat(leg -> leg != null && "Mumbai".equals(leg.getDepartureCity()))))
+            .thenReturn(List.of(flight(3, returnDay, 8, 3000), flight(4, returnDay, 18, 5500)));
+        
+        List<RoundTripItineraryDTO> itineraries = roundTripSearchService.searchRoundTrip(searchDTO);
+        
+        assertEquals(List.of("2-3", "2-4", "1-3", "1-4"), pairIds(itineraries));
+        assertEquals(0, new BigDecimal("7000").compareTo(itineraries.get(0).getCombinedPricePerSeat()));
+    }
+    
+    @Test
+    void testSearchRoundTrip_LegsKeepFiltersAndSortByPrice() {
+        searchDTO.setMaxPrice(new BigDecimal("6000"));
+        searchDTO.setAirlineCode("AI");
+        when(flightService.searchFlights(any())).thenReturn(List.of());
+        
+        roundTripSearchService.searchRoundTrip(searchDTO);
+        
+        ArgumentCaptor<FlightSearchDTO> legs = ArgumentCaptor.forClass(FlightSearchDTO.class);
+        verify(flightService, times(2)).searchFlights(legs.capture());
+        FlightSearchDTO inbound = legs.getAllValues().stream()
+            .filter(leg -> "Mumbai".equals(leg.getDepartureCity()))
+            .findFirst().orElseThrow();
+        assertEquals("Delhi", inbound.getArrivalCity());
+        assertEquals(returnDay, inbound.getDepartureDate());
+        assertEquals(2, inbound.getNumberOfPassengers());
+        assertEquals("AI", inbound.getAirlineCode());
+        assertEquals(FlightSortOrder.PRICE, inbound.getSortBy());
+        assertTrue(legs.getAllValues().stream().allMatch(leg -> new BigDecimal("6000").equals(leg.getMaxPrice())));
+    }
+    
+    @Test
+    void testSearchRoundTrip_CapsCombinations() {
+        searchDTO.setMaxCombinations(3);
+        List<FlightResponseDTO> outbound = List.of(flight(1, outboundDay, 6, 3000), flight(2, outboundDay, 7, 3100),
+            flight(3, outboundDay, 8, 3200));
+        List<FlightResponseDTO> inbound = List.of(flight(4, returnDay, 6, 2000), flight(5, returnDay, 7, 2100),
+            flight(6, returnDay, 8, 2200));
+        when(flightService.searchFlights(argThat(leg -> leg != null && "Delhi".equals(leg.getDepartureCity()))))
+            .thenReturn(outbound);
+        when(flightService.searchFlights(argThat(leg -> leg != null && "Mumbai".equals(leg.getDepartureCity()))))
+            .thenReturn(inbound);
+        
+        List<RoundTripItineraryDTO> itineraries = roundTripSearchService.searchRoundTrip(searchDTO);
+        
+        assertEquals(3, itineraries.size());
+        assertEquals("1-4", pairIds(itineraries).get(0));
+        assertEquals(0, new BigDecimal("5100").compareTo(itineraries.get(2).getCombinedPricePerSeat()));
+    }
+    
+    @Test
+    void testCheapestPairs_SameDayReturnMustLeaveAfterArrival() {
+        LocalDate day = outboundDay;
+        List<FlightResponseDTO> outbound = List.of(flight(1, day, 9, 3000));
+        List<FlightResponseDTO> inbound = List.of(flight(2, day, 10, 1000), flight(3, day, 18, 2000));
+        
+        List<RoundTripItineraryDTO> itineraries = RoundTripSearchService.cheapestPairs(outbound, inbound, 10);
+        
+        assertEquals(List.of("1-3"), pairIds(itineraries));
+    }
+    
+    @Test
+    void testCheapestPairs_EmptyLegGivesNoItineraries() {
+        List<RoundTripItineraryDTO> itineraries = RoundTripSearchService.cheapestPairs(
+            List.of(flight(1, outboundDay, 9, 3000)), List.of(), 10);
+        
+        assertTrue(itineraries.isEmpty());
+    }
+    
+    @Test
+    void testSearchRoundTrip_RunsLegsConcurrently() {
+        CountDownLatch bothLegsStarted = new CountDownLatch(2);
+        when(flightService.searchFlights(any())).thenAnswer(invocation -> {
+            bothLegsStarted.countDown();
+            //Each leg only finishes once the other one is running too
+            if (!bothLegsStarted.await(5, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Legs were not searched concurrently");
+            }
+            FlightSearchDTO leg = invocation.getArgument(0);
+            return List.of(flight(leg.getDepartureCity().equals("Delhi") ? 1 : 2, leg.getDepartureDate(), 9, 3000));
+        });
+        
+        List<RoundTripItineraryDTO> itineraries = roundTripSearchService.searchRoundTrip(searchDTO);
+        
+        assertEquals(List.of("1-2"), pairIds(itineraries));
+    }
+    
+    @Test
+    void testSearchRoundTrip_LegFailureIsRethrown() {
+        when(flightService.searchFlights(any())).thenThrow(new ValidationException("Departure date cannot be in the past"));
+        
+        assertThrows(ValidationException.class, () -> roundTripSearchService.searchRoundTrip(searchDTO));
+    }
+    
+    private static FlightResponseDTO flight(int id, LocalDate day, int departureHour, int price) {
+        LocalDateTime departure = day.atTime(departureHour, 0);
+        return FlightResponseDTO.builder()
+            .flightId(id)
+            .flightNumber("AI" + id)
+            .departureTime(departure)
+            .arrivalTime(departure.plusHours(2))
+            .availableSeats(100)
+            .pricePerSeat(BigDecimal.valueOf(price))
+            .build();
+    }
+    
+    private static List<String> pairIds(List<RoundTripItineraryDTO> itineraries) {
+        return itineraries.stream()
+            .map(itinerary -> itinerary.getOutbound().getFlightId() + "-" + itinerary.getInbound().getFlightId())
+            .collect(Collectors.toList());
+    }
+}
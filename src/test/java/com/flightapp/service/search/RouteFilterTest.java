@@ -0,0 +1,105 @@
+package com.flightapp.service.search;
+
+import com.flightapp.event.FlightAddedEvent;
+import com.flightapp.repository.FlightRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RouteFilterTest {
+    
+    @Mock
+    private FlightRepository flightRepository;
+    
+    @InjectMocks
+    private RouteFilter routeFilter;
+    
+    @Test
+    void testRulesOut_ColdFilterRulesOutNothing() {
+        assertFalse(routeFilter.rulesOut("Delhi", "Atlantis"));
+        assertEquals(false, routeFilter.snapshot().get("warm"));
+    }
+    
+    @Test
+    void testRulesOut_UnservedPairIsRuledOutAndServedPairIsNot() {
+        build(route("Delhi", "Mumbai"), route("Mumbai", "Goa"));
+        
+        assertFalse(routeFilter.rulesOut(" delhi", "MUMBAI"));
+        assertFalse(routeFilter.rulesOut("Mumbai", "Goa"));
+        assertTrue(routeFilter.rulesOut("Goa", "Mumbai"));
+        assertTrue(routeFilter.rulesOut("Delhi", "Dlehi"));
+        assertFalse(routeFilter.rulesOut(null, "Goa"));
+        
+        Map<String, Object> stats = routeFilter.snapshot();
+        assertEquals(2, stats.get("routes"));
+        assertEquals(4L, stats.get("checks"));
+        assertEquals(2L, stats.get("ruledOut"));
+        assertTrue((Double) stats.get("falsePositiveRate") < 0.01);
+    }
+    
+    @Test
+    void testOnFlightAdded_NewRouteIsServed() {
+        build(route("Delhi", "Mumbai"));
+        assertTrue(routeFilter.rulesOut("Delhi", "Goa"));
+        
+        routeFilter.onFlightAdded(new FlightAddedEvent(9, "Delhi", "Goa", LocalDate.now().plusDays(3)));
+        
+        assertFalse(routeFilter.rulesOut("Delhi", "Goa"));
+    }
+    
+    @Test
+    void testOnFlightAdded_RebuildsOncePastCapacity() {
+        build(route("Delhi", "Mumbai"));
+        //A few new routes are false positives and never counted, so go comfortably past capacity
+        for (int i = 0; i < 1100; i++) {
+            routeFilter.onFlightAdded(new FlightAddedEvent(i, "Delhi", "City" + i, LocalDate.now()));
+        }
+        
+        verify(flightRepository, times(2)).findActiveRoutesFrom(any(LocalDateTime.class));
+    }
+    
+    @Test
+    void testReload_AddsRoutesWrittenElsewhere() {
+        build(route("Delhi", "Mumbai"));
+        assertTrue(routeFilter.rulesOut("Pune", "Goa"));
+        List<Object[]> changed = new ArrayList<>();
+        changed.add(route("Pune", "Goa"));
+        when(flightRepository.findActiveRoutesChangedSince(any(LocalDateTime.class), any(LocalDateTime.class)))
+            .thenReturn(changed);
+        
+        routeFilter.reload();
+        
+        assertFalse(routeFilter.rulesOut("Pune", "Goa"));
+        assertEquals(2, routeFilter.snapshot().get("routes"));
+    }
+    
+    @Test
+    void testOnFlightAdded_KnownRouteIsNotCountedAgain() {
+        build(route("Delhi", "Mumbai"));
+        
+        routeFilter.onFlightAdded(new FlightAddedEvent(9, "Delhi", "Mumbai", LocalDate.now().plusDays(3)));
+        
+        assertEquals(1, routeFilter.snapshot().get("routes"));
+    }
+    
+    private void build(Object[]... routes) {
+        List<Object[]> activeRoutes = new ArrayList<>(List.of(routes));
+        when(flightRepository.findActiveRoutesFrom(any(LocalDateTime.class))).thenReturn(activeRoutes);
+        routeFilter.build();
+    }
+    
+    private static Object[] route(String from, String to) {
+        return new Object[] {from, to};
+    }
+}
@@ -0,0 +1,202 @@
+package com.flightapp.service.search;
+
+import com.flightapp.dto.ConnectingItineraryDTO;
+import com.flightapp.dto.FlightResponseDTO;
+import com.flightapp.dto.FlightSearchDTO;
+import com.flightapp.dto.FlightSortOrder;
+import com.flightapp.entity.Airline;
+import com.flightapp.entity.Flight;
+import com.flightapp.event.FlightAddedEvent;
+import com.flightapp.event.SeatAvailabilityChangedEvent;
+import com.flightapp.repository.FlightRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RouteGraphTest {
+    
+    @Mock
+    private FlightRepository flightRepository;
+    
+    private FlightSearchIndex flightSearchIndex;
+    private RouteGraph routeGraph;
+    
+    private Airline airline;
+    private LocalDate day;
+    
+    @BeforeEach
+    public void setUp() {
+        flightSearchIndex = new FlightSearchIndex(flightRepository);
+        routeGraph = new RouteGraph(flightSearchIndex);
+        routeGraph.register();
+        airline = Airline.builder().airlineId(1).airlineName("Air India").airlineCode("AI").build();
+        day = LocalDate.now().plusDays(3);
+    }
+    
+    @Test
+    void testSearch_ColdGraphDefersToDirectSearch() {
+        assertTrue(routeGraph.search(criteria("Delhi", "Goa").build(), 2, 10).isEmpty());
+        assertFalse(routeGraph.isWarm());
+    }
+    
+    @Test
+    void testSearch_FindsDirectAndConnectingItinerariesByEarliestArrival() {
+        build(flight(1, "AI101", "Delhi", "Goa", day.atTime(12, 0), 3, "9000"),
+            flight(2, "AI102", "Delhi", "Mumbai", day.atTime(6, 0), 2, "3000"),
+            flight(3, "AI103", "Mumbai", "Goa", day.atTime(9, 0), 1, "2000"),
+            flight(4, "AI104", "Delhi", "Chennai", day.atTime(7, 0), 2, "2500"),
+            flight(5, "AI105", "Chennai", "Bengaluru", day.atTime(10, 0), 1, "1000"),
+            flight(6, "AI106", "Bengaluru", "Goa", day.atTime(12, 0), 1, "1000"));
+        
+        List<ConnectingItineraryDTO> results = routeGraph.search(criteria("Delhi", "Goa").build(), 2, 10)
+            .orElseThrow();
+        
+        assertEquals(List.of("AI102+AI103", "AI104+AI105+AI106", "AI101"), routes(results));
+        assertEquals(1, results.get(0).getStops());
+        assertEquals(new BigDecimal("5000.00"), results.get(0).getTotalPricePerSeat());
+        assertEquals(240L, results.get(0).getTotalDurationMinutes());
+    }
+    
+    @Test
+    void testSearch_SortsByTotalPriceAndLimits() {
+        build(flight(1, "AI101", "Delhi", "Goa", day.atTime(12, 0), 3, "9000"),
+            flight(2, "AI102", "Delhi", "Mumbai", day.atTime(6, 0), 2, "3000"),
+            flight(3, "AI103", "Mumbai", "Goa", day.atTime(9, 0), 1, "2000"),
+            flight(4, "AI104", "Delhi", "Chennai", day.atTime(7, 0), 2, "2500"),
+            flight(5, "AI105", "Chennai", "Bengaluru", day.atTime(10, 0), 1, "1000"),
+            flight(6, "AI106", "Bengaluru", "Goa", day.atTime(12, 0), 1, "1000"));
+        
+        FlightSearchDTO cheapest = criteria("Delhi", "Goa").sortBy(FlightSortOrder.PRICE).build();
+        
+        assertEquals(List.of("AI104+AI105+AI106", "AI102+AI103"), routes(routeGraph.search(cheapest, 2, 2).orElseThrow()));
+        assertEquals(List.of("AI102+AI103", "AI101"), routes(routeGraph.search(cheapest, 1, 10).orElseThrow()));
+        assertEquals(List.of("AI101"), routes(routeGraph.search(cheapest, 0, 10).orElseThrow()));
+    }
+    
+    @Test
+    void testSearch_RespectsMinimumConnectionAndMaximumLayover() {
+        build(flight(1, "AI101", "Delhi", "Mumbai", day.atTime(6, 0), 2, "3000"),
+            flight(2, "AI102", "Mumbai", "Goa", day.atTime(8, 30), 1, "2000"),
+            flight(3, "AI103", "Mumbai", "Goa", day.atTime(8, 45), 1, "2100"),
+            flight(4, "AI104", "Mumbai", "Goa", day.atTime(21, 0), 1, "1500"));
+        
+        List<ConnectingItineraryDTO> results = routeGraph.search(criteria("Delhi", "Goa").build(), 1, 10)
+            .orElseThrow();
+        
+        assertEquals(List.of("AI101+AI103"), routes(results));
+    }
+    
+    @Test
+    void testSearch_AppliesSeatAirlineAndTotalPriceFilters() {
+        build(flight(1, "AI101", "Delhi", "Mumbai", day.atTime(6, 0), 2, "3000"),
+            flight(2, "AI102", "Mumbai", "Goa", day.atTime(9, 0), 1, "2000"),
+            flight(3, "AI103", "Mumbai", "Goa", day.atTime(10, 0), 1, "1000"));
+        flightSearchIndex.onSeatAvailabilityChanged(new SeatAvailabilityChangedEvent(3, -150, "Mumbai", "Goa", day));
+        
+        assertEquals(List.of("AI101+AI102"), routes(routeGraph.search(criteria("Delhi", "Goa").build(), 1, 10)
+            .orElseThrow()));
+        FlightSearchDTO capped = criteria("Delhi", "Goa").maxPrice(new BigDecimal("4999")).build();
+        assertTrue(routeGraph.search(capped, 1, 10).orElseThrow().isEmpty());
+        FlightSearchDTO otherAirline = criteria("Delhi", "Goa").airlineCode("6E").build();
+        assertTrue(routeGraph.search(otherAirline, 1, 10).orElseThrow().isEmpty());
+    }
+    
+    @Test
+    void testSearch_NeverRevisitsACity() {
+        build(flight(1, "AI101", "Delhi", "Mumbai", day.atTime(6, 0), 2, "3000"),
+            flight(2, "AI102", "Mumbai", "Delhi", day.atTime(9, 0), 2, "3000"),
+            flight(3, "AI103", "Delhi", "Goa", day.atTime(12, 0), 2, "3000"));
+        
+        List<ConnectingItineraryDTO> results = routeGraph.search(criteria("Delhi", "Goa").build(), 2, 10)
+            .orElseThrow();
+        
+        assertEquals(List.of("AI103"), routes(results));
+    }
+    
+    @Test
+    void testOnFlightAdded_ConnectsNewFlight() {
+        build(flight(1, "AI101", "Delhi", "Mumbai", day.atTime(6, 0), 2, "3000"));
+        assertTrue(routeGraph.search(criteria("Delhi", "Goa").build(), 1, 10).orElseThrow().isEmpty());
+        
+        Flight added = flight(2, "AI102", "mumbai", "GOA", day.atTime(9, 0), 1, "2000");
+        when(flightRepository.findWithAirline(2)).thenReturn(Optional.of(added));
+        flightSearchIndex.onFlightAdded(FlightAddedEvent.of(added));
+        
+        assertEquals(List.of("AI101+AI102"), routes(routeGraph.search(criteria("Delhi", "Goa").build(), 1, 10)
+            .orElseThrow()));
+    }
+    
+    @Test
+    void testIndexReload_DropsDeactivatedAndRetimedLegs() {
+        build(flight(1, "AI101", "Delhi", "Mumbai", day.atTime(6, 0), 2, "3000"),
+            flight(2, "AI102", "Mumbai", "Goa", day.atTime(9, 0), 1, "2000"),
+            flight(3, "AI103", "Mumbai", "Goa", day.atTime(10, 0), 1, "1000"));
+        Flight cancelled = flight(2, "AI102", "Mumbai", "Goa", day.atTime(9, 0), 1, "2000");
+        cancelled.setIsActive(false);
+        when(flightRepository.findChangedSince(any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(List.of(
+            cancelled,
+            flight(3, "AI103", "Mumbai", "Goa", day.atTime(23, 0), 1, "1000")));
+        
+        flightSearchIndex.reload();
+        
+        assertTrue(routeGraph.search(criteria("Delhi", "Goa").build(), 1, 10).orElseThrow().isEmpty());
+    }
+    
+    @Test
+    void testIndexEviction_DropsDepartedLegs() {
+        build(flight(1, "AI101", "Delhi", "Mumbai", day.atTime(6, 0), 2, "3000"),
+            flight(2, "AI102", "Mumbai", "Goa", day.atTime(9, 0), 1, "2000"));
+        
+        flightSearchIndex.evictBefore(day.plusDays(1));
+        
+        assertTrue(routeGraph.search(criteria("Delhi", "Goa").build(), 1, 10).orElseThrow().isEmpty());
+    }
+    
+    private void build(Flight... flights) {
+        when(flightRepository.findActiveDepartingFrom(any(LocalDateTime.class))).thenReturn(List.of(flights));
+        flightSearchIndex.build();
+    }
+    
+    private FlightSearchDTO.FlightSearchDTOBuilder criteria(String from, String to) {
+        return FlightSearchDTO.builder().departureCity(from).arrivalCity(to).departureDate(day);
+    }
+    
+    private static List<String> routes(List<ConnectingItineraryDTO> itineraries) {
+        List<String> routes = new ArrayList<>();
+        for (ConnectingItineraryDTO itinerary : itineraries) {
+            routes.add(itinerary.getLegs().stream().map(FlightResponseDTO::getFlightNumber)
+                .collect(Collectors.joining("+")));
+        }
+        return routes;
+    }
+    
+    private Flight flight(int id, String number, String from, String to, LocalDateTime departure, int hours,
+                          String price) {
+        return Flight.builder()
+            .flightId(id)
+            .flightNumber(number)
+            .airline(airline)
+            .departureCity(from)
+            .arrivalCity(to)
+            .departureTime(departure)
+            .arrivalTime(departure.plusHours(hours))
+            .totalSeats(180)
+            .availableSeats(150)
+            .pricePerSeat(new BigDecimal(price))
+            .isActive(true)
+            .build();
+    }
+}
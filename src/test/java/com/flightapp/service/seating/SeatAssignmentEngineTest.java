@@ -0,0 +1,81 @@
+package com.flightapp.service.seating;
+
+import com.flightapp.exception.BookingException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.util.Arrays;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeatAssignmentEngineTest {
+    
+    private SeatAssignmentEngine engine;
+    
+    @BeforeEach
+    public void setUp() {
+        engine = new SeatAssignmentEngine();
+    }
+    
+    @Test
+    void testAssign_ContiguousBlockInOneRow() {
+        SeatMap seatMap = new SeatMap(30, 0);
+        seatMap.book(Arrays.asList("1B", "1E", "2C"));
+        
+        //Row 1 has no run of 3, row 2 has D-F
+        List<String> seats = engine.assign(seatMap, 3, null);
+        
+        assertEquals(Arrays.asList("2D", "2E", "2F"), seats);
+    }
+    
+    @Test
+    void testAssign_RunDoesNotWrapIntoNextRow() {
+        SeatMap seatMap = new SeatMap(12, 0);
+        seatMap.book(Arrays.asList("1A", "1B", "1C", "1D", "2C", "2D", "2E", "2F"));
+        
+        //1E,1F,2A,2B are consecutive bits only if the row padding were ignored
+        List<String> seats = engine.assign(seatMap, 4, null);
+        
+        assertEquals(Arrays.asList("1E", "1F", "2A", "2B"), seats);
+        assertEquals(-1, engine.findBlockInRow(seatMap, 3, 0, 2));
+    }
+    
+    @Test
+    void testAssign_LargePartyUsesTightestBandOfRows() {
+        SeatMap seatMap = new SeatMap(60, 0);
+        //Rows 1-3 are half full, rows 5-6 are empty
+        seatMap.book(Arrays.asList("1A", "1C", "1E", "2A", "2C", "2E", "3A", "3C", "3E", "4A", "4B", "4C", "4D", "4E", "4F"));
+        
+        List<String> seats = engine.assign(seatMap, 8, null);
+        
+        assertEquals(8, seats.size());
+        assertEquals("5A", seats.get(0));
+        assertEquals("6B", seats.get(7));
+    }
+    
+    @Test
+    void testAssign_RespectsSeatClass() {
+        SeatMap seatMap = new SeatMap(120);
+        
+        assertEquals(Arrays.asList("1A", "1B"), engine.assign(seatMap, 2, SeatMap.BUSINESS));
+        assertEquals(Arrays.asList("3A", "3B"), engine.assign(seatMap, 2, SeatMap.ECONOMY));
+    }
+    
+    @Test
+    void testAssign_NotEnoughSeats() {
+        SeatMap seatMap = new SeatMap(120);
+        
+        assertThrows(BookingException.class, () -> engine.assign(seatMap, 13, SeatMap.BUSINESS));
+    }
+    
+    @Test
+    void testAssign_FiveHundredSeatMap() {
+        SeatMap seatMap = new SeatMap(500, 0);
+        for (int row = 1; row <= 80; row++) {
+            seatMap.book(Arrays.asList(row + "A", row + "C", row + "E"));
+        }
+        
+        List<String> seats = engine.assign(seatMap, 3, null);
+        
+        assertEquals(Arrays.asList("81A", "81B", "81C"), seats);
+    }
+}
@@ -0,0 +1,205 @@
+package com.flightapp.service.seating;
+
+import com.flightapp.entity.Flight;
+import com.flightapp.entity.FlightSeatMap;
+import com.flightapp.exception.BookingException;
+import com.flightapp.repository.FlightRepository;
+import com.flightapp.repository.FlightSeatMapRepository;
+import com.flightapp.repository.SeatRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SeatMapServiceTest {
+    
+    @Mock
+    private FlightSeatMapRepository seatMapRepository;
+    
+    @Mock
+    private FlightRepository flightRepository;
+    
+    @Mock
+    private SeatRepository seatRepository;
+    
+    @Spy
+    private SeatAssignmentEngine seatAssignmentEngine = new SeatAssignmentEngine();
+    
+    @InjectMocks
+    private SeatMapService seatMapService;
+    
+    private Flight testFlight;
+    
+    @BeforeEach
+    public void setUp() {
+        testFlight = Flight.builder()
+            .flightId(1)
+            .flightNumber("AI101")
+            .totalSeats(12)
+            .availableSeats(12)
+            .build();
+    }
+    
+    @Test
+    void testHoldSeats_PersistsBitmap() {
+        when(seatMapRepository.findForUpdate(1)).thenReturn(Optional.empty());
+        when(seatMapRepository.saveAndFlush(any(FlightSeatMap.class))).thenAnswer(invocation -> {
+            FlightSeatMap row = invocation.getArgument(0);
+            row.setVersion(1L);
+            return row;
+        });
+        
+        List<String> seats = seatMapService.holdSeats(testFlight, 2, null);
+        
+        assertEquals(Arrays.asList("1A", "1B"), seats);
+        ArgumentCaptor<FlightSeatMap> captor = ArgumentCaptor.forClass(FlightSeatMap.class);
+        verify(seatMapRepository).saveAndFlush(captor.capture());
+        SeatMap persisted = SeatMap.restore(12, 0, captor.getValue().getBookedSeats(), captor.getValue().getHeldSeats());
+        assertTrue(persisted.isHeld("1A"));
+        assertTrue(persisted.isHeld("1B"));
+    }
+    
+    @Test
+    void testHoldSeats_NotEnoughFreeSeats() {
+        when(seatMapRepository.findForUpdate(1)).thenReturn(Optional.empty());
+        
+        assertThrows(BookingException.class, () -> seatMapService.holdSeats(testFlight, 13, null));
+        verify(seatMapRepository, never()).saveAndFlush(any());
+    }
+    
+    @Test
+    void testAssignSeats_BooksPartyTogetherWithoutLockingRow() {
+        when(seatMapRepository.findById(1)).thenReturn(Optional.empty());
+        
+        List<String> seats = seatMapService.assignSeats(testFlight, 3, null);
+        
+        assertEquals(Arrays.asList("1A", "1B", "1C"), seats);
+        assertTrue(seatMapService.getSeatMap(1).isBooked("1C"));
+        verify(seatMapRepository, never()).findForUpdate(any());
+        verify(seatMapRepository, never()).saveAndFlush(any());
+    }
+    
+    @Test
+    void testAssignSeats_SkipsSeatsBookedOnlyInSeatRows() {
+        when(seatMapRepository.findById(1)).thenReturn(Optional.empty());
+        when(seatRepository.findBookedSeatNumbers(1)).thenReturn(Arrays.asList("1A", "1B"));
+        
+        List<String> seats = seatMapService.assignSeats(testFlight, 2, null);
+        
+        assertEquals(Arrays.asList("1C", "1D"), seats);
+    }
+    
+    @Test
+    void testAssignSeats_ReloadsWhenRowVersionMovedElsewhere() {
+        SeatMap full = new SeatMap(12);
+        full.book(full.findFree(12, null));
+        SeatMap released = new SeatMap(12);
+        released.book(released.findFree(10, null));
+        when(seatMapRepository.findById(1)).thenReturn(Optional.of(row(1L, full)), Optional.of(row(2L, released)));
+        assertThrows(BookingException.class, () -> seatMapService.assignSeats(testFlight, 2, null));
+        //Another instance releases two seats, bumping the row version this cache never saw
+        when(seatMapRepository.findVersion(1)).thenReturn(Optional.of(2L));
+        
+        List<String> seats = seatMapService.assignSeats(testFlight, 2, null);
+        
+        assertEquals(2, seats.size());
+        verify(seatMapRepository, never()).findForUpdate(any());
+    }
+    
+    @Test
+    void testAssignSeats_FailedAssignDropsCachedMapOnRollback() {
+        SeatMap full = new SeatMap(12);
+        full.book(full.findFree(12, null));
+        when(seatMapRepository.findById(1)).thenReturn(Optional.of(row(1L, full)));
+        when(seatMapRepository.findVersion(1)).thenReturn(Optional.of(1L));
+        when(flightRepository.findById(1)).thenReturn(Optional.of(testFlight));
+        seatMapService.getSeatMap(1);
+        
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            assertThrows(BookingException.class, () -> seatMapService.assignSeats(testFlight, 2, null));
+            TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        seatMapService.getSeatMap(1);
+        
+        verify(seatMapRepository, times(2)).findById(1);
+    }
+    
+    @Test
+    void testHoldSeats_RowKeepsOnlyItsOwnChange() {
+        when(seatMapRepository.findById(1)).thenReturn(Optional.empty());
+        when(seatMapRepository.findForUpdate(1)).thenReturn(Optional.empty());
+        when(seatMapRepository.saveAndFlush(any(FlightSeatMap.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        seatMapService.assignSeats(testFlight, 2, null);
+        
+        List<String> held = seatMapService.holdSeats(testFlight, 2, null);
+        
+        assertEquals(Arrays.asList("1C", "1D"), held);
+        ArgumentCaptor<FlightSeatMap> captor = ArgumentCaptor.forClass(FlightSeatMap.class);
+        verify(seatMapRepository).saveAndFlush(captor.capture());
+        SeatMap persisted = SeatMap.restore(12, 0, captor.getValue().getBookedSeats(), captor.getValue().getHeldSeats());
+        assertFalse(persisted.isBooked("1A"));
+        assertTrue(persisted.isHeld("1C"));
+        SeatMap cached = seatMapService.getSeatMap(1);
+        assertTrue(cached.isBooked("1A"));
+        assertTrue(cached.isHeld("1D"));
+    }
+    
+    @Test
+    void testGetSeatMap_ServedFromCacheAfterWrite() {
+        when(seatMapRepository.findForUpdate(1)).thenReturn(Optional.empty());
+        when(seatMapRepository.saveAndFlush(any(FlightSeatMap.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        seatMapService.bookSeats(testFlight, Arrays.asList("2A"));
+        
+        SeatMap seatMap = seatMapService.getSeatMap(1);
+        
+        assertTrue(seatMap.isBooked("2A"));
+        verify(seatMapRepository, never()).findById(any());
+        verify(flightRepository, never()).findById(any());
+    }
+    
+    @Test
+    void testGetSeatMap_MissingRowStartsEmpty() {
+        when(flightRepository.findById(1)).thenReturn(Optional.of(testFlight));
+        when(seatMapRepository.findById(1)).thenReturn(Optional.empty());
+        
+        SeatMap seatMap = seatMapService.getSeatMap(1);
+        
+        assertEquals(12, seatMap.freeCount(null));
+    }
+    
+    @Test
+    void testReleaseSeats_EmptyIsNoOp() {
+        seatMapService.releaseSeats(testFlight, List.of());
+        
+        verifyNoInteractions(seatMapRepository);
+    }
+    
+    private FlightSeatMap row(Long version, SeatMap seatMap) {
+        FlightSeatMap row = FlightSeatMap.builder()
+            .flightId(1)
+            .totalSeats(seatMap.getTotalSeats())
+            .businessRows(seatMap.getBusinessRows())
+            .bookedSeats(seatMap.bookedBytes())
+            .heldSeats(seatMap.heldBytes())
+            .build();
+        row.setVersion(version);
+        return row;
+    }
+}
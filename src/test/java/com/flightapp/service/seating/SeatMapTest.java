@@ -0,0 +1,123 @@
+package com.flightapp.service.seating;
+
+import com.flightapp.exception.ValidationException;
+import org.junit.jupiter.api.Test;
+import java.util.Arrays;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeatMapTest {
+    
+    @Test
+    void testNewSeatMap_SplitsCabins() {
+        SeatMap seatMap = new SeatMap(130);
+        
+        assertEquals(22, seatMap.getRowCount());
+        assertEquals(2, seatMap.getBusinessRows());
+        assertEquals(130, seatMap.freeCount(null));
+        assertEquals(12, seatMap.freeCount(SeatMap.BUSINESS));
+        assertEquals(118, seatMap.freeCount(SeatMap.ECONOMY));
+        assertEquals(SeatMap.BUSINESS, seatMap.seatClassOf("2F"));
+        assertEquals(SeatMap.ECONOMY, seatMap.seatClassOf("3A"));
+    }
+    
+    @Test
+    void testFindFree_FirstSeatsOfCabin() {
+        SeatMap seatMap = new SeatMap(130);
+        seatMap.hold(Arrays.asList("3A", "3B"));
+        seatMap.book(Arrays.asList("3C"));
+        
+        assertEquals(Arrays.asList("3D", "3E", "3F", "4A"), seatMap.findFree(4, SeatMap.ECONOMY));
+        assertEquals(Arrays.asList("1A", "1B"), seatMap.findFree(2, SeatMap.BUSINESS));
+    }
+    
+    @Test
+    void testFindFree_PartialLastRow() {
+        SeatMap seatMap = new SeatMap(10, 0);
+        
+        List<String> seats = seatMap.findFree(20, null);
+        
+        assertEquals(10, seats.size());
+        assertEquals("2D", seats.get(9));
+        assertThrows(ValidationException.class, () -> seatMap.isFree("2E"));
+    }
+    
+    @Test
+    void testHoldThenBook_MovesSeatToBooked() {
+        SeatMap seatMap = new SeatMap(12);
+        seatMap.hold(Arrays.asList("1A"));
+        
+        assertTrue(seatMap.isHeld("1A"));
+        assertThrows(ValidationException.class, () -> seatMap.hold(Arrays.asList("1A")));
+        
+        seatMap.book(Arrays.asList("1A"));
+        
+        assertFalse(seatMap.isHeld("1A"));
+        assertTrue(seatMap.isBooked("1A"));
+        assertThrows(ValidationException.class, () -> seatMap.book(Arrays.asList("1A")));
+    }
+    
+    @Test
+    void testRelease_FreesSeat() {
+        SeatMap seatMap = new SeatMap(12);
+        seatMap.book(Arrays.asList("2C"));
+        
+        seatMap.release(Arrays.asList("2C"));
+        
+        assertTrue(seatMap.isFree("2C"));
+    }
+    
+    @Test
+    void testCopy_IsIndependent() {
+        SeatMap seatMap = new SeatMap(12);
+        SeatMap copy = seatMap.copy();
+        
+        copy.book(Arrays.asList("1A"));
+        
+        assertTrue(seatMap.isFree("1A"));
+        assertTrue(copy.isBooked("1A"));
+    }
+    
+    @Test
+    void testRestore_RoundTripsBits() {
+        SeatMap seatMap = new SeatMap(300);
+        seatMap.book(Arrays.asList("1A", "50F"));
+        seatMap.hold(Arrays.asList("12C"));
+        
+        SeatMap restored = SeatMap.restore(300, seatMap.getBusinessRows(), seatMap.bookedBytes(), seatMap.heldBytes());
+        
+        assertTrue(restored.isBooked("1A"));
+        assertTrue(restored.isBooked("50F"));
+        assertTrue(restored.isHeld("12C"));
+        assertEquals(297, restored.freeCount(null));
+    }
+    
+    @Test
+    void testDiff_ReplaysOnAnotherCopy() {
+        SeatMap before = new SeatMap(12);
+        before.hold(Arrays.asList("1B"));
+        SeatMap after = before.copy();
+        after.book(Arrays.asList("1B", "2A"));
+        after.hold(Arrays.asList("2C"));
+        SeatMap other = before.copy();
+        other.book(Arrays.asList("1F"));
+        
+        other.apply(after.diff(before));
+        
+        assertTrue(other.isBooked("1B"));
+        assertFalse(other.isHeld("1B"));
+        assertTrue(other.isBooked("2A"));
+        assertTrue(other.isHeld("2C"));
+        assertTrue(other.isBooked("1F"));
+    }
+    
+    @Test
+    void testInvalidSeatNumbersAndClass() {
+        SeatMap seatMap = new SeatMap(12);
+        
+        assertThrows(ValidationException.class, () -> seatMap.isFree("1G"));
+        assertThrows(ValidationException.class, () -> seatMap.isFree("3A"));
+        assertThrows(ValidationException.class, () -> seatMap.isFree("XA"));
+        assertThrows(ValidationException.class, () -> seatMap.findFree(1, "FIRST"));
+    }
+}
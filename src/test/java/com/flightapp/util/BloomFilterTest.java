@@ -0,0 +1,52 @@
+package com.flightapp.util;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTest {
+    
+    @Test
+    void testMightContain_NeverMissesAddedValues() {
+        BloomFilter filter = BloomFilter.create(1000, 0.01);
+        for (int i = 0; i < 1000; i++) {
+            filter.put("city-" + i);
+        }
+        
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(filter.mightContain("city-" + i));
+        }
+    }
+    
+    @Test
+    void testMightContain_FalsePositivesStayNearTarget() {
+        BloomFilter filter = BloomFilter.create(1000, 0.01);
+        for (int i = 0; i < 1000; i++) {
+            filter.put("city-" + i);
+        }
+        
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("other-" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 2000, "False positives: " + falsePositives);
+        assertEquals(0.01, filter.falsePositiveRate(), 0.01);
+    }
+    
+    @Test
+    void testFalsePositiveRate_EmptyFilterRulesOutEverything() {
+        BloomFilter filter = BloomFilter.create(100, 0.01);
+        
+        assertFalse(filter.mightContain("delhi\nmumbai"));
+        assertEquals(0.0, filter.falsePositiveRate());
+        assertTrue(filter.hashFunctions() > 1);
+        assertEquals(0, filter.bitCount() % Long.SIZE);
+    }
+    
+    @Test
+    void testCreate_RejectsImpossibleRate() {
+        assertThrows(IllegalArgumentException.class, () -> BloomFilter.create(100, 0));
+        assertThrows(IllegalArgumentException.class, () -> BloomFilter.create(100, 1));
+    }
+}
@@ -0,0 +1,85 @@
+package com.flightapp.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashedWheelTimerTest {
+    
+    private HashedWheelTimer timer;
+    
+    @BeforeEach
+    public void setUp() {
+        timer = new HashedWheelTimer("test-wheel", 10, TimeUnit.MILLISECONDS, 8, Runnable::run);
+    }
+    
+    @AfterEach
+    public void tearDown() {
+        timer.stop();
+    }
+    
+    @Test
+    void testSchedule_FiresAfterDelay() throws InterruptedException {
+        CountDownLatch fired = new CountDownLatch(1);
+        long start = System.nanoTime();
+        AtomicLong elapsedMillis = new AtomicLong();
+        
+        timer.schedule(() -> {
+            elapsedMillis.set(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            fired.countDown();
+        }, 50, TimeUnit.MILLISECONDS);
+        
+        assertTrue(fired.await(2, TimeUnit.SECONDS));
+        assertTrue(elapsedMillis.get() >= 50);
+    }
+    
+    @Test
+    void testSchedule_DelayLongerThanOneRotation() throws InterruptedException {
+        //8 buckets of 10ms is an 80ms rotation, so this timeout has to wait several rounds
+        CountDownLatch fired = new CountDownLatch(1);
+        long start = System.nanoTime();
+        AtomicLong elapsedMillis = new AtomicLong();
+        
+        timer.schedule(() -> {
+            elapsedMillis.set(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            fired.countDown();
+        }, 250, TimeUnit.MILLISECONDS);
+        
+        assertTrue(fired.await(2, TimeUnit.SECONDS));
+        assertTrue(elapsedMillis.get() >= 250);
+    }
+    
+    @Test
+    void testCancel_PreventsExecution() throws InterruptedException {
+        AtomicBoolean fired = new AtomicBoolean();
+        HashedWheelTimer.Timeout timeout = timer.schedule(() -> fired.set(true), 30, TimeUnit.MILLISECONDS);
+        
+        assertTrue(timeout.cancel());
+        Thread.sleep(100);
+        
+        assertFalse(fired.get());
+        assertTrue(timeout.isCancelled());
+        assertEquals(0, timer.pendingTimeouts());
+    }
+    
+    @Test
+    void testCancel_AfterExpiryReturnsFalse() throws InterruptedException {
+        CountDownLatch fired = new CountDownLatch(1);
+        HashedWheelTimer.Timeout timeout = timer.schedule(fired::countDown, 0, TimeUnit.MILLISECONDS);
+        
+        assertTrue(fired.await(1, TimeUnit.SECONDS));
+        assertTrue(timeout.isExpired());
+        assertFalse(timeout.cancel());
+    }
+    
+    @Test
+    void testConstructor_RejectsNonPowerOfTwoWheel() {
+        assertThrows(IllegalArgumentException.class,
+            () -> new HashedWheelTimer("bad", 10, TimeUnit.MILLISECONDS, 10, Runnable::run));
+    }
+}
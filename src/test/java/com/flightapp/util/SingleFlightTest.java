@@ -0,0 +1,107 @@
+package com.flightapp.util;
+
+import org.junit.jupiter.api.Test;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+    
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+    
+    @Test
+    void testExecute_ConcurrentCallersShareOneExecution() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger executions = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            Future<String> leader = pool.submit(() -> singleFlight.execute("route", () -> {
+                executions.incrementAndGet();
+                started.countDown();
+                await(release);
+                return "flights";
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            List<Future<String>> followers = List.of(
+                pool.submit(() -> singleFlight.execute("route", () -> "other")),
+                pool.submit(() -> singleFlight.execute("route", () -> "other")));
+            waitForJoined(2);
+            release.countDown();
+            
+            assertEquals("flights", leader.get(5, TimeUnit.SECONDS));
+            for (Future<String> follower : followers) {
+                assertEquals("flights", follower.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, executions.get());
+            assertEquals(0, singleFlight.snapshot().get("inFlight"));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+    
+    @Test
+    void testExecute_FollowersGetTheLeadersException() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> leader = pool.submit(() -> singleFlight.execute("route", () -> {
+                started.countDown();
+                await(release);
+                throw new IllegalStateException("database down");
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<Throwable> follower = pool.submit(() -> assertThrows(IllegalStateException.class,
+                () -> singleFlight.execute("route", () -> "other")));
+            waitForJoined(1);
+            release.countDown();
+            
+            assertEquals("database down", follower.get(5, TimeUnit.SECONDS).getMessage());
+            assertThrows(Exception.class, () -> leader.get(5, TimeUnit.SECONDS));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+    
+    @Test
+    void testExecute_NothingIsKeptAfterCompletion() {
+        assertEquals("first", singleFlight.execute("route", () -> "first"));
+        assertEquals("second", singleFlight.execute("route", () -> "second"));
+        assertEquals(2L, singleFlight.snapshot().get("executions"));
+    }
+    
+    @Test
+    void testDetach_LaterCallersStartFreshExecution() {
+        String result = singleFlight.execute("route", () -> {
+            assertEquals(1, singleFlight.detach(key -> key.equals("route")));
+            //With the running call detached the same key executes again
+            return singleFlight.execute("route", () -> "fresh") + "+stale";
+        });
+        
+        assertEquals("fresh+stale", result);
+        assertEquals(2L, singleFlight.snapshot().get("executions"));
+        assertEquals(0L, singleFlight.snapshot().get("joined"));
+    }
+    
+    private void waitForJoined(long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while ((Long) singleFlight.snapshot().get("joined") < expected) {
+            assertTrue(System.nanoTime() < deadline, "Callers did not join the running execution");
+            Thread.sleep(5);
+        }
+    }
+    
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
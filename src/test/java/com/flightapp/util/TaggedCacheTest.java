@@ -0,0 +1,97 @@
+package com.flightapp.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaggedCacheTest {
+    
+    private long now;
+    private TaggedCache<String, String> cache;
+    
+    @BeforeEach
+    public void setUp() {
+        now = 0;
+        cache = new TaggedCache<>(100, 10, TimeUnit.SECONDS, (key, value) -> value.length()) {
+            @Override
+            protected long nanoTime() {
+                return now;
+            }
+        };
+    }
+    
+    @Test
+    void testGet_HitAndMissAreCounted() {
+        cache.put("a", "value", List.of(1), cache.loadTicket());
+        
+        assertEquals("value", cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals(1L, cache.snapshot().get("hits"));
+        assertEquals(1L, cache.snapshot().get("misses"));
+    }
+    
+    @Test
+    void testGet_ExpiresAfterTtl() {
+        cache.put("a", "value", List.of(1), cache.loadTicket());
+        now = TimeUnit.SECONDS.toNanos(10);
+        
+        assertNull(cache.get("a"));
+        assertEquals(1L, cache.snapshot().get("expirations"));
+        assertEquals(0L, cache.snapshot().get("bytes"));
+    }
+    
+    @Test
+    void testPut_EvictsLeastRecentlyUsedOverByteBudget() {
+        cache.put("a", "x".repeat(40), List.of(), cache.loadTicket());
+        cache.put("b", "x".repeat(40), List.of(), cache.loadTicket());
+        cache.get("a");
+        cache.put("c", "x".repeat(40), List.of(), cache.loadTicket());
+        
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+        assertEquals(1L, cache.snapshot().get("evictions"));
+        assertEquals(80L, cache.snapshot().get("bytes"));
+    }
+    
+    @Test
+    void testPut_RejectsValueLargerThanCache() {
+        assertFalse(cache.put("a", "x".repeat(101), List.of(), cache.loadTicket()));
+        assertNull(cache.get("a"));
+    }
+    
+    @Test
+    void testInvalidateTag_DropsOnlyTaggedEntries() {
+        cache.put("delhi-mumbai", "AI101,AI102", List.of(101, 102), cache.loadTicket());
+        cache.put("delhi-goa", "AI103", List.of(103), cache.loadTicket());
+        
+        assertEquals(1, cache.invalidateTag(102));
+        
+        assertNull(cache.get("delhi-mumbai"));
+        assertEquals("AI103", cache.get("delhi-goa"));
+        assertEquals(0, cache.invalidateTag(102));
+    }
+    
+    @Test
+    void testPut_RefusesValueLoadedBeforeInvalidation() {
+        long ticket = cache.loadTicket();
+        cache.invalidateTag(101);
+        
+        assertFalse(cache.put("delhi-mumbai", "AI101", List.of(101), ticket));
+        assertTrue(cache.put("delhi-mumbai", "AI101", List.of(101), cache.loadTicket()));
+        assertEquals(1L, cache.snapshot().get("staleRejections"));
+    }
+    
+    @Test
+    void testPurgeExpired_RemovesOnlyExpiredEntries() {
+        cache.put("a", "old", List.of(1), cache.loadTicket());
+        now = TimeUnit.SECONDS.toNanos(5);
+        cache.put("b", "new", List.of(1), cache.loadTicket());
+        now = TimeUnit.SECONDS.toNanos(12);
+        
+        assertEquals(1, cache.purgeExpired());
+        assertEquals(1, cache.invalidateTag(1));
+    }
+}